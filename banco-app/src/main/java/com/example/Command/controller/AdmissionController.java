@@ -0,0 +1,419 @@
+package com.example.Command.controller;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import com.example.Command.model.Command;
+import com.example.Command.model.CommandPriority;
+import com.example.Command.model.CommandResult;
+import com.example.Observer.model.ConcreteSubject;
+
+// Cola acotada delante del invocador: una deque por prioridad y un número de llegada global, así los
+// trabajadores despachan en orden de llegada y la política SHED puede sacar el último de la prioridad más baja.
+// El despacho es en orden de llegada, pero con varios trabajadores dos comandos de una misma cuenta pueden
+// ejecutarse en paralelo o en otro orden; con un solo trabajador (el valor por omisión) se conserva el orden
+public class AdmissionController implements AutoCloseable {
+    private static final CommandPriority[] PRIORITIES = CommandPriority.values();
+
+    private final TransactionInvoker invoker;
+    private final int capacity;
+    private final OverloadPolicy policy;
+    private final long blockTimeoutNanos;
+    private final double tokensPerSecond;
+    private final int burst;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, TokenBucket> buckets;
+    private final ReentrantLock lock;
+    private final Condition notEmpty;
+    private final Condition notFull;
+    private final List<ArrayDeque<Pending>> queues;
+    private final List<Thread> workers;
+    private final AtomicLong rateLimitedCount;
+    private volatile boolean running;
+
+    private long nextArrival;
+    private int size;
+    private int maxDepth;
+    private long admittedCount;
+    private long rejectedCount;
+    private long timedOutCount;
+    private long shedCount;
+    private long dispatchedCount;
+    private long totalWaitNanos;
+    private long maxWaitNanos;
+
+
+    public AdmissionController(TransactionInvoker invoker, int capacity, OverloadPolicy policy) {
+        this(invoker, capacity, policy, 0, TimeUnit.MILLISECONDS, 0, 1, 1, System::nanoTime);
+    }
+
+    // tokensPerSecond <= 0 desactiva el límite por cuenta
+    public AdmissionController(TransactionInvoker invoker, int capacity, OverloadPolicy policy,
+                               long blockTimeout, TimeUnit unit, double tokensPerSecond, int burst,
+                               int workerCount, LongSupplier clock) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("La capacidad de la cola debe ser mayor a cero: " + capacity);
+        }
+        if (workerCount <= 0) {
+            throw new IllegalArgumentException("Debe haber al menos un trabajador: " + workerCount);
+        }
+        this.invoker = invoker;
+        this.capacity = capacity;
+        this.policy = policy;
+        this.blockTimeoutNanos = unit.toNanos(blockTimeout);
+        this.tokensPerSecond = tokensPerSecond;
+        this.burst = burst;
+        this.clock = clock;
+        this.buckets = new ConcurrentHashMap<>();
+        this.lock = new ReentrantLock();
+        this.notEmpty = lock.newCondition();
+        this.notFull = lock.newCondition();
+        this.queues = new ArrayList<>(PRIORITIES.length);
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            queues.add(new ArrayDeque<>());
+        }
+        this.workers = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::drain, "admision-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+        }
+        this.rateLimitedCount = new AtomicLong();
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (Thread worker : workers) {
+            worker.start();
+        }
+    }
+
+    public CompletableFuture<CommandResult> submit(Command command) {
+        return submit(command, command.getPriority());
+    }
+
+    // Un comando no admitido no lanza excepción: su futuro se completa con un resultado fallido
+    public CompletableFuture<CommandResult> submit(Command command, CommandPriority priority) {
+        if (!running) {
+            throw new IllegalStateException("El control de admisión no está en ejecución");
+        }
+        if (!acquireTokens(command)) {
+            rateLimitedCount.incrementAndGet();
+            return rejected(command, "Comando rechazado: límite de tasa excedido para la cuenta");
+        }
+
+        // Desde aquí todo rechazo devuelve los tokens: el comando no llegó a ejecutarse
+        Pending pending = new Pending(command, priority);
+        Pending victim = null;
+        lock.lock();
+        try {
+            if (!running) {
+                releaseTokens(command);
+                throw new IllegalStateException("El control de admisión no está en ejecución");
+            }
+            if (size == capacity) {
+                switch (policy) {
+                    case REJECT:
+                        rejectedCount++;
+                        releaseTokens(command);
+                        return rejected(command, "Comando rechazado: cola de admisión llena");
+                    case BLOCK_WITH_TIMEOUT:
+                        long remaining = blockTimeoutNanos;
+                        while (size == capacity) {
+                            if (remaining <= 0) {
+                                timedOutCount++;
+                                releaseTokens(command);
+                                return rejected(command, "Comando rechazado: tiempo de espera agotado en la cola de admisión");
+                            }
+                            try {
+                                remaining = notFull.awaitNanos(remaining);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                timedOutCount++;
+                                releaseTokens(command);
+                                return rejected(command, "Comando rechazado: espera interrumpida");
+                            }
+                            // close despierta a los que esperan: tras cerrar ya no quedan trabajadores que lo ejecuten
+                            if (!running) {
+                                rejectedCount++;
+                                releaseTokens(command);
+                                return rejected(command, "Comando rechazado: el control de admisión se cerró");
+                            }
+                        }
+                        break;
+                    case SHED_LOWEST_PRIORITY:
+                        int lowest = lowestQueuedPriority();
+                        if (lowest >= priority.ordinal()) {
+                            rejectedCount++;
+                            releaseTokens(command);
+                            return rejected(command, "Comando rechazado: cola llena con comandos de igual o mayor prioridad");
+                        }
+                        victim = queues.get(lowest).pollLast();
+                        size--;
+                        shedCount++;
+                        break;
+                    default:
+                        throw new IllegalStateException("Política desconocida: " + policy);
+                }
+            }
+            pending.arrival = nextArrival++;
+            pending.enqueuedAt = clock.getAsLong();
+            queues.get(priority.ordinal()).addLast(pending);
+            size++;
+            admittedCount++;
+            maxDepth = Math.max(maxDepth, size);
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        // Se completa fuera del cerrojo para que las continuaciones del descartado no corran con la cola tomada
+        if (victim != null) {
+            releaseTokens(victim.command);
+            victim.result.complete(CommandResult.failure(victim.command, "Comando descartado por sobrecarga"));
+        }
+        return pending.result;
+    }
+
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getMaxQueueDepth() {
+        lock.lock();
+        try {
+            return maxDepth;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getAdmittedCount() {
+        lock.lock();
+        try {
+            return admittedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRejectedCount() {
+        lock.lock();
+        try {
+            return rejectedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getTimedOutCount() {
+        lock.lock();
+        try {
+            return timedOutCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getShedCount() {
+        lock.lock();
+        try {
+            return shedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRateLimitedCount() {
+        return rateLimitedCount.get();
+    }
+
+    public long getDispatchedCount() {
+        lock.lock();
+        try {
+            return dispatchedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double getAverageWaitNanos() {
+        lock.lock();
+        try {
+            return dispatchedCount == 0 ? 0 : (double) totalWaitNanos / dispatchedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getMaxWaitNanos() {
+        lock.lock();
+        try {
+            return maxWaitNanos;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public OverloadPolicy getPolicy() {
+        return policy;
+    }
+
+    // Deja de admitir, despacha lo que ya estaba en cola y espera a los trabajadores. Lo que aún quede en cola
+    // (trabajadores nunca iniciados o espera interrumpida) se completa como fallido para no dejar futuros colgados
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            running = false;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        List<Pending> leftover = new ArrayList<>();
+        lock.lock();
+        try {
+            for (ArrayDeque<Pending> queue : queues) {
+                leftover.addAll(queue);
+                queue.clear();
+            }
+            size = 0;
+        } finally {
+            lock.unlock();
+        }
+        for (Pending pending : leftover) {
+            releaseTokens(pending.command);
+            pending.result.complete(CommandResult.failure(pending.command, "Comando descartado: el control de admisión se cerró"));
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            Pending next;
+            lock.lock();
+            try {
+                while (size == 0) {
+                    if (!running) {
+                        return;
+                    }
+                    notEmpty.awaitUninterruptibly();
+                }
+                next = pollOldest();
+                size--;
+                long waited = clock.getAsLong() - next.enqueuedAt;
+                dispatchedCount++;
+                totalWaitNanos += waited;
+                maxWaitNanos = Math.max(maxWaitNanos, waited);
+                notFull.signal();
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                next.result.complete(invoker.executeCommand(next.command));
+            } catch (RuntimeException e) {
+                next.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private Pending pollOldest() {
+        ArrayDeque<Pending> oldest = null;
+        for (ArrayDeque<Pending> queue : queues) {
+            Pending head = queue.peekFirst();
+            if (head != null && (oldest == null || head.arrival < oldest.peekFirst().arrival)) {
+                oldest = queue;
+            }
+        }
+        return oldest.pollFirst();
+    }
+
+    private int lowestQueuedPriority() {
+        for (int i = 0; i < queues.size(); i++) {
+            if (!queues.get(i).isEmpty()) {
+                return i;
+            }
+        }
+        return PRIORITIES.length;
+    }
+
+    // Una transferencia consume un token de cada cuenta; si alguna no tiene se devuelven los ya tomados
+    private boolean acquireTokens(Command command) {
+        if (tokensPerSecond <= 0) {
+            return true;
+        }
+        long now = clock.getAsLong();
+        List<ConcreteSubject> accounts = command.getAffectedAccounts();
+        for (int i = 0; i < accounts.size(); i++) {
+            if (!bucketFor(accounts.get(i), now).tryAcquire(now)) {
+                for (int j = 0; j < i; j++) {
+                    bucketFor(accounts.get(j), now).release();
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void releaseTokens(Command command) {
+        if (tokensPerSecond <= 0) {
+            return;
+        }
+        long now = clock.getAsLong();
+        for (ConcreteSubject account : command.getAffectedAccounts()) {
+            bucketFor(account, now).release();
+        }
+    }
+
+    private TokenBucket bucketFor(ConcreteSubject account, long now) {
+        return buckets.computeIfAbsent(account.getAccountNumber(), number -> new TokenBucket(burst, tokensPerSecond, now));
+    }
+
+    private static CompletableFuture<CommandResult> rejected(Command command, String message) {
+        return CompletableFuture.completedFuture(CommandResult.failure(command, message));
+    }
+
+    private static final class Pending {
+        final Command command;
+        final CommandPriority priority;
+        final CompletableFuture<CommandResult> result;
+        long arrival;
+        long enqueuedAt;
+
+        Pending(Command command, CommandPriority priority) {
+            this.command = command;
+            this.priority = priority;
+            this.result = new CompletableFuture<>();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.Command.controller;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.example.Command.model.Command;
+import com.example.Command.model.CommandResult;
+import com.example.Observer.model.ConcreteSubject;
+
+public class AsyncCommandExecutor implements AutoCloseable {
+    private final TransactionInvoker invoker;
+    private final ExecutorService executor;
+    // Último comando encolado por cuenta; el siguiente comando de esa cuenta espera a que termine
+    private final Map<String, CompletableFuture<Void>> tails;
+
+
+    public AsyncCommandExecutor(TransactionInvoker invoker) {
+        this(invoker, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    public AsyncCommandExecutor(TransactionInvoker invoker, ExecutorService executor) {
+        this.invoker = invoker;
+        this.executor = executor;
+        this.tails = new HashMap<>();
+    }
+
+    public CompletableFuture<CommandResult> submit(Command command) {
+        List<ConcreteSubject> accounts = command.getAffectedAccounts();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        List<CompletableFuture<Void>> predecessors = new ArrayList<>(accounts.size());
+
+        synchronized (tails) {
+            for (ConcreteSubject account : accounts) {
+                CompletableFuture<Void> previous = tails.put(account.getAccountNumber(), done);
+                if (previous != null && previous != done) {
+                    predecessors.add(previous);
+                }
+            }
+        }
+
+        CompletableFuture<Void> ready = predecessors.isEmpty()
+                ? CompletableFuture.completedFuture(null)
+                : CompletableFuture.allOf(predecessors.toArray(new CompletableFuture<?>[0]));
+
+        CompletableFuture<CommandResult> result = ready.thenApplyAsync(ignored -> invoker.executeCommand(command), executor);
+        result.whenComplete((commandResult, error) -> {
+            synchronized (tails) {
+                for (ConcreteSubject account : accounts) {
+                    tails.remove(account.getAccountNumber(), done);
+                }
+            }
+            done.complete(null);
+        });
+        return result;
+    }
+
+    public int getPendingAccounts() {
+        synchronized (tails) {
+            return tails.size();
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.Command.controller;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.example.Command.model.CommandEvent;
+import com.example.Command.model.EventSink;
+
+// Los productores solo reservan una posición con CAS y publican la referencia; el texto se arma y se escribe
+// en el hilo del escritor. Con el anillo lleno el evento se descarta en lugar de bloquear la ruta de comandos
+public class AsyncFileEventSink implements EventSink, AutoCloseable {
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    private final AtomicReferenceArray<CommandEvent> slots;
+    private final int mask;
+    private final AtomicLong claimCursor;
+    private final AtomicLong consumedCursor;
+    private final AtomicLong droppedCount;
+    private final AtomicLong writtenCount;
+    private final BufferedWriter writer;
+    private final Thread writerThread;
+    private volatile boolean running;
+    private volatile IOException failure;
+
+
+    public AsyncFileEventSink(Path file) throws IOException {
+        this(file, DEFAULT_CAPACITY);
+    }
+
+    public AsyncFileEventSink(Path file, int capacity) throws IOException {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("La capacidad del anillo debe ser potencia de dos: " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.claimCursor = new AtomicLong();
+        this.consumedCursor = new AtomicLong();
+        this.droppedCount = new AtomicLong();
+        this.writtenCount = new AtomicLong();
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.running = true;
+        this.writerThread = new Thread(this::drain, "command-event-sink");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return running;
+    }
+
+    @Override
+    public void accept(CommandEvent event) {
+        if (!running) {
+            droppedCount.incrementAndGet();
+            return;
+        }
+        long sequence;
+        do {
+            sequence = claimCursor.get();
+            if (sequence - consumedCursor.get() >= slots.length()) {
+                droppedCount.incrementAndGet();
+                return;
+            }
+        } while (!claimCursor.compareAndSet(sequence, sequence + 1));
+        slots.set((int) sequence & mask, event);
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    public IOException getFailure() {
+        return failure;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo cerrar el archivo de eventos", e);
+        }
+    }
+
+    private void drain() {
+        long next = 0;
+        int attempt = 0;
+        boolean unflushed = false;
+        while (true) {
+            int index = (int) next & mask;
+            CommandEvent event = slots.get(index);
+            if (event != null) {
+                slots.set(index, null);
+                consumedCursor.set(++next);
+                write(event);
+                unflushed = true;
+                attempt = 0;
+                continue;
+            }
+            // Una posición reservada pero aún sin publicar no cuenta como anillo vacío
+            if (next == claimCursor.get()) {
+                if (unflushed) {
+                    flush();
+                    unflushed = false;
+                }
+                if (!running) {
+                    return;
+                }
+            }
+            WaitStrategy.PARK.idle(attempt++);
+        }
+    }
+
+    private void write(CommandEvent event) {
+        if (failure != null) {
+            droppedCount.incrementAndGet();
+            return;
+        }
+        try {
+            writer.write(Instant.ofEpochMilli(event.getTimestamp()).toString());
+            writer.write(' ');
+            writer.write(event.getType().name());
+            writer.write(' ');
+            writer.write(event.getMessage().strip());
+            writer.newLine();
+            writtenCount.incrementAndGet();
+        } catch (IOException e) {
+            failure = e;
+            droppedCount.incrementAndGet();
+        }
+    }
+
+    private void flush() {
+        if (failure != null) {
+            return;
+        }
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+}
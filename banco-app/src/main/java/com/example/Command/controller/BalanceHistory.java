@@ -0,0 +1,209 @@
+package com.example.Command.controller;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import com.example.Command.model.Command;
+import com.example.Observer.model.ConcreteSubject;
+import com.example.Observer.model.Money;
+
+// Registro de saldos para consultas históricas. Cada operación del invocador (ejecutar, deshacer, rehacer)
+// recibe un número de secuencia y guarda el saldo resultante de sus cuentas. Cada K operaciones se copia
+// el último saldo de todas las cuentas en un punto de control con su propio tramo de operaciones, así una
+// consulta parte del punto anterior y recorre a lo sumo K registros
+public class BalanceHistory {
+    public static final int DEFAULT_MAX_CHECKPOINTS = 1_000;
+
+    private final int checkpointEvery;
+    private final int maxCheckpoints;
+    private final LongSupplier clock;
+    private final List<Checkpoint> checkpoints;
+    private final Map<String, Long> latest;
+    private final Map<String, Long> opening;
+    private final Map<String, String> currencies;
+    private long lastSequence;
+    private long lastTimestamp;
+    private long droppedCheckpoints;
+
+
+    public BalanceHistory(int checkpointEvery) {
+        this(checkpointEvery, DEFAULT_MAX_CHECKPOINTS, System::currentTimeMillis);
+    }
+
+    public BalanceHistory(int checkpointEvery, int maxCheckpoints, LongSupplier clock) {
+        if (checkpointEvery <= 0) {
+            throw new IllegalArgumentException("La frecuencia de puntos de control debe ser mayor a cero: " + checkpointEvery);
+        }
+        if (maxCheckpoints <= 0) {
+            throw new IllegalArgumentException("Debe retenerse al menos un punto de control: " + maxCheckpoints);
+        }
+        this.checkpointEvery = checkpointEvery;
+        this.maxCheckpoints = maxCheckpoints;
+        this.clock = clock;
+        this.checkpoints = new ArrayList<>();
+        this.latest = new HashMap<>();
+        this.opening = new HashMap<>();
+        this.currencies = new HashMap<>();
+        this.lastTimestamp = clock.getAsLong();
+        checkpoints.add(new Checkpoint(0, lastTimestamp, new HashMap<>(), checkpointEvery));
+    }
+
+    // Saldos actuales de las cuentas del comando, en el mismo orden que getAffectedAccounts()
+    public static long[] capture(Command command) {
+        List<ConcreteSubject> accounts = command.getAffectedAccounts();
+        long[] balances = new long[accounts.size()];
+        for (int i = 0; i < balances.length; i++) {
+            balances[i] = accounts.get(i).getBalanceMinor();
+        }
+        return balances;
+    }
+
+    public synchronized long record(Command command, long[] before, long[] after) {
+        List<ConcreteSubject> accounts = command.getAffectedAccounts();
+        String[] numbers = new String[accounts.size()];
+        for (int i = 0; i < numbers.length; i++) {
+            ConcreteSubject account = accounts.get(i);
+            numbers[i] = account.getAccountNumber();
+            if (opening.putIfAbsent(numbers[i], before[i]) == null) {
+                currencies.put(numbers[i], account.getCurrency());
+            }
+            latest.put(numbers[i], after[i]);
+        }
+        // El reloj de pared puede retroceder; las búsquedas por tiempo necesitan marcas no decrecientes
+        lastTimestamp = Math.max(lastTimestamp, clock.getAsLong());
+        lastSequence++;
+
+        Checkpoint current = checkpoints.get(checkpoints.size() - 1);
+        current.entries.add(new Entry(lastTimestamp, numbers, after));
+        if (current.entries.size() == checkpointEvery) {
+            checkpoints.add(new Checkpoint(lastSequence, lastTimestamp, new HashMap<>(latest), checkpointEvery));
+            if (checkpoints.size() > maxCheckpoints) {
+                checkpoints.remove(0);
+                droppedCheckpoints++;
+            }
+        }
+        return lastSequence;
+    }
+
+    // Saldo de la cuenta tras la operación número sequence (0 = antes de la primera operación registrada)
+    public synchronized Money getBalanceAfter(String accountNumber, long sequence) {
+        String currency = currencies.get(accountNumber);
+        if (currency == null) {
+            throw new IllegalArgumentException("La cuenta " + accountNumber + " no tiene operaciones registradas");
+        }
+        if (sequence < getOldestSequence() || sequence > lastSequence) {
+            throw new IllegalArgumentException("Secuencia fuera del rango retenido [" + getOldestSequence()
+                    + ", " + lastSequence + "]: " + sequence);
+        }
+
+        Checkpoint checkpoint = checkpoints.get(checkpointIndexFor(sequence));
+        Long balance = checkpoint.balances.get(accountNumber);
+        int last = (int) (sequence - checkpoint.sequence);
+        for (int i = 0; i < last; i++) {
+            Long found = checkpoint.entries.get(i).balanceOf(accountNumber);
+            if (found != null) {
+                balance = found;
+            }
+        }
+        // Antes de su primera operación la cuenta conserva el saldo que tenía entonces
+        return Money.ofMinor(balance != null ? balance : opening.get(accountNumber), currency);
+    }
+
+    // Saldo de la cuenta tras la última operación registrada hasta el instante indicado (milisegundos)
+    public synchronized Money getBalanceAt(String accountNumber, long timestamp) {
+        return getBalanceAfter(accountNumber, getSequenceAt(timestamp));
+    }
+
+    public synchronized long getSequenceAt(long timestamp) {
+        int index = -1;
+        int low = 0;
+        int high = checkpoints.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (checkpoints.get(mid).timestamp <= timestamp) {
+                index = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (index < 0) {
+            throw new IllegalArgumentException("El instante es anterior al historial retenido: " + timestamp);
+        }
+
+        Checkpoint checkpoint = checkpoints.get(index);
+        long sequence = checkpoint.sequence;
+        for (Entry entry : checkpoint.entries) {
+            if (entry.timestamp > timestamp) {
+                break;
+            }
+            sequence++;
+        }
+        return sequence;
+    }
+
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    public synchronized long getOldestSequence() {
+        return checkpoints.get(0).sequence;
+    }
+
+    public synchronized int getCheckpointCount() {
+        return checkpoints.size();
+    }
+
+    public synchronized long getDroppedCheckpointCount() {
+        return droppedCheckpoints;
+    }
+
+    public int getCheckpointInterval() {
+        return checkpointEvery;
+    }
+
+    // Las secuencias de los puntos de control son múltiplos consecutivos de K a partir del más antiguo
+    private int checkpointIndexFor(long sequence) {
+        int index = (int) ((sequence - checkpoints.get(0).sequence) / checkpointEvery);
+        return Math.min(index, checkpoints.size() - 1);
+    }
+
+    private static final class Checkpoint {
+        final long sequence;
+        final long timestamp;
+        final Map<String, Long> balances;
+        final List<Entry> entries;
+
+        Checkpoint(long sequence, long timestamp, Map<String, Long> balances, int capacity) {
+            this.sequence = sequence;
+            this.timestamp = timestamp;
+            this.balances = balances;
+            this.entries = new ArrayList<>(capacity);
+        }
+    }
+
+    private static final class Entry {
+        final long timestamp;
+        final String[] accounts;
+        final long[] balances;
+
+        Entry(long timestamp, String[] accounts, long[] balances) {
+            this.timestamp = timestamp;
+            this.accounts = accounts;
+            this.balances = balances;
+        }
+
+        Long balanceOf(String accountNumber) {
+            Long found = null;
+            for (int i = 0; i < accounts.length; i++) {
+                if (accounts[i].equals(accountNumber)) {
+                    found = balances[i];
+                }
+            }
+            return found;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.Command.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.example.Command.model.BatchMode;
+import com.example.Command.model.BatchResult;
+import com.example.Command.model.Command;
+import com.example.Command.model.CommandCoalescing;
+import com.example.Command.model.CommandResult;
+
+// Acumula comandos durante una ventana corta (por tiempo o por cantidad) y los envía juntos en modo COALESCED:
+// los depósitos y retiros de una misma cuenta se aplican como un único cambio de saldo con un único aviso,
+// pero cada comando original queda en el historial, el journal y la pila de deshacer
+public class CommandCoalescer implements AutoCloseable {
+    public static final int DEFAULT_MAX_BATCH = 256;
+    public static final long DEFAULT_MAX_DELAY_MICROS = 2_000;
+
+    private final TransactionInvoker invoker;
+    private final int maxBatch;
+    private final long maxDelayNanos;
+    private final ReentrantLock lock;
+    private final Condition pending;
+    private final Thread flusher;
+    private List<Command> commands;
+    private List<CompletableFuture<CommandResult>> futures;
+    private long windowStart;
+    private volatile boolean running;
+
+    private long submittedCount;
+    private long flushCount;
+    private long coalescedCount;
+    private int largestFlush;
+
+
+    public CommandCoalescer(TransactionInvoker invoker) {
+        this(invoker, DEFAULT_MAX_BATCH, DEFAULT_MAX_DELAY_MICROS, TimeUnit.MICROSECONDS);
+    }
+
+    public CommandCoalescer(TransactionInvoker invoker, int maxBatch, long maxDelay, TimeUnit unit) {
+        if (maxBatch <= 0) {
+            throw new IllegalArgumentException("El tamaño máximo de la ventana debe ser mayor a cero: " + maxBatch);
+        }
+        this.invoker = invoker;
+        this.maxBatch = maxBatch;
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+        this.lock = new ReentrantLock();
+        this.pending = lock.newCondition();
+        this.commands = new ArrayList<>(maxBatch);
+        this.futures = new ArrayList<>(maxBatch);
+        this.flusher = new Thread(this::flushLoop, "agrupador-comandos");
+        flusher.setDaemon(true);
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        flusher.start();
+    }
+
+    // Se acepta cualquier comando; los que no son depósitos o retiros se ejecutan en su turno sin agrupar
+    public CompletableFuture<CommandResult> submit(Command command) {
+        CompletableFuture<CommandResult> future = new CompletableFuture<>();
+        lock.lock();
+        try {
+            if (!running) {
+                throw new IllegalStateException("El agrupador de comandos no está en ejecución");
+            }
+            if (commands.isEmpty()) {
+                windowStart = System.nanoTime();
+            }
+            commands.add(command);
+            futures.add(future);
+            submittedCount++;
+            if (commands.size() == 1 || commands.size() >= maxBatch) {
+                pending.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return future;
+    }
+
+    public long getSubmittedCount() {
+        lock.lock();
+        try {
+            return submittedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getFlushCount() {
+        lock.lock();
+        try {
+            return flushCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Comandos que se aplicaron dentro de un movimiento neto en lugar de ejecutarse por separado
+    public long getCoalescedCount() {
+        lock.lock();
+        try {
+            return coalescedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLargestFlush() {
+        lock.lock();
+        try {
+            return largestFlush;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Deja de aceptar comandos, envía la ventana pendiente y espera al hilo de envío
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            running = false;
+            pending.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            List<Command> batch;
+            List<CompletableFuture<CommandResult>> batchFutures;
+            lock.lock();
+            try {
+                while (commands.isEmpty()) {
+                    if (!running) {
+                        return;
+                    }
+                    pending.awaitUninterruptibly();
+                }
+                long remaining = maxDelayNanos - (System.nanoTime() - windowStart);
+                while (running && commands.size() < maxBatch && remaining > 0) {
+                    try {
+                        remaining = pending.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                }
+                batch = commands;
+                batchFutures = futures;
+                commands = new ArrayList<>(maxBatch);
+                futures = new ArrayList<>(maxBatch);
+                flushCount++;
+                largestFlush = Math.max(largestFlush, batch.size());
+            } finally {
+                lock.unlock();
+            }
+            flush(batch, batchFutures);
+        }
+    }
+
+    private void flush(List<Command> batch, List<CompletableFuture<CommandResult>> batchFutures) {
+        int coalescible = 0;
+        for (Command command : batch) {
+            if (CommandCoalescing.isCoalescible(command)) {
+                coalescible++;
+            }
+        }
+        BatchResult result;
+        try {
+            result = invoker.executeBatch(batch, BatchMode.COALESCED);
+        } catch (RuntimeException e) {
+            batchFutures.forEach(future -> future.completeExceptionally(e));
+            return;
+        }
+        lock.lock();
+        try {
+            coalescedCount += coalescible;
+        } finally {
+            lock.unlock();
+        }
+        List<CommandResult> results = result.getResults();
+        for (int i = 0; i < batchFutures.size(); i++) {
+            batchFutures.get(i).complete(results.get(i));
+        }
+    }
+}
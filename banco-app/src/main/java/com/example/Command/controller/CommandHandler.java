@@ -0,0 +1,7 @@
+package com.example.Command.controller;
+
+import com.example.Command.model.Command;
+
+public interface CommandHandler {
+    void onCommand(Command command, long sequence);
+}
@@ -0,0 +1,236 @@
+package com.example.Command.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.example.Command.model.Command;
+import com.example.Command.model.CommandResult;
+
+// Anillo preasignado: varios productores reservan posiciones con CAS, un único consumidor de negocio
+// ejecuta los comandos en el invocador y los consumidores posteriores (journal, notificaciones) corren en paralelo
+public class CommandPipeline implements AutoCloseable {
+    private final Command[] slots;
+    // Futuro del resultado de cada posición; null si se publicó sin pedir resultado
+    private final AtomicReferenceArray<CompletableFuture<CommandResult>> results;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong claimCursor;
+    private final WaitStrategy waitStrategy;
+    private final Stage businessStage;
+    private final List<Stage> downstreamStages;
+    private final AtomicLong handlerErrors;
+    private final AtomicInteger activePublishers;
+    private volatile boolean running;
+    private volatile boolean closed;
+
+
+    public CommandPipeline(TransactionInvoker invoker, int bufferSize, WaitStrategy waitStrategy) {
+        this(invoker, bufferSize, waitStrategy, List.of());
+    }
+
+    public CommandPipeline(TransactionInvoker invoker, int bufferSize, WaitStrategy waitStrategy,
+                           List<CommandHandler> downstreamHandlers) {
+        if (bufferSize <= 0 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("El tamaño del anillo debe ser potencia de dos: " + bufferSize);
+        }
+        this.slots = new Command[bufferSize];
+        this.results = new AtomicReferenceArray<>(bufferSize);
+        this.published = new AtomicLongArray(bufferSize);
+        for (int i = 0; i < bufferSize; i++) {
+            published.set(i, -1);
+        }
+        this.mask = bufferSize - 1;
+        this.claimCursor = new AtomicLong(-1);
+        this.waitStrategy = waitStrategy;
+        this.handlerErrors = new AtomicLong();
+        this.activePublishers = new AtomicInteger();
+
+        this.businessStage = new Stage("pipeline-negocio", (command, sequence) -> execute(invoker, command, sequence), null);
+        this.downstreamStages = new ArrayList<>(downstreamHandlers.size());
+        for (int i = 0; i < downstreamHandlers.size(); i++) {
+            downstreamStages.add(new Stage("pipeline-consumidor-" + i, downstreamHandlers.get(i), businessStage));
+        }
+    }
+
+    public synchronized void start() {
+        if (closed) {
+            throw new IllegalStateException("El pipeline ya fue cerrado");
+        }
+        if (running) {
+            return;
+        }
+        running = true;
+        businessStage.thread.start();
+        for (Stage stage : downstreamStages) {
+            stage.thread.start();
+        }
+    }
+
+    public long publish(Command command) {
+        return publish(command, null);
+    }
+
+    // Igual que publish, pero el resultado del invocador se entrega en el futuro devuelto
+    public CompletableFuture<CommandResult> submit(Command command) {
+        CompletableFuture<CommandResult> result = new CompletableFuture<>();
+        publish(command, result);
+        return result;
+    }
+
+    // close espera a que no quede ningún productor dentro antes de fijar la última secuencia, así nada
+    // publicado después de cerrar se pierde: o se rechaza o close lo espera
+    private long publish(Command command, CompletableFuture<CommandResult> result) {
+        activePublishers.incrementAndGet();
+        try {
+            if (!running || closed) {
+                throw new IllegalStateException("El pipeline no está en ejecución");
+            }
+            return claimAndPublish(command, result);
+        } finally {
+            activePublishers.decrementAndGet();
+        }
+    }
+
+    private long claimAndPublish(Command command, CompletableFuture<CommandResult> result) {
+        long sequence;
+        int attempt = 0;
+        while (true) {
+            long current = claimCursor.get();
+            long next = current + 1;
+            // No se puede reutilizar una posición que el consumidor más lento aún no ha procesado
+            if (next - slots.length > minimumGatingSequence()) {
+                waitStrategy.idle(attempt++);
+                continue;
+            }
+            if (claimCursor.compareAndSet(current, next)) {
+                sequence = next;
+                break;
+            }
+        }
+        int index = (int) sequence & mask;
+        slots[index] = command;
+        results.set(index, result);
+        published.set(index, sequence);
+        return sequence;
+    }
+
+    private void execute(TransactionInvoker invoker, Command command, long sequence) {
+        int index = (int) sequence & mask;
+        CompletableFuture<CommandResult> result = results.get(index);
+        results.set(index, null);
+        CommandResult outcome;
+        try {
+            outcome = invoker.executeCommand(command);
+        } catch (RuntimeException e) {
+            outcome = CommandResult.failure(command, "Error al ejecutar el comando: " + e.getMessage());
+        }
+        if (result != null) {
+            result.complete(outcome);
+        }
+    }
+
+    public long getCursor() {
+        return claimCursor.get();
+    }
+
+    public long getBusinessSequence() {
+        return businessStage.sequence.get();
+    }
+
+    public long getHandlerErrors() {
+        return handlerErrors.get();
+    }
+
+    public int getBufferSize() {
+        return slots.length;
+    }
+
+    // Rechaza nuevas publicaciones, espera a que todos los consumidores procesen lo publicado y detiene los hilos
+    @Override
+    public synchronized void close() {
+        if (!running || closed) {
+            return;
+        }
+        closed = true;
+        int attempt = 0;
+        while (activePublishers.get() > 0) {
+            waitStrategy.idle(attempt++);
+        }
+        long target = claimCursor.get();
+        attempt = 0;
+        while (minimumGatingSequence() < target) {
+            waitStrategy.idle(attempt++);
+        }
+        running = false;
+        try {
+            businessStage.thread.join();
+            for (Stage stage : downstreamStages) {
+                stage.thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long minimumGatingSequence() {
+        if (downstreamStages.isEmpty()) {
+            return businessStage.sequence.get();
+        }
+        long minimum = Long.MAX_VALUE;
+        for (Stage stage : downstreamStages) {
+            minimum = Math.min(minimum, stage.sequence.get());
+        }
+        return minimum;
+    }
+
+    private long highestPublished(long from) {
+        long sequence = from;
+        while (published.get((int) sequence & mask) == sequence) {
+            sequence++;
+        }
+        return sequence - 1;
+    }
+
+    private class Stage implements Runnable {
+        private final AtomicLong sequence;
+        private final CommandHandler handler;
+        private final Stage upstream;
+        private final Thread thread;
+
+        Stage(String name, CommandHandler handler, Stage upstream) {
+            this.sequence = new AtomicLong(-1);
+            this.handler = handler;
+            this.upstream = upstream;
+            this.thread = new Thread(this, name);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            int attempt = 0;
+            while (running || sequence.get() < claimCursor.get()) {
+                long next = sequence.get() + 1;
+                long available = upstream == null ? highestPublished(next) : upstream.sequence.get();
+                if (available < next) {
+                    waitStrategy.idle(attempt++);
+                    continue;
+                }
+                attempt = 0;
+                // Se procesa todo el tramo disponible y la secuencia se publica una sola vez
+                for (long current = next; current <= available; current++) {
+                    try {
+                        handler.onCommand(slots[(int) current & mask], current);
+                    } catch (RuntimeException e) {
+                        handlerErrors.incrementAndGet();
+                    }
+                }
+                sequence.set(available);
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.Command.controller;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+import com.example.Command.model.Command;
+
+// El arreglo crece al doble hasta la capacidad pedida, así una capacidad sin límite no reserva memoria de antemano
+public class CommandRingBuffer implements Iterable<Command> {
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+    private static final int INITIAL_SLOTS = 16;
+    private static final int MAX_SLOTS = Integer.MAX_VALUE - 8;
+
+    private final int capacity;
+    private Command[] slots;
+    private int head;
+    private int size;
+    private long evictedCount;
+    private Consumer<Command> evictionListener;
+
+
+    public CommandRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser mayor a cero: " + capacity);
+        }
+        this.capacity = capacity;
+        this.slots = new Command[Math.min(capacity, INITIAL_SLOTS)];
+    }
+
+    public void add(Command command) {
+        if (size == slots.length && size < capacity && size < MAX_SLOTS) {
+            grow();
+        }
+        if (size == slots.length) {
+            Command evicted = slots[head];
+            slots[head] = command;
+            head = next(head);
+            evictedCount++;
+            if (evictionListener != null) {
+                evictionListener.accept(evicted);
+            }
+        } else {
+            slots[index(size)] = command;
+            size++;
+        }
+    }
+
+    public Command peekLast() {
+        return size == 0 ? null : slots[index(size - 1)];
+    }
+
+    public Command removeLast() {
+        if (size == 0) {
+            return null;
+        }
+        int last = index(size - 1);
+        Command command = slots[last];
+        slots[last] = null;
+        size--;
+        return command;
+    }
+
+    // 0 es el comando más antiguo retenido
+    public Command get(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Posición fuera de rango: " + position);
+        }
+        return slots[index(position)];
+    }
+
+    public void forEachRecent(int limit, Consumer<Command> action) {
+        int from = Math.max(0, size - limit);
+        for (int i = from; i < size; i++) {
+            action.accept(slots[index(i)]);
+        }
+    }
+
+    public List<Command> view() {
+        return new AbstractList<Command>() {
+            @Override
+            public Command get(int position) {
+                return CommandRingBuffer.this.get(position);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Iterator<Command> iterator() {
+        return new Iterator<Command>() {
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                return position < size;
+            }
+
+            @Override
+            public Command next() {
+                if (position >= size) {
+                    throw new NoSuchElementException();
+                }
+                return slots[index(position++)];
+            }
+        };
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            slots[index(i)] = null;
+        }
+        head = 0;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public long getEvictedCount() {
+        return evictedCount;
+    }
+
+    public void setEvictionListener(Consumer<Command> evictionListener) {
+        this.evictionListener = evictionListener;
+    }
+
+    private void grow() {
+        int length = (int) Math.min((long) slots.length * 2, Math.min(capacity, MAX_SLOTS));
+        Command[] grown = new Command[length];
+        for (int i = 0; i < size; i++) {
+            grown[i] = slots[index(i)];
+        }
+        slots = grown;
+        head = 0;
+    }
+
+    private int index(int position) {
+        int i = head + position;
+        return i >= slots.length ? i - slots.length : i;
+    }
+
+    private int next(int i) {
+        return i + 1 == slots.length ? 0 : i + 1;
+    }
+}
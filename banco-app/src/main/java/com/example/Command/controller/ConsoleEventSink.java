@@ -0,0 +1,18 @@
+package com.example.Command.controller;
+
+import com.example.Command.model.CommandEvent;
+import com.example.Command.model.EventSink;
+
+// Reproduce la salida por consola original; System.out se lee en cada evento para respetar redirecciones
+public class ConsoleEventSink implements EventSink {
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void accept(CommandEvent event) {
+        System.out.println(event.getMessage());
+    }
+}
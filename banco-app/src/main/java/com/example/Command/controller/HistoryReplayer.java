@@ -0,0 +1,239 @@
+package com.example.Command.controller;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.example.Command.model.Command;
+import com.example.Command.model.CommandCodec;
+import com.example.Command.model.ReplayResult;
+import com.example.Observer.model.ConcreteSubject;
+
+// Grafo de dependencias por cuenta: cada comando depende del anterior que tocó cada una de sus cuentas.
+// Comandos de cuentas distintas corren en paralelo; una transferencia espera a ambas cadenas y libera a ambas
+public class HistoryReplayer {
+    private final ForkJoinPool pool;
+
+
+    public HistoryReplayer() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public HistoryReplayer(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // Reproduce los comandos vigentes del historial sobre las cuentas indicadas (normalmente recién creadas)
+    public ReplayResult replay(List<Command> history, Map<String, ConcreteSubject> accounts) {
+        long start = System.nanoTime();
+        List<Command> commands = new ArrayList<>(history.size());
+        int skipped = rebind(history, accounts, commands);
+        Graph graph = new Graph(commands);
+
+        if (!commands.isEmpty()) {
+            Execution execution = new Execution(graph, commands);
+            for (int root : graph.roots) {
+                pool.execute(execution.new ReplayTask(root));
+            }
+            execution.await();
+            Throwable failure = execution.failure.get();
+            if (failure instanceof Error error) {
+                throw error;
+            }
+            if (failure != null) {
+                throw new IllegalStateException("Error al reproducir el historial: " + failure.getMessage(), failure);
+            }
+            return new ReplayResult(commands.size(), skipped, execution.failed.get(), graph.accountCount,
+                    graph.roots.length, System.nanoTime() - start);
+        }
+        return new ReplayResult(0, skipped, 0, 0, 0, System.nanoTime() - start);
+    }
+
+    // Crea copias de los comandos ligadas a las cuentas destino pasando por el codec del journal
+    private static int rebind(List<Command> history, Map<String, ConcreteSubject> accounts, List<Command> commands) {
+        ByteBuffer buffer = ByteBuffer.allocate(0);
+        int skipped = 0;
+        for (Command command : history) {
+            // Los comandos deshechos o fallidos no forman parte del estado actual
+            if (!command.wasSuccessful()) {
+                skipped++;
+                continue;
+            }
+            if (!CommandCodec.supports(command)) {
+                throw new IllegalArgumentException("Comando no soportado por la reproducción: " + command.getCommandName());
+            }
+            int size = CommandCodec.encodedSize(command);
+            if (buffer.capacity() < size) {
+                buffer = ByteBuffer.allocate(Math.max(size, buffer.capacity() * 2));
+            }
+            buffer.clear();
+            CommandCodec.encode(command, buffer);
+            buffer.flip();
+            commands.add(CommandCodec.decode(buffer, accounts));
+        }
+        return skipped;
+    }
+
+    private static final class Graph {
+        final int[][] successors;
+        final AtomicIntegerArray pending;
+        final int[] roots;
+        final int accountCount;
+
+        Graph(List<Command> commands) {
+            int size = commands.size();
+            String[][] accountsOf = new String[size][];
+            this.successors = new int[size][];
+            this.pending = new AtomicIntegerArray(size);
+            Map<String, Integer> lastByAccount = new HashMap<>();
+            int rootCount = 0;
+
+            for (int i = 0; i < size; i++) {
+                List<ConcreteSubject> affected = commands.get(i).getAffectedAccounts();
+                accountsOf[i] = new String[affected.size()];
+                successors[i] = new int[affected.size()];
+                int[] predecessorsOf = new int[affected.size()];
+                int predecessors = 0;
+                for (int k = 0; k < affected.size(); k++) {
+                    String account = affected.get(k).getAccountNumber();
+                    accountsOf[i][k] = account;
+                    successors[i][k] = -1;
+                    Integer previous = lastByAccount.put(account, i);
+                    if (previous == null || previous == i) {
+                        continue;
+                    }
+                    successors[previous][slotOf(accountsOf[previous], account)] = i;
+                    // Si dos cuentas apuntan al mismo comando anterior la dependencia cuenta una sola vez
+                    predecessorsOf[predecessors] = previous;
+                    if (!Execution.isRepeated(predecessorsOf, predecessors)) {
+                        predecessors++;
+                    }
+                }
+                pending.set(i, predecessors);
+                if (predecessors == 0) {
+                    rootCount++;
+                }
+            }
+
+            this.roots = new int[rootCount];
+            for (int i = 0, r = 0; i < size; i++) {
+                if (pending.get(i) == 0) {
+                    roots[r++] = i;
+                }
+            }
+            this.accountCount = lastByAccount.size();
+        }
+
+        private static int slotOf(String[] accounts, String account) {
+            for (int k = 0; k < accounts.length; k++) {
+                if (accounts[k].equals(account)) {
+                    return k;
+                }
+            }
+            throw new IllegalStateException("Cuenta fuera del comando: " + account);
+        }
+    }
+
+    private static final class Execution {
+        final Graph graph;
+        final List<Command> commands;
+        final AtomicInteger remaining;
+        final AtomicInteger failed;
+        final AtomicReference<Throwable> failure;
+        final CountDownLatch done;
+
+        Execution(Graph graph, List<Command> commands) {
+            this.graph = graph;
+            this.commands = commands;
+            this.remaining = new AtomicInteger(commands.size());
+            this.failed = new AtomicInteger();
+            this.failure = new AtomicReference<>();
+            this.done = new CountDownLatch(1);
+        }
+
+        void await() {
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Reproducción interrumpida", e);
+            }
+        }
+
+        // Ejecuta el nodo y devuelve un sucesor listo para seguir en el mismo hilo (o -1); el resto se bifurca
+        int runNode(int node) {
+            int inline = -1;
+            try {
+                Command command = commands.get(node);
+                try {
+                    command.execute();
+                    if (!command.wasSuccessful()) {
+                        failed.incrementAndGet();
+                    }
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                }
+
+                int[] next = graph.successors[node];
+                for (int k = 0; k < next.length; k++) {
+                    int successor = next[k];
+                    if (successor < 0 || isRepeated(next, k)) {
+                        continue;
+                    }
+                    if (graph.pending.decrementAndGet(successor) == 0) {
+                        if (inline < 0) {
+                            inline = successor;
+                        } else {
+                            new ReplayTask(successor).fork();
+                        }
+                    }
+                }
+            } catch (RuntimeException | Error e) {
+                // Los sucesores no liberados nunca correrían: se despierta a replay para que propague el fallo
+                failure.compareAndSet(null, e);
+                done.countDown();
+                throw e;
+            } finally {
+                if (remaining.decrementAndGet() == 0) {
+                    done.countDown();
+                }
+            }
+            return inline;
+        }
+
+        private static boolean isRepeated(int[] successors, int index) {
+            for (int k = 0; k < index; k++) {
+                if (successors[k] == successors[index]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        final class ReplayTask extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+
+            private final int node;
+
+            ReplayTask(int node) {
+                this.node = node;
+            }
+
+            @Override
+            protected void compute() {
+                int current = node;
+                while (current >= 0) {
+                    current = runNode(current);
+                }
+            }
+        }
+    }
+}
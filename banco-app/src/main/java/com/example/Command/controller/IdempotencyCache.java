@@ -0,0 +1,162 @@
+package com.example.Command.controller;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import com.example.Command.model.CommandResult;
+
+// Dos generaciones de filtro de Bloom delante de un LRU acotado en tamaño y tiempo. Una clave nunca vista
+// se descarta en el filtro sin consultar el mapa; el filtro rota cada ttl para no saturarse
+public class IdempotencyCache {
+    public static final int DEFAULT_EXPECTED_KEYS = 100_000;
+    public static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+    public static final long DEFAULT_TTL_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private final int expectedKeys;
+    private final double targetFalsePositiveRate;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LongSupplier clock;
+    private final LinkedHashMap<String, Entry> recent;
+
+    private BloomFilter currentFilter;
+    private BloomFilter previousFilter;
+    private long filterCreatedAt;
+
+    private long lookups;
+    private long filterNegatives;
+    private long duplicates;
+    private long falsePositives;
+
+
+    public IdempotencyCache() {
+        this(DEFAULT_EXPECTED_KEYS, DEFAULT_FALSE_POSITIVE_RATE, DEFAULT_TTL_NANOS, DEFAULT_EXPECTED_KEYS, System::nanoTime);
+    }
+
+    public IdempotencyCache(int expectedKeys, double falsePositiveRate, long ttlNanos, int maxEntries, LongSupplier clock) {
+        if (ttlNanos <= 0) {
+            throw new IllegalArgumentException("El tiempo de retención debe ser mayor a cero: " + ttlNanos);
+        }
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("El número de claves retenidas debe ser mayor a cero: " + maxEntries);
+        }
+        this.expectedKeys = expectedKeys;
+        this.targetFalsePositiveRate = falsePositiveRate;
+        this.ttlNanos = ttlNanos;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        this.recent = new LinkedHashMap<>(16, 0.75f, true);
+        this.currentFilter = new BloomFilter(expectedKeys, falsePositiveRate);
+        this.filterCreatedAt = clock.getAsLong();
+    }
+
+    // Devuelve el resultado (posiblemente pendiente) de la primera ejecución con esta clave, o null si el
+    // llamador queda a cargo de ejecutar el comando y completar la reserva con complete/abandon
+    public synchronized CompletableFuture<CommandResult> reserve(String key) {
+        long now = clock.getAsLong();
+        rotateIfDue(now);
+        lookups++;
+
+        if (currentFilter.mightContain(key) || (previousFilter != null && previousFilter.mightContain(key))) {
+            Entry entry = recent.get(key);
+            if (entry != null && now - entry.createdAt < ttlNanos) {
+                duplicates++;
+                return entry.result;
+            }
+            if (entry == null) {
+                falsePositives++;
+            }
+        } else {
+            filterNegatives++;
+        }
+
+        recent.put(key, new Entry(now));
+        currentFilter.add(key);
+        evict(now);
+        return null;
+    }
+
+    public synchronized void complete(String key, CommandResult result) {
+        Entry entry = recent.get(key);
+        if (entry != null) {
+            entry.result.complete(result);
+        }
+    }
+
+    // La ejecución falló con excepción: se libera la clave para que un reintento pueda ejecutarse
+    public synchronized void abandon(String key, Throwable cause) {
+        Entry entry = recent.remove(key);
+        if (entry != null) {
+            entry.result.completeExceptionally(cause);
+        }
+    }
+
+    public synchronized long getLookups() {
+        return lookups;
+    }
+
+    public synchronized long getDuplicates() {
+        return duplicates;
+    }
+
+    public synchronized long getFalsePositives() {
+        return falsePositives;
+    }
+
+    // Fracción de claves nuevas que el filtro no pudo descartar y obligaron a consultar el mapa
+    public synchronized double getObservedFalsePositiveRate() {
+        long newKeys = filterNegatives + falsePositives;
+        return newKeys == 0 ? 0 : (double) falsePositives / newKeys;
+    }
+
+    public synchronized double getExpectedFalsePositiveRate() {
+        return currentFilter.expectedFalsePositiveRate();
+    }
+
+    public double getTargetFalsePositiveRate() {
+        return targetFalsePositiveRate;
+    }
+
+    public synchronized int size() {
+        return recent.size();
+    }
+
+    private void rotateIfDue(long now) {
+        if (now - filterCreatedAt >= ttlNanos) {
+            // El filtro anterior cubre las claves del último ttl; las de antes ya expiraron en el mapa
+            previousFilter = currentFilter;
+            currentFilter = new BloomFilter(expectedKeys, targetFalsePositiveRate);
+            filterCreatedAt = now;
+        }
+    }
+
+    private void evict(long now) {
+        Iterator<Map.Entry<String, Entry>> it = recent.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Entry> eldest = it.next();
+            boolean expired = now - eldest.getValue().createdAt >= ttlNanos;
+            if (!expired && recent.size() <= maxEntries) {
+                break;
+            }
+            // Una reserva todavía pendiente no se descarta: su dueño aún debe completarla
+            if (!eldest.getValue().result.isDone()) {
+                break;
+            }
+            it.remove();
+        }
+    }
+
+    private static final class Entry {
+        final long createdAt;
+        final CompletableFuture<CommandResult> result;
+
+        Entry(long createdAt) {
+            this.createdAt = createdAt;
+            this.result = new CompletableFuture<>();
+        }
+    }
+}
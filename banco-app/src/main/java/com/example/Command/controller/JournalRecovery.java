@@ -0,0 +1,81 @@
+package com.example.Command.controller;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import com.example.Command.model.CommandCodec;
+import com.example.Command.model.CommandEvents;
+import com.example.Command.model.CommandJournal;
+import com.example.Command.model.EventType;
+import com.example.Command.model.InvokerSnapshot;
+import com.example.Command.model.SnapshotStore;
+import com.example.Observer.model.ConcreteSubject;
+
+public class JournalRecovery {
+
+    private JournalRecovery() {
+    }
+
+    public static long recover(CommandJournal journal, Map<String, ConcreteSubject> accounts,
+                               TransactionInvoker invoker) throws IOException {
+        return recover(journal, 0, accounts, invoker);
+    }
+
+    // Carga la última instantánea (si existe) y reproduce solo la cola del journal posterior a ella
+    public static long recover(CommandJournal journal, Path snapshotFile, Map<String, ConcreteSubject> accounts,
+                               TransactionInvoker invoker) throws IOException {
+        if (!Files.exists(snapshotFile)) {
+            return recover(journal, 0, accounts, invoker);
+        }
+        InvokerSnapshot snapshot = SnapshotStore.read(snapshotFile, accounts);
+        invoker.restoreSnapshot(snapshot);
+        CommandEvents.emit(EventType.RECOVERY, "\nInstantánea cargada: ", snapshot.getAccountCount(),
+                " cuentas, secuencia ", snapshot.getJournalSequence());
+        return recover(journal, snapshot.getJournalSequence(), accounts, invoker);
+    }
+
+    // Reproduce el journal sobre las cuentas y deja el invocador escribiendo en el mismo journal
+    public static long recover(CommandJournal journal, long fromSequence, Map<String, ConcreteSubject> accounts,
+                               TransactionInvoker invoker) throws IOException {
+        CommandEvents.emit(EventType.RECOVERY, "\n=== Recuperando estado desde el journal ===");
+        long[] replayed = new long[1];
+        invoker.setJournal(null);
+        invoker.setRecovering(true);
+        try {
+            replay(journal, fromSequence, accounts, invoker, replayed);
+        } finally {
+            invoker.setRecovering(false);
+        }
+        invoker.setJournal(journal);
+        CommandEvents.emit(EventType.RECOVERY, "Registros reproducidos: ", replayed[0]);
+        return replayed[0];
+    }
+
+    private static void replay(CommandJournal journal, long fromSequence, Map<String, ConcreteSubject> accounts,
+                               TransactionInvoker invoker, long[] replayed) throws IOException {
+        journal.replay(fromSequence, (operation, sequence, command) -> {
+            switch (operation) {
+                case CommandJournal.EXECUTE:
+                    invoker.executeCommand(CommandCodec.decode(command, accounts));
+                    break;
+                case CommandJournal.UNDO:
+                    invoker.undoLastCommand();
+                    break;
+                case CommandJournal.REDO:
+                    invoker.redoLastCommand();
+                    break;
+                case CommandJournal.UNDO_ACCOUNT:
+                    invoker.undoLast(CommandCodec.decodeAccountNumber(command));
+                    break;
+                case CommandJournal.REDO_ACCOUNT:
+                    invoker.redoLast(CommandCodec.decodeAccountNumber(command));
+                    break;
+                default:
+                    throw new IllegalStateException("Operación desconocida en el journal: " + operation);
+            }
+            replayed[0]++;
+        });
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.Command.controller;
+
+public enum OverloadPolicy {
+    // Con la cola llena el comando se rechaza de inmediato
+    REJECT,
+    // El llamador espera hasta que haya espacio o se agote el tiempo configurado
+    BLOCK_WITH_TIMEOUT,
+    // Se descarta el comando más reciente de la prioridad más baja en cola si el entrante tiene mayor prioridad
+    SHED_LOWEST_PRIORITY
+}
@@ -0,0 +1,347 @@
+package com.example.Command.controller;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.example.Command.model.Command;
+import com.example.Command.model.CommandPriority;
+import com.example.Command.model.CommandResult;
+import com.example.Observer.model.ConcreteSubject;
+
+// Cada cuenta tiene su fila de comandos en orden de llegada; un comando pasa a la cola lista de su prioridad
+// solo cuando encabeza la fila de todas sus cuentas. Entre colas listas se elige por turno ponderado suave,
+// así la prioridad alta obtiene más turnos sin dejar sin servicio a los lotes de prioridad baja
+public class PriorityScheduler implements AutoCloseable {
+    public static final int DEFAULT_LOW_WEIGHT = 1;
+    public static final int DEFAULT_NORMAL_WEIGHT = 4;
+    public static final int DEFAULT_HIGH_WEIGHT = 16;
+    private static final CommandPriority[] PRIORITIES = CommandPriority.values();
+
+    private final TransactionInvoker invoker;
+    private final int[] weights;
+    private final int[] currentWeights;
+    private final List<ArrayDeque<Task>> ready;
+    private final Map<String, ArrayDeque<Task>> accountQueues;
+    private final List<Thread> workers;
+    private final ReentrantLock lock;
+    private final Condition readyNotEmpty;
+    private volatile boolean running;
+
+    private int readyCount;
+    private int pendingCount;
+    private final long[] submitted;
+    private final long[] completed;
+    private final long[] totalLatencyNanos;
+    private final long[] maxLatencyNanos;
+
+
+    public PriorityScheduler(TransactionInvoker invoker, int workerCount) {
+        this(invoker, workerCount, DEFAULT_LOW_WEIGHT, DEFAULT_NORMAL_WEIGHT, DEFAULT_HIGH_WEIGHT);
+    }
+
+    public PriorityScheduler(TransactionInvoker invoker, int workerCount, int lowWeight, int normalWeight, int highWeight) {
+        if (workerCount <= 0) {
+            throw new IllegalArgumentException("Debe haber al menos un trabajador: " + workerCount);
+        }
+        if (lowWeight <= 0 || normalWeight <= 0 || highWeight <= 0) {
+            throw new IllegalArgumentException("Los pesos deben ser mayores a cero");
+        }
+        this.invoker = invoker;
+        this.weights = new int[PRIORITIES.length];
+        weights[CommandPriority.LOW.ordinal()] = lowWeight;
+        weights[CommandPriority.NORMAL.ordinal()] = normalWeight;
+        weights[CommandPriority.HIGH.ordinal()] = highWeight;
+        this.currentWeights = new int[PRIORITIES.length];
+        this.ready = new ArrayList<>(PRIORITIES.length);
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            ready.add(new ArrayDeque<>());
+        }
+        this.accountQueues = new HashMap<>();
+        this.lock = new ReentrantLock();
+        this.readyNotEmpty = lock.newCondition();
+        this.submitted = new long[PRIORITIES.length];
+        this.completed = new long[PRIORITIES.length];
+        this.totalLatencyNanos = new long[PRIORITIES.length];
+        this.maxLatencyNanos = new long[PRIORITIES.length];
+        this.workers = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::work, "planificador-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+        }
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (Thread worker : workers) {
+            worker.start();
+        }
+    }
+
+    public CompletableFuture<CommandResult> submit(Command command) {
+        return submit(command, command.getPriority());
+    }
+
+    public CompletableFuture<CommandResult> submit(Command command, CommandPriority priority) {
+        if (!running) {
+            throw new IllegalStateException("El planificador no está en ejecución");
+        }
+        Task task = new Task(command, priority, accountNumbersOf(command));
+        lock.lock();
+        try {
+            // close() pudo ejecutarse entre la comprobación anterior y el bloqueo
+            if (!running) {
+                throw new IllegalStateException("El planificador no está en ejecución");
+            }
+            submitted[priority.ordinal()]++;
+            pendingCount++;
+            for (String account : task.accounts) {
+                accountQueues.computeIfAbsent(account, number -> new ArrayDeque<>()).addLast(task);
+            }
+            if (isAtHead(task)) {
+                markReady(task);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return task.result;
+    }
+
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return pendingCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getReadyCount() {
+        lock.lock();
+        try {
+            return readyCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getSubmittedCount(CommandPriority priority) {
+        lock.lock();
+        try {
+            return submitted[priority.ordinal()];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getCompletedCount(CommandPriority priority) {
+        lock.lock();
+        try {
+            return completed[priority.ordinal()];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Latencia desde el envío hasta el fin de la ejecución
+    public double getAverageLatencyNanos(CommandPriority priority) {
+        lock.lock();
+        try {
+            long count = completed[priority.ordinal()];
+            return count == 0 ? 0 : (double) totalLatencyNanos[priority.ordinal()] / count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getMaxLatencyNanos(CommandPriority priority) {
+        lock.lock();
+        try {
+            return maxLatencyNanos[priority.ordinal()];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWeight(CommandPriority priority) {
+        return weights[priority.ordinal()];
+    }
+
+    // Deja de aceptar comandos, termina los pendientes y espera a los trabajadores. Lo que quede en las filas
+    // tras la espera (trabajadores caídos o nunca iniciados) se completa con error para no dejar a nadie esperando
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            running = false;
+            readyNotEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                // Los trabajadores siguen vivos y terminarán los pendientes por su cuenta
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+
+        Set<Task> leftover = new LinkedHashSet<>();
+        lock.lock();
+        try {
+            for (ArrayDeque<Task> queue : accountQueues.values()) {
+                leftover.addAll(queue);
+            }
+            accountQueues.clear();
+            for (ArrayDeque<Task> queue : ready) {
+                queue.clear();
+            }
+            readyCount = 0;
+            pendingCount = 0;
+        } finally {
+            lock.unlock();
+        }
+        for (Task task : leftover) {
+            task.result.completeExceptionally(
+                    new IllegalStateException("Comando descartado: el planificador se cerró"));
+        }
+    }
+
+    private void work() {
+        while (true) {
+            Task task;
+            lock.lock();
+            try {
+                while (readyCount == 0) {
+                    // Si hay pendientes sin estar listos, otro trabajador los liberará al terminar
+                    if (!running && pendingCount == 0) {
+                        readyNotEmpty.signalAll();
+                        return;
+                    }
+                    readyNotEmpty.awaitUninterruptibly();
+                }
+                task = ready.get(selectPriority()).pollFirst();
+                readyCount--;
+            } finally {
+                lock.unlock();
+            }
+
+            CommandResult result = null;
+            RuntimeException failure = null;
+            try {
+                result = invoker.executeCommand(task.command);
+            } catch (RuntimeException e) {
+                failure = e;
+            } finally {
+                finish(task);
+            }
+            if (failure != null) {
+                task.result.completeExceptionally(failure);
+            } else {
+                task.result.complete(result);
+            }
+        }
+    }
+
+    // Turno ponderado suave: cada cola con trabajo suma su peso y gana la de mayor acumulado
+    private int selectPriority() {
+        int total = 0;
+        int best = -1;
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            if (ready.get(i).isEmpty()) {
+                continue;
+            }
+            currentWeights[i] += weights[i];
+            total += weights[i];
+            if (best < 0 || currentWeights[i] > currentWeights[best]) {
+                best = i;
+            }
+        }
+        currentWeights[best] -= total;
+        return best;
+    }
+
+    private void finish(Task task) {
+        long latency = System.nanoTime() - task.submittedAt;
+        lock.lock();
+        try {
+            int index = task.priority.ordinal();
+            completed[index]++;
+            totalLatencyNanos[index] += latency;
+            maxLatencyNanos[index] = Math.max(maxLatencyNanos[index], latency);
+            pendingCount--;
+
+            for (String account : task.accounts) {
+                ArrayDeque<Task> queue = accountQueues.get(account);
+                queue.pollFirst();
+                Task next = queue.peekFirst();
+                if (next == null) {
+                    accountQueues.remove(account);
+                } else if (!next.ready && isAtHead(next)) {
+                    markReady(next);
+                }
+            }
+            if (!running && pendingCount == 0) {
+                readyNotEmpty.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isAtHead(Task task) {
+        for (String account : task.accounts) {
+            if (accountQueues.get(account).peekFirst() != task) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void markReady(Task task) {
+        task.ready = true;
+        ready.get(task.priority.ordinal()).addLast(task);
+        readyCount++;
+        readyNotEmpty.signal();
+    }
+
+    private static String[] accountNumbersOf(Command command) {
+        // Una cuenta repetida en el mismo comando no debe ocupar dos lugares en su fila
+        Map<String, Boolean> distinct = new LinkedHashMap<>();
+        for (ConcreteSubject account : command.getAffectedAccounts()) {
+            distinct.put(account.getAccountNumber(), Boolean.TRUE);
+        }
+        return distinct.keySet().toArray(new String[0]);
+    }
+
+    private static final class Task {
+        final Command command;
+        final CommandPriority priority;
+        final String[] accounts;
+        final CompletableFuture<CommandResult> result;
+        final long submittedAt;
+        boolean ready;
+
+        Task(Command command, CommandPriority priority, String[] accounts) {
+            this.command = command;
+            this.priority = priority;
+            this.accounts = accounts;
+            this.result = new CompletableFuture<>();
+            this.submittedAt = System.nanoTime();
+        }
+    }
+}
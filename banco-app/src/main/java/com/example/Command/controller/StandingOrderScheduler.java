@@ -0,0 +1,310 @@
+package com.example.Command.controller;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+import com.example.Command.model.BatchMode;
+import com.example.Command.model.BatchResult;
+import com.example.Command.model.Command;
+import com.example.Command.model.CommandEvents;
+import com.example.Command.model.EventType;
+import com.example.Command.model.Recurrence;
+import com.example.Command.model.ScheduleLog;
+import com.example.Command.model.ScheduledOrder;
+import com.example.Observer.model.ConcreteSubject;
+
+// Pagos con fecha futura y órdenes permanentes. Las órdenes viven en una rueda de tiempo jerárquica y las
+// vencidas se entregan al invocador en lotes. Con registro en disco, cada lote se anuncia (FIRING) antes de
+// ejecutarse y se marca como disparado (FIRED) después. Un lote cuyo anuncio falla vuelve a la rueda sin haberse
+// ejecutado; una vez anunciado y entregado al invocador cuenta como disparado aunque falle después. Tras una
+// caída, una ocurrencia anunciada y no marcada también se da por disparada y se informa
+public class StandingOrderScheduler implements AutoCloseable {
+    public static final long DEFAULT_TICK_MILLIS = 1_000;
+    public static final int DEFAULT_BATCH_SIZE = 512;
+    private static final int MIN_RECORDS_TO_COMPACT = 4_096;
+
+    private final TransactionInvoker invoker;
+    private final Map<String, ConcreteSubject> accounts;
+    private final ScheduleLog log;
+    private final TimingWheel<ScheduledOrder> wheel;
+    private final Map<Long, TimingWheel.Timer<ScheduledOrder>> timers;
+    private final int batchSize;
+    private final LongSupplier clock;
+    private Thread ticker;
+    private long nextId;
+    private long firedCount;
+    private long failedCount;
+    private volatile boolean running;
+
+
+    public StandingOrderScheduler(TransactionInvoker invoker, Map<String, ConcreteSubject> accounts) {
+        this(invoker, accounts, null, DEFAULT_TICK_MILLIS, DEFAULT_BATCH_SIZE, System::currentTimeMillis);
+    }
+
+    public StandingOrderScheduler(TransactionInvoker invoker, Map<String, ConcreteSubject> accounts,
+                                  Path scheduleFile) throws IOException {
+        this(invoker, accounts, new ScheduleLog(scheduleFile), DEFAULT_TICK_MILLIS, DEFAULT_BATCH_SIZE,
+                System::currentTimeMillis);
+    }
+
+    // Con log distinto de null se recuperan las órdenes guardadas; las vencidas durante la caída se disparan
+    // en la primera llamada a runDue
+    public StandingOrderScheduler(TransactionInvoker invoker, Map<String, ConcreteSubject> accounts, ScheduleLog log,
+                                  long tickMillis, int batchSize, LongSupplier clock) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("El tamaño de lote debe ser mayor a cero: " + batchSize);
+        }
+        this.invoker = invoker;
+        this.accounts = accounts;
+        this.log = log;
+        this.batchSize = batchSize;
+        this.clock = clock;
+        this.wheel = new TimingWheel<>(tickMillis, clock.getAsLong());
+        this.timers = new HashMap<>();
+        this.nextId = 1;
+
+        if (log != null) {
+            try {
+                List<ScheduledOrder> recovered = log.load(accounts);
+                for (ScheduledOrder order : recovered) {
+                    timers.put(order.getId(), wheel.schedule(order, order.getDueAt()));
+                }
+                nextId = log.getHighestId() + 1;
+                CommandEvents.emit(EventType.RECOVERY, "\nÓrdenes programadas recuperadas: ", recovered.size());
+                Map<Long, Long> inDoubt = log.getInDoubt();
+                if (!inDoubt.isEmpty()) {
+                    // Se cierran en el registro para no volver a informarlas en cada arranque
+                    for (Map.Entry<Long, Long> entry : inDoubt.entrySet()) {
+                        log.appendFired(entry.getKey(), entry.getValue());
+                    }
+                    log.sync();
+                    CommandEvents.emit(EventType.RECOVERY, "Ocurrencias en duda tras la caída (no se repiten, revisar): ",
+                            inDoubt);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo leer el registro de órdenes programadas", e);
+            }
+        }
+    }
+
+    public synchronized long schedule(Command command, long dueAtMillis) {
+        return scheduleRecurring(command, dueAtMillis, Recurrence.ONCE, 1);
+    }
+
+    // maxOccurrences 0 = hasta cancelarla
+    public synchronized long scheduleRecurring(Command command, long firstDueMillis, Recurrence recurrence, int maxOccurrences) {
+        ScheduledOrder order = new ScheduledOrder(nextId, command, firstDueMillis, recurrence, maxOccurrences, 0);
+        if (log != null) {
+            try {
+                log.appendAdd(order);
+                log.sync();
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo guardar la orden programada", e);
+            }
+        }
+        nextId++;
+        timers.put(order.getId(), wheel.schedule(order, order.getDueAt()));
+        return order.getId();
+    }
+
+    public synchronized boolean cancel(long orderId) {
+        TimingWheel.Timer<ScheduledOrder> timer = timers.remove(orderId);
+        if (timer == null) {
+            return false;
+        }
+        wheel.cancel(timer);
+        if (log != null) {
+            try {
+                log.appendCancel(orderId);
+                log.sync();
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo registrar la cancelación de la orden " + orderId, e);
+            }
+        }
+        return true;
+    }
+
+    // Ejecuta las ocurrencias vencidas hasta ahora; devuelve cuántas se entregaron al invocador
+    public synchronized int runDue() {
+        List<ScheduledOrder> due = new ArrayList<>();
+        wheel.advance(clock.getAsLong(), due::add);
+        int next = 0;
+        try {
+            while (next < due.size()) {
+                int from = next;
+                next = Math.min(due.size(), from + batchSize);
+                fire(due.subList(from, next));
+            }
+        } finally {
+            // Los lotes que no se llegaron a entregar a fire vuelven a la rueda y se reintentan en el próximo tick
+            for (int i = next; i < due.size(); i++) {
+                ScheduledOrder order = due.get(i);
+                timers.put(order.getId(), wheel.schedule(order, order.getDueAt()));
+            }
+        }
+        if (!due.isEmpty()) {
+            compactIfDue();
+        }
+        return due.size();
+    }
+
+    // Si no se pudo registrar FIRING el lote vuelve a la rueda sin cambios. Una vez registrado y entregado al
+    // invocador las ocurrencias cuentan como disparadas aunque luego falle el lote o el registro de FIRED: sus
+    // claves ya pueden estar resueltas y repetirlas pagaría dos veces. Las órdenes avanzan y el error se propaga
+    private void fire(List<ScheduledOrder> orders) {
+        List<Command> commands = new ArrayList<>(orders.size());
+        List<ScheduledOrder> runnable = new ArrayList<>(orders.size());
+        for (ScheduledOrder order : orders) {
+            try {
+                commands.add(order.newCommand(accounts));
+                runnable.add(order);
+            } catch (RuntimeException e) {
+                // Una orden que ya no se puede construir (p. ej. una cuenta que no existe) no detiene a las demás:
+                // se pierde esta ocurrencia y la orden sigue con la siguiente
+                failedCount++;
+                CommandEvents.emit(EventType.EXECUTE_FAILED, "\nOrden programada no ejecutable: " + order + " - ",
+                        e.getMessage());
+            }
+        }
+
+        if (log != null && !runnable.isEmpty()) {
+            try {
+                for (ScheduledOrder order : runnable) {
+                    log.appendFiring(order.getId(), order.getNextOccurrence());
+                }
+                log.sync();
+            } catch (IOException e) {
+                for (ScheduledOrder order : orders) {
+                    timers.put(order.getId(), wheel.schedule(order, order.getDueAt()));
+                }
+                throw new UncheckedIOException("No se pudo registrar la ejecución de órdenes programadas", e);
+            }
+        }
+
+        RuntimeException failure = null;
+        try {
+            BatchResult result = invoker.executeBatch(commands, BatchMode.PER_ITEM);
+            CommandEvents.emit(EventType.INVOKER, "\nÓrdenes programadas ejecutadas: ", result.getSuccessCount());
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        if (log != null) {
+            // Sin FIRED la ocurrencia queda en duda y el próximo arranque la da por disparada
+            try {
+                for (ScheduledOrder order : orders) {
+                    log.appendFired(order.getId(), order.getNextOccurrence());
+                }
+                log.sync();
+            } catch (IOException e) {
+                UncheckedIOException logFailure =
+                        new UncheckedIOException("No se pudo registrar la ejecución de órdenes programadas", e);
+                if (failure == null) {
+                    failure = logFailure;
+                } else {
+                    failure.addSuppressed(logFailure);
+                }
+            }
+        }
+
+        for (ScheduledOrder order : orders) {
+            firedCount++;
+            if (order.advance()) {
+                timers.put(order.getId(), wheel.schedule(order, order.getDueAt()));
+            } else {
+                timers.remove(order.getId());
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void compactIfDue() {
+        if (log == null || log.getRecordCount() < Math.max(MIN_RECORDS_TO_COMPACT, 2L * timers.size())) {
+            return;
+        }
+        List<ScheduledOrder> live = new ArrayList<>(timers.size());
+        for (TimingWheel.Timer<ScheduledOrder> timer : timers.values()) {
+            live.add(timer.getPayload());
+        }
+        try {
+            log.compact(live);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo compactar el registro de órdenes programadas", e);
+        }
+    }
+
+    public synchronized int getPendingCount() {
+        return wheel.size();
+    }
+
+    public synchronized long getFiredCount() {
+        return firedCount;
+    }
+
+    // Ocurrencias descartadas porque su comando no se pudo construir
+    public synchronized long getFailedCount() {
+        return failedCount;
+    }
+
+    public synchronized ScheduledOrder getOrder(long orderId) {
+        TimingWheel.Timer<ScheduledOrder> timer = timers.get(orderId);
+        return timer != null ? timer.getPayload() : null;
+    }
+
+    // Revisa la rueda una vez por tick en un hilo propio
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        ticker = new Thread(this::tickLoop, "ordenes-programadas");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    @Override
+    public void close() {
+        Thread current;
+        synchronized (this) {
+            running = false;
+            current = ticker;
+        }
+        if (current != null) {
+            // Sin interrupt: un FileChannel interrumpido se cierra y el registro quedaría inutilizable
+            LockSupport.unpark(current);
+            try {
+                current.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (log != null) {
+            try {
+                log.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo cerrar el registro de órdenes programadas", e);
+            }
+        }
+    }
+
+    private void tickLoop() {
+        while (running) {
+            try {
+                runDue();
+            } catch (RuntimeException e) {
+                // El hilo sigue vivo: las órdenes ya volvieron a la rueda, avanzadas o no según el punto del fallo
+                CommandEvents.emit(EventType.EXECUTE_FAILED, "\nError al disparar órdenes programadas: ", e.getMessage());
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(wheel.getTickMillis()));
+        }
+    }
+}
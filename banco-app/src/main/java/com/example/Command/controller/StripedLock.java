@@ -0,0 +1,78 @@
+package com.example.Command.controller;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.example.Observer.model.ConcreteSubject;
+
+public class StripedLock {
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+
+    public StripedLock(int stripeCount) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("El número de franjas debe ser mayor a cero: " + stripeCount);
+        }
+        int size = 1;
+        while (size < stripeCount) {
+            size <<= 1;
+        }
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    public int stripeFor(String accountNumber) {
+        int h = accountNumber.hashCode();
+        h ^= (h >>> 16);
+        return h & mask;
+    }
+
+    // Indices ordenados y sin repetir: tomar las franjas siempre en orden ascendente evita interbloqueos
+    public int[] stripesFor(List<ConcreteSubject> accounts) {
+        int[] indexes = new int[accounts.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = stripeFor(accounts.get(i).getAccountNumber());
+        }
+        Arrays.sort(indexes);
+        int unique = 0;
+        for (int i = 0; i < indexes.length; i++) {
+            if (unique == 0 || indexes[unique - 1] != indexes[i]) {
+                indexes[unique++] = indexes[i];
+            }
+        }
+        return unique == indexes.length ? indexes : Arrays.copyOf(indexes, unique);
+    }
+
+    public void lock(int[] indexes) {
+        for (int index : indexes) {
+            stripes[index].lock();
+        }
+    }
+
+    public void unlock(int[] indexes) {
+        for (int i = indexes.length - 1; i >= 0; i--) {
+            stripes[indexes[i]].unlock();
+        }
+    }
+
+    public void lockAll() {
+        for (ReentrantLock stripe : stripes) {
+            stripe.lock();
+        }
+    }
+
+    public void unlockAll() {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            stripes[i].unlock();
+        }
+    }
+
+    public int getStripeCount() {
+        return stripes.length;
+    }
+}
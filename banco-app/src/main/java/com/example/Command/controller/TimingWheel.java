@@ -0,0 +1,174 @@
+package com.example.Command.controller;
+
+import java.util.function.Consumer;
+
+// Rueda jerárquica: el nivel 0 tiene una ranura por tick y cada nivel superior cubre slots veces más tiempo.
+// Cada ranura es una lista doblemente enlazada intrusiva, así insertar y cancelar son O(1). Al cruzar el
+// borde de un nivel superior su ranura se vacía y las entradas bajan al nivel que corresponde a su distancia;
+// las que quedan más allá del alcance total esperan en el nivel superior y se recolocan en cada vuelta
+public class TimingWheel<T> {
+    public static final int DEFAULT_SLOT_BITS = 6;
+    public static final int DEFAULT_LEVELS = 4;
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final int slotBits;
+    private final int mask;
+    private final int levels;
+    private final Timer<T>[][] heads;
+    private long currentTick;
+    private int size;
+
+
+    public TimingWheel(long tickMillis, long startMillis) {
+        this(tickMillis, startMillis, DEFAULT_SLOT_BITS, DEFAULT_LEVELS);
+    }
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, long startMillis, int slotBits, int levels) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("El tick debe ser mayor a cero: " + tickMillis);
+        }
+        if (slotBits <= 0 || levels <= 0 || slotBits * levels > 62) {
+            throw new IllegalArgumentException("Configuración de rueda inválida: " + slotBits + " bits x " + levels + " niveles");
+        }
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.slotBits = slotBits;
+        this.mask = (1 << slotBits) - 1;
+        this.levels = levels;
+        this.heads = (Timer<T>[][]) new Timer<?>[levels][1 << slotBits];
+    }
+
+    public Timer<T> schedule(T payload, long deadlineMillis) {
+        // Se redondea hacia arriba para no disparar nunca antes del plazo
+        long tick = Math.max(currentTick, Math.floorDiv(deadlineMillis - startMillis + tickMillis - 1, tickMillis));
+        Timer<T> timer = new Timer<>(payload, tick);
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    public boolean cancel(Timer<T> timer) {
+        if (timer.level < 0) {
+            return false;
+        }
+        unlink(timer);
+        size--;
+        return true;
+    }
+
+    // Avanza hasta nowMillis entregando en orden de tick las entradas vencidas; devuelve cuántas entregó
+    public int advance(long nowMillis, Consumer<T> expired) {
+        long target = Math.floorDiv(nowMillis - startMillis, tickMillis);
+        int fired = fireSlot(expired);
+        while (currentTick < target) {
+            currentTick++;
+            cascade();
+            fired += fireSlot(expired);
+        }
+        return fired;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    private void cascade() {
+        for (int level = 1; level < levels; level++) {
+            if ((currentTick & ((1L << (slotBits * level)) - 1)) != 0) {
+                return;
+            }
+            int slot = (int) (currentTick >>> (slotBits * level)) & mask;
+            Timer<T> timer = heads[level][slot];
+            heads[level][slot] = null;
+            while (timer != null) {
+                Timer<T> next = timer.next;
+                timer.prev = null;
+                timer.next = null;
+                timer.level = -1;
+                place(timer);
+                timer = next;
+            }
+        }
+    }
+
+    private int fireSlot(Consumer<T> expired) {
+        int slot = (int) currentTick & mask;
+        Timer<T> timer = heads[0][slot];
+        int fired = 0;
+        while (timer != null) {
+            Timer<T> next = timer.next;
+            if (timer.tick <= currentTick) {
+                unlink(timer);
+                size--;
+                fired++;
+                expired.accept(timer.payload);
+            }
+            timer = next;
+        }
+        return fired;
+    }
+
+    private void place(Timer<T> timer) {
+        long delta = timer.tick - currentTick;
+        int level = 0;
+        while (level < levels - 1 && (delta >>> (slotBits * (level + 1))) != 0) {
+            level++;
+        }
+        int slot = (int) (timer.tick >>> (slotBits * level)) & mask;
+        timer.level = level;
+        timer.slot = slot;
+        timer.prev = null;
+        timer.next = heads[level][slot];
+        if (timer.next != null) {
+            timer.next.prev = timer;
+        }
+        heads[level][slot] = timer;
+    }
+
+    private void unlink(Timer<T> timer) {
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+        } else {
+            heads[timer.level][timer.slot] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.prev = timer.prev;
+        }
+        timer.prev = null;
+        timer.next = null;
+        timer.level = -1;
+    }
+
+    public static final class Timer<T> {
+        private final T payload;
+        private final long tick;
+        private Timer<T> prev;
+        private Timer<T> next;
+        private int level;
+        private int slot;
+
+        private Timer(T payload, long tick) {
+            this.payload = payload;
+            this.tick = tick;
+            this.level = -1;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+
+        public boolean isPending() {
+            return level >= 0;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.Command.controller;
+
+// Se recarga de forma perezosa en cada intento según el tiempo transcurrido; no necesita hilo propio
+public class TokenBucket {
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefill;
+
+
+    public TokenBucket(int burst, double tokensPerSecond, long now) {
+        if (burst <= 0) {
+            throw new IllegalArgumentException("La ráfaga debe ser mayor a cero: " + burst);
+        }
+        if (tokensPerSecond <= 0) {
+            throw new IllegalArgumentException("La tasa debe ser mayor a cero: " + tokensPerSecond);
+        }
+        this.capacity = burst;
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000.0;
+        this.tokens = burst;
+        this.lastRefill = now;
+    }
+
+    public synchronized boolean tryAcquire(long now) {
+        refill(now);
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized void release() {
+        tokens = Math.min(capacity, tokens + 1);
+    }
+
+    public synchronized double getAvailableTokens(long now) {
+        refill(now);
+        return tokens;
+    }
+
+    private void refill(long now) {
+        if (now > lastRefill) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+        }
+    }
+}
@@ -1,119 +1,895 @@
 package com.example.Command.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Stack;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 
+import com.example.Command.model.BatchMode;
+import com.example.Command.model.BatchResult;
 import com.example.Command.model.Command;
+import com.example.Command.model.CommandCoalescing;
+import com.example.Command.model.CommandCodec;
+import com.example.Command.model.CommandEvents;
+import com.example.Command.model.CommandJournal;
+import com.example.Command.model.CommandResult;
+import com.example.Command.model.EventType;
+import com.example.Command.model.InvokerSnapshot;
+import com.example.Command.model.SnapshotStore;
+import com.example.Observer.model.ConcreteSubject;
 
 
 public class TransactionInvoker {
-    private List<Command> commandHistory;
-    private Stack<Command> undoStack;
-    private Stack<Command> redoStack;
-    
-    
+    // Por omisión el historial y la pila de deshacer no tienen límite, como antes de acotarlos
+    public static final int DEFAULT_HISTORY_CAPACITY = CommandRingBuffer.UNBOUNDED;
+    public static final int DEFAULT_UNDO_DEPTH = UndoChain.UNBOUNDED;
+    private static final int DEFAULT_LOCK_STRIPES = 64;
+    private static final int[] NO_STRIPES = new int[0];
+
+    private final CommandRingBuffer commandHistory;
+    private final UndoChain undoStack;
+    private final UndoChain redoStack;
+    private final ReentrantLock historyLock;
+    private final StripedLock accountLocks;
+    // Sin franjas el invocador igual puede usarse desde varios hilos (PriorityScheduler, AdmissionController...):
+    // cada ejecución, deshacer o rehacer toma la lectura y la instantánea la escritura, así no corta una a medias
+    private final ReentrantReadWriteLock snapshotGate;
+    private int totalCommandsExecuted;
+    private volatile CommandJournal journal;
+    private Path snapshotFile;
+    private Collection<ConcreteSubject> snapshotAccounts;
+    private int snapshotEvery;
+    private int commandsSinceSnapshot;
+    private boolean recovering;
+    private volatile AsyncCommandExecutor asyncExecutor;
+    private volatile IdempotencyCache idempotencyCache;
+    private volatile BalanceHistory balanceHistory;
+
+
     public TransactionInvoker() {
-        this.commandHistory = new ArrayList<>();
-        this.undoStack = new Stack<>();
-        this.redoStack = new Stack<>();
-    }
-    
-    
-    public void executeCommand(Command command) {
-        System.out.println("\n=== Ejecutando comando a través del TransactionInvoker ===");
-        System.out.println("Comando: " + command.getCommandDetails());
-        
-        command.execute();
-        commandHistory.add(command);
-        undoStack.push(command);
-        redoStack.clear(); 
-        
-        System.out.println("Comando agregado al historial");
-        System.out.println("Total de comandos en historial: " + commandHistory.size());
-    }
-    
-    
+        this(false);
+    }
+
+    public TransactionInvoker(boolean concurrent) {
+        this(concurrent, DEFAULT_LOCK_STRIPES);
+    }
+
+    public TransactionInvoker(boolean concurrent, int lockStripes) {
+        this(DEFAULT_HISTORY_CAPACITY, DEFAULT_UNDO_DEPTH, concurrent, lockStripes);
+    }
+
+    public TransactionInvoker(int historyCapacity, int undoDepth) {
+        this(historyCapacity, undoDepth, false, DEFAULT_LOCK_STRIPES);
+    }
+
+    public TransactionInvoker(int historyCapacity, int undoDepth, boolean concurrent, int lockStripes) {
+        this.commandHistory = new CommandRingBuffer(historyCapacity);
+        this.undoStack = new UndoChain(undoDepth);
+        this.redoStack = new UndoChain(undoDepth);
+        this.historyLock = new ReentrantLock();
+        this.accountLocks = concurrent ? new StripedLock(lockStripes) : null;
+        this.snapshotGate = concurrent ? null : new ReentrantReadWriteLock();
+    }
+
+
+    public CommandResult executeCommand(Command command) {
+        String key = command.getIdempotencyKey();
+        if (key == null) {
+            return executeUnique(command, null, null);
+        }
+        IdempotencyCache cache = getIdempotencyCache();
+        CompletableFuture<CommandResult> original = cache.reserve(key);
+        if (original != null) {
+            CommandEvents.emit(EventType.INVOKER, "\nComando duplicado, se devuelve el resultado original. Clave: ", key);
+            try {
+                return original.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+        return executeUnique(command, key, cache);
+    }
+
+    // Si el comando no llegó a ejecutarse la clave se libera para un reintento; si ya se ejecutó y lo que falla
+    // es la persistencia (journal, instantánea) la clave se completa igualmente, para que un reintento no lo
+    // vuelva a aplicar, y el error se propaga al llamador
+    private CommandResult executeUnique(Command command, String key, IdempotencyCache cache) {
+        boolean ran = false;
+        try {
+            requireJournalSupport(command);
+            if (CommandEvents.isEnabled()) {
+                CommandEvents.emit(EventType.INVOKER, "\n=== Ejecutando comando a través del TransactionInvoker ===");
+                CommandEvents.emit(EventType.INVOKER, "Comando: ", command.getCommandDetails());
+            }
+
+            int historySize;
+            int[] stripes = lockAccounts(command);
+            try {
+                BalanceHistory balances = balanceHistory;
+                long[] before = balances != null ? BalanceHistory.capture(command) : null;
+                command.execute();
+                ran = true;
+                historyLock.lock();
+                try {
+                    commandHistory.add(command);
+                    undoStack.add(command);
+                    redoStack.clear();
+                    totalCommandsExecuted++;
+                    commandsSinceSnapshot++;
+                    appendToJournal(CommandJournal.EXECUTE, command);
+                    if (balances != null) {
+                        balances.record(command, before, BalanceHistory.capture(command));
+                    }
+                    historySize = commandHistory.size();
+                } finally {
+                    historyLock.unlock();
+                }
+            } finally {
+                unlockAccounts(stripes);
+            }
+
+            CommandEvents.emit(EventType.INVOKER, "Comando agregado al historial");
+            CommandEvents.emit(EventType.INVOKER, "Total de comandos en historial: ", historySize);
+            snapshotIfDue();
+            CommandResult result = CommandResult.of(command);
+            if (key != null) {
+                cache.complete(key, result);
+            }
+            return result;
+        } catch (RuntimeException e) {
+            if (key != null) {
+                if (ran) {
+                    cache.complete(key, CommandResult.of(command));
+                } else {
+                    cache.abandon(key, e);
+                }
+            }
+            throw e;
+        }
+    }
+
+
+    public CompletableFuture<CommandResult> executeAsync(Command command) {
+        AsyncCommandExecutor executor = asyncExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = asyncExecutor;
+                if (executor == null) {
+                    executor = new AsyncCommandExecutor(this);
+                    asyncExecutor = executor;
+                }
+            }
+        }
+        return executor.submit(command);
+    }
+
+    // Se crea al primer comando con clave: los invocadores que no usan claves no pagan la memoria del filtro
+    public IdempotencyCache getIdempotencyCache() {
+        IdempotencyCache cache = idempotencyCache;
+        if (cache == null) {
+            synchronized (this) {
+                cache = idempotencyCache;
+                if (cache == null) {
+                    cache = new IdempotencyCache();
+                    idempotencyCache = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    public synchronized void setIdempotencyCache(IdempotencyCache idempotencyCache) {
+        this.idempotencyCache = idempotencyCache;
+    }
+
+    public void shutdownAsync() {
+        AsyncCommandExecutor executor;
+        synchronized (this) {
+            executor = asyncExecutor;
+            asyncExecutor = null;
+        }
+        if (executor != null) {
+            executor.close();
+        }
+    }
+
+
+    public BatchResult executeBatch(List<Command> commands) {
+        return executeBatch(commands, BatchMode.PER_ITEM);
+    }
+
+    // Los comandos con clave ya vista reciben el resultado original sin ejecutarse. Si el original aún está
+    // en curso no se espera (podría ser del mismo lote): el duplicado se informa como fallido
+    public BatchResult executeBatch(List<Command> commands, BatchMode mode) {
+        boolean keyed = false;
+        for (Command command : commands) {
+            keyed |= command.getIdempotencyKey() != null;
+        }
+        if (!keyed) {
+            return executeUniqueBatch(commands, mode, null, null);
+        }
+
+        long start = System.nanoTime();
+        IdempotencyCache cache = getIdempotencyCache();
+        CommandResult[] duplicates = new CommandResult[commands.size()];
+        List<Command> unique = new ArrayList<>(commands.size());
+        List<String> reserved = new ArrayList<>();
+        for (int i = 0; i < commands.size(); i++) {
+            Command command = commands.get(i);
+            String key = command.getIdempotencyKey();
+            CompletableFuture<CommandResult> original = key != null ? cache.reserve(key) : null;
+            if (original == null) {
+                unique.add(command);
+                reserved.add(key);
+            } else if (original.isDone() && !original.isCompletedExceptionally()) {
+                duplicates[i] = original.join();
+            } else {
+                duplicates[i] = CommandResult.failure(command, "Comando duplicado aún en ejecución: " + key);
+            }
+        }
+
+        BatchResult batch = executeUniqueBatch(unique, mode, reserved, cache);
+        List<CommandResult> uniqueResults = batch.getResults();
+        List<CommandResult> results = new ArrayList<>(commands.size());
+        for (int i = 0, u = 0; i < commands.size(); i++) {
+            results.add(duplicates[i] != null ? duplicates[i] : uniqueResults.get(u++));
+        }
+        return new BatchResult(mode, results, batch.isCommitted(), System.nanoTime() - start);
+    }
+
+    // Un solo bloqueo de franjas, una sola actualización del historial y un solo mensaje por lote. Las claves
+    // (alineadas con los comandos, null si no tienen) se resuelven como en executeUnique: una vez aplicado el
+    // lote se completan aunque falle la persistencia; si se revirtió o no llegó a aplicarse quedan libres
+    private BatchResult executeUniqueBatch(List<Command> commands, BatchMode mode, List<String> keys,
+                                           IdempotencyCache cache) {
+        long start = System.nanoTime();
+        List<CommandResult> results = new ArrayList<>(commands.size());
+        boolean committed = true;
+        boolean applied = false;
+        try {
+            for (Command command : commands) {
+                requireJournalSupport(command);
+            }
+            List<Command> executed = new ArrayList<>(commands.size());
+            BalanceHistory balances = balanceHistory;
+            List<long[]> before = balances != null ? new ArrayList<>(commands.size()) : null;
+            List<long[]> after = balances != null ? new ArrayList<>(commands.size()) : null;
+
+            int[] stripes = lockAccounts(commands);
+            try {
+                if (mode == BatchMode.COALESCED) {
+                    executeCoalesced(commands, results, executed, before, after);
+                } else {
+                    for (Command command : commands) {
+                        CommandResult result;
+                        try {
+                            // Dentro del lote una cuenta puede cambiar varias veces: se captura alrededor
+                            // de cada comando
+                            long[] previous = balances != null ? BalanceHistory.capture(command) : null;
+                            command.execute();
+                            executed.add(command);
+                            if (balances != null) {
+                                before.add(previous);
+                                after.add(BalanceHistory.capture(command));
+                            }
+                            result = CommandResult.of(command);
+                        } catch (RuntimeException e) {
+                            result = CommandResult.failure(command,
+                                    "Error al ejecutar el comando: " + e.getMessage());
+                        }
+                        results.add(result);
+                        if (!result.isSuccessful() && mode == BatchMode.ALL_OR_NOTHING) {
+                            committed = false;
+                            break;
+                        }
+                    }
+                }
+
+                if (committed) {
+                    applied = true;
+                    historyLock.lock();
+                    try {
+                        for (int i = 0; i < executed.size(); i++) {
+                            Command command = executed.get(i);
+                            commandHistory.add(command);
+                            undoStack.add(command);
+                            appendToJournal(CommandJournal.EXECUTE, command);
+                            if (balances != null) {
+                                balances.record(command, before.get(i), after.get(i));
+                            }
+                        }
+                        redoStack.clear();
+                        totalCommandsExecuted += executed.size();
+                        commandsSinceSnapshot += executed.size();
+                    } finally {
+                        historyLock.unlock();
+                    }
+                } else {
+                    for (int i = results.size() - 1; i >= 0; i--) {
+                        if (results.get(i).isSuccessful()) {
+                            results.get(i).getCommand().undo();
+                        }
+                    }
+                    // El comando que falló no entra al historial: vuelve a pendiente como el resto del lote
+                    CommandCodec.resetToPending(results.get(results.size() - 1).getCommand());
+                    for (int i = results.size(); i < commands.size(); i++) {
+                        results.add(CommandResult.failure(commands.get(i), "No ejecutado: el lote se revirtió"));
+                    }
+                }
+            } finally {
+                unlockAccounts(stripes);
+            }
+
+            BatchResult batchResult = new BatchResult(mode, results, committed, System.nanoTime() - start);
+            CommandEvents.emit(EventType.INVOKER, "\n", batchResult);
+            snapshotIfDue();
+            settleKeys(keys, cache, results, committed, null);
+            return batchResult;
+        } catch (RuntimeException e) {
+            settleKeys(keys, cache, results, applied, e);
+            throw e;
+        }
+    }
+
+    private static void settleKeys(List<String> keys, IdempotencyCache cache, List<CommandResult> results,
+                                   boolean applied, RuntimeException failure) {
+        if (keys == null) {
+            return;
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            String key = keys.get(i);
+            if (key == null) {
+                continue;
+            }
+            if (applied) {
+                cache.complete(key, results.get(i));
+            } else {
+                cache.abandon(key, failure != null ? failure : new IllegalStateException("Lote revertido"));
+            }
+        }
+    }
+
+
+    // Los depósitos y retiros se agrupan por cuenta hasta encontrar otro comando que toque esa cuenta;
+    // entonces se aplica primero el grupo pendiente para conservar el orden por cuenta
+    private void executeCoalesced(List<Command> commands, List<CommandResult> results, List<Command> executed,
+                                  List<long[]> before, List<long[]> after) {
+        int size = commands.size();
+        CommandResult[] slots = new CommandResult[size];
+        long[][] previous = new long[size][];
+        long[][] current = new long[size][];
+        Map<ConcreteSubject, List<Integer>> groups = new LinkedHashMap<>();
+
+        for (int i = 0; i < size; i++) {
+            Command command = commands.get(i);
+            if (CommandCoalescing.isCoalescible(command)) {
+                groups.computeIfAbsent(CommandCoalescing.accountOf(command), account -> new ArrayList<>()).add(i);
+                continue;
+            }
+            for (ConcreteSubject account : command.getAffectedAccounts()) {
+                applyGroup(account, groups.remove(account), commands, slots, previous, current);
+            }
+            try {
+                previous[i] = BalanceHistory.capture(command);
+                command.execute();
+                current[i] = BalanceHistory.capture(command);
+                slots[i] = CommandResult.of(command);
+            } catch (RuntimeException e) {
+                slots[i] = CommandResult.failure(command, "Error al ejecutar el comando: " + e.getMessage());
+                previous[i] = null;
+            }
+        }
+        for (Map.Entry<ConcreteSubject, List<Integer>> group : groups.entrySet()) {
+            applyGroup(group.getKey(), group.getValue(), commands, slots, previous, current);
+        }
+
+        for (int i = 0; i < size; i++) {
+            results.add(slots[i]);
+            if (previous[i] != null) {
+                executed.add(commands.get(i));
+                if (before != null) {
+                    before.add(previous[i]);
+                    after.add(current[i]);
+                }
+            }
+        }
+    }
+
+    private static void applyGroup(ConcreteSubject account, List<Integer> indexes, List<Command> commands,
+                                   CommandResult[] slots, long[][] previous, long[][] current) {
+        if (indexes == null) {
+            return;
+        }
+        List<Command> group = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            group.add(commands.get(index));
+        }
+        long[] balances = CommandCoalescing.execute(account, group);
+        for (int k = 0; k < indexes.size(); k++) {
+            int index = indexes.get(k);
+            slots[index] = CommandResult.of(commands.get(index));
+            previous[index] = new long[] {balances[k]};
+            current[index] = new long[] {balances[k + 1]};
+        }
+    }
+
+
     public void undoLastCommand() {
-        if (!undoStack.isEmpty()) {
-            Command lastCommand = undoStack.pop();
-            System.out.println("\n=== Deshaciendo último comando ===");
-            System.out.println("Comando a deshacer: " + lastCommand.getCommandDetails());
-            
-            lastCommand.undo();
-            redoStack.push(lastCommand);
-            
-            System.out.println("Comando deshecho y movido a pila de rehacer");
-        } else {
-            System.out.println("\nNo hay comandos para deshacer");
+        Command lastCommand = moveTop(undoStack, null);
+        if (lastCommand == null) {
+            CommandEvents.emit(EventType.INVOKER, getUndoableCommandsCount() == 0
+                    ? "\nNo hay comandos para deshacer" : "\nNo se pudo deshacer el último comando");
         }
     }
-    
+
     public void redoLastCommand() {
-        if (!redoStack.isEmpty()) {
-            Command lastUndoneCommand = redoStack.pop();
-            System.out.println("\n=== Rehaciendo último comando deshecho ===");
-            System.out.println("Comando a rehacer: " + lastUndoneCommand.getCommandDetails());
-            
-            lastUndoneCommand.execute();
-            undoStack.push(lastUndoneCommand);
-            
-            System.out.println("Comando rehecho y movido a pila de deshacer");
-        } else {
-            System.out.println("\nNo hay comandos para rehacer");
+        Command lastUndoneCommand = moveTop(redoStack, null);
+        if (lastUndoneCommand == null) {
+            CommandEvents.emit(EventType.INVOKER, "\nNo hay comandos para rehacer");
+        }
+    }
+
+    // Deshace el último comando que afectó a la cuenta aunque haya comandos más recientes de otras cuentas.
+    // Se niega (devuelve false) si ese comando toca otra cuenta con comandos posteriores: hay que deshacerlos antes.
+    // También devuelve false si el comando no pudo revertirse; entonces sigue en la pila de deshacer
+    public boolean undoLast(String accountNumber) {
+        Command lastCommand = moveTop(undoStack, accountNumber);
+        if (lastCommand == null) {
+            CommandEvents.emit(EventType.INVOKER, getUndoableCommandsCount(accountNumber) == 0
+                    ? "\nNo hay comandos para deshacer en la cuenta "
+                    : "\nNo se pudo deshacer el último comando de la cuenta ", accountNumber);
+        }
+        return lastCommand != null;
+    }
+
+    public boolean redoLast(String accountNumber) {
+        Command lastUndoneCommand = moveTop(redoStack, accountNumber);
+        if (lastUndoneCommand == null) {
+            CommandEvents.emit(EventType.INVOKER, getRedoableCommandsCount(accountNumber) == 0
+                    ? "\nNo hay comandos para rehacer en la cuenta "
+                    : "\nNo se pudo rehacer el último comando de la cuenta ", accountNumber);
+        }
+        return lastUndoneCommand != null;
+    }
+
+    // Las franjas del comando en la cima se toman antes de sacarlo de la pila; si otro hilo
+    // cambió la cima mientras tanto se reintenta, así deshacer/rehacer respeta el orden por cuenta.
+    // Con accountNumber la cima es la de la cadena de esa cuenta en lugar de la global
+    private Command moveTop(UndoChain source, String accountNumber) {
+        while (true) {
+            Command top;
+            historyLock.lock();
+            try {
+                if (accountNumber == null) {
+                    top = source.peekLast();
+                } else {
+                    top = source.isLastInAllAccounts(accountNumber) ? source.peekLast(accountNumber) : null;
+                }
+            } finally {
+                historyLock.unlock();
+            }
+            if (top == null) {
+                return null;
+            }
+
+            int[] stripes = lockAccounts(top);
+            try {
+                historyLock.lock();
+                try {
+                    if (accountNumber == null) {
+                        if (source.peekLast() != top) {
+                            continue;
+                        }
+                        source.removeLast();
+                    } else {
+                        if (source.peekLast(accountNumber) != top || !source.isLastInAllAccounts(accountNumber)) {
+                            continue;
+                        }
+                        source.removeLast(accountNumber);
+                    }
+                } finally {
+                    historyLock.unlock();
+                }
+
+                BalanceHistory balances = balanceHistory;
+                long[] before = balances != null ? BalanceHistory.capture(top) : null;
+                if (source == undoStack) {
+                    if (CommandEvents.isEnabled()) {
+                        CommandEvents.emit(EventType.INVOKER, "\n=== Deshaciendo último comando ===");
+                        CommandEvents.emit(EventType.INVOKER, "Comando a deshacer: ", top.getCommandDetails());
+                    }
+                    if (!top.tryUndo()) {
+                        // El comando sigue aplicado: vuelve a la pila de deshacer y no se registra en el journal
+                        historyLock.lock();
+                        try {
+                            undoStack.add(top);
+                        } finally {
+                            historyLock.unlock();
+                        }
+                        return null;
+                    }
+                } else {
+                    if (CommandEvents.isEnabled()) {
+                        CommandEvents.emit(EventType.INVOKER, "\n=== Rehaciendo último comando deshecho ===");
+                        CommandEvents.emit(EventType.INVOKER, "Comando a rehacer: ", top.getCommandDetails());
+                    }
+                    top.execute();
+                }
+
+                historyLock.lock();
+                try {
+                    (source == undoStack ? redoStack : undoStack).add(top);
+                    if (balances != null) {
+                        balances.record(top, before, BalanceHistory.capture(top));
+                    }
+                    if (accountNumber == null) {
+                        appendToJournal(source == undoStack ? CommandJournal.UNDO : CommandJournal.REDO, null);
+                    } else if (journal != null) {
+                        journal.appendAccountOperation(source == undoStack
+                                ? CommandJournal.UNDO_ACCOUNT : CommandJournal.REDO_ACCOUNT, accountNumber);
+                    }
+                } finally {
+                    historyLock.unlock();
+                }
+            } finally {
+                unlockAccounts(stripes);
+            }
+
+            CommandEvents.emit(EventType.INVOKER, source == undoStack
+                    ? "Comando deshecho y movido a pila de rehacer"
+                    : "Comando rehecho y movido a pila de deshacer");
+            return top;
         }
     }
-    
-    
+
+
     public void showCommandHistory() {
-        System.out.println("\n=== Historial de Comandos ===");
-        if (commandHistory.isEmpty()) {
-            System.out.println("No hay comandos en el historial");
-        } else {
-            for (int i = 0; i < commandHistory.size(); i++) {
-                System.out.println((i + 1) + ". " + commandHistory.get(i).getCommandDetails());
+        if (!CommandEvents.isEnabled()) {
+            return;
+        }
+        historyLock.lock();
+        try {
+            CommandEvents.emit(EventType.HISTORY, "\n=== Historial de Comandos ===");
+            if (commandHistory.isEmpty()) {
+                CommandEvents.emit(EventType.HISTORY, "No hay comandos en el historial");
+            } else {
+                int firstNumber = totalCommandsExecuted - commandHistory.size() + 1;
+                for (int i = 0; i < commandHistory.size(); i++) {
+                    CommandEvents.emit(EventType.HISTORY, (firstNumber + i) + ". ", commandHistory.get(i).getCommandDetails());
+                }
             }
+        } finally {
+            historyLock.unlock();
         }
     }
-    
-   
+
+
     public void showStackStatus() {
-        System.out.println("\n=== Estado de Pilas ===");
-        System.out.println("Pila de Deshacer: " + undoStack.size() + " comandos");
-        System.out.println("Pila de Rehacer: " + redoStack.size() + " comandos");
-        
-        if (!undoStack.isEmpty()) {
-            System.out.println("Último comando en pila de deshacer: " + 
-                             undoStack.peek().getCommandDetails());
-        }
-        
-        if (!redoStack.isEmpty()) {
-            System.out.println("Último comando en pila de rehacer: " + 
-                             redoStack.peek().getCommandDetails());
-        }
-    }
-    
-   
+        if (!CommandEvents.isEnabled()) {
+            return;
+        }
+        historyLock.lock();
+        try {
+            CommandEvents.emit(EventType.HISTORY, "\n=== Estado de Pilas ===");
+            CommandEvents.emit(EventType.HISTORY, "Pila de Deshacer: ", undoStack.size(), " comandos");
+            CommandEvents.emit(EventType.HISTORY, "Pila de Rehacer: ", redoStack.size(), " comandos");
+
+            if (!undoStack.isEmpty()) {
+                CommandEvents.emit(EventType.HISTORY, "Último comando en pila de deshacer: ",
+                                   undoStack.peekLast().getCommandDetails());
+            }
+
+            if (!redoStack.isEmpty()) {
+                CommandEvents.emit(EventType.HISTORY, "Último comando en pila de rehacer: ",
+                                   redoStack.peekLast().getCommandDetails());
+            }
+        } finally {
+            historyLock.unlock();
+        }
+    }
+
+
     public List<Command> getCommandHistory() {
-        return new ArrayList<>(commandHistory);
+        historyLock.lock();
+        try {
+            return new ArrayList<>(commandHistory.view());
+        } finally {
+            historyLock.unlock();
+        }
     }
-    
+
+    // Copia inmutable tomada bajo el cerrojo; para recorrer solo lo reciente sin copiar, forEachRecentCommand
+    public List<Command> getHistoryView() {
+        historyLock.lock();
+        try {
+            return List.copyOf(commandHistory.view());
+        } finally {
+            historyLock.unlock();
+        }
+    }
+
+    public void forEachRecentCommand(int limit, Consumer<Command> action) {
+        historyLock.lock();
+        try {
+            commandHistory.forEachRecent(limit, action);
+        } finally {
+            historyLock.unlock();
+        }
+    }
+
+    public void setEvictionListener(Consumer<Command> evictionListener) {
+        historyLock.lock();
+        try {
+            commandHistory.setEvictionListener(evictionListener);
+        } finally {
+            historyLock.unlock();
+        }
+    }
+
     public int getTotalCommandsExecuted() {
-        return commandHistory.size();
+        historyLock.lock();
+        try {
+            return totalCommandsExecuted;
+        } finally {
+            historyLock.unlock();
+        }
     }
-    
+
+    public long getEvictedCommandsCount() {
+        historyLock.lock();
+        try {
+            return commandHistory.getEvictedCount();
+        } finally {
+            historyLock.unlock();
+        }
+    }
+
+    public int getHistoryCapacity() {
+        return commandHistory.capacity();
+    }
+
+    public int getUndoDepth() {
+        return undoStack.capacity();
+    }
+
     public int getUndoableCommandsCount() {
-        return undoStack.size();
+        historyLock.lock();
+        try {
+            return undoStack.size();
+        } finally {
+            historyLock.unlock();
+        }
+    }
+
+    public int getUndoableCommandsCount(String accountNumber) {
+        historyLock.lock();
+        try {
+            return undoStack.size(accountNumber);
+        } finally {
+            historyLock.unlock();
+        }
+    }
+
+    public int getRedoableCommandsCount(String accountNumber) {
+        historyLock.lock();
+        try {
+            return redoStack.size(accountNumber);
+        } finally {
+            historyLock.unlock();
+        }
     }
-    
+
     public int getRedoableCommandsCount() {
-        return redoStack.size();
+        historyLock.lock();
+        try {
+            return redoStack.size();
+        } finally {
+            historyLock.unlock();
+        }
+    }
+
+    public void setJournal(CommandJournal journal) {
+        historyLock.lock();
+        try {
+            this.journal = journal;
+        } finally {
+            historyLock.unlock();
+        }
     }
-    
+
+    public CommandJournal getJournal() {
+        return journal;
+    }
+
+    // Registra el saldo resultante de cada ejecución, deshacer y rehacer para consultas históricas
+    public void setBalanceHistory(BalanceHistory balanceHistory) {
+        historyLock.lock();
+        try {
+            this.balanceHistory = balanceHistory;
+        } finally {
+            historyLock.unlock();
+        }
+    }
+
+    public BalanceHistory getBalanceHistory() {
+        return balanceHistory;
+    }
+
+    public void setSnapshotPolicy(Path snapshotFile, Collection<ConcreteSubject> accounts, int everyCommands) {
+        if (everyCommands <= 0) {
+            throw new IllegalArgumentException("La frecuencia de instantáneas debe ser mayor a cero: " + everyCommands);
+        }
+        historyLock.lock();
+        try {
+            this.snapshotFile = snapshotFile;
+            this.snapshotAccounts = accounts;
+            this.snapshotEvery = everyCommands;
+            this.commandsSinceSnapshot = 0;
+        } finally {
+            historyLock.unlock();
+        }
+    }
+
+    // Detiene todas las cuentas durante la escritura para obtener un corte consistente con el journal
+    public long takeSnapshot(Path file, Collection<ConcreteSubject> accounts) throws IOException {
+        long sequence;
+        CommandJournal current;
+        lockAllAccounts();
+        try {
+            historyLock.lock();
+            try {
+                current = journal;
+                if (current != null) {
+                    current.sync();
+                }
+                sequence = current != null ? current.getNextSequence() : 0;
+                SnapshotStore.write(file, sequence, accounts, undoStack.toList(), redoStack.toList());
+                commandsSinceSnapshot = 0;
+            } finally {
+                historyLock.unlock();
+            }
+        } finally {
+            unlockAllAccounts();
+        }
+
+        int deleted = current != null ? current.truncateBefore(sequence) : 0;
+        CommandEvents.emit(EventType.SNAPSHOT, "\nInstantánea guardada en secuencia ", sequence, ". Segmentos eliminados: ", deleted);
+        return sequence;
+    }
+
+    public void restoreSnapshot(InvokerSnapshot snapshot) {
+        historyLock.lock();
+        try {
+            undoStack.clear();
+            redoStack.clear();
+            snapshot.getUndoCommands().forEach(undoStack::add);
+            snapshot.getRedoCommands().forEach(redoStack::add);
+        } finally {
+            historyLock.unlock();
+        }
+    }
+
+    private void snapshotIfDue() {
+        Path file;
+        Collection<ConcreteSubject> accounts;
+        historyLock.lock();
+        try {
+            // Durante la recuperación no hay journal: una instantánea quedaría en secuencia 0 y pisaría la buena
+            if (recovering || snapshotFile == null || commandsSinceSnapshot < snapshotEvery) {
+                return;
+            }
+            file = snapshotFile;
+            accounts = snapshotAccounts;
+            commandsSinceSnapshot = 0;
+        } finally {
+            historyLock.unlock();
+        }
+        try {
+            takeSnapshot(file, accounts);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo guardar la instantánea", e);
+        }
+    }
+
+    void setRecovering(boolean recovering) {
+        historyLock.lock();
+        try {
+            this.recovering = recovering;
+        } finally {
+            historyLock.unlock();
+        }
+    }
+
+    public boolean isConcurrent() {
+        return accountLocks != null;
+    }
+
     public void clearAll() {
-        commandHistory.clear();
-        undoStack.clear();
-        redoStack.clear();
-        System.out.println("\nHistorial y pilas limpiados completamente");
+        historyLock.lock();
+        try {
+            commandHistory.clear();
+            undoStack.clear();
+            redoStack.clear();
+            totalCommandsExecuted = 0;
+        } finally {
+            historyLock.unlock();
+        }
+        CommandEvents.emit(EventType.INVOKER, "\nHistorial y pilas limpiados completamente");
+    }
+
+    private void requireJournalSupport(Command command) {
+        if (journal == null) {
+            return;
+        }
+        if (!CommandCodec.supports(command)) {
+            throw new IllegalArgumentException("Comando no soportado por el journal: " + command.getCommandName());
+        }
+        if (!CommandJournal.fits(command)) {
+            throw new IllegalArgumentException("Comando demasiado grande para el journal: " + command.getCommandName());
+        }
+    }
+
+    // Se invoca con historyLock tomado para que el orden del journal coincida con el del historial
+    private void appendToJournal(byte operation, Command command) {
+        if (journal != null) {
+            journal.append(operation, command);
+        }
+    }
+
+    private int[] lockAccounts(Command command) {
+        if (accountLocks == null) {
+            snapshotGate.readLock().lock();
+            return NO_STRIPES;
+        }
+        int[] stripes = accountLocks.stripesFor(command.getAffectedAccounts());
+        accountLocks.lock(stripes);
+        return stripes;
+    }
+
+    private int[] lockAccounts(List<Command> commands) {
+        if (accountLocks == null) {
+            snapshotGate.readLock().lock();
+            return NO_STRIPES;
+        }
+        List<ConcreteSubject> accounts = new ArrayList<>(commands.size() * 2);
+        for (Command command : commands) {
+            accounts.addAll(command.getAffectedAccounts());
+        }
+        int[] stripes = accountLocks.stripesFor(accounts);
+        accountLocks.lock(stripes);
+        return stripes;
+    }
+
+    private void lockAllAccounts() {
+        if (accountLocks != null) {
+            accountLocks.lockAll();
+        } else {
+            snapshotGate.writeLock().lock();
+        }
+    }
+
+    private void unlockAllAccounts() {
+        if (accountLocks != null) {
+            accountLocks.unlockAll();
+        } else {
+            snapshotGate.writeLock().unlock();
+        }
+    }
+
+    private void unlockAccounts(int[] stripes) {
+        if (accountLocks != null) {
+            accountLocks.unlock(stripes);
+        } else {
+            snapshotGate.readLock().unlock();
+        }
     }
 }
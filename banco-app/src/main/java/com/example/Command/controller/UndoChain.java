@@ -0,0 +1,256 @@
+package com.example.Command.controller;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import com.example.Command.model.Command;
+import com.example.Observer.model.ConcreteSubject;
+
+// Pila acotada de deshacer/rehacer con índice por cuenta: cada nodo está enlazado en la lista global y en la
+// lista de cada cuenta que afecta, así que sacar el último comando de una cuenta es O(1) aunque no esté en la cima
+public class UndoChain implements Iterable<Command> {
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+    private static final String[] NO_ACCOUNTS = new String[0];
+
+    private final int capacity;
+    private final Map<String, AccountChain> accountChains;
+    private Node head;
+    private Node tail;
+    private int size;
+    private long evictedCount;
+
+
+    public UndoChain(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser mayor a cero: " + capacity);
+        }
+        this.capacity = capacity;
+        this.accountChains = new HashMap<>();
+    }
+
+    public void add(Command command) {
+        if (size == capacity) {
+            unlink(head);
+            evictedCount++;
+        }
+        Node node = new Node(command, accountNumbersOf(command));
+        node.prev = tail;
+        if (tail != null) {
+            tail.next = node;
+        } else {
+            head = node;
+        }
+        tail = node;
+        size++;
+
+        for (int i = 0; i < node.accounts.length; i++) {
+            AccountChain chain = accountChains.computeIfAbsent(node.accounts[i], account -> new AccountChain());
+            Node previous = chain.tail;
+            node.accountPrev[i] = previous;
+            if (previous != null) {
+                previous.accountNext[previous.slotOf(node.accounts[i])] = node;
+            }
+            chain.tail = node;
+            chain.size++;
+        }
+    }
+
+    public Command peekLast() {
+        return tail == null ? null : tail.command;
+    }
+
+    public Command removeLast() {
+        Node last = tail;
+        if (last == null) {
+            return null;
+        }
+        unlink(last);
+        return last.command;
+    }
+
+    public Command peekLast(String accountNumber) {
+        AccountChain chain = accountChains.get(accountNumber);
+        return chain == null ? null : chain.tail.command;
+    }
+
+    public Command removeLast(String accountNumber) {
+        AccountChain chain = accountChains.get(accountNumber);
+        if (chain == null) {
+            return null;
+        }
+        Node last = chain.tail;
+        unlink(last);
+        return last.command;
+    }
+
+    // El último comando de la cuenta solo puede sacarse si también es el último de cada otra cuenta que toca:
+    // si no, un comando posterior de esa otra cuenta se calculó sobre su efecto
+    public boolean isLastInAllAccounts(String accountNumber) {
+        AccountChain chain = accountChains.get(accountNumber);
+        if (chain == null) {
+            return false;
+        }
+        Node last = chain.tail;
+        for (String account : last.accounts) {
+            if (accountChains.get(account).tail != last) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Copia del más antiguo al más reciente
+    public List<Command> toList() {
+        List<Command> commands = new ArrayList<>(size);
+        for (Node node = head; node != null; node = node.next) {
+            commands.add(node.command);
+        }
+        return commands;
+    }
+
+    @Override
+    public Iterator<Command> iterator() {
+        return new Iterator<Command>() {
+            private Node current = head;
+
+            @Override
+            public boolean hasNext() {
+                return current != null;
+            }
+
+            @Override
+            public Command next() {
+                if (current == null) {
+                    throw new NoSuchElementException();
+                }
+                Command command = current.command;
+                current = current.next;
+                return command;
+            }
+        };
+    }
+
+    public void clear() {
+        head = null;
+        tail = null;
+        size = 0;
+        accountChains.clear();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int size(String accountNumber) {
+        AccountChain chain = accountChains.get(accountNumber);
+        return chain == null ? 0 : chain.size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public long getEvictedCount() {
+        return evictedCount;
+    }
+
+    private void unlink(Node node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            head = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        } else {
+            tail = node.prev;
+        }
+        size--;
+
+        for (int i = 0; i < node.accounts.length; i++) {
+            String account = node.accounts[i];
+            Node previous = node.accountPrev[i];
+            Node following = node.accountNext[i];
+            if (previous != null) {
+                previous.accountNext[previous.slotOf(account)] = following;
+            }
+            AccountChain chain = accountChains.get(account);
+            if (following != null) {
+                following.accountPrev[following.slotOf(account)] = previous;
+            } else {
+                chain.tail = previous;
+            }
+            // Sin comandos pendientes la cuenta sale del índice para que no crezca con cuentas inactivas
+            if (--chain.size == 0) {
+                accountChains.remove(account);
+            }
+        }
+    }
+
+    private static String[] accountNumbersOf(Command command) {
+        List<ConcreteSubject> affected = command.getAffectedAccounts();
+        if (affected.isEmpty()) {
+            return NO_ACCOUNTS;
+        }
+        String[] accounts = new String[affected.size()];
+        int unique = 0;
+        for (ConcreteSubject account : affected) {
+            String number = account.getAccountNumber();
+            boolean repeated = false;
+            for (int i = 0; i < unique; i++) {
+                if (accounts[i].equals(number)) {
+                    repeated = true;
+                    break;
+                }
+            }
+            if (!repeated) {
+                accounts[unique++] = number;
+            }
+        }
+        if (unique == accounts.length) {
+            return accounts;
+        }
+        String[] trimmed = new String[unique];
+        System.arraycopy(accounts, 0, trimmed, 0, unique);
+        return trimmed;
+    }
+
+    private static final class Node {
+        final Command command;
+        final String[] accounts;
+        final Node[] accountPrev;
+        final Node[] accountNext;
+        Node prev;
+        Node next;
+
+        Node(Command command, String[] accounts) {
+            this.command = command;
+            this.accounts = accounts;
+            this.accountPrev = new Node[accounts.length];
+            this.accountNext = new Node[accounts.length];
+        }
+
+        // Los comandos afectan a muy pocas cuentas: una búsqueda lineal es más barata que un mapa por nodo
+        int slotOf(String account) {
+            for (int i = 0; i < accounts.length; i++) {
+                if (accounts[i].equals(account)) {
+                    return i;
+                }
+            }
+            throw new IllegalStateException("El nodo no pertenece a la cuenta " + account);
+        }
+    }
+
+    private static final class AccountChain {
+        Node tail;
+        int size;
+    }
+}
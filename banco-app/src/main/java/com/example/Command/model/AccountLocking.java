@@ -0,0 +1,67 @@
+package com.example.Command.model;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.example.Observer.model.ConcreteSubject;
+
+// Orden global de cerrojos: número de cuenta y, si dos objetos comparten número, identityHashCode.
+// Si también empatan se toma primero TIE_LOCK para que dos hilos no los adquieran en orden opuesto
+public final class AccountLocking {
+    private static final ReentrantLock TIE_LOCK = new ReentrantLock();
+    private static final Comparator<ConcreteSubject> LOCK_ORDER = Comparator
+            .comparing(ConcreteSubject::getAccountNumber)
+            .thenComparingInt(System::identityHashCode);
+
+
+    private AccountLocking() {
+    }
+
+    public static ConcreteSubject[] lockInOrder(ConcreteSubject first, ConcreteSubject second) {
+        if (first == second) {
+            first.lockAccount();
+            return new ConcreteSubject[] {first};
+        }
+        return lockInOrder(List.of(first, second));
+    }
+
+    // Devuelve las cuentas efectivamente bloqueadas, en el orden de adquisición, para pasarlas a unlock
+    public static ConcreteSubject[] lockInOrder(List<ConcreteSubject> accounts) {
+        ConcreteSubject[] ordered = accounts.toArray(new ConcreteSubject[0]);
+        Arrays.sort(ordered, LOCK_ORDER);
+        int unique = 0;
+        boolean tie = false;
+        for (int i = 0; i < ordered.length; i++) {
+            if (unique > 0 && ordered[unique - 1] == ordered[i]) {
+                continue;
+            }
+            if (unique > 0 && LOCK_ORDER.compare(ordered[unique - 1], ordered[i]) == 0) {
+                tie = true;
+            }
+            ordered[unique++] = ordered[i];
+        }
+        ConcreteSubject[] locked = unique == ordered.length ? ordered : Arrays.copyOf(ordered, unique);
+
+        if (tie) {
+            TIE_LOCK.lock();
+        }
+        try {
+            for (ConcreteSubject account : locked) {
+                account.lockAccount();
+            }
+        } finally {
+            if (tie) {
+                TIE_LOCK.unlock();
+            }
+        }
+        return locked;
+    }
+
+    public static void unlock(ConcreteSubject[] locked) {
+        for (int i = locked.length - 1; i >= 0; i--) {
+            locked[i].unlockAccount();
+        }
+    }
+}
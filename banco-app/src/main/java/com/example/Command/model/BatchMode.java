@@ -0,0 +1,8 @@
+package com.example.Command.model;
+
+public enum BatchMode {
+    ALL_OR_NOTHING,
+    PER_ITEM,
+    // Como PER_ITEM, pero los depósitos y retiros de una misma cuenta se aplican como un solo movimiento neto
+    COALESCED
+}
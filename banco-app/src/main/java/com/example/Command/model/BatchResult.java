@@ -0,0 +1,59 @@
+package com.example.Command.model;
+
+import java.util.Collections;
+import java.util.List;
+
+public class BatchResult {
+    private final BatchMode mode;
+    private final List<CommandResult> results;
+    private final boolean committed;
+    private final long elapsedNanos;
+
+    public BatchResult(BatchMode mode, List<CommandResult> results, boolean committed, long elapsedNanos) {
+        this.mode = mode;
+        this.results = Collections.unmodifiableList(results);
+        this.committed = committed;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public BatchMode getMode() {
+        return mode;
+    }
+
+    public List<CommandResult> getResults() {
+        return results;
+    }
+
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    public int getSuccessCount() {
+        int count = 0;
+        for (CommandResult result : results) {
+            if (result.isSuccessful()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int getFailureCount() {
+        return results.size() - getSuccessCount();
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getCommandsPerSecond() {
+        return elapsedNanos == 0 ? 0 : results.size() * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Lote %s: %d comandos, %d exitosos, %d fallidos, %s en %.3f ms",
+                mode, results.size(), getSuccessCount(), getFailureCount(),
+                committed ? "confirmado" : "revertido", elapsedNanos / 1_000_000.0);
+    }
+}
@@ -1,12 +1,41 @@
 package com.example.Command.model;
 
+import java.util.Collections;
+import java.util.List;
+
+import com.example.Observer.model.ConcreteSubject;
+
 public interface Command {
-    
+
     void execute();
-    
+
     void undo();
-    
+
+    // Como undo, pero informa si no se pudo revertir (por ejemplo, la cuenta ya no tiene el dinero); en ese
+    // caso el comando conserva su estado. Por omisión deshacer no falla
+    default boolean tryUndo() {
+        undo();
+        return true;
+    }
+
     String getCommandName();
-    
+
     String getCommandDetails();
+
+    default boolean wasSuccessful() {
+        return true;
+    }
+
+    default List<ConcreteSubject> getAffectedAccounts() {
+        return Collections.emptyList();
+    }
+
+    // Clave opcional del cliente: dos comandos con la misma clave se ejecutan una sola vez
+    default String getIdempotencyKey() {
+        return null;
+    }
+
+    default CommandPriority getPriority() {
+        return CommandPriority.NORMAL;
+    }
 }
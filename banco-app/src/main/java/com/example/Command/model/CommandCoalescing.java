@@ -0,0 +1,65 @@
+package com.example.Command.model;
+
+import java.util.List;
+
+import com.example.Observer.model.ConcreteSubject;
+
+// Ejecuta como un solo movimiento neto los depósitos y retiros pendientes de una misma cuenta. Cada comando
+// queda en el mismo estado que si se hubiera ejecutado por separado, así puede deshacerse de forma individual
+public final class CommandCoalescing {
+
+    private CommandCoalescing() {
+    }
+
+    public static boolean isCoalescible(Command command) {
+        if (command instanceof DepositCommand deposit) {
+            return !deposit.isExecuted() && deposit.getMoney().isPositive()
+                    && deposit.getMoney().getCurrency().equals(deposit.getAccount().getCurrency());
+        }
+        if (command instanceof WithdrawCommand withdraw) {
+            return !withdraw.isExecuted() && withdraw.getMoney().isPositive()
+                    && withdraw.getMoney().getCurrency().equals(withdraw.getAccount().getCurrency());
+        }
+        return false;
+    }
+
+    public static ConcreteSubject accountOf(Command command) {
+        if (command instanceof DepositCommand deposit) {
+            return deposit.getAccount();
+        }
+        if (command instanceof WithdrawCommand withdraw) {
+            return withdraw.getAccount();
+        }
+        throw new IllegalArgumentException("Comando no agrupable: " + command.getCommandName());
+    }
+
+    // Todos los comandos deben cumplir isCoalescible y afectar a account. Devuelve el saldo inicial en la
+    // posición 0 y el saldo tras cada comando en la posición i + 1
+    public static long[] execute(ConcreteSubject account, List<Command> commands) {
+        long[] deltas = new long[commands.size()];
+        for (int i = 0; i < deltas.length; i++) {
+            Command command = commands.get(i);
+            if (!isCoalescible(command) || accountOf(command) != account) {
+                throw new IllegalArgumentException("Comando no agrupable en la cuenta "
+                        + account.getAccountNumber() + ": " + command.getCommandDetails());
+            }
+            long amount = command instanceof DepositCommand deposit
+                    ? deposit.getMoney().getMinorUnits()
+                    : ((WithdrawCommand) command).getMoney().getMinorUnits();
+            deltas[i] = command instanceof DepositCommand ? amount : -amount;
+        }
+
+        long[] balances = account.applyCoalesced(deltas);
+        for (int i = 0; i < deltas.length; i++) {
+            Command command = commands.get(i);
+            if (command instanceof DepositCommand deposit) {
+                deposit.restoreState(true, true);
+            } else {
+                ((WithdrawCommand) command).restoreState(true, balances[i + 1] != balances[i]);
+            }
+        }
+        CommandEvents.emit(EventType.EXECUTE_SUCCEEDED, "Movimientos agrupados ejecutados en cuenta ",
+                account.getAccountNumber(), ": ", deltas.length);
+        return balances;
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.Command.model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.example.Observer.model.ConcreteSubject;
+import com.example.Observer.model.Money;
+
+public class CommandCodec {
+    public static final byte DEPOSIT = 1;
+    public static final byte WITHDRAW = 2;
+    public static final byte TRANSFER = 3;
+    public static final byte COMPOSITE = 4;
+
+
+    public static boolean supports(Command command) {
+        if (command instanceof CompositeCommand composite) {
+            return composite.getLegs().stream().allMatch(CommandCodec::supports);
+        }
+        return command instanceof DepositCommand
+                || command instanceof WithdrawCommand
+                || command instanceof TransferCommand;
+    }
+
+    public static void encode(Command command, ByteBuffer buffer) {
+        if (command instanceof DepositCommand deposit) {
+            buffer.put(DEPOSIT);
+            putAccount(buffer, deposit.getAccount());
+            buffer.putLong(deposit.getMoney().getMinorUnits());
+        } else if (command instanceof WithdrawCommand withdraw) {
+            buffer.put(WITHDRAW);
+            putAccount(buffer, withdraw.getAccount());
+            buffer.putLong(withdraw.getMoney().getMinorUnits());
+        } else if (command instanceof TransferCommand transfer) {
+            buffer.put(TRANSFER);
+            putAccount(buffer, transfer.getSourceAccount());
+            putAccount(buffer, transfer.getDestinationAccount());
+            buffer.putLong(transfer.getMoney().getMinorUnits());
+        } else if (command instanceof CompositeCommand composite) {
+            buffer.put(COMPOSITE);
+            buffer.putShort((short) composite.getLegs().size());
+            for (Command leg : composite.getLegs()) {
+                encode(leg, buffer);
+            }
+        } else {
+            throw new IllegalArgumentException("Comando no soportado por el codec: " + command.getCommandName());
+        }
+    }
+
+    // Bytes exactos que escribe encode, para dimensionar el búfer o rechazar el comando antes de ejecutarlo
+    public static int encodedSize(Command command) {
+        if (command instanceof DepositCommand deposit) {
+            return Byte.BYTES + accountSize(deposit.getAccount()) + Long.BYTES;
+        } else if (command instanceof WithdrawCommand withdraw) {
+            return Byte.BYTES + accountSize(withdraw.getAccount()) + Long.BYTES;
+        } else if (command instanceof TransferCommand transfer) {
+            return Byte.BYTES + accountSize(transfer.getSourceAccount()) + accountSize(transfer.getDestinationAccount()) + Long.BYTES;
+        } else if (command instanceof CompositeCommand composite) {
+            int size = Byte.BYTES + Short.BYTES;
+            for (Command leg : composite.getLegs()) {
+                size += encodedSize(leg);
+            }
+            return size;
+        }
+        throw new IllegalArgumentException("Comando no soportado por el codec: " + command.getCommandName());
+    }
+
+    public static int encodedSizeWithState(Command command) {
+        return encodedSize(command) + Byte.BYTES;
+    }
+
+    public static Command decode(ByteBuffer buffer, Map<String, ConcreteSubject> accounts) {
+        byte type = buffer.get();
+        switch (type) {
+            case DEPOSIT: {
+                ConcreteSubject account = getAccount(buffer, accounts);
+                return new DepositCommand(account, Money.ofMinor(buffer.getLong(), account.getCurrency()));
+            }
+            case WITHDRAW: {
+                ConcreteSubject account = getAccount(buffer, accounts);
+                return new WithdrawCommand(account, Money.ofMinor(buffer.getLong(), account.getCurrency()));
+            }
+            case TRANSFER: {
+                ConcreteSubject source = getAccount(buffer, accounts);
+                ConcreteSubject destination = getAccount(buffer, accounts);
+                return new TransferCommand(source, destination, Money.ofMinor(buffer.getLong(), source.getCurrency()));
+            }
+            case COMPOSITE: {
+                int count = buffer.getShort();
+                List<Command> legs = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    legs.add(decode(buffer, accounts));
+                }
+                return new CompositeCommand(legs);
+            }
+            default:
+                throw new IllegalStateException("Tipo de comando desconocido: " + type);
+        }
+    }
+
+    public static void encodeWithState(Command command, ByteBuffer buffer) {
+        encode(command, buffer);
+        buffer.put((byte) ((isExecuted(command) ? 1 : 0) | (command.wasSuccessful() ? 2 : 0)));
+    }
+
+    public static Command decodeWithState(ByteBuffer buffer, Map<String, ConcreteSubject> accounts) {
+        Command command = decode(buffer, accounts);
+        byte flags = buffer.get();
+        boolean executed = (flags & 1) != 0;
+        boolean successful = (flags & 2) != 0;
+        restoreState(command, executed, successful);
+        return command;
+    }
+
+    // Devuelve a pendiente un comando que falló dentro de un lote revertido, para poder reintentarlo
+    public static void resetToPending(Command command) {
+        restoreState(command, false, false);
+    }
+
+    static void restoreState(Command command, boolean executed, boolean successful) {
+        if (command instanceof DepositCommand deposit) {
+            deposit.restoreState(executed, successful);
+        } else if (command instanceof WithdrawCommand withdraw) {
+            withdraw.restoreState(executed, successful);
+        } else if (command instanceof TransferCommand transfer) {
+            transfer.restoreState(executed, successful);
+        } else if (command instanceof CompositeCommand composite) {
+            composite.restoreState(executed, successful);
+        }
+    }
+
+    static boolean isExecuted(Command command) {
+        if (command instanceof DepositCommand deposit) {
+            return deposit.isExecuted();
+        } else if (command instanceof WithdrawCommand withdraw) {
+            return withdraw.isExecuted();
+        } else if (command instanceof TransferCommand transfer) {
+            return transfer.isExecuted();
+        } else if (command instanceof CompositeCommand composite) {
+            return composite.isExecuted();
+        }
+        return false;
+    }
+
+    public static void encodeAccountNumber(String accountNumber, ByteBuffer buffer) {
+        byte[] bytes = accountNumber.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    public static String decodeAccountNumber(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static int encodedAccountNumberSize(String accountNumber) {
+        return Short.BYTES + accountNumber.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static int accountSize(ConcreteSubject account) {
+        return encodedAccountNumberSize(account.getAccountNumber());
+    }
+
+    private static void putAccount(ByteBuffer buffer, ConcreteSubject account) {
+        encodeAccountNumber(account.getAccountNumber(), buffer);
+    }
+
+    private static ConcreteSubject getAccount(ByteBuffer buffer, Map<String, ConcreteSubject> accounts) {
+        String accountNumber = decodeAccountNumber(buffer);
+        ConcreteSubject account = accounts.get(accountNumber);
+        if (account == null) {
+            throw new IllegalStateException("Cuenta desconocida: " + accountNumber);
+        }
+        return account;
+    }
+}
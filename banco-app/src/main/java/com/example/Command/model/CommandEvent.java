@@ -0,0 +1,47 @@
+package com.example.Command.model;
+
+// Las partes deben ser inmutables (String, Money, números): el texto se arma solo cuando un sink lo pide,
+// posiblemente en otro hilo
+public final class CommandEvent {
+    private final EventType type;
+    private final long timestamp;
+    private final Object[] parts;
+    private String message;
+
+
+    CommandEvent(EventType type, Object... parts) {
+        this.type = type;
+        this.timestamp = System.currentTimeMillis();
+        this.parts = parts;
+    }
+
+    public EventType getType() {
+        return type;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getMessage() {
+        String rendered = message;
+        if (rendered == null) {
+            if (parts.length == 1) {
+                rendered = String.valueOf(parts[0]);
+            } else {
+                StringBuilder builder = new StringBuilder(64);
+                for (Object part : parts) {
+                    builder.append(part);
+                }
+                rendered = builder.toString();
+            }
+            message = rendered;
+        }
+        return rendered;
+    }
+
+    @Override
+    public String toString() {
+        return type + ": " + getMessage();
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.Command.model;
+
+// Punto único de emisión: con el sink por defecto (NO_OP) cada llamada es una lectura volátil y un salto
+public final class CommandEvents {
+    private static volatile EventSink sink = EventSink.NO_OP;
+
+
+    private CommandEvents() {
+    }
+
+    public static EventSink getSink() {
+        return sink;
+    }
+
+    // Devuelve el sink anterior para poder restaurarlo
+    public static EventSink setSink(EventSink newSink) {
+        EventSink previous = sink;
+        sink = newSink != null ? newSink : EventSink.NO_OP;
+        return previous;
+    }
+
+    public static boolean isEnabled() {
+        return sink.isEnabled();
+    }
+
+    public static void emit(EventType type, String message) {
+        EventSink current = sink;
+        if (current.isEnabled()) {
+            current.accept(new CommandEvent(type, message));
+        }
+    }
+
+    public static void emit(EventType type, String text, Object value) {
+        EventSink current = sink;
+        if (current.isEnabled()) {
+            current.accept(new CommandEvent(type, text, value));
+        }
+    }
+
+    // Sobrecarga primitiva: evita el boxing cuando el sink está apagado
+    public static void emit(EventType type, String text, long value) {
+        EventSink current = sink;
+        if (current.isEnabled()) {
+            current.accept(new CommandEvent(type, text, value));
+        }
+    }
+
+    // Texto, valor y un sufijo (p. ej. "Pila: ", 3, " comandos")
+    public static void emit(EventType type, String text, Object value, String text2) {
+        EventSink current = sink;
+        if (current.isEnabled()) {
+            current.accept(new CommandEvent(type, text, value, text2));
+        }
+    }
+
+    public static void emit(EventType type, String text, Object value, String text2, Object value2) {
+        EventSink current = sink;
+        if (current.isEnabled()) {
+            current.accept(new CommandEvent(type, text, value, text2, value2));
+        }
+    }
+}
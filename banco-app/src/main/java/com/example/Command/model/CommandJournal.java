@@ -0,0 +1,250 @@
+package com.example.Command.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Registro: [longitud int][operación byte][secuencia long][comando][crc32 int]; una longitud 0 marca el final del segmento
+public class CommandJournal implements Closeable {
+    public static final byte EXECUTE = 1;
+    public static final byte UNDO = 2;
+    public static final byte REDO = 3;
+    public static final byte UNDO_ACCOUNT = 4;
+    public static final byte REDO_ACCOUNT = 5;
+
+    public static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+    public static final int DEFAULT_SYNC_EVERY = 64;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final int HEADER_SIZE = Integer.BYTES + Byte.BYTES + Long.BYTES;
+    private static final int MAX_RECORD_SIZE = 1024;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int syncEvery;
+    private final ByteBuffer scratch;
+    private final CRC32 crc;
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long nextSequence;
+    private int unsyncedRecords;
+    private long syncCount;
+
+
+    public CommandJournal(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE, DEFAULT_SYNC_EVERY);
+    }
+
+    public CommandJournal(Path directory, int segmentSize, int syncEvery) throws IOException {
+        if (segmentSize < MAX_RECORD_SIZE * 2) {
+            throw new IllegalArgumentException("Tamaño de segmento demasiado pequeño: " + segmentSize);
+        }
+        if (syncEvery <= 0) {
+            throw new IllegalArgumentException("La frecuencia de sincronización debe ser mayor a cero: " + syncEvery);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.syncEvery = syncEvery;
+        this.scratch = ByteBuffer.allocate(MAX_RECORD_SIZE);
+        this.crc = new CRC32();
+        Files.createDirectories(directory);
+        openLastSegment();
+    }
+
+    // Un comando que no cabe en un registro se rechaza antes de ejecutarse, nunca después de aplicarlo
+    public static boolean fits(Command command) {
+        return Byte.BYTES + Long.BYTES + CommandCodec.encodedSize(command) <= MAX_RECORD_SIZE;
+    }
+
+    public static boolean fits(String accountNumber) {
+        return Byte.BYTES + Long.BYTES + CommandCodec.encodedAccountNumberSize(accountNumber) <= MAX_RECORD_SIZE;
+    }
+
+    public interface RecordVisitor {
+        void visit(byte operation, long sequence, ByteBuffer command);
+    }
+
+
+    public synchronized long append(byte operation, Command command) {
+        scratch.clear();
+        scratch.put(operation);
+        scratch.putLong(nextSequence);
+        if (command != null) {
+            CommandCodec.encode(command, scratch);
+        }
+        return writeRecord();
+    }
+
+    // Deshacer/rehacer sobre una cuenta concreta: el registro lleva el número de cuenta en lugar del comando
+    public synchronized long appendAccountOperation(byte operation, String accountNumber) {
+        scratch.clear();
+        scratch.put(operation);
+        scratch.putLong(nextSequence);
+        CommandCodec.encodeAccountNumber(accountNumber, scratch);
+        return writeRecord();
+    }
+
+    private long writeRecord() {
+        scratch.flip();
+        int length = scratch.remaining();
+
+        try {
+            if (segment.remaining() < Integer.BYTES + length + Integer.BYTES + Integer.BYTES) {
+                rollSegment();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear un nuevo segmento del journal", e);
+        }
+
+        crc.reset();
+        crc.update(scratch.array(), 0, length);
+        segment.putInt(length);
+        segment.put(scratch);
+        segment.putInt((int) crc.getValue());
+
+        if (++unsyncedRecords >= syncEvery) {
+            sync();
+        }
+        return nextSequence++;
+    }
+
+    public synchronized void sync() {
+        if (unsyncedRecords > 0) {
+            segment.force();
+            unsyncedRecords = 0;
+            syncCount++;
+        }
+    }
+
+    public synchronized void replay(long fromSequence, RecordVisitor visitor) throws IOException {
+        sync();
+        for (Path path : listSegments()) {
+            try (FileChannel readChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+                ByteBuffer data = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+                scanSegment(data, fromSequence, visitor);
+            }
+        }
+    }
+
+    public synchronized int truncateBefore(long sequence) throws IOException {
+        List<Path> segments = listSegments();
+        int deleted = 0;
+        // Un segmento se puede borrar si el siguiente empieza en o antes de la secuencia indicada
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (firstSequenceOf(segments.get(i + 1)) <= sequence) {
+                Files.delete(segments.get(i));
+                deleted++;
+            } else {
+                break;
+            }
+        }
+        return deleted;
+    }
+
+    public synchronized long getNextSequence() {
+        return nextSequence;
+    }
+
+    public synchronized long getSyncCount() {
+        return syncCount;
+    }
+
+    public synchronized int getSegmentCount() throws IOException {
+        return listSegments().size();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            sync();
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void openLastSegment() throws IOException {
+        List<Path> segments = listSegments();
+        if (segments.isEmpty()) {
+            nextSequence = 0;
+            mapSegment(0);
+            return;
+        }
+        Path last = segments.get(segments.size() - 1);
+        nextSequence = firstSequenceOf(last);
+        channel = FileChannel.open(last, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        // Se descarta una cola incompleta o corrupta: la siguiente escritura la sobreescribe
+        int end = scanSegment(segment.duplicate(), 0, (operation, sequence, command) -> nextSequence = sequence + 1);
+        segment.position(end);
+    }
+
+    private void rollSegment() throws IOException {
+        segment.force();
+        channel.close();
+        mapSegment(nextSequence);
+    }
+
+    private void mapSegment(long firstSequence) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    }
+
+    private int scanSegment(ByteBuffer data, long fromSequence, RecordVisitor visitor) {
+        CRC32 check = new CRC32();
+        while (data.remaining() >= Integer.BYTES) {
+            int start = data.position();
+            int length = data.getInt();
+            if (length < HEADER_SIZE - Integer.BYTES || length > data.remaining() - Integer.BYTES) {
+                data.position(start);
+                break;
+            }
+            ByteBuffer body = data.slice(data.position(), length);
+            check.reset();
+            check.update(body.duplicate());
+            data.position(data.position() + length);
+            if ((int) check.getValue() != data.getInt()) {
+                data.position(start);
+                break;
+            }
+            byte operation = body.get();
+            long sequence = body.getLong();
+            if (sequence >= fromSequence) {
+                visitor.visit(operation, sequence, body);
+            }
+        }
+        return data.position();
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = new ArrayList<>();
+            files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().forEach(segments::add);
+            return segments;
+        }
+    }
+
+    private static long firstSequenceOf(Path segmentPath) {
+        String name = segmentPath.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.Command.model;
+
+// Ordenadas de menor a mayor: ordinal() sirve como índice y para comparar prioridades
+public enum CommandPriority {
+    LOW,
+    NORMAL,
+    HIGH
+}
@@ -0,0 +1,44 @@
+package com.example.Command.model;
+
+public class CommandResult {
+    private final Command command;
+    private final boolean successful;
+    private final String message;
+
+    public CommandResult(Command command, boolean successful, String message) {
+        this.command = command;
+        this.successful = successful;
+        this.message = message;
+    }
+
+    public static CommandResult success(Command command) {
+        return new CommandResult(command, true, "Comando ejecutado exitosamente");
+    }
+
+    public static CommandResult failure(Command command, String message) {
+        return new CommandResult(command, false, message);
+    }
+
+    public static CommandResult of(Command command) {
+        return command.wasSuccessful()
+                ? success(command)
+                : failure(command, "El comando no se completó");
+    }
+
+    public Command getCommand() {
+        return command;
+    }
+
+    public boolean isSuccessful() {
+        return successful;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return command.getCommandName() + ": " + (successful ? "OK" : "FALLIDO") + " | " + message;
+    }
+}
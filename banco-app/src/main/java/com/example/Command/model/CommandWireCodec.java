@@ -0,0 +1,300 @@
+package com.example.Command.model;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.example.Observer.model.ConcreteSubject;
+import com.example.Observer.model.Money;
+
+// Codec versionado para enviar comandos por un flujo (réplica, envío entre nodos). Mensaje:
+// [versión byte][banderas byte][tipo byte][cuentas][importe] y opcionalmente la clave de idempotencia.
+// Cada número de cuenta viaja completo una sola vez por flujo; después se referencia por un id interno.
+// Con varint los ids y los importes usan solo los bytes necesarios; sin él los campos tienen ancho fijo.
+// Cada extremo de un flujo usa su propia instancia y no es seguro compartirla entre hilos
+public class CommandWireCodec {
+    public static final byte VERSION = 1;
+
+    private static final int FLAG_VARINT = 1;
+    private static final int FLAG_EXECUTED = 2;
+    private static final int FLAG_SUCCESSFUL = 4;
+    private static final int FLAG_KEY = 8;
+    // Operaciones compuestas anidadas; un mensaje más profundo agotaría la pila al decodificarse
+    public static final int MAX_NESTING = 32;
+
+    private final Map<String, ConcreteSubject> accounts;
+    private final boolean varint;
+    // Lado emisor: número de cuenta → id, y el orden en que se asignaron para poder deshacerlos
+    private final Map<String, Integer> encodeIds;
+    private final List<String> encodeNames;
+    // Lado receptor: id → cuenta
+    private final List<ConcreteSubject> decodeTable;
+
+
+    public CommandWireCodec(Map<String, ConcreteSubject> accounts) {
+        this(accounts, false);
+    }
+
+    public CommandWireCodec(Map<String, ConcreteSubject> accounts, boolean varint) {
+        this.accounts = accounts;
+        this.varint = varint;
+        this.encodeIds = new HashMap<>();
+        this.encodeNames = new ArrayList<>();
+        this.decodeTable = new ArrayList<>();
+    }
+
+    // Si el comando no cabe se deja el buffer y el diccionario como estaban antes de la llamada
+    public void encode(Command command, ByteBuffer buffer) {
+        int start = buffer.position();
+        int internedBefore = encodeNames.size();
+        try {
+            String key = command.getIdempotencyKey();
+            int flags = (varint ? FLAG_VARINT : 0) | (key != null ? FLAG_KEY : 0);
+            if (CommandCodec.isExecuted(command)) {
+                flags |= FLAG_EXECUTED;
+            }
+            if (command.wasSuccessful()) {
+                flags |= FLAG_SUCCESSFUL;
+            }
+            buffer.put(VERSION);
+            buffer.put((byte) flags);
+            putCommand(command, buffer, 0);
+            if (key != null) {
+                putString(buffer, key);
+            }
+        } catch (RuntimeException e) {
+            buffer.position(start);
+            for (int i = encodeNames.size() - 1; i >= internedBefore; i--) {
+                encodeIds.remove(encodeNames.remove(i));
+            }
+            throw e;
+        }
+    }
+
+    // Un mensaje truncado deja el buffer en su posición original para reintentar cuando llegue el resto
+    public Command decode(ByteBuffer buffer) {
+        int start = buffer.position();
+        int internedBefore = decodeTable.size();
+        try {
+            byte version = buffer.get();
+            if (version < 1 || version > VERSION) {
+                throw new IllegalStateException("Versión de codec no soportada: " + version);
+            }
+            int flags = buffer.get();
+            boolean compact = (flags & FLAG_VARINT) != 0;
+            Command command = getCommand(buffer, compact, 0);
+            if ((flags & FLAG_KEY) != 0) {
+                setIdempotencyKey(command, getString(buffer));
+            }
+            CommandCodec.restoreState(command, (flags & FLAG_EXECUTED) != 0, (flags & FLAG_SUCCESSFUL) != 0);
+            return command;
+        } catch (RuntimeException e) {
+            buffer.position(start);
+            decodeTable.subList(internedBefore, decodeTable.size()).clear();
+            throw e;
+        }
+    }
+
+    // Para empezar un flujo nuevo; el otro extremo debe hacer lo mismo
+    public void reset() {
+        encodeIds.clear();
+        encodeNames.clear();
+        decodeTable.clear();
+    }
+
+    public boolean isVarint() {
+        return varint;
+    }
+
+    public int getEncodedAccountCount() {
+        return encodeNames.size();
+    }
+
+    public int getDecodedAccountCount() {
+        return decodeTable.size();
+    }
+
+    private void putCommand(Command command, ByteBuffer buffer, int depth) {
+        if (command instanceof DepositCommand deposit) {
+            buffer.put(CommandCodec.DEPOSIT);
+            putAccount(buffer, deposit.getAccount());
+            putAmount(buffer, deposit.getMoney().getMinorUnits());
+        } else if (command instanceof WithdrawCommand withdraw) {
+            buffer.put(CommandCodec.WITHDRAW);
+            putAccount(buffer, withdraw.getAccount());
+            putAmount(buffer, withdraw.getMoney().getMinorUnits());
+        } else if (command instanceof TransferCommand transfer) {
+            buffer.put(CommandCodec.TRANSFER);
+            putAccount(buffer, transfer.getSourceAccount());
+            putAccount(buffer, transfer.getDestinationAccount());
+            putAmount(buffer, transfer.getMoney().getMinorUnits());
+        } else if (command instanceof CompositeCommand composite) {
+            if (depth >= MAX_NESTING) {
+                throw new IllegalArgumentException("Operación compuesta anidada en más de " + MAX_NESTING + " niveles");
+            }
+            buffer.put(CommandCodec.COMPOSITE);
+            putUnsigned(buffer, composite.getLegs().size());
+            for (Command leg : composite.getLegs()) {
+                putCommand(leg, buffer, depth + 1);
+            }
+        } else {
+            throw new IllegalArgumentException("Comando no soportado por el codec: " + command.getCommandName());
+        }
+    }
+
+    private Command getCommand(ByteBuffer buffer, boolean compact, int depth) {
+        byte type = buffer.get();
+        switch (type) {
+            case CommandCodec.DEPOSIT: {
+                ConcreteSubject account = getAccount(buffer, compact);
+                return new DepositCommand(account, Money.ofMinor(getAmount(buffer, compact), account.getCurrency()));
+            }
+            case CommandCodec.WITHDRAW: {
+                ConcreteSubject account = getAccount(buffer, compact);
+                return new WithdrawCommand(account, Money.ofMinor(getAmount(buffer, compact), account.getCurrency()));
+            }
+            case CommandCodec.TRANSFER: {
+                ConcreteSubject source = getAccount(buffer, compact);
+                ConcreteSubject destination = getAccount(buffer, compact);
+                return new TransferCommand(source, destination, Money.ofMinor(getAmount(buffer, compact), source.getCurrency()));
+            }
+            case CommandCodec.COMPOSITE: {
+                if (depth >= MAX_NESTING) {
+                    throw new IllegalStateException("Operación compuesta anidada en más de " + MAX_NESTING + " niveles");
+                }
+                int count = getUnsigned(buffer, compact);
+                if (count < 0) {
+                    throw new IllegalStateException("Cantidad de tramos inválida: " + count);
+                }
+                // El conteo viene del flujo y cada tramo ocupa al menos un byte: si no caben se trata como un
+                // mensaje incompleto en lugar de reservar una lista enorme
+                if (count > buffer.remaining()) {
+                    throw new BufferUnderflowException();
+                }
+                List<Command> legs = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    legs.add(getCommand(buffer, compact, depth + 1));
+                }
+                return new CompositeCommand(legs);
+            }
+            default:
+                throw new IllegalStateException("Tipo de comando desconocido: " + type);
+        }
+    }
+
+    // La referencia lleva el id desplazado un bit; el bit bajo indica que detrás viene el número de cuenta
+    private void putAccount(ByteBuffer buffer, ConcreteSubject account) {
+        String accountNumber = account.getAccountNumber();
+        Integer id = encodeIds.get(accountNumber);
+        if (id != null) {
+            putUnsigned(buffer, id << 1);
+            return;
+        }
+        int newId = encodeNames.size();
+        encodeIds.put(accountNumber, newId);
+        encodeNames.add(accountNumber);
+        putUnsigned(buffer, (newId << 1) | 1);
+        putString(buffer, accountNumber);
+    }
+
+    private ConcreteSubject getAccount(ByteBuffer buffer, boolean compact) {
+        int reference = getUnsigned(buffer, compact);
+        int id = reference >>> 1;
+        if ((reference & 1) == 0) {
+            if (id >= decodeTable.size()) {
+                throw new IllegalStateException("Id de cuenta no definido en el flujo: " + id);
+            }
+            return decodeTable.get(id);
+        }
+        if (id != decodeTable.size()) {
+            throw new IllegalStateException("Id de cuenta fuera de orden en el flujo: " + id);
+        }
+        String accountNumber = getString(buffer);
+        ConcreteSubject account = accounts.get(accountNumber);
+        if (account == null) {
+            throw new IllegalStateException("Cuenta desconocida: " + accountNumber);
+        }
+        decodeTable.add(account);
+        return account;
+    }
+
+    private void putAmount(ByteBuffer buffer, long minorUnits) {
+        if (varint) {
+            // Zigzag para que un importe negativo no ocupe siempre diez bytes
+            putVarLong(buffer, (minorUnits << 1) ^ (minorUnits >> 63));
+        } else {
+            buffer.putLong(minorUnits);
+        }
+    }
+
+    private static long getAmount(ByteBuffer buffer, boolean compact) {
+        if (!compact) {
+            return buffer.getLong();
+        }
+        long zigzag = getVarLong(buffer);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    private void putUnsigned(ByteBuffer buffer, int value) {
+        if (varint) {
+            putVarLong(buffer, value & 0xFFFFFFFFL);
+        } else {
+            buffer.putInt(value);
+        }
+    }
+
+    private static int getUnsigned(ByteBuffer buffer, boolean compact) {
+        if (!compact) {
+            return buffer.getInt();
+        }
+        long value = getVarLong(buffer);
+        if (value > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Entero fuera de rango en el flujo: " + value);
+        }
+        return (int) value;
+    }
+
+    private static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long getVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Varint mal formado en el flujo");
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        CommandCodec.encodeAccountNumber(value, buffer);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        return CommandCodec.decodeAccountNumber(buffer);
+    }
+
+    private static void setIdempotencyKey(Command command, String key) {
+        if (command instanceof DepositCommand deposit) {
+            deposit.setIdempotencyKey(key);
+        } else if (command instanceof WithdrawCommand withdraw) {
+            withdraw.setIdempotencyKey(key);
+        } else if (command instanceof TransferCommand transfer) {
+            transfer.setIdempotencyKey(key);
+        } else if (command instanceof CompositeCommand composite) {
+            composite.setIdempotencyKey(key);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.Command.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import com.example.Observer.model.ConcreteSubject;
+
+// Operación de varios tramos (comisión + transferencia + reintegro...) que se aplica completa o no se aplica.
+// Los cerrojos de todas las cuentas se toman una sola vez en orden global; los tramos que vuelven a tomarlos
+// lo hacen de forma reentrante (también su camino optimista: el CAS de saldo cede ante el dueño del cerrojo).
+// Si un tramo falla se deshacen en orden inverso los ya aplicados; si una compensación no se puede aplicar la
+// operación queda a medias y se lanza IllegalStateException. En el invocador la operación es un único comando:
+// una entrada de historial y una sola unidad de deshacer. Los observadores de cada cuenta, en cambio, reciben
+// un aviso por tramo (y por compensación): cada tramo es un movimiento real de saldo y así se notifica
+public class CompositeCommand implements Command {
+    private final List<Command> legs;
+    private final List<ConcreteSubject> accounts;
+    private boolean executed;
+    private boolean wasSuccessful;
+    private int failedLeg;
+    private String idempotencyKey;
+
+
+    public CompositeCommand(List<Command> legs) {
+        if (legs.isEmpty()) {
+            throw new IllegalArgumentException("Una operación compuesta necesita al menos un tramo");
+        }
+        this.legs = List.copyOf(legs);
+        LinkedHashSet<ConcreteSubject> involved = new LinkedHashSet<>();
+        for (Command leg : this.legs) {
+            // Un tramo ya ejecutado se saltaría y contaría como aplicado: una reversión desharía un movimiento ajeno
+            if (CommandCodec.isExecuted(leg)) {
+                throw new IllegalArgumentException("El tramo ya fue ejecutado: " + leg.getCommandDetails());
+            }
+            involved.addAll(leg.getAffectedAccounts());
+        }
+        this.accounts = List.copyOf(involved);
+        this.failedLeg = -1;
+    }
+
+    @Override
+    public void execute() {
+        if (executed) {
+            CommandEvents.emit(EventType.EXECUTE_SKIPPED, "Comando ya fue ejecutado anteriormente");
+            return;
+        }
+        CommandEvents.emit(EventType.EXECUTE_STARTED, "Ejecutando comando: ", getCommandName());
+
+        List<Command> applied = new ArrayList<>(legs.size());
+        ConcreteSubject[] locked = AccountLocking.lockInOrder(accounts);
+        try {
+            failedLeg = -1;
+            for (int i = 0; i < legs.size(); i++) {
+                Command leg = legs.get(i);
+                try {
+                    leg.execute();
+                } catch (RuntimeException e) {
+                    failedLeg = i;
+                    rollback(applied);
+                    throw e;
+                }
+                if (!leg.wasSuccessful()) {
+                    failedLeg = i;
+                    rollback(applied);
+                    break;
+                }
+                applied.add(leg);
+            }
+            wasSuccessful = failedLeg < 0;
+        } finally {
+            AccountLocking.unlock(locked);
+        }
+        executed = true;
+
+        if (wasSuccessful) {
+            CommandEvents.emit(EventType.EXECUTE_SUCCEEDED, "Operación compuesta aplicada: ", legs.size(), " tramos");
+        } else {
+            CommandEvents.emit(EventType.EXECUTE_FAILED, "Operación compuesta revertida. Falló el tramo ", failedLeg + 1,
+                    ": ", legs.get(failedLeg).getCommandName());
+        }
+    }
+
+    // Los tramos fallidos no cambiaron saldos, así que solo se deshacen los aplicados
+    private void rollback(List<Command> applied) {
+        for (int i = applied.size() - 1; i >= 0; i--) {
+            if (!applied.get(i).tryUndo()) {
+                executed = true;
+                wasSuccessful = false;
+                throw new IllegalStateException("No se pudo compensar el tramo " + (i + 1) + " ("
+                        + applied.get(i).getCommandName() + "): la operación compuesta quedó aplicada a medias");
+            }
+        }
+    }
+
+    @Override
+    public void undo() {
+        tryUndo();
+    }
+
+    // Si un tramo no se puede deshacer se vuelven a aplicar los ya deshechos: la operación queda completa
+    @Override
+    public boolean tryUndo() {
+        if (executed && wasSuccessful) {
+            CommandEvents.emit(EventType.UNDO_STARTED, "Deshaciendo comando: ", getCommandName());
+            ConcreteSubject[] locked = AccountLocking.lockInOrder(accounts);
+            try {
+                for (int i = legs.size() - 1; i >= 0; i--) {
+                    if (!legs.get(i).tryUndo()) {
+                        reapply(i + 1);
+                        CommandEvents.emit(EventType.UNDO_FAILED, "No se puede deshacer la operación compuesta: falló el tramo ",
+                                i + 1, ": ", legs.get(i).getCommandName());
+                        return false;
+                    }
+                }
+            } finally {
+                AccountLocking.unlock(locked);
+            }
+            CommandEvents.emit(EventType.UNDO_COMPLETED, "Operación compuesta deshecha: ", legs.size(), " tramos");
+            executed = false;
+            wasSuccessful = false;
+        } else if (executed) {
+            CommandEvents.emit(EventType.UNDO_SKIPPED, "No es necesario deshacer: la operación compuesta ya fue revertida");
+        } else {
+            CommandEvents.emit(EventType.UNDO_SKIPPED, "No se puede deshacer: comando no ha sido ejecutado");
+        }
+        return true;
+    }
+
+    // Con los cerrojos tomados los saldos vuelven exactamente a los de antes del deshacer, así que reaplicar no
+    // debería fallar; si falla la operación quedó a medias y no se puede ocultar
+    private void reapply(int from) {
+        for (int i = from; i < legs.size(); i++) {
+            Command leg = legs.get(i);
+            leg.execute();
+            if (!leg.wasSuccessful()) {
+                wasSuccessful = false;
+                throw new IllegalStateException("No se pudo volver a aplicar el tramo " + (i + 1) + " ("
+                        + leg.getCommandName() + "): la operación compuesta quedó aplicada a medias");
+            }
+        }
+    }
+
+    @Override
+    public String getCommandName() {
+        return "Operación compuesta";
+    }
+
+    @Override
+    public String getCommandDetails() {
+        StringBuilder details = new StringBuilder("Operación compuesta (").append(legs.size()).append(" tramos): ");
+        for (int i = 0; i < legs.size(); i++) {
+            if (i > 0) {
+                details.append(" + ");
+            }
+            details.append(legs.get(i).getCommandName());
+        }
+        String status;
+        if (!executed) {
+            status = "Pendiente";
+        } else if (wasSuccessful) {
+            status = "Ejecutado exitosamente";
+        } else if (failedLeg >= 0) {
+            status = "Revertido (falló el tramo " + (failedLeg + 1) + ")";
+        } else {
+            status = "Revertido";
+        }
+        return details.append(" | Estado: ").append(status).toString();
+    }
+
+    @Override
+    public List<ConcreteSubject> getAffectedAccounts() {
+        return accounts;
+    }
+
+    public List<Command> getLegs() {
+        return legs;
+    }
+
+    // Índice del tramo que provocó la reversión, o -1
+    public int getFailedLeg() {
+        return failedLeg;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    @Override
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public boolean isExecuted() {
+        return executed;
+    }
+
+    @Override
+    public boolean wasSuccessful() {
+        return wasSuccessful;
+    }
+
+    // Una operación vigente tiene todos sus tramos aplicados; una revertida no tiene ninguno
+    void restoreState(boolean executed, boolean successful) {
+        this.executed = executed;
+        this.wasSuccessful = successful;
+        for (Command leg : legs) {
+            CommandCodec.restoreState(leg, executed && successful, executed && successful);
+        }
+    }
+}
@@ -1,44 +1,65 @@
 package com.example.Command.model;
 
+import java.util.List;
+
 import com.example.Observer.model.ConcreteSubject;
+import com.example.Observer.model.Money;
 
 public class DepositCommand implements Command {
     private ConcreteSubject account;
-    private double amount;
-    private double previousBalance;
+    private Money amount;
+    private long previousBalance;
     private boolean executed;
+    private String idempotencyKey;
     
     
-    public DepositCommand(ConcreteSubject account, double amount) {
+    public DepositCommand(ConcreteSubject account, Money amount) {
         this.account = account;
         this.amount = amount;
-        this.previousBalance = account.getBalance();
+        this.previousBalance = account.getBalanceMinor();
         this.executed = false;
     }
     
+    public DepositCommand(ConcreteSubject account, double amount) {
+        this(account, Money.of(amount, account.getCurrency()));
+    }
+    
     @Override
     public void execute() {
         if (!executed) {
-            System.out.println("Ejecutando comando: " + getCommandName());
+            CommandEvents.emit(EventType.EXECUTE_STARTED, "Ejecutando comando: ", getCommandName());
             account.deposit(amount);
             executed = true;
-            System.out.println("Comando ejecutado exitosamente");
+            CommandEvents.emit(EventType.EXECUTE_SUCCEEDED, "Comando ejecutado exitosamente");
         } else {
-            System.out.println("Comando ya fue ejecutado anteriormente");
+            CommandEvents.emit(EventType.EXECUTE_SKIPPED, "Comando ya fue ejecutado anteriormente");
         }
     }
     
     @Override
     public void undo() {
+        tryUndo();
+    }
+    
+    @Override
+    public boolean tryUndo() {
         if (executed) {
-            System.out.println("Deshaciendo comando: " + getCommandName());
+            CommandEvents.emit(EventType.UNDO_STARTED, "Deshaciendo comando: ", getCommandName());
             
-            account.withdraw(amount);
-            System.out.println("Depósito de $" + amount + " deshecho. Balance restaurado a $" + account.getBalance());
+            if (!account.tryWithdraw(amount)) {
+                CommandEvents.emit(EventType.UNDO_FAILED, "No se puede deshacer: fondos insuficientes en cuenta ",
+                        account.getAccountNumber());
+                return false;
+            }
+            if (CommandEvents.isEnabled()) {
+                CommandEvents.emit(EventType.UNDO_COMPLETED, "Depósito de $", amount,
+                        " deshecho. Balance restaurado a $", account.getBalanceMoney());
+            }
             executed = false;
         } else {
-            System.out.println("No se puede deshacer: comando no ha sido ejecutado");
+            CommandEvents.emit(EventType.UNDO_SKIPPED, "No se puede deshacer: comando no ha sido ejecutado");
         }
+        return true;
     }
     
     @Override
@@ -48,12 +69,20 @@ public class DepositCommand implements Command {
     
     @Override
     public String getCommandDetails() {
-        return String.format("Depósito: $%.2f en cuenta %s | Estado: %s", 
-                           amount, account.getAccountNumber(), 
-                           executed ? "Ejecutado" : "Pendiente");
+        return "Depósito: $" + amount + " en cuenta " + account.getAccountNumber()
+                + " | Estado: " + (executed ? "Ejecutado" : "Pendiente");
+    }
+    
+    @Override
+    public List<ConcreteSubject> getAffectedAccounts() {
+        return List.of(account);
     }
     
     public double getAmount() {
+        return amount.toDouble();
+    }
+    
+    public Money getMoney() {
         return amount;
     }
     
@@ -61,7 +90,25 @@ public class DepositCommand implements Command {
         return account;
     }
     
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+    
+    @Override
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+    
     public boolean isExecuted() {
         return executed;
     }
+    
+    @Override
+    public boolean wasSuccessful() {
+        return executed;
+    }
+    
+    void restoreState(boolean executed, boolean successful) {
+        this.executed = executed;
+    }
 }
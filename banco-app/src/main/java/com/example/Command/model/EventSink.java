@@ -0,0 +1,19 @@
+package com.example.Command.model;
+
+public interface EventSink {
+    EventSink NO_OP = new EventSink() {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public void accept(CommandEvent event) {
+        }
+    };
+
+    // Si devuelve false los emisores ni siquiera crean el evento
+    boolean isEnabled();
+
+    void accept(CommandEvent event);
+}
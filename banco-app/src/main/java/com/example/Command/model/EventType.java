@@ -0,0 +1,16 @@
+package com.example.Command.model;
+
+public enum EventType {
+    EXECUTE_STARTED,
+    EXECUTE_SUCCEEDED,
+    EXECUTE_FAILED,
+    EXECUTE_SKIPPED,
+    UNDO_STARTED,
+    UNDO_COMPLETED,
+    UNDO_SKIPPED,
+    UNDO_FAILED,
+    INVOKER,
+    HISTORY,
+    SNAPSHOT,
+    RECOVERY
+}
@@ -0,0 +1,34 @@
+package com.example.Command.model;
+
+import java.util.List;
+
+public class InvokerSnapshot {
+    private final long journalSequence;
+    private final int accountCount;
+    private final List<Command> undoCommands;
+    private final List<Command> redoCommands;
+
+    public InvokerSnapshot(long journalSequence, int accountCount, List<Command> undoCommands, List<Command> redoCommands) {
+        this.journalSequence = journalSequence;
+        this.accountCount = accountCount;
+        this.undoCommands = undoCommands;
+        this.redoCommands = redoCommands;
+    }
+
+    public long getJournalSequence() {
+        return journalSequence;
+    }
+
+    public int getAccountCount() {
+        return accountCount;
+    }
+
+    // Del más antiguo al más reciente, en el mismo orden en que se apilaron
+    public List<Command> getUndoCommands() {
+        return undoCommands;
+    }
+
+    public List<Command> getRedoCommands() {
+        return redoCommands;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.Command.model;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+// Cada ocurrencia se calcula desde la fecha ancla y no desde la anterior: una orden mensual del día 31
+// cae el 28 o 30 en los meses cortos y vuelve al 31 cuando el mes lo tiene
+public enum Recurrence {
+    ONCE,
+    DAILY,
+    WEEKLY,
+    MONTHLY;
+
+    public long dueAt(long anchorMillis, long occurrence) {
+        if (occurrence == 0) {
+            return anchorMillis;
+        }
+        ZonedDateTime anchor = Instant.ofEpochMilli(anchorMillis).atZone(ZoneOffset.UTC);
+        switch (this) {
+            case DAILY:
+                return anchor.plusDays(occurrence).toInstant().toEpochMilli();
+            case WEEKLY:
+                return anchor.plusWeeks(occurrence).toInstant().toEpochMilli();
+            case MONTHLY:
+                return anchor.plusMonths(occurrence).toInstant().toEpochMilli();
+            default:
+                throw new IllegalStateException("Una orden única no tiene ocurrencia " + occurrence);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.Command.model;
+
+public class ReplayResult {
+    private final int replayedCount;
+    private final int skippedCount;
+    private final int failedCount;
+    private final int accountCount;
+    private final int rootCount;
+    private final long elapsedNanos;
+
+    public ReplayResult(int replayedCount, int skippedCount, int failedCount, int accountCount, int rootCount,
+                        long elapsedNanos) {
+        this.replayedCount = replayedCount;
+        this.skippedCount = skippedCount;
+        this.failedCount = failedCount;
+        this.accountCount = accountCount;
+        this.rootCount = rootCount;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getReplayedCount() {
+        return replayedCount;
+    }
+
+    // Comandos del historial que no estaban vigentes (deshechos o fallidos) y no se reprodujeron
+    public int getSkippedCount() {
+        return skippedCount;
+    }
+
+    // Comandos reproducidos que esta vez no se completaron
+    public int getFailedCount() {
+        return failedCount;
+    }
+
+    public int getAccountCount() {
+        return accountCount;
+    }
+
+    // Comandos sin dependencias: el paralelismo disponible al arrancar
+    public int getRootCount() {
+        return rootCount;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getCommandsPerSecond() {
+        return elapsedNanos == 0 ? 0 : replayedCount * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Reproducción: %d comandos en %d cuentas, %d omitidos, %d fallidos, %d raíces, %.3f ms",
+                replayedCount, accountCount, skippedCount, failedCount, rootCount, elapsedNanos / 1_000_000.0);
+    }
+}
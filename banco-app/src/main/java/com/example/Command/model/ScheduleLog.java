@@ -0,0 +1,263 @@
+package com.example.Command.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import com.example.Observer.model.ConcreteSubject;
+
+// Registro: [longitud int][operación byte][datos][crc32 int]. ADD guarda la orden completa con su próxima
+// ocurrencia, FIRING anuncia una ocurrencia antes de ejecutarla, FIRED avanza la orden tras ejecutarse y CANCEL
+// la elimina. Un FIRING sin su FIRED es una ocurrencia en duda: al cargar se da por disparada para no
+// aplicarla dos veces. Al compactar se reescriben solo los ADD de las órdenes vivas en un temporal que
+// reemplaza al archivo
+public class ScheduleLog implements Closeable {
+    public static final byte ADD = 1;
+    public static final byte FIRED = 2;
+    public static final byte CANCEL = 3;
+    public static final byte FIRING = 4;
+
+    private static final int INITIAL_RECORD_SIZE = 256;
+    private static final int ADD_HEADER_SIZE = Byte.BYTES + 3 * Long.BYTES + Byte.BYTES + Integer.BYTES;
+
+    private final Path file;
+    private ByteBuffer scratch;
+    private ByteBuffer record;
+    private final CRC32 crc;
+    private FileChannel channel;
+    private long recordCount;
+    private long highestId;
+    private final Map<Long, Long> inDoubt;
+
+
+    public ScheduleLog(Path file) throws IOException {
+        this.file = file;
+        this.scratch = ByteBuffer.allocate(INITIAL_RECORD_SIZE);
+        this.record = ByteBuffer.allocate(INITIAL_RECORD_SIZE + 2 * Integer.BYTES);
+        this.crc = new CRC32();
+        this.inDoubt = new LinkedHashMap<>();
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    // Reconstruye las órdenes vivas y deja el archivo listo para seguir agregando; una cola corrupta se descarta
+    public synchronized List<ScheduledOrder> load(Map<String, ConcreteSubject> accounts) throws IOException {
+        Map<Long, ScheduledOrder> orders = new LinkedHashMap<>();
+        ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        CRC32 check = new CRC32();
+        recordCount = 0;
+        inDoubt.clear();
+        while (data.remaining() >= Integer.BYTES) {
+            int start = data.position();
+            int length = data.getInt();
+            if (length <= 0 || length > data.remaining() - Integer.BYTES) {
+                data.position(start);
+                break;
+            }
+            ByteBuffer body = data.slice(data.position(), length);
+            check.reset();
+            check.update(body.duplicate());
+            data.position(data.position() + length);
+            if ((int) check.getValue() != data.getInt()) {
+                data.position(start);
+                break;
+            }
+            apply(body, orders, accounts);
+            recordCount++;
+        }
+        for (Map.Entry<Long, Long> entry : inDoubt.entrySet()) {
+            resolveInDoubt(orders, entry.getKey(), entry.getValue());
+        }
+        channel.truncate(data.position());
+        channel.position(data.position());
+        return new ArrayList<>(orders.values());
+    }
+
+    private void apply(ByteBuffer body, Map<Long, ScheduledOrder> orders, Map<String, ConcreteSubject> accounts) {
+        byte operation = body.get();
+        long id = body.getLong();
+        highestId = Math.max(highestId, id);
+        switch (operation) {
+            case ADD: {
+                long anchor = body.getLong();
+                Recurrence recurrence = Recurrence.values()[body.get()];
+                int maxOccurrences = body.getInt();
+                long nextOccurrence = body.getLong();
+                Command template = CommandCodec.decode(body, accounts);
+                orders.put(id, new ScheduledOrder(id, template, anchor, recurrence, maxOccurrences, nextOccurrence));
+                break;
+            }
+            case FIRING: {
+                Long previous = inDoubt.put(id, body.getLong());
+                if (previous != null) {
+                    resolveInDoubt(orders, id, previous);
+                }
+                break;
+            }
+            case FIRED: {
+                long occurrence = body.getLong();
+                Long pending = inDoubt.get(id);
+                if (pending != null && pending == occurrence) {
+                    inDoubt.remove(id);
+                }
+                markFired(orders, id, occurrence);
+                break;
+            }
+            case CANCEL:
+                orders.remove(id);
+                inDoubt.remove(id);
+                break;
+            default:
+                throw new IllegalStateException("Operación desconocida en el registro de órdenes: " + operation);
+        }
+    }
+
+    // No se sabe si la ocurrencia llegó a aplicarse: se da por disparada (a lo sumo una vez)
+    private static void resolveInDoubt(Map<Long, ScheduledOrder> orders, long id, long occurrence) {
+        ScheduledOrder order = orders.get(id);
+        if (order != null && order.getNextOccurrence() == occurrence) {
+            markFired(orders, id, occurrence);
+        }
+    }
+
+    private static void markFired(Map<Long, ScheduledOrder> orders, long id, long occurrence) {
+        ScheduledOrder order = orders.get(id);
+        if (order != null) {
+            order.setNextOccurrence(occurrence + 1);
+            if (order.isExhausted()) {
+                orders.remove(id);
+            }
+        }
+    }
+
+    public synchronized void appendAdd(ScheduledOrder order) throws IOException {
+        highestId = Math.max(highestId, order.getId());
+        prepareAdd(order);
+        putAdd(scratch, order);
+        writeRecord(channel);
+    }
+
+    public synchronized void appendFiring(long id, long occurrence) throws IOException {
+        scratch.clear();
+        scratch.put(FIRING);
+        scratch.putLong(id);
+        scratch.putLong(occurrence);
+        writeRecord(channel);
+    }
+
+    public synchronized void appendFired(long id, long occurrence) throws IOException {
+        scratch.clear();
+        scratch.put(FIRED);
+        scratch.putLong(id);
+        scratch.putLong(occurrence);
+        writeRecord(channel);
+    }
+
+    public synchronized void appendCancel(long id) throws IOException {
+        scratch.clear();
+        scratch.put(CANCEL);
+        scratch.putLong(id);
+        writeRecord(channel);
+    }
+
+    public synchronized void sync() throws IOException {
+        channel.force(false);
+    }
+
+    public synchronized void compact(Collection<ScheduledOrder> liveOrders) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            recordCount = 0;
+            long highestLive = 0;
+            for (ScheduledOrder order : liveOrders) {
+                prepareAdd(order);
+                putAdd(scratch, order);
+                writeRecord(out);
+                highestLive = Math.max(highestLive, order.getId());
+            }
+            // Conserva el mayor id emitido para que no se reutilice junto con sus claves de idempotencia
+            if (highestId > highestLive) {
+                scratch.clear();
+                scratch.put(CANCEL);
+                scratch.putLong(highestId);
+                writeRecord(out);
+            }
+            out.force(true);
+        }
+        channel.close();
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+    }
+
+    public synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    // Ocurrencias anunciadas con FIRING y sin FIRED en la última carga (id de orden -> ocurrencia)
+    public synchronized Map<Long, Long> getInDoubt() {
+        return new LinkedHashMap<>(inDoubt);
+    }
+
+    public synchronized long getHighestId() {
+        return highestId;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel.isOpen()) {
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    // La plantilla no tiene tamaño fijo: los búferes crecen para que quepa cualquier orden aceptada
+    private void prepareAdd(ScheduledOrder order) {
+        int size = ADD_HEADER_SIZE + CommandCodec.encodedSize(order.getTemplate());
+        if (scratch.capacity() < size) {
+            scratch = ByteBuffer.allocate(size);
+            record = ByteBuffer.allocate(size + 2 * Integer.BYTES);
+        }
+        scratch.clear();
+    }
+
+    private static void putAdd(ByteBuffer buffer, ScheduledOrder order) {
+        buffer.put(ADD);
+        buffer.putLong(order.getId());
+        buffer.putLong(order.getAnchorMillis());
+        buffer.put((byte) order.getRecurrence().ordinal());
+        buffer.putInt(order.getMaxOccurrences());
+        buffer.putLong(order.getNextOccurrence());
+        CommandCodec.encode(order.getTemplate(), buffer);
+    }
+
+    private void writeRecord(FileChannel target) throws IOException {
+        scratch.flip();
+        crc.reset();
+        crc.update(scratch.array(), 0, scratch.remaining());
+        record.clear();
+        record.putInt(scratch.remaining());
+        record.put(scratch);
+        record.putInt((int) crc.getValue());
+        record.flip();
+        while (record.hasRemaining()) {
+            target.write(record);
+        }
+        recordCount++;
+    }
+}
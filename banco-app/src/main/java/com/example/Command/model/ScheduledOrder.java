@@ -0,0 +1,104 @@
+package com.example.Command.model;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import com.example.Observer.model.ConcreteSubject;
+
+// Orden programada: el comando guardado es solo una plantilla; cada ocurrencia se ejecuta sobre una copia
+// nueva cuya clave de idempotencia identifica la orden y la ocurrencia, así un disparo repetido se descarta
+public class ScheduledOrder {
+    private final long id;
+    private final Command template;
+    private final long anchorMillis;
+    private final Recurrence recurrence;
+    private final int maxOccurrences;
+    private long nextOccurrence;
+
+
+    // maxOccurrences 0 = sin límite para las órdenes recurrentes
+    public ScheduledOrder(long id, Command template, long anchorMillis, Recurrence recurrence,
+                          int maxOccurrences, long nextOccurrence) {
+        if (!CommandCodec.supports(template)) {
+            throw new IllegalArgumentException("Comando no soportado para programar: " + template.getCommandName());
+        }
+        if (maxOccurrences < 0) {
+            throw new IllegalArgumentException("El número de ocurrencias no puede ser negativo: " + maxOccurrences);
+        }
+        this.id = id;
+        this.template = template;
+        this.anchorMillis = anchorMillis;
+        this.recurrence = recurrence;
+        this.maxOccurrences = recurrence == Recurrence.ONCE ? 1 : maxOccurrences;
+        this.nextOccurrence = nextOccurrence;
+    }
+
+    public Command newCommand(Map<String, ConcreteSubject> accounts) {
+        ByteBuffer buffer = ByteBuffer.allocate(CommandCodec.encodedSize(template));
+        CommandCodec.encode(template, buffer);
+        buffer.flip();
+        Command command = CommandCodec.decode(buffer, accounts);
+        String key = getIdempotencyKey();
+        if (command instanceof DepositCommand deposit) {
+            deposit.setIdempotencyKey(key);
+        } else if (command instanceof WithdrawCommand withdraw) {
+            withdraw.setIdempotencyKey(key);
+        } else if (command instanceof TransferCommand transfer) {
+            transfer.setIdempotencyKey(key);
+        } else if (command instanceof CompositeCommand composite) {
+            composite.setIdempotencyKey(key);
+        }
+        return command;
+    }
+
+    public String getIdempotencyKey() {
+        return "orden-" + id + "-" + nextOccurrence;
+    }
+
+    public long getDueAt() {
+        return recurrence.dueAt(anchorMillis, nextOccurrence);
+    }
+
+    // Pasa a la siguiente ocurrencia; devuelve false si la orden ya no tiene más
+    public boolean advance() {
+        nextOccurrence++;
+        return !isExhausted();
+    }
+
+    public boolean isExhausted() {
+        return maxOccurrences > 0 && nextOccurrence >= maxOccurrences;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Command getTemplate() {
+        return template;
+    }
+
+    public long getAnchorMillis() {
+        return anchorMillis;
+    }
+
+    public Recurrence getRecurrence() {
+        return recurrence;
+    }
+
+    public int getMaxOccurrences() {
+        return maxOccurrences;
+    }
+
+    public long getNextOccurrence() {
+        return nextOccurrence;
+    }
+
+    void setNextOccurrence(long nextOccurrence) {
+        this.nextOccurrence = nextOccurrence;
+    }
+
+    @Override
+    public String toString() {
+        return "Orden " + id + " (" + recurrence + ", ocurrencia " + nextOccurrence + "): " + template.getCommandDetails();
+    }
+}
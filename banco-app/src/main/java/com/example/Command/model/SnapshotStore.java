@@ -0,0 +1,117 @@
+package com.example.Command.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import com.example.Observer.model.ConcreteSubject;
+import com.example.Observer.model.Money;
+
+// Formato: [magia][versión][secuencia del journal][cuentas][pila deshacer][pila rehacer]
+public class SnapshotStore {
+    private static final int MAGIC = 0x534E4150;
+    private static final byte VERSION = 2;
+
+    private SnapshotStore() {
+    }
+
+    public static void write(Path file, long journalSequence, Collection<ConcreteSubject> accounts,
+                             List<Command> undoCommands, List<Command> redoCommands) throws IOException {
+        int capacity = Integer.BYTES + Byte.BYTES + Long.BYTES + 3 * Integer.BYTES;
+        for (ConcreteSubject account : accounts) {
+            capacity += stringSize(account.getAccountNumber()) + stringSize(account.getAccountType())
+                    + stringSize(account.getCurrency()) + Long.BYTES;
+        }
+        for (Command command : undoCommands) {
+            capacity += CommandCodec.encodedSizeWithState(command);
+        }
+        for (Command command : redoCommands) {
+            capacity += CommandCodec.encodedSizeWithState(command);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(capacity);
+        buffer.putInt(MAGIC);
+        buffer.put(VERSION);
+        buffer.putLong(journalSequence);
+
+        buffer.putInt(accounts.size());
+        for (ConcreteSubject account : accounts) {
+            putString(buffer, account.getAccountNumber());
+            putString(buffer, account.getAccountType());
+            putString(buffer, account.getCurrency());
+            buffer.putLong(account.getBalanceMinor());
+        }
+        putCommands(buffer, undoCommands);
+        putCommands(buffer, redoCommands);
+
+        // Se escribe a un temporal y se renombra para no dejar nunca una instantánea a medias
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, Arrays.copyOf(buffer.array(), buffer.position()));
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Restaura los saldos sobre las cuentas indicadas; las que falten se crean y se agregan al mapa
+    public static InvokerSnapshot read(Path file, Map<String, ConcreteSubject> accounts) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Archivo de instantánea inválido: " + file);
+        }
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IOException("Versión de instantánea no soportada: " + version);
+        }
+        long journalSequence = buffer.getLong();
+
+        int accountCount = buffer.getInt();
+        for (int i = 0; i < accountCount; i++) {
+            String accountNumber = getString(buffer);
+            String accountType = getString(buffer);
+            String currency = getString(buffer);
+            Money balance = Money.ofMinor(buffer.getLong(), currency);
+            accounts.computeIfAbsent(accountNumber, number -> new ConcreteSubject(number, Money.zero(balance.getCurrency()), accountType))
+                    .restoreBalance(balance);
+        }
+        List<Command> undoCommands = getCommands(buffer, accounts);
+        List<Command> redoCommands = getCommands(buffer, accounts);
+        return new InvokerSnapshot(journalSequence, accountCount, undoCommands, redoCommands);
+    }
+
+    private static void putCommands(ByteBuffer buffer, List<Command> commands) {
+        buffer.putInt(commands.size());
+        for (Command command : commands) {
+            CommandCodec.encodeWithState(command, buffer);
+        }
+    }
+
+    private static List<Command> getCommands(ByteBuffer buffer, Map<String, ConcreteSubject> accounts) {
+        int count = buffer.getInt();
+        List<Command> commands = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            commands.add(CommandCodec.decodeWithState(buffer, accounts));
+        }
+        return commands;
+    }
+
+    private static int stringSize(String value) {
+        return Short.BYTES + value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
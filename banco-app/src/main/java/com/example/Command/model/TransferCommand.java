@@ -1,75 +1,122 @@
 package com.example.Command.model;
 
+import java.util.List;
+
 import com.example.Observer.model.ConcreteSubject;
+import com.example.Observer.model.Money;
 
 
 public class TransferCommand implements Command {
     private ConcreteSubject sourceAccount;
     private ConcreteSubject destinationAccount;
-    private double amount;
-    private double sourcePreviousBalance;
-    private double destinationPreviousBalance;
+    private Money amount;
     private boolean executed;
     private boolean wasSuccessful;
+    private String idempotencyKey;
     
   
-    public TransferCommand(ConcreteSubject sourceAccount, ConcreteSubject destinationAccount, double amount) {
+    public TransferCommand(ConcreteSubject sourceAccount, ConcreteSubject destinationAccount, Money amount) {
+        String currency = requireSameCurrency(sourceAccount, destinationAccount);
+        if (!currency.equals(amount.getCurrency())) {
+            throw new IllegalArgumentException("La transferencia es en " + currency + ", no en " + amount.getCurrency());
+        }
         this.sourceAccount = sourceAccount;
         this.destinationAccount = destinationAccount;
         this.amount = amount;
-        this.sourcePreviousBalance = sourceAccount.getBalance();
-        this.destinationPreviousBalance = destinationAccount.getBalance();
         this.executed = false;
         this.wasSuccessful = false;
     }
     
+    public TransferCommand(ConcreteSubject sourceAccount, ConcreteSubject destinationAccount, double amount) {
+        this(sourceAccount, destinationAccount, Money.of(amount, requireSameCurrency(sourceAccount, destinationAccount)));
+    }
+    
+    // Sin conversión de moneda: el débito ya aplicado no podría acreditarse en el destino
+    private static String requireSameCurrency(ConcreteSubject sourceAccount, ConcreteSubject destinationAccount) {
+        String currency = sourceAccount.getCurrency();
+        if (!currency.equals(destinationAccount.getCurrency())) {
+            throw new IllegalArgumentException("No se puede transferir entre cuentas de distinta moneda: "
+                    + sourceAccount.getAccountNumber() + " (" + currency + ") y "
+                    + destinationAccount.getAccountNumber() + " (" + destinationAccount.getCurrency() + ")");
+        }
+        return currency;
+    }
+    
     @Override
     public void execute() {
         if (!executed) {
-            System.out.println("Ejecutando comando: " + getCommandName());
+            CommandEvents.emit(EventType.EXECUTE_STARTED, "Ejecutando comando: ", getCommandName());
             
            
-            if (sourcePreviousBalance >= amount) {
-              
-                sourceAccount.transfer(amount, destinationAccount.getAccountNumber());
-                
-                
-                destinationAccount.deposit(amount);
-                
-                wasSuccessful = true;
-                System.out.println("Comando ejecutado exitosamente");
+            // Ambas cuentas bloqueadas en orden global para que otra transferencia no se intercale; el débito
+            // es un CAS versionado, así que también es correcto frente a retiros que no toman los cerrojos
+            ConcreteSubject[] locked = AccountLocking.lockInOrder(sourceAccount, destinationAccount);
+            try {
+                wasSuccessful = sourceAccount.tryTransfer(amount, destinationAccount.getAccountNumber());
+                if (wasSuccessful) {
+                    destinationAccount.deposit(amount);
+                }
+            } finally {
+                AccountLocking.unlock(locked);
+            }
+            
+            if (wasSuccessful) {
+                CommandEvents.emit(EventType.EXECUTE_SUCCEEDED, "Comando ejecutado exitosamente");
             } else {
-                System.out.println("Error: Fondos insuficientes para transferir $" + amount);
-                System.out.println("Saldo disponible en cuenta origen: $" + sourcePreviousBalance);
-                wasSuccessful = false;
+                CommandEvents.emit(EventType.EXECUTE_FAILED, "Error: Fondos insuficientes para transferir $", amount);
+                if (CommandEvents.isEnabled()) {
+                    CommandEvents.emit(EventType.EXECUTE_FAILED, "Saldo disponible en cuenta origen: $",
+                            sourceAccount.getBalanceMoney());
+                }
             }
             
             executed = true;
         } else {
-            System.out.println("Comando ya fue ejecutado anteriormente");
+            CommandEvents.emit(EventType.EXECUTE_SKIPPED, "Comando ya fue ejecutado anteriormente");
         }
     }
     
     @Override
     public void undo() {
+        tryUndo();
+    }
+    
+    @Override
+    public boolean tryUndo() {
         if (executed && wasSuccessful) {
-            System.out.println("Deshaciendo comando: " + getCommandName());
+            CommandEvents.emit(EventType.UNDO_STARTED, "Deshaciendo comando: ", getCommandName());
             
-           
-            destinationAccount.withdraw(amount);
-            sourceAccount.deposit(amount);
+            // Si el destino ya no tiene el monto no se devuelve nada al origen: acreditarlo crearía dinero
+            boolean reverted;
+            ConcreteSubject[] locked = AccountLocking.lockInOrder(sourceAccount, destinationAccount);
+            try {
+                reverted = destinationAccount.tryWithdraw(amount);
+                if (reverted) {
+                    sourceAccount.deposit(amount);
+                }
+            } finally {
+                AccountLocking.unlock(locked);
+            }
+            if (!reverted) {
+                CommandEvents.emit(EventType.UNDO_FAILED, "No se puede deshacer: fondos insuficientes en cuenta destino ",
+                        destinationAccount.getAccountNumber());
+                return false;
+            }
             
-            System.out.println("Transferencia de $" + amount + " deshecha");
-            System.out.println("Balance cuenta origen: $" + sourceAccount.getBalance());
-            System.out.println("Balance cuenta destino: $" + destinationAccount.getBalance());
+            CommandEvents.emit(EventType.UNDO_COMPLETED, "Transferencia de $", amount, " deshecha");
+            if (CommandEvents.isEnabled()) {
+                CommandEvents.emit(EventType.UNDO_COMPLETED, "Balance cuenta origen: $", sourceAccount.getBalanceMoney());
+                CommandEvents.emit(EventType.UNDO_COMPLETED, "Balance cuenta destino: $", destinationAccount.getBalanceMoney());
+            }
             
             executed = false;
             wasSuccessful = false;
         } else if (executed && !wasSuccessful) {
-            System.out.println("No es necesario deshacer: transferencia no se completó por fondos insuficientes");
+            CommandEvents.emit(EventType.UNDO_SKIPPED, "No es necesario deshacer: transferencia no se completó por fondos insuficientes");
         } else {
-            System.out.println("No se puede deshacer: comando no ha sido ejecutado");
+            CommandEvents.emit(EventType.UNDO_SKIPPED, "No se puede deshacer: comando no ha sido ejecutado");
         }
+        return true;
     }
     
     @Override
@@ -88,12 +135,20 @@ public class TransferCommand implements Command {
             status = "Fallido (fondos insuficientes)";
         }
         
-        return String.format("Transferencia: $%.2f de %s a %s | Estado: %s", 
-                           amount, sourceAccount.getAccountNumber(), 
-                           destinationAccount.getAccountNumber(), status);
+        return "Transferencia: $" + amount + " de " + sourceAccount.getAccountNumber()
+                + " a " + destinationAccount.getAccountNumber() + " | Estado: " + status;
+    }
+    
+    @Override
+    public List<ConcreteSubject> getAffectedAccounts() {
+        return List.of(sourceAccount, destinationAccount);
     }
     
     public double getAmount() {
+        return amount.toDouble();
+    }
+    
+    public Money getMoney() {
         return amount;
     }
     
@@ -108,12 +163,27 @@ public class TransferCommand implements Command {
     }
     
     
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+    
+    @Override
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+    
     public boolean isExecuted() {
         return executed;
     }
     
     
+    @Override
     public boolean wasSuccessful() {
         return wasSuccessful;
     }
+    
+    void restoreState(boolean executed, boolean successful) {
+        this.executed = executed;
+        this.wasSuccessful = successful;
+    }
 }
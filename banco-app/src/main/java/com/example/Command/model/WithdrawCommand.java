@@ -1,58 +1,68 @@
 package com.example.Command.model;
 
+import java.util.List;
+
 import com.example.Observer.model.ConcreteSubject;
+import com.example.Observer.model.Money;
 
 
 public class WithdrawCommand implements Command {
     private ConcreteSubject account;
-    private double amount;
-    private double previousBalance;
+    private Money amount;
     private boolean executed;
     private boolean wasSuccessful;
+    private String idempotencyKey;
     
     
-    public WithdrawCommand(ConcreteSubject account, double amount) {
+    public WithdrawCommand(ConcreteSubject account, Money amount) {
         this.account = account;
         this.amount = amount;
-        this.previousBalance = account.getBalance();
         this.executed = false;
         this.wasSuccessful = false;
     }
     
+    public WithdrawCommand(ConcreteSubject account, double amount) {
+        this(account, Money.of(amount, account.getCurrency()));
+    }
+    
     @Override
     public void execute() {
         if (!executed) {
-            System.out.println("Ejecutando comando: " + getCommandName());
+            CommandEvents.emit(EventType.EXECUTE_STARTED, "Ejecutando comando: ", getCommandName());
             
-            if (previousBalance >= amount) {
-                account.withdraw(amount);
-                wasSuccessful = true;
-                System.out.println("Comando ejecutado exitosamente");
+            // La verificación de fondos y el débito son un solo CAS versionado sobre el saldo actual
+            wasSuccessful = account.tryWithdraw(amount);
+            if (wasSuccessful) {
+                CommandEvents.emit(EventType.EXECUTE_SUCCEEDED, "Comando ejecutado exitosamente");
             } else {
-                System.out.println("Error: Fondos insuficientes para retirar $" + amount);
-                System.out.println("Saldo disponible: $" + previousBalance);
-                wasSuccessful = false;
+                CommandEvents.emit(EventType.EXECUTE_FAILED, "Error: Fondos insuficientes para retirar $", amount);
+                if (CommandEvents.isEnabled()) {
+                    CommandEvents.emit(EventType.EXECUTE_FAILED, "Saldo disponible: $", account.getBalanceMoney());
+                }
             }
             
             executed = true;
         } else {
-            System.out.println("Comando ya fue ejecutado anteriormente");
+            CommandEvents.emit(EventType.EXECUTE_SKIPPED, "Comando ya fue ejecutado anteriormente");
         }
     }
     
     @Override
     public void undo() {
         if (executed && wasSuccessful) {
-            System.out.println("Deshaciendo comando: " + getCommandName());
+            CommandEvents.emit(EventType.UNDO_STARTED, "Deshaciendo comando: ", getCommandName());
           
             account.deposit(amount);
-            System.out.println("Retiro de $" + amount + " deshecho. Balance restaurado a $" + account.getBalance());
+            if (CommandEvents.isEnabled()) {
+                CommandEvents.emit(EventType.UNDO_COMPLETED, "Retiro de $", amount,
+                        " deshecho. Balance restaurado a $", account.getBalanceMoney());
+            }
             executed = false;
             wasSuccessful = false;
         } else if (executed && !wasSuccessful) {
-            System.out.println("No es necesario deshacer: retiro no se completó por fondos insuficientes");
+            CommandEvents.emit(EventType.UNDO_SKIPPED, "No es necesario deshacer: retiro no se completó por fondos insuficientes");
         } else {
-            System.out.println("No se puede deshacer: comando no ha sido ejecutado");
+            CommandEvents.emit(EventType.UNDO_SKIPPED, "No se puede deshacer: comando no ha sido ejecutado");
         }
     }
     
@@ -72,11 +82,19 @@ public class WithdrawCommand implements Command {
             status = "Fallido (fondos insuficientes)";
         }
         
-        return String.format("Retiro: $%.2f de cuenta %s | Estado: %s", 
-                           amount, account.getAccountNumber(), status);
+        return "Retiro: $" + amount + " de cuenta " + account.getAccountNumber() + " | Estado: " + status;
+    }
+    
+    @Override
+    public List<ConcreteSubject> getAffectedAccounts() {
+        return List.of(account);
     }
     
     public double getAmount() {
+        return amount.toDouble();
+    }
+    
+    public Money getMoney() {
         return amount;
     }
     
@@ -84,11 +102,26 @@ public class WithdrawCommand implements Command {
         return account;
     }
     
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+    
+    @Override
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+    
     public boolean isExecuted() {
         return executed;
     }
     
+    @Override
     public boolean wasSuccessful() {
         return wasSuccessful;
     }
+    
+    void restoreState(boolean executed, boolean successful) {
+        this.executed = executed;
+        this.wasSuccessful = successful;
+    }
 }
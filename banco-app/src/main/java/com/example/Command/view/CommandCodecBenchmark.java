@@ -0,0 +1,272 @@
+package com.example.Command.view;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.example.Command.model.Command;
+import com.example.Command.model.CommandCodec;
+import com.example.Command.model.CommandWireCodec;
+import com.example.Command.model.DepositCommand;
+import com.example.Command.model.TransferCommand;
+import com.example.Command.model.WithdrawCommand;
+import com.example.Observer.model.ConcreteSubject;
+import com.example.Observer.model.Money;
+
+// Codifica y decodifica la misma mezcla de depósitos, retiros y transferencias con cada formato, un mensaje
+// por comando como en un flujo de réplica. Los comandos no son serializables (las cuentas llevan observadores
+// y cerrojos), así que para la serialización de Java se envía una copia plana con tipo, cuentas e importe
+public class CommandCodecBenchmark {
+    private static final int COMMANDS = 200_000;
+    private static final int ACCOUNTS = 64;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int commandCount = args.length > 0 ? Integer.parseInt(args[0]) : COMMANDS;
+        Map<String, ConcreteSubject> accounts = new HashMap<>();
+        List<ConcreteSubject> accountList = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            ConcreteSubject account = new ConcreteSubject(String.format("ES91-2100-0418-%04d", i), 1_000_000.0, "Ahorros");
+            accounts.put(account.getAccountNumber(), account);
+            accountList.add(account);
+        }
+        List<Command> commands = sampleCommands(accountList, commandCount);
+
+        System.out.println("=== BENCHMARK DE CODECS DE COMANDOS ===");
+        System.out.println("Comandos: " + commandCount + " | Cuentas: " + ACCOUNTS);
+
+        Format[] formats = {
+                new JavaSerialization(accounts),
+                new LegacyCodec(accounts),
+                new WireCodec(accounts, false),
+                new WireCodec(accounts, true)
+        };
+        for (Format format : formats) {
+            // Calentamiento para que el JIT compile las rutas de codificación
+            run(format, commands.subList(0, commandCount / 10));
+            Result best = null;
+            for (int round = 0; round < ROUNDS; round++) {
+                Result result = run(format, commands);
+                if (best == null || result.commandsPerSecond > best.commandsPerSecond) {
+                    best = result;
+                }
+            }
+            System.out.printf("%-24s | %,12.0f comandos/s | %6.1f bytes/comando | Íntegro: %s%n",
+                    format.name(), best.commandsPerSecond, best.bytesPerCommand, best.intact ? "sí" : "NO");
+        }
+    }
+
+    private static List<Command> sampleCommands(List<ConcreteSubject> accounts, int count) {
+        Random random = new Random(42);
+        List<Command> commands = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ConcreteSubject account = accounts.get(random.nextInt(accounts.size()));
+            double amount = 1 + random.nextInt(50_000) / 100.0;
+            switch (i % 3) {
+                case 0:
+                    commands.add(new DepositCommand(account, amount));
+                    break;
+                case 1:
+                    commands.add(new WithdrawCommand(account, amount));
+                    break;
+                default:
+                    ConcreteSubject destination = accounts.get(random.nextInt(accounts.size()));
+                    commands.add(new TransferCommand(account, destination, amount));
+            }
+        }
+        return commands;
+    }
+
+    private static Result run(Format format, List<Command> commands) {
+        format.reset();
+        long bytes = 0;
+        boolean intact = true;
+        long begin = System.nanoTime();
+        for (Command command : commands) {
+            ByteBuffer encoded = format.encode(command);
+            bytes += encoded.remaining();
+            Command decoded = format.decode(encoded);
+            intact &= decoded.getCommandName().equals(command.getCommandName());
+        }
+        long elapsed = System.nanoTime() - begin;
+        return new Result((double) commands.size() * 1_000_000_000L / elapsed, (double) bytes / commands.size(), intact);
+    }
+
+    private interface Format {
+        String name();
+
+        void reset();
+
+        ByteBuffer encode(Command command);
+
+        Command decode(ByteBuffer buffer);
+    }
+
+    private static class LegacyCodec implements Format {
+        private final Map<String, ConcreteSubject> accounts;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1024);
+
+        LegacyCodec(Map<String, ConcreteSubject> accounts) {
+            this.accounts = accounts;
+        }
+
+        @Override
+        public String name() {
+            return "CommandCodec (journal)";
+        }
+
+        @Override
+        public void reset() {
+        }
+
+        @Override
+        public ByteBuffer encode(Command command) {
+            buffer.clear();
+            CommandCodec.encode(command, buffer);
+            return buffer.flip();
+        }
+
+        @Override
+        public Command decode(ByteBuffer buffer) {
+            return CommandCodec.decode(buffer, accounts);
+        }
+    }
+
+    private static class WireCodec implements Format {
+        private final CommandWireCodec sender;
+        private final CommandWireCodec receiver;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1024);
+
+        WireCodec(Map<String, ConcreteSubject> accounts, boolean varint) {
+            this.sender = new CommandWireCodec(accounts, varint);
+            this.receiver = new CommandWireCodec(accounts, varint);
+        }
+
+        @Override
+        public String name() {
+            return sender.isVarint() ? "CommandWireCodec varint" : "CommandWireCodec fijo";
+        }
+
+        @Override
+        public void reset() {
+            sender.reset();
+            receiver.reset();
+        }
+
+        @Override
+        public ByteBuffer encode(Command command) {
+            buffer.clear();
+            sender.encode(command, buffer);
+            return buffer.flip();
+        }
+
+        @Override
+        public Command decode(ByteBuffer buffer) {
+            return receiver.decode(buffer);
+        }
+    }
+
+    private static class JavaSerialization implements Format {
+        private final Map<String, ConcreteSubject> accounts;
+
+        JavaSerialization(Map<String, ConcreteSubject> accounts) {
+            this.accounts = accounts;
+        }
+
+        @Override
+        public String name() {
+            return "Serialización de Java";
+        }
+
+        @Override
+        public void reset() {
+        }
+
+        @Override
+        public ByteBuffer encode(Command command) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(PlainCommand.of(command));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return ByteBuffer.wrap(bytes.toByteArray());
+        }
+
+        @Override
+        public Command decode(ByteBuffer buffer) {
+            try (ObjectInputStream in = new ObjectInputStream(
+                    new ByteArrayInputStream(buffer.array(), buffer.position(), buffer.remaining()))) {
+                return ((PlainCommand) in.readObject()).toCommand(accounts);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static class PlainCommand implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final byte type;
+        private final String source;
+        private final String destination;
+        private final long minorUnits;
+
+        PlainCommand(byte type, String source, String destination, long minorUnits) {
+            this.type = type;
+            this.source = source;
+            this.destination = destination;
+            this.minorUnits = minorUnits;
+        }
+
+        static PlainCommand of(Command command) {
+            if (command instanceof DepositCommand deposit) {
+                return new PlainCommand(CommandCodec.DEPOSIT, deposit.getAccount().getAccountNumber(), null,
+                        deposit.getMoney().getMinorUnits());
+            } else if (command instanceof WithdrawCommand withdraw) {
+                return new PlainCommand(CommandCodec.WITHDRAW, withdraw.getAccount().getAccountNumber(), null,
+                        withdraw.getMoney().getMinorUnits());
+            }
+            TransferCommand transfer = (TransferCommand) command;
+            return new PlainCommand(CommandCodec.TRANSFER, transfer.getSourceAccount().getAccountNumber(),
+                    transfer.getDestinationAccount().getAccountNumber(), transfer.getMoney().getMinorUnits());
+        }
+
+        Command toCommand(Map<String, ConcreteSubject> accounts) {
+            ConcreteSubject account = accounts.get(source);
+            Money amount = Money.ofMinor(minorUnits, account.getCurrency());
+            switch (type) {
+                case CommandCodec.DEPOSIT:
+                    return new DepositCommand(account, amount);
+                case CommandCodec.WITHDRAW:
+                    return new WithdrawCommand(account, amount);
+                default:
+                    return new TransferCommand(account, accounts.get(destination), amount);
+            }
+        }
+    }
+
+    private static class Result {
+        final double commandsPerSecond;
+        final double bytesPerCommand;
+        final boolean intact;
+
+        Result(double commandsPerSecond, double bytesPerCommand, boolean intact) {
+            this.commandsPerSecond = commandsPerSecond;
+            this.bytesPerCommand = bytesPerCommand;
+            this.intact = intact;
+        }
+    }
+}
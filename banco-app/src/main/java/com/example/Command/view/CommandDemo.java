@@ -1,8 +1,11 @@
 package com.example.Command.view;
 
+import com.example.Command.controller.ConsoleEventSink;
 import com.example.Command.controller.TransactionInvoker;
 import com.example.Command.model.Command;
+import com.example.Command.model.CommandEvents;
 import com.example.Command.model.DepositCommand;
+import com.example.Command.model.EventSink;
 import com.example.Command.model.TransferCommand;
 import com.example.Command.model.WithdrawCommand;
 import com.example.Observer.model.ConcreteSubject;
@@ -10,74 +13,79 @@ import com.example.Observer.model.ConcreteSubject;
 public class CommandDemo {
     
     public static void main(String[] args) {
-        System.out.println("PATRON COMMAND\n");
+        // La demo muestra los eventos de comandos en consola; fuera de ella el sink por defecto no hace nada
+        EventSink previousSink = CommandEvents.setSink(new ConsoleEventSink());
+        try {
+            System.out.println("PATRON COMMAND\n");
         
-        ConcreteSubject cuenta1 = new ConcreteSubject("123456789", 1000.0, "Ahorros");
-        ConcreteSubject cuenta2 = new ConcreteSubject("987654321", 500.0, "Corriente");
+            ConcreteSubject cuenta1 = new ConcreteSubject("123456789", 1000.0, "Ahorros");
+            ConcreteSubject cuenta2 = new ConcreteSubject("987654321", 500.0, "Corriente");
         
-        System.out.println("Cuentas creadas:");
-        System.out.println("Cuenta 1: " + cuenta1.getAccountNumber() + " - Tipo: " + cuenta1.getAccountType() + " - Saldo: $" + cuenta1.getBalance());
-        System.out.println("Cuenta 2: " + cuenta2.getAccountNumber() + " - Tipo: " + cuenta2.getAccountType() + " - Saldo: $" + cuenta2.getBalance());
+            System.out.println("Cuentas creadas:");
+            System.out.println("Cuenta 1: " + cuenta1.getAccountNumber() + " - Tipo: " + cuenta1.getAccountType() + " - Saldo: $" + cuenta1.getBalanceMoney());
+            System.out.println("Cuenta 2: " + cuenta2.getAccountNumber() + " - Tipo: " + cuenta2.getAccountType() + " - Saldo: $" + cuenta2.getBalanceMoney());
        
       
-        TransactionInvoker invoker = new TransactionInvoker();
+            TransactionInvoker invoker = new TransactionInvoker();
         
-        System.out.println("\n=== EJECUTANDO OPERACIONES ===");
+            System.out.println("\n=== EJECUTANDO OPERACIONES ===");
         
      
-        Command deposito1 = new DepositCommand(cuenta1, 200.0);
-        invoker.executeCommand(deposito1);
+            Command deposito1 = new DepositCommand(cuenta1, 200.0);
+            invoker.executeCommand(deposito1);
         
-        Command deposito2 = new DepositCommand(cuenta2, 100.0);
-        invoker.executeCommand(deposito2);
+            Command deposito2 = new DepositCommand(cuenta2, 100.0);
+            invoker.executeCommand(deposito2);
        
-        Command retiro1 = new WithdrawCommand(cuenta1, 150.0);
-        invoker.executeCommand(retiro1);
+            Command retiro1 = new WithdrawCommand(cuenta1, 150.0);
+            invoker.executeCommand(retiro1);
         
-        Command retiro2 = new WithdrawCommand(cuenta2, 700.0); // Este debería fallar por fondos insuficientes
-        invoker.executeCommand(retiro2);
+            Command retiro2 = new WithdrawCommand(cuenta2, 700.0); // Este debería fallar por fondos insuficientes
+            invoker.executeCommand(retiro2);
        
-        Command transferencia1 = new TransferCommand(cuenta1, cuenta2, 300.0);
-        invoker.executeCommand(transferencia1);
+            Command transferencia1 = new TransferCommand(cuenta1, cuenta2, 300.0);
+            invoker.executeCommand(transferencia1);
         
-        Command transferencia2 = new TransferCommand(cuenta2, cuenta1, 500.0);
-        invoker.executeCommand(transferencia2);
+            Command transferencia2 = new TransferCommand(cuenta2, cuenta1, 500.0);
+            invoker.executeCommand(transferencia2);
         
-        System.out.println("\nMOSTRANDO HISTORIAL");
-        invoker.showCommandHistory();
+            System.out.println("\nMOSTRANDO HISTORIAL");
+            invoker.showCommandHistory();
         
-        System.out.println("\n=== MOSTRANDO ESTADO ACTUAL DE CUENTAS ===");
-        System.out.println("Cuenta 1: $" + cuenta1.getBalance());
-        System.out.println("Cuenta 2: $" + cuenta2.getBalance());
+            System.out.println("\n=== MOSTRANDO ESTADO ACTUAL DE CUENTAS ===");
+            System.out.println("Cuenta 1: $" + cuenta1.getBalanceMoney());
+            System.out.println("Cuenta 2: $" + cuenta2.getBalanceMoney());
         
-        System.out.println("\n=== DEMOSTRACIÓN DE DESHACER/REHACER ===");
+            System.out.println("\n=== DEMOSTRACIÓN DE DESHACER/REHACER ===");
       
-        invoker.showStackStatus();
+            invoker.showStackStatus();
        
-        invoker.undoLastCommand();
+            invoker.undoLastCommand();
         
       
-        System.out.println("\nEstado después de deshacer:");
-        System.out.println("Cuenta 1: $" + cuenta1.getBalance());
-        System.out.println("Cuenta 2: $" + cuenta2.getBalance());
+            System.out.println("\nEstado después de deshacer:");
+            System.out.println("Cuenta 1: $" + cuenta1.getBalanceMoney());
+            System.out.println("Cuenta 2: $" + cuenta2.getBalanceMoney());
         
      
-        invoker.undoLastCommand();
+            invoker.undoLastCommand();
        
-        invoker.showStackStatus();
+            invoker.showStackStatus();
         
-        invoker.redoLastCommand();
+            invoker.redoLastCommand();
         
-        System.out.println("\nEstado después de rehacer:");
-        System.out.println("Cuenta 1: $" + cuenta1.getBalance());
-        System.out.println("Cuenta 2: $" + cuenta2.getBalance());
+            System.out.println("\nEstado después de rehacer:");
+            System.out.println("Cuenta 1: $" + cuenta1.getBalanceMoney());
+            System.out.println("Cuenta 2: $" + cuenta2.getBalanceMoney());
     
-        System.out.println("\n=== HISTORIAL FINAL ===");
-        invoker.showCommandHistory();
+            System.out.println("\n=== HISTORIAL FINAL ===");
+            invoker.showCommandHistory();
         
-        System.out.println("\n=== ESTADO FINAL DE CUENTAS ===");
-        System.out.println("Cuenta 1: $" + cuenta1.getBalance());
-        System.out.println("Cuenta 2: $" + cuenta2.getBalance());
-    
+            System.out.println("\n=== ESTADO FINAL DE CUENTAS ===");
+            System.out.println("Cuenta 1: $" + cuenta1.getBalanceMoney());
+            System.out.println("Cuenta 2: $" + cuenta2.getBalanceMoney());
+        } finally {
+            CommandEvents.setSink(previousSink);
+        }
     }
-}
\ No newline at end of file
+}
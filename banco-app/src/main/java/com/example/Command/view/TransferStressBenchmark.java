@@ -0,0 +1,90 @@
+package com.example.Command.view;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import com.example.Command.model.TransferCommand;
+import com.example.Observer.model.ConcreteSubject;
+
+// Cada par de cuentas recibe dos hilos que transfieren en sentidos opuestos (A→B y B→A). Con pares disjuntos
+// los cerrojos por cuenta no compiten entre sí, así que el rendimiento debería crecer con el número de pares
+public class TransferStressBenchmark {
+    private static final int TRANSFERS_PER_THREAD = 200_000;
+    private static final int[] PAIR_COUNTS = {1, 2, 4, 8};
+
+    public static void main(String[] args) throws InterruptedException {
+        int transfersPerThread = args.length > 0 ? Integer.parseInt(args[0]) : TRANSFERS_PER_THREAD;
+        System.out.println("=== BENCHMARK DE TRANSFERENCIAS CONCURRENTES ===");
+        System.out.println("Procesadores disponibles: " + Runtime.getRuntime().availableProcessors());
+        System.out.println("Transferencias por hilo: " + transfersPerThread);
+
+        // Calentamiento para que el JIT compile la ruta de transferencia
+        run(1, transfersPerThread / 10);
+
+        for (int pairs : PAIR_COUNTS) {
+            Result result = run(pairs, transfersPerThread);
+            System.out.printf("Pares: %2d | Hilos: %2d | %,12.0f transferencias/s | Dinero conservado: %s%n",
+                    pairs, pairs * 2, result.transfersPerSecond, result.balanced ? "sí" : "NO");
+        }
+    }
+
+    private static Result run(int pairs, int transfersPerThread) throws InterruptedException {
+        List<ConcreteSubject> accounts = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int p = 0; p < pairs; p++) {
+            ConcreteSubject a = new ConcreteSubject("BENCH-A-" + p, 1_000_000.0, "Ahorros");
+            ConcreteSubject b = new ConcreteSubject("BENCH-B-" + p, 1_000_000.0, "Ahorros");
+            accounts.add(a);
+            accounts.add(b);
+            threads.add(new Thread(() -> transferLoop(start, a, b, transfersPerThread)));
+            threads.add(new Thread(() -> transferLoop(start, b, a, transfersPerThread)));
+        }
+        long totalBefore = totalMinor(accounts);
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        double transfersPerSecond = (double) threads.size() * transfersPerThread * 1_000_000_000L / elapsed;
+        return new Result(transfersPerSecond, totalBefore == totalMinor(accounts));
+    }
+
+    private static void transferLoop(CountDownLatch start, ConcreteSubject from, ConcreteSubject to, int count) {
+        try {
+            start.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            new TransferCommand(from, to, 1.0).execute();
+        }
+    }
+
+    private static long totalMinor(List<ConcreteSubject> accounts) {
+        long total = 0;
+        for (ConcreteSubject account : accounts) {
+            total += account.getBalanceMinor();
+        }
+        return total;
+    }
+
+    private static class Result {
+        final double transfersPerSecond;
+        final boolean balanced;
+
+        Result(double transfersPerSecond, boolean balanced) {
+            this.transfersPerSecond = transfersPerSecond;
+            this.balanced = balanced;
+        }
+    }
+}
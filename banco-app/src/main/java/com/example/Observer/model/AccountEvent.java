@@ -0,0 +1,279 @@
+package com.example.Observer.model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Evento de cuenta con sus datos ya separados. La cuenta solo lo construye si tiene observadores y el texto
+// se genera la primera vez que alguien lo pide, una sola vez aunque lo lean varios observadores.
+// La secuencia es propia de cada cuenta y sale de la versión del saldo: avanza con cada escritura del saldo,
+// se emita o no un evento (puede haber huecos), y un lote agrupado (COALESCED) ocupa un solo número
+public final class AccountEvent {
+    private final AccountEventKind kind;
+    private final String accountNumber;
+    private final String currency;
+    private final long amountMinor;
+    private final long balanceMinor;
+    private final long timestampMillis;
+    private final long sequence;
+    // TRANSFER: cuenta destino; ACCOUNT_TYPE_CHANGED: tipo anterior
+    private final String reference;
+    // ACCOUNT_TYPE_CHANGED: tipo nuevo
+    private final String newType;
+    // COALESCED
+    private final int depositCount;
+    private final int withdrawalCount;
+    private final int rejectedCount;
+    private final long depositedMinor;
+    private final long withdrawnMinor;
+    private String message;
+
+
+    private AccountEvent(AccountEventKind kind, String accountNumber, String currency, long amountMinor,
+                         long balanceMinor, long timestampMillis, long sequence, String reference, String newType,
+                         int depositCount, int withdrawalCount, int rejectedCount, long depositedMinor,
+                         long withdrawnMinor) {
+        this.kind = kind;
+        this.accountNumber = accountNumber;
+        this.currency = currency;
+        this.amountMinor = amountMinor;
+        this.balanceMinor = balanceMinor;
+        this.timestampMillis = timestampMillis;
+        this.sequence = sequence;
+        this.reference = reference;
+        this.newType = newType;
+        this.depositCount = depositCount;
+        this.withdrawalCount = withdrawalCount;
+        this.rejectedCount = rejectedCount;
+        this.depositedMinor = depositedMinor;
+        this.withdrawnMinor = withdrawnMinor;
+    }
+
+    static AccountEvent movement(AccountEventKind kind, String accountNumber, String currency, long amountMinor,
+                                 long balanceMinor, long timestampMillis, long sequence) {
+        return new AccountEvent(kind, accountNumber, currency, amountMinor, balanceMinor, timestampMillis, sequence,
+                null, null, 0, 0, 0, 0, 0);
+    }
+
+    static AccountEvent transfer(String accountNumber, String currency, long amountMinor, long balanceMinor,
+                                 String destinationAccount, long timestampMillis, long sequence) {
+        return new AccountEvent(AccountEventKind.TRANSFER, accountNumber, currency, amountMinor, balanceMinor,
+                timestampMillis, sequence, destinationAccount, null, 0, 0, 0, 0, 0);
+    }
+
+    static AccountEvent typeChange(String accountNumber, String currency, long balanceMinor, String oldType,
+                                   String newType, long timestampMillis, long sequence) {
+        return new AccountEvent(AccountEventKind.ACCOUNT_TYPE_CHANGED, accountNumber, currency, 0, balanceMinor,
+                timestampMillis, sequence, oldType, newType, 0, 0, 0, 0, 0);
+    }
+
+    // balances[0] es el saldo inicial y balances[i + 1] el saldo tras deltas[i]; un retiro que no cambió el
+    // saldo fue rechazado
+    static AccountEvent coalesced(String accountNumber, String currency, long[] deltas, long[] balances,
+                                  long timestampMillis, long sequence) {
+        int deposits = 0;
+        int withdrawals = 0;
+        int rejected = 0;
+        long deposited = 0;
+        long withdrawn = 0;
+        for (int i = 0; i < deltas.length; i++) {
+            if (deltas[i] > 0) {
+                deposits++;
+                deposited += deltas[i];
+            } else if (balances[i + 1] != balances[i]) {
+                withdrawals++;
+                withdrawn -= deltas[i];
+            } else {
+                rejected++;
+            }
+        }
+        return new AccountEvent(AccountEventKind.COALESCED, accountNumber, currency, deposited - withdrawn,
+                balances[deltas.length], timestampMillis, sequence, null, null, deposits, withdrawals, rejected,
+                deposited, withdrawn);
+    }
+
+    // Los movimientos de un lote agrupado como eventos sueltos, con el saldo tras cada uno y la secuencia del lote
+    static AccountEvent[] movements(String accountNumber, String currency, long[] deltas, long[] balances,
+                                    long timestampMillis, long sequence) {
+        AccountEvent[] events = new AccountEvent[deltas.length];
+        for (int i = 0; i < deltas.length; i++) {
+            AccountEventKind kind = deltas[i] > 0 ? AccountEventKind.DEPOSIT
+                    : balances[i + 1] != balances[i] ? AccountEventKind.WITHDRAWAL : AccountEventKind.WITHDRAWAL_REJECTED;
+            events[i] = movement(kind, accountNumber, currency, Math.abs(deltas[i]), balances[i + 1], timestampMillis,
+                    sequence);
+        }
+        return events;
+    }
+
+    public AccountEventKind getKind() {
+        return kind;
+    }
+
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    // Importe del movimiento; en COALESCED es el cambio neto y puede ser negativo
+    public Money getAmount() {
+        return Money.ofMinor(amountMinor, currency);
+    }
+
+    public long getAmountMinor() {
+        return amountMinor;
+    }
+
+    public Money getNewBalance() {
+        return Money.ofMinor(balanceMinor, currency);
+    }
+
+    public long getNewBalanceMinor() {
+        return balanceMinor;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public String getDestinationAccount() {
+        return kind == AccountEventKind.TRANSFER ? reference : null;
+    }
+
+    public String getPreviousType() {
+        return kind == AccountEventKind.ACCOUNT_TYPE_CHANGED ? reference : null;
+    }
+
+    public String getNewType() {
+        return newType;
+    }
+
+    public int getDepositCount() {
+        return depositCount;
+    }
+
+    public int getWithdrawalCount() {
+        return withdrawalCount;
+    }
+
+    public int getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public String getMessage() {
+        String rendered = message;
+        if (rendered == null) {
+            rendered = render();
+            message = rendered;
+        }
+        return rendered;
+    }
+
+    private String render() {
+        StringBuilder text = new StringBuilder(128);
+        switch (kind) {
+            case DEPOSIT:
+                text.append("Depósito: +$");
+                Money.appendTo(text, amountMinor).append(" en cuenta ").append(accountNumber).append(". Nuevo saldo: $");
+                break;
+            case WITHDRAWAL:
+                text.append("Retiro: -$");
+                Money.appendTo(text, amountMinor).append(" de cuenta ").append(accountNumber).append(". Nuevo saldo: $");
+                break;
+            case WITHDRAWAL_REJECTED:
+                text.append("Intento de retiro: -$");
+                Money.appendTo(text, amountMinor).append(" de cuenta ").append(accountNumber)
+                        .append(". Fondos insuficientes. Saldo actual: $");
+                break;
+            case TRANSFER:
+                text.append("Transferencia: -$");
+                Money.appendTo(text, amountMinor).append(" de cuenta ").append(accountNumber)
+                        .append(" a cuenta ").append(reference).append(". Nuevo saldo: $");
+                break;
+            case ACCOUNT_TYPE_CHANGED:
+                return text.append("Cambio de tipo de cuenta: ").append(accountNumber).append(" de ").append(reference)
+                        .append(" a ").append(newType).toString();
+            case COALESCED:
+                text.append("Movimientos agrupados en cuenta ").append(accountNumber).append(": ")
+                        .append(depositCount).append(" depósitos (+$");
+                Money.appendTo(text, depositedMinor).append("), ").append(withdrawalCount).append(" retiros (-$");
+                Money.appendTo(text, withdrawnMinor).append(")");
+                if (rejectedCount > 0) {
+                    text.append(", ").append(rejectedCount).append(" rechazados por fondos insuficientes");
+                }
+                text.append(". Nuevo saldo: $");
+                break;
+            default:
+                throw new IllegalStateException("Tipo de evento desconocido: " + kind);
+        }
+        return Money.appendTo(text, balanceMinor).toString();
+    }
+
+    // Formato binario para guardar el evento fuera de memoria (p. ej. el desborde a disco de AsyncObserver)
+    byte[] toBytes() {
+        byte[] account = accountNumber.getBytes(StandardCharsets.UTF_8);
+        byte[] curr = currency.getBytes(StandardCharsets.UTF_8);
+        byte[] ref = reference != null ? reference.getBytes(StandardCharsets.UTF_8) : null;
+        byte[] type = newType != null ? newType.getBytes(StandardCharsets.UTF_8) : null;
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 4 * Integer.BYTES + 6 * Long.BYTES + 3 * Integer.BYTES
+                + account.length + curr.length + (ref != null ? ref.length : 0) + (type != null ? type.length : 0));
+        buffer.put((byte) kind.ordinal());
+        putString(buffer, account);
+        putString(buffer, curr);
+        putString(buffer, ref);
+        putString(buffer, type);
+        buffer.putLong(amountMinor).putLong(balanceMinor).putLong(timestampMillis).putLong(sequence);
+        buffer.putInt(depositCount).putInt(withdrawalCount).putInt(rejectedCount);
+        buffer.putLong(depositedMinor).putLong(withdrawnMinor);
+        return buffer.array();
+    }
+
+    static AccountEvent fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        AccountEventKind kind = AccountEventKind.values()[buffer.get()];
+        String account = getString(buffer);
+        String curr = getString(buffer);
+        String ref = getString(buffer);
+        String type = getString(buffer);
+        long amount = buffer.getLong();
+        long balance = buffer.getLong();
+        long timestamp = buffer.getLong();
+        long seq = buffer.getLong();
+        int deposits = buffer.getInt();
+        int withdrawals = buffer.getInt();
+        int rejected = buffer.getInt();
+        long deposited = buffer.getLong();
+        long withdrawn = buffer.getLong();
+        return new AccountEvent(kind, account, curr, amount, balance, timestamp, seq, ref, type, deposits,
+                withdrawals, rejected, deposited, withdrawn);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return getMessage();
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.Observer.model;
+
+public enum AccountEventKind {
+    DEPOSIT,
+    WITHDRAWAL,
+    // Retiro que no se aplicó por fondos insuficientes; el saldo es el vigente en ese momento
+    WITHDRAWAL_REJECTED,
+    TRANSFER,
+    ACCOUNT_TYPE_CHANGED,
+    // Resumen de varios depósitos y retiros aplicados con una sola publicación del saldo
+    COALESCED;
+
+    public static final int ALL = (1 << values().length) - 1;
+
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    public static int mask(AccountEventKind... kinds) {
+        int mask = 0;
+        for (AccountEventKind kind : kinds) {
+            mask |= kind.bit();
+        }
+        return mask;
+    }
+}
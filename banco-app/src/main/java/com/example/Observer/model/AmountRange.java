@@ -0,0 +1,54 @@
+package com.example.Observer.model;
+
+// Rango cerrado de importes en unidades menores, comparado contra AccountEvent.getAmountMinor(). Conserva la
+// moneda de sus límites: solo se puede suscribir a cuentas de esa moneda
+public final class AmountRange {
+    private final long minMinor;
+    private final long maxMinor;
+    private final String currency;
+
+
+    private AmountRange(long minMinor, long maxMinor, String currency) {
+        if (minMinor > maxMinor) {
+            throw new IllegalArgumentException("Rango de importes inválido: " + Money.format(minMinor) + " > " + Money.format(maxMinor));
+        }
+        this.minMinor = minMinor;
+        this.maxMinor = maxMinor;
+        this.currency = currency;
+    }
+
+    public static AmountRange atLeast(Money min) {
+        return new AmountRange(min.getMinorUnits(), Long.MAX_VALUE, min.getCurrency());
+    }
+
+    public static AmountRange atMost(Money max) {
+        return new AmountRange(Long.MIN_VALUE, max.getMinorUnits(), max.getCurrency());
+    }
+
+    public static AmountRange between(Money min, Money max) {
+        min.requireSameCurrency(max);
+        return new AmountRange(min.getMinorUnits(), max.getMinorUnits(), min.getCurrency());
+    }
+
+    public boolean contains(long amountMinor) {
+        return amountMinor >= minMinor && amountMinor <= maxMinor;
+    }
+
+    public long getMinMinor() {
+        return minMinor;
+    }
+
+    public long getMaxMinor() {
+        return maxMinor;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + (minMinor == Long.MIN_VALUE ? "-∞" : Money.format(minMinor)) + ", "
+                + (maxMinor == Long.MAX_VALUE ? "∞" : Money.format(maxMinor)) + "] " + currency;
+    }
+}
@@ -0,0 +1,547 @@
+package com.example.Observer.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Envuelve un observador para que la cuenta que notifica solo encole el aviso. Cada observador tiene su propia
+// cola acotada y un hilo virtual que la vacía, así un observador lento no retrasa ni a la cuenta ni a los demás.
+// Mientras haya avisos volcados a disco los nuevos también van a disco, para entregarlos en el orden original.
+// Solo el hilo de entrega lee el archivo y lo hace sin el cerrojo, así los productores no esperan a una lectura.
+// Un fallo de disco nunca llega a la cuenta: el aviso que no se pudo volcar o leer se descarta y se cuenta
+public class AsyncObserver implements Observer, AutoCloseable {
+    public static final int DEFAULT_CAPACITY = 1024;
+    private static final int SPILL_HEADER_BYTES = Long.BYTES + 1 + Integer.BYTES;
+    private static final byte SPILLED_TEXT = 0;
+    private static final byte SPILLED_EVENT = 1;
+
+    private final Observer delegate;
+    private final int capacity;
+    private final ObserverOverflowPolicy policy;
+    private final Path spillDirectory;
+    private final ReentrantLock lock;
+    private final Condition notEmpty;
+    private final Condition notFull;
+    private final Condition idle;
+    // Cada aviso es un String o un AccountEvent, según la sobrecarga por la que llegó
+    private final Object[] messages;
+    private final long[] enqueuedAt;
+    private final ByteBuffer spillHeader;
+    private Thread drainer;
+    private int head;
+    private int size;
+    private boolean delivering;
+    private boolean running;
+    private boolean closed;
+
+    private Path spillFile;
+    private FileChannel spill;
+    private long spillReadPosition;
+    private long spillWritePosition;
+    private int spilledPending;
+    // Encolado del aviso volcado más antiguo que se conoce; lo actualizan el primer volcado y cada lectura
+    private long spillHeadAt;
+
+    private long enqueuedCount;
+    private long deliveredCount;
+    private long droppedCount;
+    private long spilledCount;
+    private long blockedCount;
+    private long failedCount;
+    private long spillErrorCount;
+    private long totalLagNanos;
+    private long maxLagNanos;
+
+
+    public AsyncObserver(Observer delegate) {
+        this(delegate, DEFAULT_CAPACITY, ObserverOverflowPolicy.DROP_OLDEST, null);
+    }
+
+    public AsyncObserver(Observer delegate, int capacity, ObserverOverflowPolicy policy) {
+        this(delegate, capacity, policy, null);
+    }
+
+    // spillDirectory solo se usa con SPILL_TO_DISK; null = directorio temporal del sistema
+    public AsyncObserver(Observer delegate, int capacity, ObserverOverflowPolicy policy, Path spillDirectory) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("La capacidad de la cola debe ser mayor a cero: " + capacity);
+        }
+        this.delegate = delegate;
+        this.capacity = capacity;
+        this.policy = policy;
+        this.spillDirectory = spillDirectory;
+        this.lock = new ReentrantLock();
+        this.notEmpty = lock.newCondition();
+        this.notFull = lock.newCondition();
+        this.idle = lock.newCondition();
+        this.messages = new Object[capacity];
+        this.enqueuedAt = new long[capacity];
+        this.spillHeader = ByteBuffer.allocate(SPILL_HEADER_BYTES);
+    }
+
+    // Antes de start los avisos solo se acumulan; el hilo de entrega arranca igualmente si un productor con BLOCK
+    // se quedaría esperando espacio o si se cierra con avisos pendientes
+    public void start() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            startDrainer();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Se llama con el cerrojo tomado
+    private void startDrainer() {
+        if (running) {
+            return;
+        }
+        running = true;
+        drainer = Thread.ofVirtual().name("observador-" + delegate.getObserverType()).start(this::drainLoop);
+    }
+
+    @Override
+    public void update(String message) {
+        enqueue(message);
+    }
+
+    @Override
+    public void update(AccountEvent event) {
+        enqueue(event);
+    }
+
+    private void enqueue(Object message) {
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            if (closed) {
+                droppedCount++;
+                return;
+            }
+            if (spilledPending > 0 || size == capacity) {
+                if (policy == ObserverOverflowPolicy.SPILL_TO_DISK) {
+                    if (!writeSpill(message, now)) {
+                        return;
+                    }
+                } else if (!makeRoom()) {
+                    return;
+                }
+            }
+            if (spilledPending == 0) {
+                int tail = (head + size) % capacity;
+                messages[tail] = message;
+                enqueuedAt[tail] = now;
+                size++;
+            }
+            enqueuedCount++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Devuelve false si el aviso se descartó
+    private boolean makeRoom() {
+        if (policy == ObserverOverflowPolicy.DROP_OLDEST) {
+            messages[head] = null;
+            head = (head + 1) % capacity;
+            size--;
+            droppedCount++;
+            return true;
+        }
+        blockedCount++;
+        startDrainer();
+        while (size == capacity && !closed) {
+            try {
+                notFull.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                droppedCount++;
+                return false;
+            }
+        }
+        if (closed) {
+            droppedCount++;
+            return false;
+        }
+        return true;
+    }
+
+    private void drainLoop() {
+        while (true) {
+            Object message = null;
+            long at;
+            FileChannel channel = null;
+            long position = 0;
+            long limit = 0;
+            lock.lock();
+            try {
+                while (size == 0 && spilledPending == 0) {
+                    delivering = false;
+                    idle.signalAll();
+                    if (closed) {
+                        closeSpillQuietly();
+                        return;
+                    }
+                    notEmpty.awaitUninterruptibly();
+                }
+                delivering = true;
+                if (size > 0) {
+                    message = messages[head];
+                    at = enqueuedAt[head];
+                    messages[head] = null;
+                    head = (head + 1) % capacity;
+                    size--;
+                    notFull.signal();
+                } else {
+                    channel = spill;
+                    position = spillReadPosition;
+                    limit = spillWritePosition;
+                    at = spillHeadAt;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (channel != null) {
+                // Los productores solo escriben detrás de spillWritePosition, así el registro ya volcado se lee
+                // sin el cerrojo
+                long consumed = -1;
+                try {
+                    readFully(channel, spillHeader.clear(), position);
+                    at = spillHeader.getLong(0);
+                    byte kind = spillHeader.get(Long.BYTES);
+                    int length = spillHeader.getInt(Long.BYTES + 1);
+                    if (length < 0 || length > limit - position - SPILL_HEADER_BYTES) {
+                        throw new IllegalStateException("Longitud inválida en el archivo de desborde: " + length);
+                    }
+                    ByteBuffer body = ByteBuffer.allocate(length);
+                    readFully(channel, body, position + SPILL_HEADER_BYTES);
+                    consumed = SPILL_HEADER_BYTES + length;
+                    message = kind == SPILLED_EVENT ? AccountEvent.fromBytes(body.array())
+                            : new String(body.array(), StandardCharsets.UTF_8);
+                } catch (RuntimeException e) {
+                    message = null;
+                }
+                if (!commitSpillRead(consumed, at, message != null)) {
+                    continue;
+                }
+            }
+
+            boolean failed = false;
+            try {
+                if (message instanceof AccountEvent event) {
+                    delegate.update(event);
+                } else {
+                    delegate.update((String) message);
+                }
+            } catch (Throwable e) {
+                // Un observador que falla, incluso con un Error, no debe detener la entrega de los siguientes avisos
+                failed = true;
+            }
+            long lag = System.nanoTime() - at;
+
+            lock.lock();
+            try {
+                deliveredCount++;
+                if (failed) {
+                    failedCount++;
+                }
+                totalLagNanos += lag;
+                maxLagNanos = Math.max(maxLagNanos, lag);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // consumed < 0: el archivo no se pudo leer y no se sabe dónde empieza el registro siguiente, así que se
+    // descarta todo lo volcado. Devuelve false si no hay aviso que entregar
+    private boolean commitSpillRead(long consumed, long at, boolean decoded) {
+        lock.lock();
+        try {
+            if (consumed < 0) {
+                spillErrorCount++;
+                droppedCount += spilledPending;
+                spilledPending = 0;
+            } else {
+                spillReadPosition += consumed;
+                spilledPending--;
+                spillHeadAt = at;
+                if (!decoded) {
+                    spillErrorCount++;
+                    droppedCount++;
+                }
+            }
+            if (spilledPending == 0) {
+                // Con el archivo ya consumido se reutiliza desde el principio
+                spillReadPosition = 0;
+                spillWritePosition = 0;
+            }
+            return consumed >= 0 && decoded;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Registro en disco: [instante de encolado long][clase byte][longitud int][texto UTF-8 o evento].
+    // Devuelve false si no se pudo volcar; la posición de escritura solo avanza con el registro completo
+    private boolean writeSpill(Object message, long now) {
+        boolean event = message instanceof AccountEvent;
+        byte[] bytes = event ? ((AccountEvent) message).toBytes() : ((String) message).getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(SPILL_HEADER_BYTES + bytes.length);
+        record.putLong(now).put(event ? SPILLED_EVENT : SPILLED_TEXT).putInt(bytes.length).put(bytes).flip();
+        try {
+            if (spill == null) {
+                Path directory = spillDirectory != null ? spillDirectory : Path.of(System.getProperty("java.io.tmpdir"));
+                spillFile = Files.createTempFile(directory, "observador-", ".spill");
+                spill = FileChannel.open(spillFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+            long position = spillWritePosition;
+            while (record.hasRemaining()) {
+                position += spill.write(record, position);
+            }
+            spillWritePosition = position;
+        } catch (IOException | RuntimeException e) {
+            spillErrorCount++;
+            droppedCount++;
+            return false;
+        }
+        if (spilledPending == 0) {
+            spillHeadAt = now;
+        }
+        spilledPending++;
+        spilledCount++;
+        return true;
+    }
+
+    private void readFully(FileChannel channel, ByteBuffer buffer, long position) {
+        try {
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new IllegalStateException("Archivo de desborde truncado: " + spillFile);
+                }
+                position += read;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el archivo de desborde " + spillFile, e);
+        }
+        buffer.flip();
+    }
+
+    // Se llama con el cerrojo tomado
+    private void closeSpill() throws IOException {
+        if (spill != null) {
+            spill.close();
+            Files.deleteIfExists(spillFile);
+            spill = null;
+        }
+    }
+
+    private void closeSpillQuietly() {
+        try {
+            closeSpill();
+        } catch (IOException e) {
+            spillErrorCount++;
+        }
+    }
+
+    // Espera a que se hayan entregado todos los avisos encolados hasta ahora
+    public boolean awaitIdle(long timeout, TimeUnit unit) {
+        long remaining = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (size > 0 || spilledPending > 0 || delivering) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = idle.awaitNanos(remaining);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Deja de aceptar avisos, entrega los pendientes (también los de disco) y borra el archivo de desborde.
+    // Desde el propio hilo de entrega (un observador que se quita a sí mismo) no se espera: el hilo termina
+    // solo al vaciar la cola y borra el archivo al salir
+    @Override
+    public void close() {
+        Thread current;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (size > 0 || spilledPending > 0) {
+                startDrainer();
+            }
+            current = drainer;
+            notEmpty.signal();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (current == Thread.currentThread()) {
+            return;
+        }
+        if (current != null) {
+            try {
+                current.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        lock.lock();
+        try {
+            closeSpill();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo borrar el archivo de desborde " + spillFile, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String getObserverType() {
+        return delegate.getObserverType() + " [asíncrono]";
+    }
+
+    public Observer getDelegate() {
+        return delegate;
+    }
+
+    public ObserverOverflowPolicy getPolicy() {
+        return policy;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // Avisos aceptados que el observador todavía no recibió, en memoria y en disco
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return size + spilledPending;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Antigüedad del aviso pendiente más viejo; 0 si el observador está al día. Con avisos en disco se toma
+    // el último leído, que puede ser algo más viejo que el siguiente pendiente
+    public long getCurrentLagNanos() {
+        lock.lock();
+        try {
+            if (size > 0) {
+                return System.nanoTime() - enqueuedAt[head];
+            }
+            if (spilledPending > 0) {
+                return System.nanoTime() - spillHeadAt;
+            }
+            return 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getAverageLagNanos() {
+        lock.lock();
+        try {
+            return deliveredCount == 0 ? 0 : totalLagNanos / deliveredCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getMaxLagNanos() {
+        lock.lock();
+        try {
+            return maxLagNanos;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getEnqueuedCount() {
+        lock.lock();
+        try {
+            return enqueuedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getDeliveredCount() {
+        lock.lock();
+        try {
+            return deliveredCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getDroppedCount() {
+        lock.lock();
+        try {
+            return droppedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getSpilledCount() {
+        lock.lock();
+        try {
+            return spilledCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Veces que la cuenta tuvo que esperar por falta de espacio en la cola
+    public long getBlockedCount() {
+        lock.lock();
+        try {
+            return blockedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getFailedCount() {
+        lock.lock();
+        try {
+            return failedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Fallos de disco al volcar, leer o borrar el archivo de desborde; los avisos perdidos cuentan como descartados
+    public long getSpillErrorCount() {
+        lock.lock();
+        try {
+            return spillErrorCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
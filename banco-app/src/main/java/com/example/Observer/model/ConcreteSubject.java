@@ -1,54 +1,307 @@
 package com.example.Observer.model;
 
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
 public class ConcreteSubject extends Subject {
+    public static final int MAX_OPTIMISTIC_RETRIES = 32;
+    private static final long INSUFFICIENT_FUNDS = Long.MIN_VALUE;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong optimisticRetries = new AtomicLong();
     private String accountNumber;
-    private double balance;
+    private volatile long balance;
+    private String currency;
     private String accountType;
 
     public ConcreteSubject(String accountNumber, double balance, String accountType) {
+        this(accountNumber, Money.of(balance), accountType);
+    }
+
+    public ConcreteSubject(String accountNumber, Money balance, String accountType) {
         this.accountNumber = accountNumber;
-        this.balance = balance;
+        this.balance = balance.getMinorUnits();
+        this.currency = balance.getCurrency();
         this.accountType = accountType;
     }
 
+    public void deposit(Money amount) {
+        requireCurrency(amount);
+        depositMinor(amount.getMinorUnits());
+    }
+
     public void deposit(double amount) {
+        depositMinor(Money.toMinor(amount));
+    }
+
+    public void withdraw(Money amount) {
+        tryWithdraw(amount);
+    }
+
+    public void withdraw(double amount) {
+        withdrawMinor(Money.toMinor(amount));
+    }
+
+    public boolean tryWithdraw(Money amount) {
+        requireCurrency(amount);
+        return withdrawMinor(amount.getMinorUnits());
+    }
+
+    public void transfer(Money amount, String destinationAccount) {
+        tryTransfer(amount, destinationAccount);
+    }
+
+    public void transfer(double amount, String destinationAccount) {
+        transferMinor(Money.toMinor(amount), destinationAccount);
+    }
+
+    public boolean tryTransfer(Money amount, String destinationAccount) {
+        requireCurrency(amount);
+        return transferMinor(amount.getMinorUnits(), destinationAccount);
+    }
+
+    private void depositMinor(long amount) {
         if (amount > 0) {
-            balance += amount;
-            String message = "Depósito: +$" + amount + " en cuenta " + accountNumber + ". Nuevo saldo: $" + balance;
-            notifyObservers(message);
+            applyDelta(amount, false, AccountEventKind.DEPOSIT, null);
         }
     }
 
-    public void withdraw(double amount) {
-        if (amount > 0 && amount <= balance) {
-            balance -= amount;
-            String message = "Retiro: -$" + amount + " de cuenta " + accountNumber + ". Nuevo saldo: $" + balance;
-            notifyObservers(message);
-        } else if (amount > balance) {
-            String message = "Intento de retiro: -$" + amount + " de cuenta " + accountNumber + ". Fondos insuficientes. Saldo actual: $" + balance;
-            notifyObservers(message);
+    private boolean withdrawMinor(long amount) {
+        if (amount <= 0) {
+            return false;
         }
+        return applyDelta(-amount, true, AccountEventKind.WITHDRAWAL, null) != INSUFFICIENT_FUNDS;
     }
 
-    public void transfer(double amount, String destinationAccount) {
-        if (amount > 0 && amount <= balance) {
-            balance -= amount;
-            String message = "Transferencia: -$" + amount + " de cuenta " + accountNumber + " a cuenta " + destinationAccount + ". Nuevo saldo: $" + balance;
-            notifyObservers(message);
+    private boolean transferMinor(long amount, String destinationAccount) {
+        if (amount <= 0) {
+            return false;
+        }
+        return applyDelta(-amount, true, AccountEventKind.TRANSFER, destinationAccount) != INSUFFICIENT_FUNDS;
+    }
+
+    // Verifica y aplica con CAS sobre la versión. Tras MAX_OPTIMISTIC_RETRIES fallos el hilo toma el cerrojo
+    // de la cuenta y sigue reintentando: así los hilos en conflicto se turnan en lugar de competir sin fin.
+    // Si otro hilo tiene la cuenta bloqueada (operación sobre varias cuentas) se espera a que la libere.
+    // Un rechazo por fondos también publica versión (con el mismo saldo) para tener su número de secuencia.
+    // Devuelve el saldo nuevo o INSUFFICIENT_FUNDS y notifica fuera del cerrojo
+    private long applyDelta(long delta, boolean requireFunds, AccountEventKind kind, String destinationAccount) {
+        boolean locked = false;
+        long current;
+        long result;
+        long sequence;
+        try {
+            for (int attempt = 0; ; attempt++) {
+                if (!locked && lockedByOther()) {
+                    lock.lock();
+                    locked = true;
+                }
+                long expectedVersion = getVersion();
+                current = balance;
+                long updated = current + delta;
+                result = requireFunds && updated < 0 ? INSUFFICIENT_FUNDS : updated;
+                if (compareAndSetBalance(expectedVersion, result == INSUFFICIENT_FUNDS ? current : updated)) {
+                    sequence = sequenceOf(expectedVersion);
+                    break;
+                }
+                optimisticRetries.incrementAndGet();
+                if (!locked && attempt + 1 >= MAX_OPTIMISTIC_RETRIES) {
+                    lock.lock();
+                    locked = true;
+                }
+                Thread.onSpinWait();
+            }
+        } finally {
+            if (locked) {
+                lock.unlock();
+            }
         }
+
+        long amount = Math.abs(delta);
+        if (result == INSUFFICIENT_FUNDS) {
+            if (kind == AccountEventKind.WITHDRAWAL && hasObservers(AccountEventKind.WITHDRAWAL_REJECTED)) {
+                notifyObservers(AccountEvent.movement(AccountEventKind.WITHDRAWAL_REJECTED, accountNumber, currency, amount,
+                        current, System.currentTimeMillis(), sequence));
+            }
+        } else if (hasObservers(kind)) {
+            notifyObservers(kind == AccountEventKind.TRANSFER
+                    ? AccountEvent.transfer(accountNumber, currency, amount, result, destinationAccount,
+                            System.currentTimeMillis(), sequence)
+                    : AccountEvent.movement(kind, accountNumber, currency, amount, result,
+                            System.currentTimeMillis(), sequence));
+        }
+        return result;
     }
 
+    // Cada escritura sube la versión en dos: la secuencia de un aviso es el número de la escritura que lo
+    // produjo, asignado dentro del CAS, así sigue el orden de los saldos haya o no observadores
+    private static long sequenceOf(long expectedVersion) {
+        return (expectedVersion >>> 1) + 1;
+    }
+
+    // Aplica depósitos (positivos) y retiros (negativos) en orden con una sola publicación del saldo y un
+    // solo aviso COALESCED; los suscritos solo a movimientos los reciben sueltos (ver notifyCoalesced). Un retiro
+    // sin fondos suficientes en su turno se omite. Devuelve el saldo inicial en la posición 0 y el saldo tras
+    // cada movimiento en la posición i + 1
+    public long[] applyCoalesced(long[] deltas) {
+        long[] balances = new long[deltas.length + 1];
+        long expectedVersion;
+        boolean locked = false;
+        try {
+            for (int attempt = 0; ; attempt++) {
+                if (!locked && lockedByOther()) {
+                    lock.lock();
+                    locked = true;
+                }
+                expectedVersion = getVersion();
+                balances[0] = balance;
+                for (int i = 0; i < deltas.length; i++) {
+                    long updated = balances[i] + deltas[i];
+                    balances[i + 1] = deltas[i] < 0 && updated < 0 ? balances[i] : updated;
+                }
+                if (compareAndSetBalance(expectedVersion, balances[deltas.length])) {
+                    break;
+                }
+                optimisticRetries.incrementAndGet();
+                if (!locked && attempt + 1 >= MAX_OPTIMISTIC_RETRIES) {
+                    lock.lock();
+                    locked = true;
+                }
+                Thread.onSpinWait();
+            }
+        } finally {
+            if (locked) {
+                lock.unlock();
+            }
+        }
+        boolean summary = hasObservers(AccountEventKind.COALESCED);
+        boolean split = hasCoalescedMovementObservers();
+        if (summary || split) {
+            long now = System.currentTimeMillis();
+            long sequence = sequenceOf(expectedVersion);
+            notifyCoalesced(
+                    summary ? AccountEvent.coalesced(accountNumber, currency, deltas, balances, now, sequence) : null,
+                    split ? AccountEvent.movements(accountNumber, currency, deltas, balances, now, sequence) : null);
+        }
+        return balances;
+    }
+
+    // Versión par = saldo estable; impar = un escritor está publicando un nuevo saldo
+    public long getVersion() {
+        long current;
+        int spins = 0;
+        while (((current = version.get()) & 1) != 0) {
+            if (++spins < 100) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+        return current;
+    }
+
+    // Con la versión ya impar se comprueba el cerrojo: si otro hilo lo tiene se deshace la reserva sin escribir.
+    // lockAccount espera versión par tras tomar el cerrojo, así que o el escritor ve el cerrojo o el dueño lo espera
+    public boolean compareAndSetBalance(long expectedVersion, long newBalance) {
+        if ((expectedVersion & 1) != 0 || !version.compareAndSet(expectedVersion, expectedVersion + 1)) {
+            return false;
+        }
+        if (lockedByOther()) {
+            version.set(expectedVersion);
+            return false;
+        }
+        balance = newBalance;
+        version.set(expectedVersion + 2);
+        return true;
+    }
+
+    public long getOptimisticRetries() {
+        return optimisticRetries.get();
+    }
+
+    // Publica una versión con el mismo saldo para que el cambio tenga su lugar en la secuencia de la cuenta
     public void updateAccountType(String newType) {
-        String oldType = this.accountType;
-        this.accountType = newType;
-        String message = "Cambio de tipo de cuenta: " + accountNumber + " de " + oldType + " a " + newType;
-        notifyObservers(message);
+        String oldType;
+        long current;
+        long sequence;
+        lock.lock();
+        try {
+            long expectedVersion;
+            do {
+                expectedVersion = getVersion();
+                current = balance;
+            } while (!compareAndSetBalance(expectedVersion, current));
+            sequence = sequenceOf(expectedVersion);
+            oldType = this.accountType;
+            this.accountType = newType;
+        } finally {
+            lock.unlock();
+        }
+        if (hasObservers(AccountEventKind.ACCOUNT_TYPE_CHANGED)) {
+            notifyObservers(AccountEvent.typeChange(accountNumber, currency, current, oldType, newType,
+                    System.currentTimeMillis(), sequence));
+        }
+    }
+
+    public void restoreBalance(Money balance) {
+        requireCurrency(balance);
+        restoreMinor(balance.getMinorUnits());
+    }
+
+    public void restoreBalance(double balance) {
+        restoreMinor(Money.toMinor(balance));
+    }
+
+    private void restoreMinor(long newBalance) {
+        lock.lock();
+        try {
+            while (!compareAndSetBalance(getVersion(), newBalance)) {
+                Thread.onSpinWait();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Cerrojo propio de la cuenta: lo usan las operaciones sobre varias cuentas (tomados en orden por número
+    // de cuenta) y los reintentos optimistas agotados; la ruta sin contención no lo toca
+    public ReentrantLock getLock() {
+        return lock;
+    }
+
+    // Bloquea la cuenta frente a todos los escritores, también los optimistas: tras tomar el cerrojo espera
+    // a que termine el CAS que ya estaba en curso; los siguientes ven el cerrojo y esperan a unlockAccount
+    public void lockAccount() {
+        lock.lock();
+        getVersion();
+    }
+
+    public void unlockAccount() {
+        lock.unlock();
+    }
+
+    private boolean lockedByOther() {
+        return lock.isLocked() && !lock.isHeldByCurrentThread();
     }
 
     public double getBalance() {
+        return Money.toDouble(balance);
+    }
+
+    public Money getBalanceMoney() {
+        return Money.ofMinor(balance, currency);
+    }
+
+    public long getBalanceMinor() {
         return balance;
     }
 
+    @Override
+    public String getCurrency() {
+        return currency;
+    }
+
     public String getAccountNumber() {
         return accountNumber;
     }
@@ -57,8 +310,14 @@ public class ConcreteSubject extends Subject {
         return accountType;
     }
 
+    private void requireCurrency(Money amount) {
+        if (!currency.equals(amount.getCurrency())) {
+            throw new IllegalArgumentException("La cuenta " + accountNumber + " opera en " + currency + ", no en " + amount.getCurrency());
+        }
+    }
+
     @Override
     public String toString() {
-        return "Cuenta: " + accountNumber + " | Tipo: " + accountType + " | Saldo: $" + balance;
+        return "Cuenta: " + accountNumber + " | Tipo: " + accountType + " | Saldo: $" + Money.format(balance);
     }
 }
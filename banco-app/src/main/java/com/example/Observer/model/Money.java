@@ -0,0 +1,137 @@
+package com.example.Observer.model;
+
+// Monto en unidades menores (centavos) más código de moneda; evita el redondeo acumulado de double
+public final class Money implements Comparable<Money> {
+    public static final String DEFAULT_CURRENCY = "COP";
+    public static final int MINOR_UNITS_PER_UNIT = 100;
+
+    private final long minorUnits;
+    private final String currency;
+
+
+    private Money(long minorUnits, String currency) {
+        if (currency == null || currency.length() != 3) {
+            throw new IllegalArgumentException("Código de moneda inválido: " + currency);
+        }
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return new Money(minorUnits, DEFAULT_CURRENCY);
+    }
+
+    public static Money ofMinor(long minorUnits, String currency) {
+        return new Money(minorUnits, currency);
+    }
+
+    public static Money of(double amount) {
+        return of(amount, DEFAULT_CURRENCY);
+    }
+
+    public static Money of(double amount, String currency) {
+        return new Money(toMinor(amount), currency);
+    }
+
+    public static Money zero(String currency) {
+        return new Money(0, currency);
+    }
+
+    public static long toMinor(double amount) {
+        return Math.round(amount * MINOR_UNITS_PER_UNIT);
+    }
+
+    public static double toDouble(long minorUnits) {
+        return minorUnits / (double) MINOR_UNITS_PER_UNIT;
+    }
+
+    // Formato "1234.50" con aritmética entera, sin pasar por String.format
+    public static String format(long minorUnits) {
+        return appendTo(new StringBuilder(24), minorUnits).toString();
+    }
+
+    public static StringBuilder appendTo(StringBuilder builder, long minorUnits) {
+        if (minorUnits < 0) {
+            builder.append('-');
+        }
+        long absolute = Math.abs(minorUnits);
+        long cents = absolute % MINOR_UNITS_PER_UNIT;
+        builder.append(absolute / MINOR_UNITS_PER_UNIT).append('.');
+        if (cents < 10) {
+            builder.append('0');
+        }
+        return builder.append(cents);
+    }
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(minorUnits), currency);
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public double toDouble() {
+        return toDouble(minorUnits);
+    }
+
+    public void requireSameCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Monedas distintas: " + currency + " y " + other.currency);
+        }
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Money)) {
+            return false;
+        }
+        Money other = (Money) o;
+        return minorUnits == other.minorUnits && currency.equals(other.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(minorUnits) + currency.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return format(minorUnits);
+    }
+}
@@ -3,4 +3,9 @@ package com.example.Observer.model;
 public interface Observer {
     void update(String message);
     String getObserverType();
+
+    // Los observadores que entienden eventos tipados lo sobrescriben; el resto recibe el texto del evento
+    default void update(AccountEvent event) {
+        update(event.getMessage());
+    }
 }
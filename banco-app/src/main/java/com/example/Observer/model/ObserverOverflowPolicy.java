@@ -0,0 +1,10 @@
+package com.example.Observer.model;
+
+public enum ObserverOverflowPolicy {
+    // Con la cola llena se descarta el aviso más antiguo para dejar sitio al nuevo
+    DROP_OLDEST,
+    // La cuenta que notifica espera hasta que el observador libere espacio
+    BLOCK,
+    // Los avisos que no caben se escriben a un archivo y se entregan en orden cuando la cola se vacía
+    SPILL_TO_DISK
+}
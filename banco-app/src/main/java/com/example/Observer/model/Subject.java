@@ -1,28 +1,208 @@
 package com.example.Observer.model;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
 
+// Registro de observadores copy-on-write: attach y detach publican un registro nuevo con CAS y la notificación
+// recorre por índice la instantánea que leyó, sin cerrojos, sin iterador y sin verse afectada por altas o
+// bajas concurrentes. Un observador quitado durante una notificación en curso aún puede recibir ese aviso.
+// El registro guarda además un índice por tipo de evento: un evento solo recorre las suscripciones que piden
+// su tipo, así los observadores no interesados nunca se invocan
 public abstract class Subject {
-    private List<Observer> observers = new ArrayList<>();
+    private static final int COALESCED_MOVEMENTS = AccountEventKind.mask(AccountEventKind.DEPOSIT,
+            AccountEventKind.WITHDRAWAL, AccountEventKind.WITHDRAWAL_REJECTED);
+
+    private final AtomicReference<Registry> registry = new AtomicReference<>(Registry.EMPTY);
+
+    // Moneda de los importes que notifica; un rango de importes en otra moneda no tendría sentido
+    public abstract String getCurrency();
 
     public void attach(Observer observer) {
-        observers.add(observer);
+        attach(observer, AccountEventKind.ALL, null);
+    }
+
+    public void attach(Observer observer, int kindMask) {
+        attach(observer, kindMask, null);
+    }
+
+    // range null = cualquier importe
+    public void attach(Observer observer, int kindMask, AmountRange range) {
+        if ((kindMask & AccountEventKind.ALL) == 0) {
+            throw new IllegalArgumentException("La suscripción debe incluir al menos un tipo de evento: " + kindMask);
+        }
+        if (range != null && !range.getCurrency().equals(getCurrency())) {
+            throw new IllegalArgumentException("El rango está en " + range.getCurrency() + " y la cuenta opera en " + getCurrency());
+        }
+        Subscription subscription = new Subscription(observer, kindMask & AccountEventKind.ALL, range);
+        Registry current;
+        Registry updated;
+        do {
+            current = registry.get();
+            Subscription[] all = Arrays.copyOf(current.all, current.all.length + 1);
+            all[current.all.length] = subscription;
+            updated = new Registry(all);
+        } while (!registry.compareAndSet(current, updated));
         System.out.println(observer.getObserverType() + " registrado para notificaciones");
     }
 
+    // El observador recibe los avisos desde su propia cola en un hilo virtual; la cuenta solo encola
+    public AsyncObserver attachAsync(Observer observer, int capacity, ObserverOverflowPolicy policy) {
+        return attachAsync(observer, capacity, policy, null);
+    }
+
+    public AsyncObserver attachAsync(Observer observer, int capacity, ObserverOverflowPolicy policy, Path spillDirectory) {
+        AsyncObserver async = new AsyncObserver(observer, capacity, policy, spillDirectory);
+        async.start();
+        attach(async);
+        return async;
+    }
+
+    // Acepta tanto el observador registrado como el original envuelto por attachAsync; la cola asíncrona
+    // entrega lo pendiente antes de cerrarse
     public void detach(Observer observer) {
-        observers.remove(observer);
-        System.out.println(observer.getObserverType() + " removido de notificaciones");
+        Registry current;
+        Registry updated;
+        Observer registered;
+        do {
+            current = registry.get();
+            int index = indexOf(current.all, observer);
+            if (index < 0) {
+                System.out.println(observer.getObserverType() + " removido de notificaciones");
+                return;
+            }
+            registered = current.all[index].observer;
+            Subscription[] all = new Subscription[current.all.length - 1];
+            System.arraycopy(current.all, 0, all, 0, index);
+            System.arraycopy(current.all, index + 1, all, index, current.all.length - index - 1);
+            updated = new Registry(all);
+        } while (!registry.compareAndSet(current, updated));
+        if (registered instanceof AsyncObserver async) {
+            async.close();
+        }
+        System.out.println(registered.getObserverType() + " removido de notificaciones");
+    }
+
+    private static int indexOf(Subscription[] registered, Observer observer) {
+        for (int i = 0; i < registered.length; i++) {
+            if (registered[i].observer.equals(observer)) {
+                return i;
+            }
+        }
+        for (int i = 0; i < registered.length; i++) {
+            if (registered[i].observer instanceof AsyncObserver async && async.getDelegate() == observer) {
+                return i;
+            }
+        }
+        return -1;
     }
 
+    // Un texto sin tipo de evento llega a todos los observadores, con o sin filtro
     public void notifyObservers(String message) {
-        for (Observer observer : observers) {
-            observer.update(message);
+        Subscription[] snapshot = registry.get().all;
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i].observer.update(message);
         }
     }
 
+    public void notifyObservers(AccountEvent event) {
+        deliver(registry.get().byKind[event.getKind().ordinal()], event, 0);
+    }
+
+    // Un lote agrupado llega como resumen a quien pide COALESCED. Quien pide depósitos, retiros o rechazos sin
+    // pedir COALESCED recibe cada movimiento del lote por separado, filtrado por tipo y rango como cualquier
+    // otro evento; quien pide ambos recibe solo el resumen para no contar dos veces. Cualquiera puede ser null
+    public void notifyCoalesced(AccountEvent summary, AccountEvent[] movements) {
+        Registry current = registry.get();
+        if (summary != null) {
+            deliver(current.byKind[AccountEventKind.COALESCED.ordinal()], summary, 0);
+        }
+        if (movements != null) {
+            for (AccountEvent movement : movements) {
+                deliver(current.byKind[movement.getKind().ordinal()], movement, AccountEventKind.COALESCED.bit());
+            }
+        }
+    }
+
+    private static void deliver(Subscription[] interested, AccountEvent event, int skipMask) {
+        long amount = event.getAmountMinor();
+        for (int i = 0; i < interested.length; i++) {
+            Subscription subscription = interested[i];
+            if ((subscription.kindMask & skipMask) == 0
+                    && (subscription.range == null || subscription.range.contains(amount))) {
+                subscription.observer.update(event);
+            }
+        }
+    }
+
+    // Permite al emisor no construir el evento cuando nadie lo va a recibir
+    public boolean hasObservers() {
+        return registry.get().all.length > 0;
+    }
+
+    public boolean hasObservers(AccountEventKind kind) {
+        return registry.get().byKind[kind.ordinal()].length > 0;
+    }
+
+    // Hay quien recibiría por separado los movimientos de un lote agrupado
+    public boolean hasCoalescedMovementObservers() {
+        return registry.get().splitsCoalesced;
+    }
+
     public int getObserverCount() {
-        return observers.size();
+        return registry.get().all.length;
+    }
+
+    public int getObserverCount(AccountEventKind kind) {
+        return registry.get().byKind[kind.ordinal()].length;
+    }
+
+    private static final class Subscription {
+        final Observer observer;
+        final int kindMask;
+        final AmountRange range;
+
+        Subscription(Observer observer, int kindMask, AmountRange range) {
+            this.observer = observer;
+            this.kindMask = kindMask;
+            this.range = range;
+        }
+    }
+
+    // Instantánea inmutable: todas las suscripciones en orden de alta y, por tipo, las que lo piden
+    private static final class Registry {
+        static final Registry EMPTY = new Registry(new Subscription[0]);
+
+        final Subscription[] all;
+        final Subscription[][] byKind;
+        final boolean splitsCoalesced;
+
+        Registry(Subscription[] all) {
+            this.all = all;
+            boolean splits = false;
+            for (Subscription subscription : all) {
+                splits |= (subscription.kindMask & AccountEventKind.COALESCED.bit()) == 0
+                        && (subscription.kindMask & COALESCED_MOVEMENTS) != 0;
+            }
+            this.splitsCoalesced = splits;
+            AccountEventKind[] kinds = AccountEventKind.values();
+            this.byKind = new Subscription[kinds.length][];
+            for (AccountEventKind kind : kinds) {
+                int count = 0;
+                for (Subscription subscription : all) {
+                    if ((subscription.kindMask & kind.bit()) != 0) {
+                        count++;
+                    }
+                }
+                Subscription[] interested = new Subscription[count];
+                int next = 0;
+                for (Subscription subscription : all) {
+                    if ((subscription.kindMask & kind.bit()) != 0) {
+                        interested[next++] = subscription;
+                    }
+                }
+                byKind[kind.ordinal()] = interested;
+            }
+        }
     }
 }
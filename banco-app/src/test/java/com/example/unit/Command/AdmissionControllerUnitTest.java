@@ -0,0 +1,341 @@
+package com.example.unit.Command;
+
+import com.example.Command.controller.AdmissionController;
+import com.example.Command.controller.OverloadPolicy;
+import com.example.Command.controller.TransactionInvoker;
+import com.example.Command.model.Command;
+import com.example.Command.model.CommandPriority;
+import com.example.Command.model.CommandResult;
+import com.example.Command.model.DepositCommand;
+import com.example.Command.model.TransferCommand;
+import com.example.Observer.model.ConcreteSubject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para AdmissionController
+ * Prueba la cola acotada, las políticas de sobrecarga y el límite de tasa por cuenta
+ */
+public class AdmissionControllerUnitTest {
+
+    private ConcreteSubject account;
+    private TransactionInvoker invoker;
+    private long now;
+
+    @BeforeEach
+    public void setUp() {
+        account = new ConcreteSubject("ADM001", 1000.0, "Ahorros");
+        invoker = new TransactionInvoker();
+        now = 0;
+    }
+
+    @Test
+    public void testAdmittedCommandsAreExecuted() throws Exception {
+        // Arrange
+        AdmissionController controller = new AdmissionController(invoker, 16, OverloadPolicy.REJECT);
+        controller.start();
+
+        // Act
+        CompletableFuture<CommandResult> result;
+        try {
+            result = controller.submit(new DepositCommand(account, 100.0));
+            result.get(30, TimeUnit.SECONDS);
+        } finally {
+            controller.close();
+        }
+
+        // Assert
+        assertTrue(result.get().isSuccessful(), "El depósito admitido debería ejecutarse");
+        assertEquals(1100.0, account.getBalance(), 0.001, "El saldo debería reflejar el depósito");
+        assertEquals(1, controller.getAdmittedCount(), "Debería contarse un comando admitido");
+        assertEquals(0, controller.getQueueDepth(), "La cola debería quedar vacía");
+    }
+
+    @Test
+    public void testRejectPolicyFailsWhenQueueIsFull() throws Exception {
+        // Arrange - el único trabajador queda ocupado y la cola tiene lugar para dos
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingCommand blocker = new BlockingCommand(release, CommandPriority.NORMAL);
+        AdmissionController controller = new AdmissionController(invoker, 2, OverloadPolicy.REJECT);
+        controller.start();
+
+        // Act
+        CompletableFuture<CommandResult> rejected;
+        try {
+            controller.submit(blocker);
+            blocker.started.await(30, TimeUnit.SECONDS);
+            controller.submit(new DepositCommand(account, 10.0));
+            controller.submit(new DepositCommand(account, 10.0));
+            rejected = controller.submit(new DepositCommand(account, 10.0));
+        } finally {
+            release.countDown();
+            controller.close();
+        }
+
+        // Assert
+        assertTrue(rejected.isDone(), "El rechazo debería ser inmediato");
+        assertFalse(rejected.get().isSuccessful(), "El comando excedente debería rechazarse");
+        assertEquals(1, controller.getRejectedCount(), "Debería contarse un rechazo");
+        assertEquals(2, controller.getMaxQueueDepth(), "La cola no debería superar su capacidad");
+        assertEquals(1020.0, account.getBalance(), 0.001, "Solo los depósitos admitidos deberían aplicarse");
+    }
+
+    @Test
+    public void testShedPolicyDropsLowestPriority() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingCommand blocker = new BlockingCommand(release, CommandPriority.NORMAL);
+        AdmissionController controller = new AdmissionController(invoker, 2, OverloadPolicy.SHED_LOWEST_PRIORITY);
+        controller.start();
+
+        // Act
+        CompletableFuture<CommandResult> low;
+        CompletableFuture<CommandResult> normal;
+        CompletableFuture<CommandResult> high;
+        CompletableFuture<CommandResult> secondLow;
+        try {
+            controller.submit(blocker);
+            blocker.started.await(30, TimeUnit.SECONDS);
+            low = controller.submit(new DepositCommand(account, 1.0), CommandPriority.LOW);
+            normal = controller.submit(new DepositCommand(account, 10.0), CommandPriority.NORMAL);
+            high = controller.submit(new DepositCommand(account, 100.0), CommandPriority.HIGH);
+            secondLow = controller.submit(new DepositCommand(account, 1.0), CommandPriority.LOW);
+        } finally {
+            release.countDown();
+            controller.close();
+        }
+
+        // Assert
+        assertFalse(low.get().isSuccessful(), "El comando de baja prioridad debería descartarse");
+        assertFalse(secondLow.get().isSuccessful(), "Un comando de baja prioridad no debería desplazar a otros");
+        assertTrue(normal.get().isSuccessful(), "El comando normal debería ejecutarse");
+        assertTrue(high.get().isSuccessful(), "El comando de alta prioridad debería ejecutarse");
+        assertEquals(1, controller.getShedCount(), "Debería contarse un descarte");
+        assertEquals(1, controller.getRejectedCount(), "Debería contarse un rechazo");
+        assertEquals(1110.0, account.getBalance(), 0.001, "Solo los comandos normal y alto deberían aplicarse");
+    }
+
+    @Test
+    public void testBlockPolicyTimesOut() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingCommand blocker = new BlockingCommand(release, CommandPriority.NORMAL);
+        AdmissionController controller = new AdmissionController(invoker, 1, OverloadPolicy.BLOCK_WITH_TIMEOUT,
+                20, TimeUnit.MILLISECONDS, 0, 1, 1, System::nanoTime);
+        controller.start();
+
+        // Act
+        CompletableFuture<CommandResult> timedOut;
+        try {
+            controller.submit(blocker);
+            blocker.started.await(30, TimeUnit.SECONDS);
+            controller.submit(new DepositCommand(account, 10.0));
+            timedOut = controller.submit(new DepositCommand(account, 10.0));
+        } finally {
+            release.countDown();
+            controller.close();
+        }
+
+        // Assert
+        assertFalse(timedOut.get().isSuccessful(), "El comando debería rechazarse al agotar la espera");
+        assertEquals(1, controller.getTimedOutCount(), "Debería contarse una espera agotada");
+        assertEquals(1010.0, account.getBalance(), 0.001, "Solo el depósito en cola debería aplicarse");
+    }
+
+    @Test
+    public void testBlockPolicyAdmitsWhenSpaceFrees() throws Exception {
+        // Arrange
+        AdmissionController controller = new AdmissionController(invoker, 1, OverloadPolicy.BLOCK_WITH_TIMEOUT,
+                30, TimeUnit.SECONDS, 0, 1, 1, System::nanoTime);
+        controller.start();
+
+        // Act
+        try {
+            for (int i = 0; i < 50; i++) {
+                controller.submit(new DepositCommand(account, 1.0));
+            }
+        } finally {
+            controller.close();
+        }
+
+        // Assert
+        assertEquals(50, controller.getAdmittedCount(), "Con espera suficiente todos deberían admitirse");
+        assertEquals(1050.0, account.getBalance(), 0.001, "Todos los depósitos deberían aplicarse");
+        assertTrue(controller.getMaxWaitNanos() >= 0, "La espera máxima no debería ser negativa");
+    }
+
+    @Test
+    public void testTokenBucketLimitsPerAccount() throws Exception {
+        // Arrange - ráfaga de 2 y un token por segundo con reloj controlado
+        ConcreteSubject other = new ConcreteSubject("ADM002", 1000.0, "Ahorros");
+        AdmissionController controller = new AdmissionController(invoker, 16, OverloadPolicy.REJECT,
+                0, TimeUnit.MILLISECONDS, 1.0, 2, 1, () -> now);
+        controller.start();
+
+        // Act
+        CompletableFuture<CommandResult> third;
+        CompletableFuture<CommandResult> transfer;
+        CompletableFuture<CommandResult> afterRefill;
+        try {
+            controller.submit(new DepositCommand(account, 1.0));
+            controller.submit(new DepositCommand(account, 1.0));
+            third = controller.submit(new DepositCommand(account, 1.0));
+            transfer = controller.submit(new TransferCommand(other, account, 1.0));
+            controller.submit(new DepositCommand(other, 1.0)).get(30, TimeUnit.SECONDS);
+            now = TimeUnit.SECONDS.toNanos(1);
+            afterRefill = controller.submit(new DepositCommand(account, 1.0));
+            afterRefill.get(30, TimeUnit.SECONDS);
+        } finally {
+            controller.close();
+        }
+
+        // Assert
+        assertFalse(third.get().isSuccessful(), "El tercer comando debería superar la ráfaga");
+        assertFalse(transfer.get().isSuccessful(), "La transferencia debería rechazarse si la cuenta destino no tiene tokens");
+        assertTrue(afterRefill.get().isSuccessful(), "Tras recargarse debería admitirse de nuevo");
+        assertEquals(2, controller.getRateLimitedCount(), "Deberían contarse dos rechazos por tasa");
+        assertEquals(1003.0, account.getBalance(), 0.001, "Solo los depósitos admitidos deberían aplicarse");
+        assertEquals(1001.0, other.getBalance(), 0.001, "El token devuelto por la transferencia debería permitir el depósito");
+    }
+
+    @Test
+    public void testRejectedCommandGivesBackItsTokens() throws Exception {
+        // Arrange - ráfaga de 2 con el reloj detenido: sin devolución el tercer envío agotaría la cuenta
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingCommand blocker = new BlockingCommand(release, CommandPriority.NORMAL);
+        AdmissionController controller = new AdmissionController(invoker, 1, OverloadPolicy.REJECT,
+                0, TimeUnit.MILLISECONDS, 1.0, 2, 1, () -> now);
+        controller.start();
+
+        // Act
+        CompletableFuture<CommandResult> queued;
+        CompletableFuture<CommandResult> rejected;
+        CompletableFuture<CommandResult> retried;
+        try {
+            controller.submit(blocker);
+            blocker.started.await(30, TimeUnit.SECONDS);
+            queued = controller.submit(new DepositCommand(account, 1.0));
+            rejected = controller.submit(new DepositCommand(account, 1.0));
+            release.countDown();
+            queued.get(30, TimeUnit.SECONDS);
+            retried = controller.submit(new DepositCommand(account, 1.0));
+            retried.get(30, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            controller.close();
+        }
+
+        // Assert
+        assertFalse(rejected.get().isSuccessful(), "El comando debería rechazarse con la cola llena");
+        assertTrue(retried.get().isSuccessful(), "El token del comando rechazado debería haberse devuelto");
+        assertEquals(0, controller.getRateLimitedCount(), "Ningún comando debería rechazarse por tasa");
+        assertEquals(1002.0, account.getBalance(), 0.001, "Solo los depósitos admitidos deberían aplicarse");
+    }
+
+    @Test
+    public void testCloseRejectsBlockedSubmitter() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingCommand blocker = new BlockingCommand(release, CommandPriority.NORMAL);
+        AdmissionController controller = new AdmissionController(invoker, 1, OverloadPolicy.BLOCK_WITH_TIMEOUT,
+                30, TimeUnit.SECONDS, 0, 1, 1, System::nanoTime);
+        controller.start();
+        controller.submit(blocker);
+        blocker.started.await(30, TimeUnit.SECONDS);
+        CompletableFuture<CommandResult> queued = controller.submit(new DepositCommand(account, 10.0));
+        CompletableFuture<CompletableFuture<CommandResult>> blocked = new CompletableFuture<>();
+        Thread submitter = new Thread(() -> blocked.complete(controller.submit(new DepositCommand(account, 10.0))));
+        submitter.start();
+        waitUntilWaiting(submitter);
+
+        // Act - se cierra mientras el envío espera sitio y solo después se libera al trabajador
+        Thread closer = new Thread(controller::close);
+        closer.start();
+        waitUntilWaiting(closer);
+        release.countDown();
+        closer.join(30_000);
+        submitter.join(30_000);
+
+        // Assert
+        assertFalse(closer.isAlive(), "El cierre debería terminar");
+        assertFalse(submitter.isAlive(), "El envío bloqueado debería despertar al cerrar");
+        assertTrue(queued.get(30, TimeUnit.SECONDS).isSuccessful(), "Lo que ya estaba en cola debería ejecutarse");
+        assertFalse(blocked.get(30, TimeUnit.SECONDS).get(30, TimeUnit.SECONDS).isSuccessful(),
+                "El envío que esperaba sitio debería rechazarse al cerrar");
+        assertEquals(1010.0, account.getBalance(), 0.001, "Solo el depósito en cola debería aplicarse");
+    }
+
+    private static void waitUntilWaiting(Thread thread) throws InterruptedException {
+        for (int i = 0; i < 3_000; i++) {
+            Thread.State state = thread.getState();
+            if (state == Thread.State.WAITING || state == Thread.State.TIMED_WAITING) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail("El hilo debería haber quedado en espera");
+    }
+
+    @Test
+    public void testSubmitBeforeStartIsRejected() {
+        // Arrange
+        AdmissionController controller = new AdmissionController(invoker, 4, OverloadPolicy.REJECT);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> controller.submit(new DepositCommand(account, 1.0)),
+                "No debería aceptar comandos antes de iniciar");
+    }
+
+    @Test
+    public void testInvalidCapacityIsRejected() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new AdmissionController(invoker, 0, OverloadPolicy.REJECT),
+                "La capacidad debería ser positiva");
+    }
+
+    private static final class BlockingCommand implements Command {
+        final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release;
+        private final CommandPriority priority;
+
+        BlockingCommand(CountDownLatch release, CommandPriority priority) {
+            this.release = release;
+            this.priority = priority;
+        }
+
+        @Override
+        public void execute() {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void undo() {
+        }
+
+        @Override
+        public String getCommandName() {
+            return "Bloqueo";
+        }
+
+        @Override
+        public String getCommandDetails() {
+            return "Comando de prueba que ocupa al trabajador";
+        }
+
+        @Override
+        public CommandPriority getPriority() {
+            return priority;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.unit.Command;
+
+import com.example.Command.controller.TransactionInvoker;
+import com.example.Command.model.Command;
+import com.example.Command.model.CommandResult;
+import com.example.Command.model.DepositCommand;
+import com.example.Observer.model.ConcreteSubject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para la ejecución asíncrona del TransactionInvoker
+ * Prueba el orden por cuenta y la concurrencia entre cuentas distintas
+ */
+public class AsyncCommandExecutorUnitTest {
+
+    private TransactionInvoker invoker;
+    private ConcreteSubject account;
+    private ConcreteSubject otherAccount;
+
+    @BeforeEach
+    public void setUp() {
+        invoker = new TransactionInvoker();
+        account = new ConcreteSubject("ASY001", 1000.0, "Ahorros");
+        otherAccount = new ConcreteSubject("ASY002", 1000.0, "Corriente");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        invoker.shutdownAsync();
+    }
+
+    @Test
+    public void testExecuteAsyncReturnsResult() throws Exception {
+        // Act
+        CommandResult result = invoker.executeAsync(new DepositCommand(account, 100.0)).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertTrue(result.isSuccessful(), "El depósito asíncrono debería completarse");
+        assertEquals(1100.0, account.getBalance(), 0.001, "El saldo debería reflejar el depósito");
+        assertEquals(1, invoker.getCommandHistory().size(), "El comando debería registrarse en el historial");
+    }
+
+    @Test
+    public void testCommandsOnSameAccountKeepSubmissionOrder() throws Exception {
+        // Arrange
+        List<Integer> executionOrder = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<CommandResult>> futures = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 200; i++) {
+            futures.add(invoker.executeAsync(new RecordingCommand(account, i, executionOrder, null)));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(200, executionOrder.size(), "Todos los comandos deberían ejecutarse");
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i, executionOrder.get(i).intValue(), "Los comandos de una cuenta deberían respetar el orden de envío");
+        }
+    }
+
+    @Test
+    public void testCommandsOnDifferentAccountsRunConcurrently() throws Exception {
+        // Arrange - El primer comando no termina hasta que el segundo haya empezado
+        CountDownLatch secondStarted = new CountDownLatch(1);
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        Command blocking = new RecordingCommand(account, 1, order, () -> {
+            try {
+                assertTrue(secondStarted.await(5, TimeUnit.SECONDS), "El segundo comando debería iniciar en paralelo");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Command other = new RecordingCommand(otherAccount, 2, order, secondStarted::countDown);
+
+        // Act
+        CompletableFuture<CommandResult> first = invoker.executeAsync(blocking);
+        CompletableFuture<CommandResult> second = invoker.executeAsync(other);
+
+        // Assert
+        assertTrue(first.get(5, TimeUnit.SECONDS).isSuccessful(), "El primer comando debería completarse");
+        assertTrue(second.get(5, TimeUnit.SECONDS).isSuccessful(), "El segundo comando debería completarse");
+        assertEquals(List.of(2, 1), order, "El comando de la otra cuenta debería terminar primero");
+    }
+
+    private static class RecordingCommand implements Command {
+        private final ConcreteSubject account;
+        private final int id;
+        private final List<Integer> order;
+        private final Runnable action;
+
+        RecordingCommand(ConcreteSubject account, int id, List<Integer> order, Runnable action) {
+            this.account = account;
+            this.id = id;
+            this.order = order;
+            this.action = action;
+        }
+
+        @Override
+        public void execute() {
+            if (action != null) {
+                action.run();
+            }
+            order.add(id);
+        }
+
+        @Override
+        public void undo() {
+        }
+
+        @Override
+        public String getCommandName() {
+            return "Registro";
+        }
+
+        @Override
+        public String getCommandDetails() {
+            return "Registro " + id;
+        }
+
+        @Override
+        public List<ConcreteSubject> getAffectedAccounts() {
+            return List.of(account);
+        }
+    }
+}
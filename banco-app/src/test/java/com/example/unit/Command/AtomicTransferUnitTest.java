@@ -0,0 +1,120 @@
+package com.example.unit.Command;
+
+import com.example.Command.model.AccountLocking;
+import com.example.Command.model.TransferCommand;
+import com.example.Observer.model.ConcreteSubject;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para la atomicidad de TransferCommand
+ * Prueba que transferencias concurrentes en sentidos opuestos no se bloquean ni pierden dinero
+ */
+public class AtomicTransferUnitTest {
+
+    private static final int THREADS_PER_DIRECTION = 4;
+    private static final int TRANSFERS_PER_THREAD = 2_000;
+
+    @Test
+    public void testOppositeTransfersDoNotDeadlockAndConserveMoney() throws InterruptedException {
+        // Arrange
+        ConcreteSubject accountA = new ConcreteSubject("ATM-A", 10_000.0, "Ahorros");
+        ConcreteSubject accountB = new ConcreteSubject("ATM-B", 10_000.0, "Corriente");
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < THREADS_PER_DIRECTION; i++) {
+            threads.add(new Thread(() -> transferLoop(start, accountA, accountB)));
+            threads.add(new Thread(() -> transferLoop(start, accountB, accountA)));
+        }
+
+        // Act
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join(30_000);
+            assertFalse(thread.isAlive(), "Las transferencias cruzadas no deberían interbloquearse");
+        }
+
+        // Assert
+        assertEquals(2_000_000, accountA.getBalanceMinor() + accountB.getBalanceMinor(),
+                "El total entre ambas cuentas debería conservarse");
+        assertEquals(1_000_000, accountA.getBalanceMinor(), "Con el mismo número de transferencias en cada sentido el saldo debería volver al inicial");
+    }
+
+    @Test
+    public void testConcurrentTransfersNeverOverdraw() throws InterruptedException {
+        // Arrange - saldo suficiente solo para la mitad de las transferencias
+        ConcreteSubject source = new ConcreteSubject("ATM-S", 100.0, "Ahorros");
+        ConcreteSubject destination = new ConcreteSubject("ATM-D", 0.0, "Ahorros");
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < 25; j++) {
+                    new TransferCommand(source, destination, 1.0).execute();
+                }
+            }));
+        }
+
+        // Act
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Assert
+        assertEquals(0, source.getBalanceMinor(), "El origen debería quedar exactamente en cero");
+        assertEquals(10_000, destination.getBalanceMinor(), "El destino debería recibir solo lo disponible");
+    }
+
+    @Test
+    public void testLockOrderIsIndependentOfArgumentOrder() {
+        // Arrange
+        ConcreteSubject first = new ConcreteSubject("ORD-1", 0.0, "Ahorros");
+        ConcreteSubject second = new ConcreteSubject("ORD-2", 0.0, "Ahorros");
+
+        // Act
+        ConcreteSubject[] forward = AccountLocking.lockInOrder(first, second);
+        AccountLocking.unlock(forward);
+        ConcreteSubject[] backward = AccountLocking.lockInOrder(second, first);
+        AccountLocking.unlock(backward);
+
+        // Assert
+        assertEquals(Arrays.asList(forward), Arrays.asList(backward), "Los cerrojos deberían tomarse siempre en el mismo orden");
+        assertFalse(first.getLock().isLocked(), "Todos los cerrojos deberían liberarse");
+        assertFalse(second.getLock().isLocked(), "Todos los cerrojos deberían liberarse");
+    }
+
+    @Test
+    public void testSelfTransferLocksOnce() {
+        // Arrange
+        ConcreteSubject account = new ConcreteSubject("ORD-SELF", 100.0, "Ahorros");
+
+        // Act
+        ConcreteSubject[] locked = AccountLocking.lockInOrder(account, account);
+        int holdCount = account.getLock().getHoldCount();
+        AccountLocking.unlock(locked);
+
+        // Assert
+        assertEquals(1, locked.length, "La misma cuenta debería bloquearse una sola vez");
+        assertEquals(1, holdCount, "El cerrojo debería tomarse una sola vez");
+        assertFalse(account.getLock().isLocked(), "El cerrojo debería liberarse");
+    }
+
+    private static void transferLoop(CountDownLatch start, ConcreteSubject from, ConcreteSubject to) {
+        try {
+            start.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+            new TransferCommand(from, to, 1.0).execute();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.unit.Command;
+
+import com.example.Command.controller.BalanceHistory;
+import com.example.Command.controller.TransactionInvoker;
+import com.example.Command.model.Command;
+import com.example.Command.model.DepositCommand;
+import com.example.Command.model.TransferCommand;
+import com.example.Command.model.WithdrawCommand;
+import com.example.Observer.model.ConcreteSubject;
+import com.example.Observer.model.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para BalanceHistory
+ * Prueba las consultas de saldo por secuencia y por instante a partir de puntos de control
+ */
+public class BalanceHistoryUnitTest {
+
+    private ConcreteSubject accountA;
+    private ConcreteSubject accountB;
+    private TransactionInvoker invoker;
+    private long now;
+
+    @BeforeEach
+    public void setUp() {
+        accountA = new ConcreteSubject("HIS-A", 1000.0, "Ahorros");
+        accountB = new ConcreteSubject("HIS-B", 500.0, "Corriente");
+        invoker = new TransactionInvoker();
+        now = 0;
+    }
+
+    @Test
+    public void testBalanceAfterEverySequenceMatchesExecution() {
+        // Arrange
+        BalanceHistory history = new BalanceHistory(10, 1_000, () -> now);
+        invoker.setBalanceHistory(history);
+        List<Long> expectedA = new ArrayList<>();
+        List<Long> expectedB = new ArrayList<>();
+        Random random = new Random(7);
+
+        // Act
+        for (int i = 0; i < 95; i++) {
+            double amount = 1 + random.nextInt(100);
+            switch (random.nextInt(3)) {
+                case 0:
+                    invoker.executeCommand(new DepositCommand(random.nextBoolean() ? accountA : accountB, amount));
+                    break;
+                case 1:
+                    invoker.executeCommand(new WithdrawCommand(random.nextBoolean() ? accountA : accountB, amount));
+                    break;
+                default:
+                    invoker.executeCommand(new TransferCommand(accountA, accountB, amount));
+                    break;
+            }
+            expectedA.add(accountA.getBalanceMinor());
+            expectedB.add(accountB.getBalanceMinor());
+        }
+
+        // Assert
+        assertEquals(95, history.getLastSequence(), "Cada comando debería recibir una secuencia");
+        assertEquals(10, history.getCheckpointCount(), "Debería haber un punto de control cada diez operaciones más el inicial");
+        assertEquals(100_000, history.getBalanceAfter("HIS-A", 0).getMinorUnits(), "La secuencia 0 debería devolver el saldo inicial");
+        for (int i = 0; i < 95; i++) {
+            assertEquals(expectedA.get(i).longValue(), history.getBalanceAfter("HIS-A", i + 1).getMinorUnits(),
+                    "Saldo de A tras la operación " + (i + 1));
+            assertEquals(expectedB.get(i).longValue(), history.getBalanceAfter("HIS-B", i + 1).getMinorUnits(),
+                    "Saldo de B tras la operación " + (i + 1));
+        }
+    }
+
+    @Test
+    public void testUndoAndRedoAreRecordedAsOperations() {
+        // Arrange
+        BalanceHistory history = new BalanceHistory(4);
+        invoker.setBalanceHistory(history);
+
+        // Act
+        invoker.executeCommand(new DepositCommand(accountA, 200.0));
+        invoker.undoLastCommand();
+        invoker.redoLastCommand();
+
+        // Assert
+        assertEquals(3, history.getLastSequence(), "Deshacer y rehacer deberían registrarse");
+        assertEquals(Money.of(1200.0), history.getBalanceAfter("HIS-A", 1), "Tras el depósito");
+        assertEquals(Money.of(1000.0), history.getBalanceAfter("HIS-A", 2), "Tras deshacer");
+        assertEquals(Money.of(1200.0), history.getBalanceAfter("HIS-A", 3), "Tras rehacer");
+    }
+
+    @Test
+    public void testBalanceAtTimestamp() {
+        // Arrange
+        BalanceHistory history = new BalanceHistory(2, 1_000, () -> now);
+        invoker.setBalanceHistory(history);
+
+        // Act
+        now = 100;
+        invoker.executeCommand(new DepositCommand(accountA, 10.0));
+        now = 200;
+        invoker.executeCommand(new DepositCommand(accountA, 20.0));
+        now = 300;
+        invoker.executeCommand(new DepositCommand(accountA, 30.0));
+        now = 250;
+        invoker.executeCommand(new DepositCommand(accountA, 40.0));
+
+        // Assert
+        assertEquals(Money.of(1000.0), history.getBalanceAt("HIS-A", 50), "Antes de la primera operación");
+        assertEquals(Money.of(1010.0), history.getBalanceAt("HIS-A", 150), "Entre la primera y la segunda");
+        assertEquals(Money.of(1030.0), history.getBalanceAt("HIS-A", 299), "Antes de la tercera");
+        assertEquals(4, history.getSequenceAt(300), "Un reloj que retrocede no debería desordenar las marcas");
+        assertEquals(Money.of(1100.0), history.getBalanceAt("HIS-A", 1_000), "Tras todas las operaciones");
+    }
+
+    @Test
+    public void testBatchRecordsEachCommand() {
+        // Arrange
+        BalanceHistory history = new BalanceHistory(10);
+        invoker.setBalanceHistory(history);
+        List<Command> batch = List.of(new DepositCommand(accountA, 100.0), new DepositCommand(accountA, 50.0));
+
+        // Act
+        invoker.executeBatch(batch);
+
+        // Assert
+        assertEquals(Money.of(1100.0), history.getBalanceAfter("HIS-A", 1), "El primer comando del lote");
+        assertEquals(Money.of(1150.0), history.getBalanceAfter("HIS-A", 2), "El segundo comando del lote");
+    }
+
+    @Test
+    public void testOldCheckpointsAreDropped() {
+        // Arrange
+        BalanceHistory history = new BalanceHistory(5, 3, () -> now);
+        invoker.setBalanceHistory(history);
+
+        // Act
+        for (int i = 0; i < 30; i++) {
+            invoker.executeCommand(new DepositCommand(accountA, 1.0));
+        }
+
+        // Assert
+        assertEquals(3, history.getCheckpointCount(), "Solo deberían retenerse tres puntos de control");
+        assertEquals(20, history.getOldestSequence(), "El punto más antiguo retenido debería ser el de la secuencia 20");
+        assertEquals(Money.of(1025.0), history.getBalanceAfter("HIS-A", 25), "Las secuencias retenidas deberían consultarse");
+        assertThrows(IllegalArgumentException.class, () -> history.getBalanceAfter("HIS-A", 10),
+                "Una secuencia descartada debería rechazarse");
+    }
+
+    @Test
+    public void testUnknownAccountIsRejected() {
+        // Arrange
+        BalanceHistory history = new BalanceHistory(5);
+        invoker.setBalanceHistory(history);
+        invoker.executeCommand(new DepositCommand(accountA, 1.0));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> history.getBalanceAfter("NO-EXISTE", 1),
+                "Una cuenta sin operaciones debería rechazarse");
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.unit.Command;
+
+import com.example.Command.controller.TransactionInvoker;
+import com.example.Command.model.BatchMode;
+import com.example.Command.model.BatchResult;
+import com.example.Command.model.Command;
+import com.example.Command.model.DepositCommand;
+import com.example.Command.model.TransferCommand;
+import com.example.Command.model.WithdrawCommand;
+import com.example.Observer.model.ConcreteSubject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para la ejecución por lotes del TransactionInvoker
+ * Prueba las semánticas todo-o-nada y por elemento
+ */
+public class BatchExecutionUnitTest {
+
+    private TransactionInvoker invoker;
+    private ConcreteSubject account;
+    private ConcreteSubject otherAccount;
+
+    @BeforeEach
+    public void setUp() {
+        invoker = new TransactionInvoker();
+        account = new ConcreteSubject("BATCH001", 1000.0, "Ahorros");
+        otherAccount = new ConcreteSubject("BATCH002", 500.0, "Corriente");
+    }
+
+    @Test
+    public void testPerItemBatchRecordsEveryCommand() {
+        // Arrange
+        List<Command> batch = List.of(
+            new DepositCommand(account, 200.0),
+            new WithdrawCommand(otherAccount, 900.0),
+            new TransferCommand(account, otherAccount, 100.0));
+
+        // Act
+        BatchResult result = invoker.executeBatch(batch);
+
+        // Assert
+        assertTrue(result.isCommitted(), "Un lote por elemento siempre se confirma");
+        assertEquals(BatchMode.PER_ITEM, result.getMode(), "El modo por defecto debería ser por elemento");
+        assertEquals(2, result.getSuccessCount(), "Dos comandos deberían completarse");
+        assertEquals(1, result.getFailureCount(), "El retiro sin fondos debería fallar");
+        assertFalse(result.getResults().get(1).isSuccessful(), "El resultado del retiro debería indicar fallo");
+        assertEquals(1100.0, account.getBalance(), 0.001, "Balance de la cuenta origen incorrecto");
+        assertEquals(600.0, otherAccount.getBalance(), 0.001, "Balance de la cuenta destino incorrecto");
+        assertEquals(3, invoker.getCommandHistory().size(), "El historial debería contener el lote completo");
+        assertEquals(3, invoker.getUndoableCommandsCount(), "La pila de deshacer debería contener el lote completo");
+        assertTrue(result.getElapsedNanos() > 0, "El lote debería reportar su duración");
+    }
+
+    @Test
+    public void testAllOrNothingBatchRollsBackOnFailure() {
+        // Arrange
+        List<Command> batch = List.of(
+            new DepositCommand(account, 200.0),
+            new TransferCommand(account, otherAccount, 300.0),
+            new WithdrawCommand(otherAccount, 5000.0),
+            new DepositCommand(otherAccount, 50.0));
+
+        // Act
+        BatchResult result = invoker.executeBatch(batch, BatchMode.ALL_OR_NOTHING);
+
+        // Assert
+        assertFalse(result.isCommitted(), "El lote debería revertirse");
+        assertEquals(4, result.getResults().size(), "Debería informarse un resultado por cada comando enviado");
+        assertFalse(result.getResults().get(3).isSuccessful(), "Los comandos posteriores al fallo no deberían ejecutarse");
+        assertTrue(batch.get(2).getCommandDetails().contains("Pendiente"), "El comando fallido debería volver a pendiente");
+        assertEquals(1000.0, account.getBalance(), 0.001, "La cuenta origen debería volver a su saldo inicial");
+        assertEquals(500.0, otherAccount.getBalance(), 0.001, "La cuenta destino debería volver a su saldo inicial");
+        assertTrue(invoker.getCommandHistory().isEmpty(), "Un lote revertido no debería quedar en el historial");
+        assertEquals(0, invoker.getUndoableCommandsCount(), "Un lote revertido no debería poder deshacerse");
+    }
+
+    @Test
+    public void testAllOrNothingBatchCommitsWhenEverythingSucceeds() {
+        // Arrange
+        invoker.executeCommand(new DepositCommand(account, 10.0));
+        invoker.undoLastCommand();
+        List<Command> batch = List.of(
+            new DepositCommand(account, 100.0),
+            new WithdrawCommand(account, 50.0));
+
+        // Act
+        BatchResult result = invoker.executeBatch(batch, BatchMode.ALL_OR_NOTHING);
+
+        // Assert
+        assertTrue(result.isCommitted(), "El lote debería confirmarse");
+        assertEquals(1050.0, account.getBalance(), 0.001, "Balance final incorrecto");
+        assertEquals(0, invoker.getRedoableCommandsCount(), "Un lote confirmado debería limpiar la pila de rehacer");
+        invoker.undoLastCommand();
+        assertEquals(1100.0, account.getBalance(), 0.001, "Los comandos del lote deberían deshacerse individualmente");
+    }
+
+    @Test
+    public void testConcurrentInvokerExecutesBatch() {
+        // Arrange
+        TransactionInvoker concurrentInvoker = new TransactionInvoker(true);
+
+        // Act
+        BatchResult result = concurrentInvoker.executeBatch(List.of(
+            new DepositCommand(account, 1.0),
+            new TransferCommand(account, otherAccount, 1.0)));
+
+        // Assert
+        assertEquals(2, result.getSuccessCount(), "Ambos comandos deberían completarse");
+        assertEquals(501.0, otherAccount.getBalance(), 0.001, "La transferencia debería aplicarse");
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.unit.Command;
+
+import com.example.Command.controller.BalanceHistory;
+import com.example.Command.controller.CommandCoalescer;
+import com.example.Command.controller.TransactionInvoker;
+import com.example.Command.model.BatchMode;
+import com.example.Command.model.BatchResult;
+import com.example.Command.model.Command;
+import com.example.Command.model.CommandResult;
+import com.example.Command.model.DepositCommand;
+import com.example.Command.model.TransferCommand;
+import com.example.Command.model.WithdrawCommand;
+import com.example.Observer.model.ConcreteSubject;
+import com.example.Observer.model.Money;
+import com.example.Observer.model.Observer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para la agrupación de depósitos y retiros por cuenta
+ * Prueba el modo de lote COALESCED y la etapa CommandCoalescer
+ */
+public class CommandCoalescingUnitTest {
+
+    private ConcreteSubject account;
+    private List<String> notifications;
+    private TransactionInvoker invoker;
+
+    @BeforeEach
+    public void setUp() {
+        account = new ConcreteSubject("AGR001", 1000.0, "Nómina");
+        notifications = Collections.synchronizedList(new ArrayList<>());
+        account.attach(new Observer() {
+            @Override
+            public void update(String message) {
+                notifications.add(message);
+            }
+
+            @Override
+            public String getObserverType() {
+                return "Registro de prueba";
+            }
+        });
+        invoker = new TransactionInvoker();
+    }
+
+    @Test
+    public void testDepositsAreAppliedAsOneUpdate() {
+        // Arrange
+        List<Command> payroll = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            payroll.add(new DepositCommand(account, 10.0));
+        }
+
+        // Act
+        BatchResult result = invoker.executeBatch(payroll, BatchMode.COALESCED);
+
+        // Assert
+        assertEquals(100, result.getSuccessCount(), "Todos los depósitos deberían completarse");
+        assertEquals(2000.0, account.getBalance(), 0.001, "El saldo debería reflejar el total neto");
+        assertEquals(1, notifications.size(), "Debería enviarse una sola notificación resumida");
+        assertTrue(notifications.get(0).contains("100 depósitos"), "El resumen debería indicar cuántos depósitos se agruparon");
+        assertEquals(100, invoker.getCommandHistory().size(), "Cada depósito debería quedar en el historial");
+    }
+
+    @Test
+    public void testEachCoalescedCommandCanBeUndone() {
+        // Arrange
+        invoker.executeBatch(List.of(new DepositCommand(account, 100.0), new DepositCommand(account, 50.0)), BatchMode.COALESCED);
+
+        // Act
+        invoker.undoLastCommand();
+
+        // Assert
+        assertEquals(1100.0, account.getBalance(), 0.001, "Deshacer debería revertir solo el último depósito");
+        assertEquals(1, invoker.getUndoableCommandsCount(), "El primer depósito debería seguir en la pila");
+    }
+
+    @Test
+    public void testWithdrawalsAreCheckedInOrder() {
+        // Arrange
+        ConcreteSubject small = new ConcreteSubject("AGR002", 100.0, "Ahorros");
+        WithdrawCommand first = new WithdrawCommand(small, 80.0);
+        WithdrawCommand tooLarge = new WithdrawCommand(small, 50.0);
+        DepositCommand deposit = new DepositCommand(small, 30.0);
+        WithdrawCommand last = new WithdrawCommand(small, 40.0);
+
+        // Act
+        BatchResult result = invoker.executeBatch(List.of(first, tooLarge, deposit, last), BatchMode.COALESCED);
+
+        // Assert
+        assertTrue(first.wasSuccessful(), "El primer retiro tiene fondos");
+        assertFalse(tooLarge.wasSuccessful(), "El segundo retiro no tiene fondos en su turno");
+        assertTrue(last.wasSuccessful(), "El último retiro tiene fondos después del depósito");
+        assertEquals(10.0, small.getBalance(), 0.001, "Saldo final 100 - 80 + 30 - 40");
+        assertEquals(3, result.getSuccessCount(), "Tres comandos deberían completarse");
+    }
+
+    @Test
+    public void testNonCoalescibleCommandKeepsAccountOrder() {
+        // Arrange - la transferencia solo tiene fondos si el depósito anterior ya se aplicó
+        ConcreteSubject destination = new ConcreteSubject("AGR003", 0.0, "Ahorros");
+        DepositCommand deposit = new DepositCommand(account, 500.0);
+        TransferCommand transfer = new TransferCommand(account, destination, 1500.0);
+        DepositCommand after = new DepositCommand(account, 5.0);
+
+        // Act
+        invoker.executeBatch(List.of(deposit, transfer, after), BatchMode.COALESCED);
+
+        // Assert
+        assertTrue(transfer.wasSuccessful(), "La transferencia debería ver el depósito previo");
+        assertEquals(5.0, account.getBalance(), 0.001, "Solo el depósito posterior debería quedar en el origen");
+        assertEquals(1500.0, destination.getBalance(), 0.001, "El destino debería recibir la transferencia");
+    }
+
+    @Test
+    public void testBalanceHistorySeesIntermediateBalances() {
+        // Arrange
+        BalanceHistory history = new BalanceHistory(10);
+        invoker.setBalanceHistory(history);
+
+        // Act
+        invoker.executeBatch(List.of(new DepositCommand(account, 1.0), new DepositCommand(account, 2.0)), BatchMode.COALESCED);
+
+        // Assert
+        assertEquals(Money.of(1001.0), history.getBalanceAfter("AGR001", 1), "Saldo tras el primer depósito agrupado");
+        assertEquals(Money.of(1003.0), history.getBalanceAfter("AGR001", 2), "Saldo tras el segundo depósito agrupado");
+    }
+
+    @Test
+    public void testCoalescerMergesSubmissionsWithinWindow() throws Exception {
+        // Arrange
+        CommandCoalescer coalescer = new CommandCoalescer(invoker, 64, 50, TimeUnit.MILLISECONDS);
+        coalescer.start();
+        List<CompletableFuture<CommandResult>> results = new ArrayList<>();
+
+        // Act
+        try {
+            for (int i = 0; i < 500; i++) {
+                results.add(coalescer.submit(new DepositCommand(account, 1.0)));
+            }
+            CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+        } finally {
+            coalescer.close();
+        }
+
+        // Assert
+        assertEquals(1500.0, account.getBalance(), 0.001, "Todos los depósitos deberían aplicarse");
+        assertTrue(coalescer.getFlushCount() < 500, "Los depósitos deberían agruparse en menos envíos");
+        assertEquals(coalescer.getFlushCount(), notifications.size(), "Debería haber una notificación por envío");
+        assertEquals(500, coalescer.getCoalescedCount(), "Todos los depósitos deberían contarse como agrupados");
+        assertEquals(500, invoker.getCommandHistory().size(), "Cada depósito debería auditarse por separado");
+    }
+
+    @Test
+    public void testSubmitAfterCloseIsRejected() {
+        // Arrange
+        CommandCoalescer coalescer = new CommandCoalescer(invoker);
+        coalescer.start();
+        coalescer.close();
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> coalescer.submit(new DepositCommand(account, 1.0)),
+                "No debería aceptar comandos después de cerrar");
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.unit.Command;
+
+import com.example.Command.controller.JournalRecovery;
+import com.example.Command.controller.TransactionInvoker;
+import com.example.Command.model.Command;
+import com.example.Command.model.CommandJournal;
+import com.example.Command.model.CompositeCommand;
+import com.example.Command.model.DepositCommand;
+import com.example.Command.model.TransferCommand;
+import com.example.Command.model.WithdrawCommand;
+import com.example.Observer.model.ConcreteSubject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para CommandJournal y JournalRecovery
+ * Prueba la escritura del journal por segmentos y la recuperación del estado tras un reinicio
+ */
+public class CommandJournalUnitTest {
+
+    @TempDir
+    Path journalDir;
+
+    private Map<String, ConcreteSubject> newAccounts() {
+        Map<String, ConcreteSubject> accounts = new HashMap<>();
+        accounts.put("JRN001", new ConcreteSubject("JRN001", 1000.0, "Ahorros"));
+        accounts.put("JRN002", new ConcreteSubject("JRN002", 500.0, "Corriente"));
+        return accounts;
+    }
+
+    @Test
+    public void testRecoveryRestoresBalancesAndUndoState() throws Exception {
+        // Arrange - Primera "ejecución" del proceso
+        Map<String, ConcreteSubject> accounts = newAccounts();
+        TransactionInvoker invoker = new TransactionInvoker();
+        try (CommandJournal journal = new CommandJournal(journalDir)) {
+            invoker.setJournal(journal);
+            invoker.executeCommand(new DepositCommand(accounts.get("JRN001"), 250.0));
+            invoker.executeCommand(new TransferCommand(accounts.get("JRN001"), accounts.get("JRN002"), 400.0));
+            invoker.executeCommand(new WithdrawCommand(accounts.get("JRN002"), 100.0));
+            invoker.undoLastCommand();
+            invoker.undoLastCommand();
+            invoker.redoLastCommand();
+        }
+
+        // Act - Reinicio: cuentas en su estado inicial y journal reabierto
+        Map<String, ConcreteSubject> recovered = newAccounts();
+        TransactionInvoker recoveredInvoker = new TransactionInvoker();
+        long replayed;
+        try (CommandJournal journal = new CommandJournal(journalDir)) {
+            replayed = JournalRecovery.recover(journal, recovered, recoveredInvoker);
+
+            // Assert
+            assertEquals(6, replayed, "Deberían reproducirse todos los registros");
+            assertEquals(6, journal.getNextSequence(), "La secuencia debería continuar tras el último registro");
+            assertSame(journal, recoveredInvoker.getJournal(), "El invocador debería seguir escribiendo en el journal");
+        }
+        assertEquals(accounts.get("JRN001").getBalance(), recovered.get("JRN001").getBalance(), 0.001,
+            "El saldo de la primera cuenta debería recuperarse");
+        assertEquals(accounts.get("JRN002").getBalance(), recovered.get("JRN002").getBalance(), 0.001,
+            "El saldo de la segunda cuenta debería recuperarse");
+        assertEquals(invoker.getUndoableCommandsCount(), recoveredInvoker.getUndoableCommandsCount(),
+            "La pila de deshacer debería recuperarse");
+        assertEquals(invoker.getRedoableCommandsCount(), recoveredInvoker.getRedoableCommandsCount(),
+            "La pila de rehacer debería recuperarse");
+    }
+
+    @Test
+    public void testJournalRollsSegmentsAndBatchesSync() throws Exception {
+        // Arrange
+        ConcreteSubject account = new ConcreteSubject("JRN001", 1000.0, "Ahorros");
+
+        // Act
+        try (CommandJournal journal = new CommandJournal(journalDir, 4096, 10)) {
+            for (int i = 0; i < 500; i++) {
+                journal.append(CommandJournal.EXECUTE, new DepositCommand(account, 1.0));
+            }
+
+            // Assert
+            assertTrue(journal.getSegmentCount() > 1, "El journal debería repartirse en varios segmentos");
+            assertEquals(50, journal.getSyncCount(), "Debería sincronizarse una vez cada 10 registros");
+            long[] count = new long[1];
+            journal.replay(0, (operation, sequence, command) -> count[0]++);
+            assertEquals(500, count[0], "Todos los registros deberían leerse de vuelta");
+        }
+    }
+
+    @Test
+    public void testTruncateBeforeKeepsTail() throws Exception {
+        // Arrange
+        ConcreteSubject account = new ConcreteSubject("JRN001", 1000.0, "Ahorros");
+        try (CommandJournal journal = new CommandJournal(journalDir, 4096, 1)) {
+            for (int i = 0; i < 500; i++) {
+                journal.append(CommandJournal.EXECUTE, new DepositCommand(account, 1.0));
+            }
+            int segmentsBefore = journal.getSegmentCount();
+
+            // Act
+            int deleted = journal.truncateBefore(400);
+
+            // Assert
+            assertTrue(deleted > 0, "Deberían eliminarse segmentos antiguos");
+            assertEquals(segmentsBefore - deleted, journal.getSegmentCount(), "El conteo de segmentos debería reducirse");
+            long[] first = {-1};
+            journal.replay(400, (operation, sequence, command) -> {
+                if (first[0] < 0) {
+                    first[0] = sequence;
+                }
+            });
+            assertEquals(400, first[0], "Los registros desde la secuencia indicada deberían conservarse");
+        }
+    }
+
+    @Test
+    public void testUnsupportedCommandIsRejectedWhenJournaling() throws Exception {
+        // Arrange
+        TransactionInvoker invoker = new TransactionInvoker();
+        Command custom = new Command() {
+            public void execute() { }
+            public void undo() { }
+            public String getCommandName() { return "Personalizado"; }
+            public String getCommandDetails() { return "Personalizado"; }
+        };
+
+        // Act & Assert
+        try (CommandJournal journal = new CommandJournal(journalDir)) {
+            invoker.setJournal(journal);
+            assertThrows(IllegalArgumentException.class, () -> invoker.executeCommand(custom),
+                "Un comando sin codificación no debería ejecutarse con journal activo");
+            assertTrue(invoker.getCommandHistory().isEmpty(), "El comando rechazado no debería quedar en el historial");
+        }
+    }
+
+    @Test
+    public void testOversizedCommandIsRejectedBeforeExecuting() throws Exception {
+        // Arrange
+        TransactionInvoker invoker = new TransactionInvoker();
+        Map<String, ConcreteSubject> accounts = newAccounts();
+        List<Command> legs = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            legs.add(new DepositCommand(accounts.get("JRN001"), 1.0));
+        }
+        CompositeCommand oversized = new CompositeCommand(legs);
+
+        // Act & Assert
+        try (CommandJournal journal = new CommandJournal(journalDir)) {
+            invoker.setJournal(journal);
+            assertThrows(IllegalArgumentException.class, () -> invoker.executeCommand(oversized),
+                "Un comando que no cabe en un registro debería rechazarse");
+            assertEquals(0, journal.getNextSequence(), "No debería escribirse ningún registro");
+        }
+        assertEquals(1000.0, accounts.get("JRN001").getBalance(), 0.001, "El comando rechazado no debería aplicarse");
+        assertTrue(invoker.getCommandHistory().isEmpty(), "El comando rechazado no debería quedar en el historial");
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.unit.Command;
+
+import com.example.Command.controller.CommandHandler;
+import com.example.Command.controller.CommandPipeline;
+import com.example.Command.controller.TransactionInvoker;
+import com.example.Command.controller.WaitStrategy;
+import com.example.Command.model.CommandResult;
+import com.example.Command.model.DepositCommand;
+import com.example.Command.model.WithdrawCommand;
+import com.example.Observer.model.ConcreteSubject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para CommandPipeline
+ * Prueba el anillo con varios productores, el consumidor de negocio y los consumidores posteriores
+ */
+public class CommandPipelineUnitTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int COMMANDS_PER_PRODUCER = 100;
+
+    private TransactionInvoker invoker;
+    private ConcreteSubject account;
+
+    @BeforeEach
+    public void setUp() {
+        invoker = new TransactionInvoker(10_000, 10_000);
+        account = new ConcreteSubject("PIPE001", 0.0, "Ahorros");
+    }
+
+    @Test
+    public void testPipelineProcessesEveryCommandWithEachWaitStrategy() throws Exception {
+        for (WaitStrategy strategy : WaitStrategy.values()) {
+            // Arrange
+            invoker.clearAll();
+            ConcreteSubject target = new ConcreteSubject("PIPE-" + strategy, 0.0, "Ahorros");
+            AtomicLong journaled = new AtomicLong();
+            AtomicLong notified = new AtomicLong();
+            List<CommandHandler> handlers = List.of(
+                (command, sequence) -> journaled.incrementAndGet(),
+                (command, sequence) -> notified.incrementAndGet());
+            CommandPipeline pipeline = new CommandPipeline(invoker, 64, strategy, handlers);
+            pipeline.start();
+
+            // Act
+            List<Thread> producers = new ArrayList<>();
+            for (int p = 0; p < PRODUCERS; p++) {
+                Thread producer = new Thread(() -> {
+                    for (int i = 0; i < COMMANDS_PER_PRODUCER; i++) {
+                        pipeline.publish(new DepositCommand(target, 1.0));
+                    }
+                });
+                producers.add(producer);
+                producer.start();
+            }
+            for (Thread producer : producers) {
+                producer.join();
+            }
+            pipeline.close();
+
+            // Assert
+            int total = PRODUCERS * COMMANDS_PER_PRODUCER;
+            assertEquals(total, target.getBalance(), 0.001, "Todos los depósitos deberían aplicarse con " + strategy);
+            assertEquals(total, invoker.getTotalCommandsExecuted(), "Todos los comandos deberían registrarse");
+            assertEquals(total, journaled.get(), "El primer consumidor posterior debería ver todos los comandos");
+            assertEquals(total, notified.get(), "El segundo consumidor posterior debería ver todos los comandos");
+            assertEquals(total - 1, pipeline.getBusinessSequence(), "La secuencia de negocio debería alcanzar el cursor");
+        }
+    }
+
+    @Test
+    public void testDownstreamSeesCommandsInSequenceOrder() throws Exception {
+        // Arrange
+        List<Long> sequences = new ArrayList<>();
+        CommandPipeline pipeline = new CommandPipeline(invoker, 8, WaitStrategy.YIELD,
+            List.of((command, sequence) -> sequences.add(sequence)));
+        pipeline.start();
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            pipeline.publish(new DepositCommand(account, 1.0));
+        }
+        pipeline.close();
+
+        // Assert
+        assertEquals(100, sequences.size(), "El consumidor debería recibir todos los comandos");
+        for (int i = 0; i < sequences.size(); i++) {
+            assertEquals(i, sequences.get(i).longValue(), "Las secuencias deberían llegar en orden");
+        }
+    }
+
+    @Test
+    public void testHandlerErrorsDoNotStopPipeline() throws Exception {
+        // Arrange
+        CommandPipeline pipeline = new CommandPipeline(invoker, 16, WaitStrategy.PARK,
+            List.of((command, sequence) -> {
+                throw new IllegalStateException("fallo de prueba");
+            }));
+        pipeline.start();
+
+        // Act
+        for (int i = 0; i < 20; i++) {
+            pipeline.publish(new DepositCommand(account, 1.0));
+        }
+        pipeline.close();
+
+        // Assert
+        assertEquals(20, pipeline.getHandlerErrors(), "Cada error del consumidor debería contarse");
+        assertEquals(20.0, account.getBalance(), 0.001, "El consumidor de negocio no debería verse afectado");
+    }
+
+    @Test
+    public void testSubmitReturnsEachCommandResult() throws Exception {
+        // Arrange
+        CommandPipeline pipeline = new CommandPipeline(invoker, 8, WaitStrategy.YIELD);
+        pipeline.start();
+
+        // Act
+        CompletableFuture<CommandResult> deposit = pipeline.submit(new DepositCommand(account, 10.0));
+        CompletableFuture<CommandResult> withdraw = pipeline.submit(new WithdrawCommand(account, 50.0));
+        pipeline.close();
+
+        // Assert
+        assertTrue(deposit.get(30, TimeUnit.SECONDS).isSuccessful(), "El depósito debería informarse exitoso");
+        assertFalse(withdraw.get(30, TimeUnit.SECONDS).isSuccessful(), "El retiro sin fondos debería informarse fallido");
+        assertEquals(10.0, account.getBalance(), 0.001, "Solo el depósito debería aplicarse");
+    }
+
+    @Test
+    public void testPublishAfterCloseIsRejected() {
+        // Arrange
+        CommandPipeline pipeline = new CommandPipeline(invoker, 8, WaitStrategy.YIELD);
+        pipeline.start();
+        pipeline.publish(new DepositCommand(account, 1.0));
+
+        // Act
+        pipeline.close();
+
+        // Assert
+        assertThrows(IllegalStateException.class, () -> pipeline.publish(new DepositCommand(account, 1.0)),
+            "No debería poder publicarse tras cerrar el pipeline");
+        assertThrows(IllegalStateException.class, pipeline::start, "Un pipeline cerrado no debería reiniciarse");
+        assertEquals(1.0, account.getBalance(), 0.001, "Lo publicado antes del cierre debería aplicarse");
+    }
+
+    @Test
+    public void testInvalidBufferSizeAndPublishBeforeStart() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new CommandPipeline(invoker, 100, WaitStrategy.YIELD),
+            "El tamaño del anillo debería ser potencia de dos");
+        CommandPipeline pipeline = new CommandPipeline(invoker, 16, WaitStrategy.YIELD);
+        assertThrows(IllegalStateException.class, () -> pipeline.publish(new DepositCommand(account, 1.0)),
+            "No debería poder publicarse antes de iniciar el pipeline");
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.unit.Command;
+
+import com.example.Command.controller.CommandRingBuffer;
+import com.example.Command.controller.TransactionInvoker;
+import com.example.Command.model.Command;
+import com.example.Command.model.DepositCommand;
+import com.example.Observer.model.ConcreteSubject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para CommandRingBuffer
+ * Prueba la retención acotada del historial y de las pilas de deshacer/rehacer
+ */
+public class CommandRingBufferUnitTest {
+
+    private ConcreteSubject account;
+
+    @BeforeEach
+    public void setUp() {
+        account = new ConcreteSubject("RING001", 1000.0, "Ahorros");
+    }
+
+    @Test
+    public void testBufferEvictsOldestWhenFull() {
+        // Arrange
+        CommandRingBuffer buffer = new CommandRingBuffer(3);
+        List<Command> evicted = new ArrayList<>();
+        buffer.setEvictionListener(evicted::add);
+        List<Command> commands = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            commands.add(new DepositCommand(account, i));
+        }
+
+        // Act
+        commands.forEach(buffer::add);
+
+        // Assert
+        assertEquals(3, buffer.size(), "El buffer no debería superar su capacidad");
+        assertEquals(commands.get(2), buffer.get(0), "El comando más antiguo retenido debería ser el tercero");
+        assertEquals(commands.get(4), buffer.peekLast(), "El último comando debería estar al final");
+        assertEquals(List.of(commands.get(0), commands.get(1)), evicted,
+            "Los comandos desalojados deberían entregarse al callback en orden");
+        assertEquals(2, buffer.getEvictedCount(), "El contador de desalojos debería ser 2");
+    }
+
+    @Test
+    public void testRemoveLastBehavesAsStack() {
+        // Arrange
+        CommandRingBuffer buffer = new CommandRingBuffer(2);
+        Command first = new DepositCommand(account, 1.0);
+        Command second = new DepositCommand(account, 2.0);
+        buffer.add(first);
+        buffer.add(second);
+
+        // Act & Assert
+        assertEquals(second, buffer.removeLast(), "Debería salir primero el último agregado");
+        assertEquals(first, buffer.removeLast(), "Luego debería salir el primero");
+        assertNull(buffer.removeLast(), "Un buffer vacío debería devolver null");
+    }
+
+    @Test
+    public void testViewAndRecentIterationDoNotCopy() {
+        // Arrange
+        CommandRingBuffer buffer = new CommandRingBuffer(4);
+        for (int i = 1; i <= 6; i++) {
+            buffer.add(new DepositCommand(account, i));
+        }
+        List<Command> view = buffer.view();
+        List<Command> recent = new ArrayList<>();
+
+        // Act
+        buffer.forEachRecent(2, recent::add);
+        buffer.add(new DepositCommand(account, 7.0));
+
+        // Assert
+        assertEquals(4, view.size(), "La vista debería reflejar el tamaño actual");
+        assertEquals(7.0, ((DepositCommand) view.get(3)).getAmount(), 0.001,
+            "La vista debería reflejar los cambios sin copiar");
+        assertEquals(2, recent.size(), "Solo deberían recorrerse los comandos recientes solicitados");
+        assertEquals(6.0, ((DepositCommand) recent.get(1)).getAmount(), 0.001,
+            "El recorrido reciente debería terminar en el último comando");
+        assertThrows(UnsupportedOperationException.class, () -> view.add(new DepositCommand(account, 1.0)),
+            "La vista debería ser de solo lectura");
+    }
+
+    @Test
+    public void testInvokerHonorsHistoryCapacityAndUndoDepth() {
+        // Arrange
+        TransactionInvoker invoker = new TransactionInvoker(5, 2);
+        List<Command> spilled = new ArrayList<>();
+        invoker.setEvictionListener(spilled::add);
+
+        // Act
+        for (int i = 0; i < 8; i++) {
+            invoker.executeCommand(new DepositCommand(account, 10.0));
+        }
+        invoker.undoLastCommand();
+        invoker.undoLastCommand();
+        invoker.undoLastCommand();
+
+        // Assert
+        assertEquals(5, invoker.getCommandHistory().size(), "El historial debería respetar su capacidad");
+        assertEquals(8, invoker.getTotalCommandsExecuted(), "El total ejecutado debería contar todos los comandos");
+        assertEquals(3, invoker.getEvictedCommandsCount(), "Tres comandos deberían haberse desalojado");
+        assertEquals(3, spilled.size(), "Los comandos desalojados deberían entregarse al callback");
+        assertEquals(0, invoker.getUndoableCommandsCount(), "Solo deberían poder deshacerse dos comandos");
+        assertEquals(2, invoker.getRedoableCommandsCount(), "Los dos comandos deshechos deberían poder rehacerse");
+        assertEquals(1060.0, account.getBalance(), 0.001, "Solo los dos últimos depósitos deberían deshacerse");
+    }
+
+    @Test
+    public void testDefaultInvokerKeepsUnboundedHistory() {
+        // Arrange
+        TransactionInvoker invoker = new TransactionInvoker();
+
+        // Act
+        for (int i = 0; i < 1_500; i++) {
+            invoker.executeCommand(new DepositCommand(account, 1.0));
+        }
+
+        // Assert
+        assertEquals(1_500, invoker.getCommandHistory().size(), "Por omisión el historial no debería desalojar");
+        assertEquals(1_500, invoker.getUndoableCommandsCount(), "Por omisión la pila de deshacer no debería recortarse");
+        assertEquals(0, invoker.getEvictedCommandsCount(), "No debería desalojarse ningún comando");
+        assertEquals(2_500.0, account.getBalance(), 0.001, "Todos los depósitos deberían aplicarse");
+    }
+
+    @Test
+    public void testHistoryViewIsACopy() {
+        // Arrange
+        TransactionInvoker invoker = new TransactionInvoker();
+        invoker.executeCommand(new DepositCommand(account, 1.0));
+        List<Command> view = invoker.getHistoryView();
+
+        // Act
+        invoker.executeCommand(new DepositCommand(account, 1.0));
+
+        // Assert
+        assertEquals(1, view.size(), "La vista no debería cambiar con comandos posteriores");
+    }
+
+    @Test
+    public void testInvalidCapacity() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new CommandRingBuffer(0),
+            "Una capacidad no positiva debería rechazarse");
+    }
+}
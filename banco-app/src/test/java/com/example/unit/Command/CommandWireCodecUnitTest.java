@@ -0,0 +1,284 @@
+package com.example.unit.Command;
+
+import com.example.Command.model.Command;
+import com.example.Command.model.CommandCodec;
+import com.example.Command.model.CommandWireCodec;
+import com.example.Command.model.CompositeCommand;
+import com.example.Command.model.DepositCommand;
+import com.example.Command.model.TransferCommand;
+import com.example.Command.model.WithdrawCommand;
+import com.example.Observer.model.ConcreteSubject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para CommandWireCodec
+ * Prueba la ida y vuelta de cada comando, el internado de cuentas, el modo varint y el versionado
+ */
+public class CommandWireCodecUnitTest {
+
+    private ConcreteSubject checking;
+    private ConcreteSubject savings;
+    private Map<String, ConcreteSubject> accounts;
+
+    @BeforeEach
+    public void setUp() {
+        checking = new ConcreteSubject("WIRE-001", 1000.0, "Corriente");
+        savings = new ConcreteSubject("WIRE-002", 500.0, "Ahorros");
+        accounts = Map.of(checking.getAccountNumber(), checking, savings.getAccountNumber(), savings);
+    }
+
+    private static Command roundTrip(CommandWireCodec sender, CommandWireCodec receiver, Command command, ByteBuffer buffer) {
+        buffer.clear();
+        sender.encode(command, buffer);
+        buffer.flip();
+        Command decoded = receiver.decode(buffer);
+        assertFalse(buffer.hasRemaining(), "El mensaje debería consumirse completo");
+        return decoded;
+    }
+
+    @Test
+    public void testRoundTripsEachCommandType() {
+        // Arrange
+        CommandWireCodec sender = new CommandWireCodec(accounts);
+        CommandWireCodec receiver = new CommandWireCodec(accounts);
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+
+        // Act
+        DepositCommand deposit = (DepositCommand) roundTrip(sender, receiver, new DepositCommand(checking, 12.34), buffer);
+        WithdrawCommand withdraw = (WithdrawCommand) roundTrip(sender, receiver, new WithdrawCommand(savings, 50.0), buffer);
+        TransferCommand transfer = (TransferCommand) roundTrip(sender, receiver,
+                new TransferCommand(checking, savings, 99.99), buffer);
+
+        // Assert
+        assertSame(checking, deposit.getAccount(), "El depósito debería resolver la cuenta original");
+        assertEquals(1234, deposit.getMoney().getMinorUnits(), "El importe debería conservarse en céntimos");
+        assertSame(savings, withdraw.getAccount(), "El retiro debería resolver la cuenta original");
+        assertEquals(5000, withdraw.getMoney().getMinorUnits(), "El importe del retiro debería conservarse");
+        assertSame(checking, transfer.getSourceAccount(), "El origen de la transferencia debería conservarse");
+        assertSame(savings, transfer.getDestinationAccount(), "El destino de la transferencia debería conservarse");
+        assertEquals(9999, transfer.getMoney().getMinorUnits(), "El importe de la transferencia debería conservarse");
+    }
+
+    @Test
+    public void testAccountNumberIsSentOnlyOnce() {
+        // Arrange
+        CommandWireCodec sender = new CommandWireCodec(accounts);
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+
+        // Act
+        sender.encode(new DepositCommand(checking, 10.0), buffer);
+        int first = buffer.position();
+        sender.encode(new DepositCommand(checking, 10.0), buffer);
+        int second = buffer.position() - first;
+
+        // Assert
+        assertEquals(2 + checking.getAccountNumber().length(), first - second,
+                "El segundo mensaje debería omitir el número de cuenta ya internado");
+        assertEquals(1, sender.getEncodedAccountCount(), "Debería haber una sola cuenta internada");
+    }
+
+    @Test
+    public void testVarintIsSmallerThanFixedWidth() {
+        // Arrange
+        CommandWireCodec fixed = new CommandWireCodec(accounts, false);
+        CommandWireCodec varint = new CommandWireCodec(accounts, true);
+        CommandWireCodec receiver = new CommandWireCodec(accounts);
+        ByteBuffer fixedBuffer = ByteBuffer.allocate(256);
+        ByteBuffer varintBuffer = ByteBuffer.allocate(256);
+        Command command = new TransferCommand(checking, savings, 25.0);
+
+        // Act
+        fixed.encode(command, fixedBuffer);
+        varint.encode(command, varintBuffer);
+        varintBuffer.flip();
+        TransferCommand decoded = (TransferCommand) receiver.decode(varintBuffer);
+
+        // Assert
+        assertTrue(varintBuffer.limit() < fixedBuffer.position(), "La codificación varint debería ocupar menos bytes");
+        assertEquals(2500, decoded.getMoney().getMinorUnits(), "Un receptor debería leer varint según las banderas del mensaje");
+        assertSame(savings, decoded.getDestinationAccount(), "Las cuentas deberían resolverse también con varint");
+    }
+
+    @Test
+    public void testLargeAmountsSurviveVarint() {
+        // Arrange
+        ConcreteSubject vault = new ConcreteSubject("WIRE-VAULT", 90_000_000_000_000.0, "Interna");
+        Map<String, ConcreteSubject> vaultAccounts = Map.of(vault.getAccountNumber(), vault);
+        CommandWireCodec sender = new CommandWireCodec(vaultAccounts, true);
+        CommandWireCodec receiver = new CommandWireCodec(vaultAccounts, true);
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        Command command = new WithdrawCommand(vault, 80_000_000_000_000.0);
+
+        // Act
+        WithdrawCommand decoded = (WithdrawCommand) roundTrip(sender, receiver, command, buffer);
+
+        // Assert
+        assertEquals(((WithdrawCommand) command).getMoney().getMinorUnits(), decoded.getMoney().getMinorUnits(),
+                "Un importe grande debería conservarse con varint");
+    }
+
+    @Test
+    public void testCarriesStateAndIdempotencyKey() {
+        // Arrange
+        CommandWireCodec sender = new CommandWireCodec(accounts, true);
+        CommandWireCodec receiver = new CommandWireCodec(accounts, true);
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        DepositCommand deposit = new DepositCommand(checking, 40.0);
+        deposit.setIdempotencyKey("pago-77");
+        deposit.execute();
+
+        // Act
+        DepositCommand decoded = (DepositCommand) roundTrip(sender, receiver, deposit, buffer);
+
+        // Assert
+        assertEquals("pago-77", decoded.getIdempotencyKey(), "La clave de idempotencia debería viajar con el comando");
+        assertTrue(decoded.isExecuted(), "El estado de ejecución debería conservarse");
+        assertTrue(decoded.wasSuccessful(), "El resultado debería conservarse");
+    }
+
+    @Test
+    public void testRoundTripsCompositeCommand() {
+        // Arrange
+        CommandWireCodec sender = new CommandWireCodec(accounts, true);
+        CommandWireCodec receiver = new CommandWireCodec(accounts, true);
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        CompositeCommand operation = new CompositeCommand(List.of(
+                new TransferCommand(checking, savings, 10.0),
+                new WithdrawCommand(checking, 1.0)));
+
+        // Act
+        CompositeCommand decoded = (CompositeCommand) roundTrip(sender, receiver, operation, buffer);
+
+        // Assert
+        assertEquals(2, decoded.getLegs().size(), "Deberían decodificarse todos los tramos");
+        assertTrue(decoded.getLegs().get(1) instanceof WithdrawCommand, "El orden de los tramos debería conservarse");
+        assertEquals(2, receiver.getDecodedAccountCount(), "Cada cuenta debería internarse una vez");
+    }
+
+    @Test
+    public void testOverflowLeavesDictionaryUntouched() {
+        // Arrange
+        CommandWireCodec sender = new CommandWireCodec(accounts);
+        CommandWireCodec receiver = new CommandWireCodec(accounts);
+        ByteBuffer small = ByteBuffer.allocate(8);
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        Command command = new DepositCommand(checking, 10.0);
+
+        // Act
+        assertThrows(BufferOverflowException.class, () -> sender.encode(command, small),
+                "Un buffer pequeño debería desbordarse");
+        DepositCommand decoded = (DepositCommand) roundTrip(sender, receiver, command, buffer);
+
+        // Assert
+        assertEquals(0, small.position(), "El buffer debería quedar en su posición original");
+        assertSame(checking, decoded.getAccount(), "La cuenta debería volver a enviarse completa tras el fallo");
+    }
+
+    @Test
+    public void testTruncatedMessageCanBeRetried() {
+        // Arrange
+        CommandWireCodec sender = new CommandWireCodec(accounts);
+        CommandWireCodec receiver = new CommandWireCodec(accounts);
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        sender.encode(new TransferCommand(checking, savings, 5.0), buffer);
+        buffer.flip();
+        int full = buffer.limit();
+
+        // Act
+        buffer.limit(full - 3);
+        assertThrows(BufferUnderflowException.class, () -> receiver.decode(buffer),
+                "Un mensaje incompleto no debería decodificarse");
+        buffer.limit(full);
+        TransferCommand decoded = (TransferCommand) receiver.decode(buffer);
+
+        // Assert
+        assertSame(savings, decoded.getDestinationAccount(), "El reintento debería decodificar el mensaje completo");
+        assertEquals(2, receiver.getDecodedAccountCount(), "El intento fallido no debería dejar cuentas internadas");
+    }
+
+    @Test
+    public void testHugeLegCountIsTreatedAsTruncated() {
+        // Arrange - un conteo de tramos corrupto no debería reservar memoria para dos mil millones de tramos
+        CommandWireCodec receiver = new CommandWireCodec(accounts, false);
+        ByteBuffer corrupt = ByteBuffer.allocate(16);
+        corrupt.put(CommandWireCodec.VERSION).put((byte) 0).put(CommandCodec.COMPOSITE).putInt(Integer.MAX_VALUE).flip();
+
+        // Act & Assert
+        assertThrows(BufferUnderflowException.class, () -> receiver.decode(corrupt),
+                "Un conteo mayor que los datos disponibles debería tratarse como mensaje incompleto");
+        assertEquals(0, corrupt.position(), "El buffer debería quedar en su posición original");
+    }
+
+    @Test
+    public void testNegativeLegCountIsRejected() {
+        // Arrange
+        CommandWireCodec receiver = new CommandWireCodec(accounts, false);
+        ByteBuffer corrupt = ByteBuffer.allocate(16);
+        corrupt.put(CommandWireCodec.VERSION).put((byte) 0).put(CommandCodec.COMPOSITE).putInt(-1).flip();
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> receiver.decode(corrupt),
+                "Un conteo de tramos negativo debería rechazarse");
+        assertEquals(0, corrupt.position(), "El buffer debería quedar en su posición original");
+    }
+
+    @Test
+    public void testDeepNestingIsRejected() {
+        // Arrange - cien mil operaciones compuestas anidadas agotarían la pila si no hubiera límite
+        CommandWireCodec receiver = new CommandWireCodec(accounts, false);
+        int levels = 100_000;
+        ByteBuffer corrupt = ByteBuffer.allocate(2 + levels * (1 + Integer.BYTES));
+        corrupt.put(CommandWireCodec.VERSION).put((byte) 0);
+        for (int i = 0; i < levels; i++) {
+            corrupt.put(CommandCodec.COMPOSITE).putInt(1);
+        }
+        corrupt.flip();
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> receiver.decode(corrupt),
+                "Un anidamiento mayor que el límite debería rechazarse");
+        assertEquals(0, corrupt.position(), "El buffer debería quedar en su posición original");
+    }
+
+    @Test
+    public void testRejectsUnknownVersionAndUndefinedIds() {
+        // Arrange
+        CommandWireCodec receiver = new CommandWireCodec(accounts);
+        ByteBuffer future = ByteBuffer.wrap(new byte[]{(byte) (CommandWireCodec.VERSION + 1), 0, 1});
+        ByteBuffer undefined = ByteBuffer.allocate(32);
+        undefined.put(CommandWireCodec.VERSION).put((byte) 0).put((byte) 1).putInt(3 << 1).putLong(100).flip();
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> receiver.decode(future),
+                "Una versión posterior debería rechazarse");
+        assertThrows(IllegalStateException.class, () -> receiver.decode(undefined),
+                "Un id de cuenta no definido debería rechazarse");
+    }
+
+    @Test
+    public void testResetStartsNewStream() {
+        // Arrange
+        CommandWireCodec sender = new CommandWireCodec(accounts);
+        CommandWireCodec receiver = new CommandWireCodec(accounts);
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        roundTrip(sender, receiver, new DepositCommand(checking, 1.0), buffer);
+
+        // Act
+        sender.reset();
+        receiver.reset();
+        DepositCommand decoded = (DepositCommand) roundTrip(sender, receiver, new DepositCommand(savings, 1.0), buffer);
+
+        // Assert
+        assertSame(savings, decoded.getAccount(), "Tras reiniciar, los ids deberían volver a asignarse desde cero");
+        assertEquals(1, receiver.getDecodedAccountCount(), "El receptor debería empezar con el diccionario vacío");
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.unit.Command;
+
+import com.example.Command.controller.TransactionInvoker;
+import com.example.Command.model.Command;
+import com.example.Command.model.CommandCodec;
+import com.example.Command.model.CompositeCommand;
+import com.example.Command.model.DepositCommand;
+import com.example.Command.model.TransferCommand;
+import com.example.Command.model.WithdrawCommand;
+import com.example.Observer.model.ConcreteSubject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para CompositeCommand
+ * Prueba que los tramos se aplican juntos, se revierten juntos y se deshacen como una sola unidad
+ */
+public class CompositeCommandUnitTest {
+
+    private ConcreteSubject customer;
+    private ConcreteSubject merchant;
+    private ConcreteSubject bank;
+
+    @BeforeEach
+    public void setUp() {
+        customer = new ConcreteSubject("CMP-C", 1000.0, "Ahorros");
+        merchant = new ConcreteSubject("CMP-M", 0.0, "Corriente");
+        bank = new ConcreteSubject("CMP-B", 10_000.0, "Interna");
+    }
+
+    private CompositeCommand purchase(double amount) {
+        return new CompositeCommand(List.of(
+                new TransferCommand(customer, bank, 5.0),
+                new TransferCommand(customer, merchant, amount),
+                new TransferCommand(bank, customer, 2.0)));
+    }
+
+    @Test
+    public void testAllLegsAreApplied() {
+        // Arrange
+        CompositeCommand operation = purchase(100.0);
+
+        // Act
+        operation.execute();
+
+        // Assert
+        assertTrue(operation.wasSuccessful(), "La operación debería completarse");
+        assertEquals(897.0, customer.getBalance(), 0.001, "Cliente: 1000 - 5 - 100 + 2");
+        assertEquals(100.0, merchant.getBalance(), 0.001, "El comercio debería recibir la compra");
+        assertEquals(10_003.0, bank.getBalance(), 0.001, "El banco: +5 de comisión - 2 de reintegro");
+        assertEquals(3, operation.getAffectedAccounts().size(), "Deberían involucrarse tres cuentas distintas");
+    }
+
+    @Test
+    public void testFailedLegRollsBackAppliedLegs() {
+        // Arrange - la compra excede el saldo después de cobrar la comisión
+        CompositeCommand operation = purchase(998.0);
+
+        // Act
+        operation.execute();
+
+        // Assert
+        assertFalse(operation.wasSuccessful(), "La operación debería fallar");
+        assertEquals(1, operation.getFailedLeg(), "Debería fallar el segundo tramo");
+        assertEquals(1000.0, customer.getBalance(), 0.001, "La comisión cobrada debería devolverse");
+        assertEquals(0.0, merchant.getBalance(), 0.001, "El comercio no debería recibir nada");
+        assertEquals(10_000.0, bank.getBalance(), 0.001, "El banco debería quedar igual");
+    }
+
+    @Test
+    public void testInvokerUndoesOperationAsOneUnit() {
+        // Arrange
+        TransactionInvoker invoker = new TransactionInvoker();
+        invoker.executeCommand(purchase(100.0));
+
+        // Act
+        invoker.undoLastCommand();
+
+        // Assert
+        assertEquals(1000.0, customer.getBalance(), 0.001, "Un solo deshacer debería revertir todos los tramos");
+        assertEquals(0.0, merchant.getBalance(), 0.001, "El comercio debería volver a cero");
+        assertEquals(1, invoker.getCommandHistory().size(), "La operación debería ocupar una sola entrada");
+
+        // Act - rehacer aplica de nuevo todos los tramos
+        invoker.redoLastCommand();
+
+        // Assert
+        assertEquals(897.0, customer.getBalance(), 0.001, "Rehacer debería aplicar la operación completa");
+    }
+
+    @Test
+    public void testCodecRoundTripKeepsLegsAndState() {
+        // Arrange
+        CompositeCommand operation = purchase(100.0);
+        operation.execute();
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        Map<String, ConcreteSubject> accounts = Map.of("CMP-C", customer, "CMP-M", merchant, "CMP-B", bank);
+
+        // Act
+        CommandCodec.encodeWithState(operation, buffer);
+        buffer.flip();
+        Command decoded = CommandCodec.decodeWithState(buffer, accounts);
+        decoded.undo();
+
+        // Assert
+        assertTrue(decoded instanceof CompositeCommand, "Debería decodificarse una operación compuesta");
+        assertEquals(3, ((CompositeCommand) decoded).getLegs().size(), "Deberían conservarse los tres tramos");
+        assertEquals(1000.0, customer.getBalance(), 0.001, "La copia restaurada debería poder deshacerse");
+    }
+
+    @Test
+    public void testOpposingCompositesDoNotDeadlock() throws InterruptedException {
+        // Arrange - operaciones que recorren las mismas cuentas en órdenes opuestos
+        ConcreteSubject a = new ConcreteSubject("CMP-1", 10_000.0, "Ahorros");
+        ConcreteSubject b = new ConcreteSubject("CMP-2", 10_000.0, "Ahorros");
+        ConcreteSubject c = new ConcreteSubject("CMP-3", 10_000.0, "Ahorros");
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            boolean forward = t % 2 == 0;
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 1_000; i++) {
+                    List<Command> legs = forward
+                            ? List.of(new TransferCommand(a, b, 1.0), new TransferCommand(b, c, 1.0), new WithdrawCommand(c, 0.5))
+                            : List.of(new TransferCommand(c, b, 1.0), new TransferCommand(b, a, 1.0), new DepositCommand(a, 0.5));
+                    new CompositeCommand(legs).execute();
+                }
+            }));
+        }
+
+        // Act
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join(30_000);
+            assertFalse(thread.isAlive(), "Las operaciones compuestas no deberían interbloquearse");
+        }
+
+        // Assert
+        assertEquals(3_000_000, a.getBalanceMinor() + b.getBalanceMinor() + c.getBalanceMinor(),
+                "Retiros y depósitos se compensan: el total debería conservarse");
+    }
+
+    @Test
+    public void testUndoThatCannotRevertALegLeavesOperationApplied() {
+        // Arrange - el comercio gasta lo recibido, así que su tramo ya no se puede deshacer
+        CompositeCommand operation = purchase(100.0);
+        operation.execute();
+        merchant.withdraw(100.0);
+
+        // Act
+        boolean undone = operation.tryUndo();
+
+        // Assert
+        assertFalse(undone, "El deshacer debería informar que no se pudo revertir");
+        assertTrue(operation.wasSuccessful(), "La operación debería seguir aplicada");
+        assertEquals(897.0, customer.getBalance(), 0.001, "Los tramos ya deshechos deberían volver a aplicarse");
+        assertEquals(10_003.0, bank.getBalance(), 0.001, "El banco debería conservar la comisión neta");
+        assertEquals(0.0, merchant.getBalance(), 0.001, "No debería crearse ni perderse dinero");
+    }
+
+    @Test
+    public void testEmptyCompositeIsRejected() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new CompositeCommand(List.of()),
+                "Una operación sin tramos debería rechazarse");
+    }
+
+    @Test
+    public void testAlreadyExecutedLegIsRejected() {
+        // Arrange
+        TransferCommand done = new TransferCommand(customer, merchant, 10.0);
+        done.execute();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> new CompositeCommand(List.of(new TransferCommand(customer, bank, 5.0), done)),
+                "Un tramo ya ejecutado no debería aceptarse");
+        assertEquals(10.0, merchant.getBalance(), 0.001, "La ejecución independiente del tramo no debería alterarse");
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.unit.Command;
+
+import com.example.Command.controller.TransactionInvoker;
+import com.example.Command.model.DepositCommand;
+import com.example.Command.model.TransferCommand;
+import com.example.Observer.model.ConcreteSubject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para el modo concurrente del TransactionInvoker
+ * Prueba que varios hilos puedan ejecutar, deshacer y rehacer comandos sin corromper el estado
+ */
+public class ConcurrentTransactionInvokerUnitTest {
+
+    private static final int THREADS = 8;
+    private static final int COMMANDS_PER_THREAD = 200;
+
+    private TransactionInvoker invoker;
+    private List<ConcreteSubject> accounts;
+
+    @BeforeEach
+    public void setUp() {
+        invoker = new TransactionInvoker(true, 16);
+        accounts = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            accounts.add(new ConcreteSubject("CONC00" + i, 1000.0, "Ahorros"));
+        }
+    }
+
+    @Test
+    public void testConcurrentModeIsEnabled() {
+        // Assert
+        assertTrue(invoker.isConcurrent(), "El invocador debería estar en modo concurrente");
+        assertFalse(new TransactionInvoker().isConcurrent(),
+            "El constructor por defecto debería mantener el modo secuencial");
+    }
+
+    @Test
+    public void testParallelDepositsOnDisjointAccounts() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Act - Cada hilo deposita en su propia cuenta
+        for (int t = 0; t < THREADS; t++) {
+            ConcreteSubject account = accounts.get(t);
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < COMMANDS_PER_THREAD; i++) {
+                    invoker.executeCommand(new DepositCommand(account, 1.0));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Assert
+        for (ConcreteSubject account : accounts) {
+            assertEquals(1000.0 + COMMANDS_PER_THREAD, account.getBalance(), 0.001,
+                "Cada cuenta debería reflejar todos sus depósitos");
+        }
+        assertEquals(THREADS * COMMANDS_PER_THREAD, invoker.getCommandHistory().size(),
+            "El historial debería contener todos los comandos");
+        assertEquals(THREADS * COMMANDS_PER_THREAD, invoker.getUndoableCommandsCount(),
+            "La pila de deshacer debería contener todos los comandos");
+    }
+
+    @Test
+    public void testParallelTransfersOnSharedAccountKeepTotalBalance() throws Exception {
+        // Arrange
+        ConcreteSubject hub = new ConcreteSubject("HUB001", 100000.0, "Corriente");
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Act - Todos los hilos transfieren desde la misma cuenta origen
+        for (int t = 0; t < THREADS; t++) {
+            ConcreteSubject destination = accounts.get(t);
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < COMMANDS_PER_THREAD; i++) {
+                    invoker.executeCommand(new TransferCommand(hub, destination, 10.0));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Assert
+        double total = hub.getBalance();
+        for (ConcreteSubject account : accounts) {
+            total += account.getBalance();
+        }
+        assertEquals(100000.0 + THREADS * 1000.0, total, 0.001,
+            "Las transferencias concurrentes no deberían crear ni perder dinero");
+        assertEquals(100000.0 - THREADS * COMMANDS_PER_THREAD * 10.0, hub.getBalance(), 0.001,
+            "La cuenta origen debería reflejar todas las transferencias");
+    }
+
+    @Test
+    public void testConcurrentUndoAndRedoKeepStacksConsistent() throws Exception {
+        // Arrange
+        for (int t = 0; t < THREADS; t++) {
+            for (int i = 0; i < 50; i++) {
+                invoker.executeCommand(new DepositCommand(accounts.get(t), 2.0));
+            }
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Act - Deshacer todo en paralelo y luego rehacer todo en paralelo
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 50; i++) {
+                    invoker.undoLastCommand();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        int undoableAfterUndo = invoker.getUndoableCommandsCount();
+        int redoableAfterUndo = invoker.getRedoableCommandsCount();
+        futures.clear();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 50; i++) {
+                    invoker.redoLastCommand();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(0, undoableAfterUndo, "Todos los comandos deberían haberse deshecho");
+        assertEquals(THREADS * 50, redoableAfterUndo, "Todos los comandos deberían estar en la pila de rehacer");
+        assertEquals(THREADS * 50, invoker.getUndoableCommandsCount(),
+            "Todos los comandos deberían volver a la pila de deshacer");
+        assertEquals(0, invoker.getRedoableCommandsCount(), "La pila de rehacer debería quedar vacía");
+        for (ConcreteSubject account : accounts) {
+            assertEquals(1100.0, account.getBalance(), 0.001,
+                "Cada cuenta debería reflejar sus depósitos rehechos");
+        }
+    }
+}
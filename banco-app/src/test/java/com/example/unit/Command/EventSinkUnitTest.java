@@ -0,0 +1,158 @@
+package com.example.unit.Command;
+
+import com.example.Command.controller.AsyncFileEventSink;
+import com.example.Command.controller.TransactionInvoker;
+import com.example.Command.model.CommandEvent;
+import com.example.Command.model.CommandEvents;
+import com.example.Command.model.DepositCommand;
+import com.example.Command.model.EventSink;
+import com.example.Command.model.EventType;
+import com.example.Command.model.WithdrawCommand;
+import com.example.Observer.model.ConcreteSubject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para los sinks de eventos del paquete Command
+ * Prueba el sink por defecto, la captura de eventos estructurados y la escritura asíncrona a archivo
+ */
+public class EventSinkUnitTest {
+
+    @TempDir
+    Path tempDir;
+
+    private EventSink previousSink;
+    private ConcreteSubject account;
+
+    @BeforeEach
+    public void setUp() {
+        previousSink = CommandEvents.getSink();
+        account = new ConcreteSubject("EVT001", 1000.0, "Ahorros");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        CommandEvents.setSink(previousSink);
+    }
+
+    @Test
+    public void testDefaultSinkIsDisabled() {
+        // Arrange
+        CommandEvents.setSink(null);
+
+        // Assert
+        assertSame(EventSink.NO_OP, CommandEvents.getSink(), "Sin sink configurado debería usarse NO_OP");
+        assertFalse(CommandEvents.isEnabled(), "El sink por defecto no debería estar habilitado");
+    }
+
+    @Test
+    public void testMessagesAreNotRenderedWhenDisabled() {
+        // Arrange
+        CommandEvents.setSink(EventSink.NO_OP);
+        int[] renders = new int[1];
+        Object part = new Object() {
+            @Override
+            public String toString() {
+                renders[0]++;
+                return "parte";
+            }
+        };
+
+        // Act
+        CommandEvents.emit(EventType.INVOKER, "Texto: ", part);
+        new TransactionInvoker().executeCommand(new DepositCommand(account, 100.0));
+
+        // Assert
+        assertEquals(0, renders[0], "El mensaje no debería armarse si nadie lo consume");
+        assertEquals(1100.0, account.getBalance(), 0.001, "El comando debería ejecutarse igual sin sink");
+    }
+
+    @Test
+    public void testCommandsEmitStructuredEvents() {
+        // Arrange
+        RecordingSink sink = new RecordingSink();
+        CommandEvents.setSink(sink);
+        TransactionInvoker invoker = new TransactionInvoker();
+
+        // Act
+        invoker.executeCommand(new WithdrawCommand(account, 5000.0));
+        invoker.executeCommand(new DepositCommand(account, 200.0));
+        invoker.undoLastCommand();
+
+        // Assert
+        assertTrue(sink.types().contains(EventType.EXECUTE_FAILED), "El retiro sin fondos debería emitir un fallo");
+        assertTrue(sink.types().contains(EventType.EXECUTE_SUCCEEDED), "El depósito debería emitir un éxito");
+        assertTrue(sink.types().contains(EventType.UNDO_COMPLETED), "El deshacer debería emitir su evento");
+        assertTrue(sink.messages().contains("Error: Fondos insuficientes para retirar $5000.00"),
+                "El mensaje de fallo debería conservar el texto original");
+        assertTrue(sink.messages().contains("Depósito de $200.00 deshecho. Balance restaurado a $1000.00"),
+                "El mensaje de deshacer debería incluir el saldo restaurado");
+    }
+
+    @Test
+    public void testAsyncFileSinkWritesAllEventsOnClose() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("eventos.log");
+        AsyncFileEventSink sink = new AsyncFileEventSink(file, 1024);
+        CommandEvents.setSink(sink);
+        TransactionInvoker invoker = new TransactionInvoker();
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            invoker.executeCommand(new DepositCommand(account, 10.0));
+        }
+        CommandEvents.setSink(previousSink);
+        sink.close();
+
+        // Assert
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(sink.getWrittenCount(), lines.size(), "Cada evento escrito debería ocupar una línea");
+        assertEquals(0, sink.getDroppedCount(), "Con espacio en el anillo no deberían descartarse eventos");
+        assertTrue(lines.stream().anyMatch(line -> line.contains("EXECUTE_SUCCEEDED Comando ejecutado exitosamente")),
+                "El archivo debería contener el tipo y el mensaje de cada evento");
+        assertTrue(lines.stream().noneMatch(String::isBlank), "No deberían escribirse líneas vacías");
+        assertNull(sink.getFailure(), "No debería registrarse ningún error de escritura");
+    }
+
+    @Test
+    public void testAsyncFileSinkRejectsInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new AsyncFileEventSink(tempDir.resolve("invalido.log"), 1000),
+                "La capacidad debería ser potencia de dos");
+    }
+
+    private static class RecordingSink implements EventSink {
+        private final List<CommandEvent> events = new ArrayList<>();
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public void accept(CommandEvent event) {
+            events.add(event);
+        }
+
+        List<EventType> types() {
+            List<EventType> types = new ArrayList<>();
+            events.forEach(event -> types.add(event.getType()));
+            return types;
+        }
+
+        List<String> messages() {
+            List<String> messages = new ArrayList<>();
+            events.forEach(event -> messages.add(event.getMessage()));
+            return messages;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.unit.Command;
+
+import com.example.Command.controller.HistoryReplayer;
+import com.example.Command.controller.TransactionInvoker;
+import com.example.Command.model.DepositCommand;
+import com.example.Command.model.ReplayResult;
+import com.example.Command.model.TransferCommand;
+import com.example.Command.model.WithdrawCommand;
+import com.example.Observer.model.ConcreteSubject;
+import com.example.Observer.model.Observer;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para HistoryReplayer
+ * Prueba que la reproducción paralela por cuenta reconstruye el mismo estado que la ejecución original
+ */
+public class HistoryReplayerUnitTest {
+
+    private static final int ACCOUNTS = 32;
+
+    private Map<String, ConcreteSubject> newAccounts() {
+        Map<String, ConcreteSubject> accounts = new HashMap<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            String number = "RPL" + i;
+            accounts.put(number, new ConcreteSubject(number, 1000.0, "Ahorros"));
+        }
+        return accounts;
+    }
+
+    @Test
+    public void testParallelReplayMatchesOriginalBalances() {
+        // Arrange - historial mezclado con transferencias que enlazan particiones
+        Map<String, ConcreteSubject> original = newAccounts();
+        TransactionInvoker invoker = new TransactionInvoker(20_000, 20_000);
+        Random random = new Random(42);
+        for (int i = 0; i < 5_000; i++) {
+            ConcreteSubject a = original.get("RPL" + random.nextInt(ACCOUNTS));
+            ConcreteSubject b = original.get("RPL" + random.nextInt(ACCOUNTS));
+            double amount = 1 + random.nextInt(50);
+            switch (random.nextInt(3)) {
+                case 0:
+                    invoker.executeCommand(new DepositCommand(a, amount));
+                    break;
+                case 1:
+                    invoker.executeCommand(new WithdrawCommand(a, amount));
+                    break;
+                default:
+                    invoker.executeCommand(new TransferCommand(a, b, amount));
+                    break;
+            }
+        }
+        Map<String, ConcreteSubject> rebuilt = newAccounts();
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        // Act
+        ReplayResult result;
+        try {
+            result = new HistoryReplayer(pool).replay(invoker.getCommandHistory(), rebuilt);
+        } finally {
+            pool.shutdown();
+        }
+
+        // Assert
+        for (Map.Entry<String, ConcreteSubject> entry : original.entrySet()) {
+            assertEquals(entry.getValue().getBalanceMinor(), rebuilt.get(entry.getKey()).getBalanceMinor(),
+                    "El saldo reconstruido de " + entry.getKey() + " debería coincidir con el original");
+        }
+        assertEquals(0, result.getFailedCount(), "Ningún comando vigente debería fallar al reproducirse");
+        assertEquals(5_000, result.getReplayedCount() + result.getSkippedCount(), "Todo el historial debería procesarse");
+        assertEquals(ACCOUNTS, result.getAccountCount(), "Deberían participar todas las cuentas");
+        assertTrue(result.getRootCount() > 1, "Cuentas independientes deberían poder empezar en paralelo");
+    }
+
+    @Test
+    public void testUndoneAndFailedCommandsAreSkipped() {
+        // Arrange
+        Map<String, ConcreteSubject> original = newAccounts();
+        TransactionInvoker invoker = new TransactionInvoker();
+        invoker.executeCommand(new DepositCommand(original.get("RPL0"), 500.0));
+        invoker.executeCommand(new WithdrawCommand(original.get("RPL1"), 5000.0));
+        invoker.executeCommand(new TransferCommand(original.get("RPL0"), original.get("RPL1"), 200.0));
+        invoker.undoLastCommand();
+        Map<String, ConcreteSubject> rebuilt = newAccounts();
+
+        // Act
+        ReplayResult result = new HistoryReplayer().replay(invoker.getCommandHistory(), rebuilt);
+
+        // Assert
+        assertEquals(1, result.getReplayedCount(), "Solo el depósito sigue vigente");
+        assertEquals(2, result.getSkippedCount(), "El retiro fallido y la transferencia deshecha deberían omitirse");
+        assertEquals(1500.0, rebuilt.get("RPL0").getBalance(), 0.001, "El depósito debería reproducirse");
+        assertEquals(1000.0, rebuilt.get("RPL1").getBalance(), 0.001, "La cuenta 1 no debería cambiar");
+    }
+
+    @Test
+    public void testEmptyHistory() {
+        // Act
+        ReplayResult result = new HistoryReplayer().replay(List.of(), newAccounts());
+
+        // Assert
+        assertEquals(0, result.getReplayedCount(), "Un historial vacío no debería reproducir nada");
+        assertEquals(0, result.getRootCount(), "No debería haber raíces");
+    }
+
+    @Test
+    public void testUnknownAccountIsRejected() {
+        // Arrange
+        ConcreteSubject stranger = new ConcreteSubject("FUERA", 100.0, "Ahorros");
+        DepositCommand deposit = new DepositCommand(stranger, 10.0);
+        deposit.execute();
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class,
+                () -> new HistoryReplayer().replay(List.of(deposit), newAccounts()),
+                "Una cuenta ausente del mapa destino debería rechazarse");
+    }
+
+    @Test
+    public void testErrorDuringReplayIsPropagatedInsteadOfHanging() throws InterruptedException {
+        // Arrange - un observador de la cuenta reconstruida lanza un Error en el primer depósito
+        Map<String, ConcreteSubject> original = newAccounts();
+        TransactionInvoker invoker = new TransactionInvoker();
+        for (int i = 0; i < 10; i++) {
+            invoker.executeCommand(new DepositCommand(original.get("RPL0"), 1.0));
+        }
+        Map<String, ConcreteSubject> rebuilt = newAccounts();
+        rebuilt.get("RPL0").attach(new Observer() {
+            @Override
+            public void update(String message) {
+                throw new ReplayError();
+            }
+
+            @Override
+            public String getObserverType() {
+                return "ObservadorFallido";
+            }
+        });
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        Thread replayer = new Thread(() -> {
+            try {
+                new HistoryReplayer().replay(invoker.getCommandHistory(), rebuilt);
+            } catch (Throwable t) {
+                thrown.set(t);
+            }
+        });
+
+        // Act
+        replayer.start();
+        replayer.join(30_000);
+
+        // Assert
+        assertFalse(replayer.isAlive(), "La reproducción no debería quedarse esperando tras un Error");
+        assertTrue(thrown.get() instanceof ReplayError, "El Error debería propagarse al llamador");
+    }
+
+    private static final class ReplayError extends Error {
+        private static final long serialVersionUID = 1L;
+    }
+}
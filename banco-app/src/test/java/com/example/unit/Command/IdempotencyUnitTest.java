@@ -0,0 +1,202 @@
+package com.example.unit.Command;
+
+import com.example.Command.controller.BloomFilter;
+import com.example.Command.controller.IdempotencyCache;
+import com.example.Command.controller.TransactionInvoker;
+import com.example.Command.model.CommandResult;
+import com.example.Command.model.DepositCommand;
+import com.example.Command.model.WithdrawCommand;
+import com.example.Observer.model.ConcreteSubject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para la deduplicación por clave de idempotencia
+ * Prueba el filtro de Bloom, la caché con expiración y su uso desde TransactionInvoker
+ */
+public class IdempotencyUnitTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ConcreteSubject account;
+    private long now;
+
+    @BeforeEach
+    public void setUp() {
+        account = new ConcreteSubject("IDM001", 1000.0, "Ahorros");
+        now = 0;
+    }
+
+    @Test
+    public void testRetriedDepositIsAppliedOnce() {
+        // Arrange
+        TransactionInvoker invoker = new TransactionInvoker();
+        DepositCommand first = new DepositCommand(account, 100.0);
+        first.setIdempotencyKey("cliente-1/op-7");
+        DepositCommand retry = new DepositCommand(account, 100.0);
+        retry.setIdempotencyKey("cliente-1/op-7");
+
+        // Act
+        CommandResult original = invoker.executeCommand(first);
+        CommandResult duplicate = invoker.executeCommand(retry);
+
+        // Assert
+        assertEquals(1100.0, account.getBalance(), 0.001, "El depósito reintentado no debería aplicarse dos veces");
+        assertSame(original, duplicate, "El duplicado debería recibir el resultado original");
+        assertFalse(retry.isExecuted(), "El comando duplicado no debería ejecutarse");
+        assertEquals(1, invoker.getUndoableCommandsCount(), "Solo la primera ejecución debería entrar en la pila");
+        assertEquals(1, invoker.getIdempotencyCache().getDuplicates(), "Debería contarse un duplicado");
+    }
+
+    @Test
+    public void testCommandsWithoutKeyAreNotDeduplicated() {
+        // Arrange
+        TransactionInvoker invoker = new TransactionInvoker();
+
+        // Act
+        invoker.executeCommand(new DepositCommand(account, 100.0));
+        invoker.executeCommand(new DepositCommand(account, 100.0));
+
+        // Assert
+        assertEquals(1200.0, account.getBalance(), 0.001, "Sin clave cada comando debería ejecutarse");
+    }
+
+    @Test
+    public void testFailedResultIsAlsoReturnedForDuplicates() {
+        // Arrange
+        TransactionInvoker invoker = new TransactionInvoker();
+        WithdrawCommand first = new WithdrawCommand(account, 5000.0);
+        first.setIdempotencyKey("retiro-grande");
+        WithdrawCommand retry = new WithdrawCommand(account, 5000.0);
+        retry.setIdempotencyKey("retiro-grande");
+
+        // Act
+        invoker.executeCommand(first);
+        account.deposit(10_000.0);
+        CommandResult duplicate = invoker.executeCommand(retry);
+
+        // Assert
+        assertFalse(duplicate.isSuccessful(), "El duplicado debería ver el resultado fallido original");
+        assertEquals(11_000.0, account.getBalance(), 0.001, "El reintento no debería ejecutarse aunque ahora haya fondos");
+    }
+
+    @Test
+    public void testKeysExpireAfterTtl() {
+        // Arrange
+        IdempotencyCache cache = new IdempotencyCache(1_000, 0.01, 100, 1_000, () -> now);
+        TransactionInvoker invoker = new TransactionInvoker();
+        invoker.setIdempotencyCache(cache);
+        DepositCommand first = new DepositCommand(account, 100.0);
+        first.setIdempotencyKey("op-ttl");
+        DepositCommand later = new DepositCommand(account, 100.0);
+        later.setIdempotencyKey("op-ttl");
+
+        // Act
+        invoker.executeCommand(first);
+        now = 250;
+        invoker.executeCommand(later);
+
+        // Assert
+        assertEquals(1200.0, account.getBalance(), 0.001, "Pasado el tiempo de retención la clave debería poder reutilizarse");
+        assertEquals(0, cache.getDuplicates(), "No debería contarse como duplicado");
+    }
+
+    @Test
+    public void testAbandonedReservationReleasesKey() {
+        // Arrange
+        IdempotencyCache cache = new IdempotencyCache(1_000, 0.01, 1_000, 1_000, () -> now);
+
+        // Act
+        assertNull(cache.reserve("op-error"), "La primera reserva debería quedar a cargo del llamador");
+        cache.abandon("op-error", new IllegalStateException("falla"));
+        CompletableFuture<CommandResult> second = cache.reserve("op-error");
+
+        // Assert
+        assertNull(second, "Tras abandonar la reserva la clave debería poder ejecutarse de nuevo");
+    }
+
+    @Test
+    public void testKeyIsKeptWhenPersistenceFailsAfterExecution() {
+        // Arrange: la instantánea falla porque su directorio no existe
+        TransactionInvoker invoker = new TransactionInvoker();
+        invoker.setSnapshotPolicy(tempDir.resolve("no-existe").resolve("snapshot.bin"), List.of(account), 1);
+        DepositCommand first = new DepositCommand(account, 100.0);
+        first.setIdempotencyKey("deposito-persistencia");
+        DepositCommand retry = new DepositCommand(account, 100.0);
+        retry.setIdempotencyKey("deposito-persistencia");
+
+        // Act
+        assertThrows(UncheckedIOException.class, () -> invoker.executeCommand(first),
+                "El fallo de persistencia debería informarse al llamador");
+        CommandResult duplicate = invoker.executeCommand(retry);
+
+        // Assert
+        assertEquals(1100.0, account.getBalance(), 0.001, "El reintento no debería volver a aplicar el depósito");
+        assertFalse(retry.isExecuted(), "El reintento debería recibir el resultado del comando ya ejecutado");
+        assertSame(first, duplicate.getCommand(), "El resultado debería corresponder al primer comando");
+    }
+
+    @Test
+    public void testBatchKeysAreKeptWhenPersistenceFailsAfterExecution() {
+        // Arrange
+        TransactionInvoker invoker = new TransactionInvoker();
+        invoker.setSnapshotPolicy(tempDir.resolve("no-existe").resolve("snapshot.bin"), List.of(account), 1);
+        DepositCommand first = new DepositCommand(account, 100.0);
+        first.setIdempotencyKey("lote-persistencia");
+        DepositCommand retry = new DepositCommand(account, 100.0);
+        retry.setIdempotencyKey("lote-persistencia");
+
+        // Act
+        assertThrows(UncheckedIOException.class, () -> invoker.executeBatch(List.of(first)),
+                "El fallo de persistencia debería informarse al llamador");
+        invoker.executeBatch(List.of(retry));
+
+        // Assert
+        assertEquals(1100.0, account.getBalance(), 0.001, "El reintento del lote no debería volver a aplicar el depósito");
+        assertFalse(retry.isExecuted(), "El reintento debería recibir el resultado del comando ya ejecutado");
+    }
+
+    @Test
+    public void testFalsePositiveRateStaysNearTarget() {
+        // Arrange
+        IdempotencyCache cache = new IdempotencyCache(10_000, 0.01, Long.MAX_VALUE, 10_000, () -> now);
+
+        // Act
+        for (int i = 0; i < 10_000; i++) {
+            assertNull(cache.reserve("clave-" + i), "Cada clave nueva debería reservarse");
+        }
+
+        // Assert
+        assertEquals(10_000, cache.getLookups(), "Cada reserva debería contarse");
+        assertTrue(cache.getObservedFalsePositiveRate() < 0.03,
+                "La tasa observada debería estar cerca del objetivo: " + cache.getObservedFalsePositiveRate());
+        assertTrue(cache.getExpectedFalsePositiveRate() < 0.02,
+                "La tasa teórica con las claves insertadas debería estar cerca del objetivo");
+    }
+
+    @Test
+    public void testBloomFilterHasNoFalseNegatives() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+
+        // Act
+        for (int i = 0; i < 1_000; i++) {
+            filter.add("k" + i);
+        }
+
+        // Assert
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(filter.mightContain("k" + i), "Una clave insertada siempre debería reportarse");
+        }
+        assertEquals(7, filter.getHashCount(), "Para 1% de falsos positivos deberían usarse 7 funciones hash");
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.unit.Command;
+
+import com.example.Command.model.AccountLocking;
+import com.example.Command.model.TransferCommand;
+import com.example.Command.model.WithdrawCommand;
+import com.example.Observer.model.ConcreteSubject;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para la ejecución optimista con versión de WithdrawCommand y TransferCommand
+ * Prueba que la verificación de fondos usa el saldo actual y no el capturado al construir el comando
+ */
+public class OptimisticExecutionUnitTest {
+
+    @Test
+    public void testWithdrawRejectsOverdraftAfterBalanceDropped() {
+        // Arrange - el comando se crea con saldo suficiente que luego se consume
+        ConcreteSubject account = new ConcreteSubject("OPT001", 1000.0, "Ahorros");
+        WithdrawCommand late = new WithdrawCommand(account, 500.0);
+        new WithdrawCommand(account, 900.0).execute();
+
+        // Act
+        late.execute();
+
+        // Assert
+        assertFalse(late.wasSuccessful(), "El retiro debería fallar con el saldo actual");
+        assertEquals(100.0, account.getBalance(), 0.001, "El saldo no debería quedar en sobregiro");
+    }
+
+    @Test
+    public void testWithdrawAcceptsFundsDepositedAfterCreation() {
+        // Arrange - el comando se crea sin fondos que llegan después
+        ConcreteSubject account = new ConcreteSubject("OPT002", 0.0, "Ahorros");
+        WithdrawCommand withdraw = new WithdrawCommand(account, 100.0);
+        account.deposit(500.0);
+
+        // Act
+        withdraw.execute();
+
+        // Assert
+        assertTrue(withdraw.wasSuccessful(), "El retiro debería aceptarse con el saldo actual");
+        assertEquals(400.0, account.getBalance(), 0.001, "El saldo debería reflejar el retiro");
+    }
+
+    @Test
+    public void testTransferUsesCurrentSourceBalance() {
+        // Arrange
+        ConcreteSubject source = new ConcreteSubject("OPT003", 300.0, "Ahorros");
+        ConcreteSubject destination = new ConcreteSubject("OPT004", 0.0, "Corriente");
+        TransferCommand transfer = new TransferCommand(source, destination, 250.0);
+        source.withdraw(100.0);
+
+        // Act
+        transfer.execute();
+
+        // Assert
+        assertFalse(transfer.wasSuccessful(), "La transferencia debería fallar con el saldo actual del origen");
+        assertEquals(200.0, source.getBalance(), 0.001, "El origen no debería cambiar");
+        assertEquals(0.0, destination.getBalance(), 0.001, "El destino no debería recibir dinero");
+    }
+
+    @Test
+    public void testCompareAndSetRejectsStaleVersion() {
+        // Arrange
+        ConcreteSubject account = new ConcreteSubject("OPT005", 100.0, "Ahorros");
+        long staleVersion = account.getVersion();
+        account.deposit(50.0);
+
+        // Act
+        boolean applied = account.compareAndSetBalance(staleVersion, 0);
+
+        // Assert
+        assertFalse(applied, "Un CAS con versión vieja no debería aplicarse");
+        assertEquals(staleVersion + 2, account.getVersion(), "Cada cambio de saldo debería avanzar la versión en dos");
+        assertEquals(15_000, account.getBalanceMinor(), "El saldo debería conservar el depósito");
+    }
+
+    @Test
+    public void testConcurrentWithdrawalsNeverOverdraw() throws InterruptedException {
+        // Arrange - fondos para exactamente 500 retiros de 1.00 entre 2000 intentos
+        ConcreteSubject account = new ConcreteSubject("OPT006", 500.0, "Ahorros");
+        AtomicInteger successes = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < 250; j++) {
+                    WithdrawCommand withdraw = new WithdrawCommand(account, 1.0);
+                    withdraw.execute();
+                    if (withdraw.wasSuccessful()) {
+                        successes.incrementAndGet();
+                    }
+                }
+            }));
+        }
+
+        // Act
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Assert
+        assertEquals(500, successes.get(), "Deberían aprobarse exactamente los retiros cubiertos por el saldo");
+        assertEquals(0, account.getBalanceMinor(), "El saldo debería terminar exactamente en cero");
+    }
+
+    @Test
+    public void testOptimisticWritersWaitForAccountLock() throws InterruptedException {
+        // Arrange
+        ConcreteSubject account = new ConcreteSubject("OPT007", 100.0, "Ahorros");
+        ConcreteSubject[] locked = AccountLocking.lockInOrder(account, account);
+        Thread writer = new Thread(() -> account.deposit(50.0));
+
+        // Act
+        writer.start();
+        while (writer.getState() != Thread.State.WAITING && writer.isAlive()) {
+            Thread.onSpinWait();
+        }
+        long whileLocked = account.getBalanceMinor();
+        account.withdraw(100.0);
+        long afterOwnWrite = account.getBalanceMinor();
+        AccountLocking.unlock(locked);
+        writer.join(30_000);
+
+        // Assert
+        assertFalse(writer.isAlive(), "El escritor debería terminar al liberarse el cerrojo");
+        assertEquals(10_000, whileLocked, "Un escritor optimista no debería escribir mientras otro hilo bloquea la cuenta");
+        assertEquals(0, afterOwnWrite, "El dueño del cerrojo debería poder escribir");
+        assertEquals(5_000, account.getBalanceMinor(), "El depósito debería aplicarse tras liberar el cerrojo");
+    }
+}
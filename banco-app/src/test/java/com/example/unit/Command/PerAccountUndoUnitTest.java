@@ -0,0 +1,205 @@
+package com.example.unit.Command;
+
+import com.example.Command.controller.JournalRecovery;
+import com.example.Command.controller.TransactionInvoker;
+import com.example.Command.controller.UndoChain;
+import com.example.Command.model.Command;
+import com.example.Command.model.CommandJournal;
+import com.example.Command.model.DepositCommand;
+import com.example.Command.model.TransferCommand;
+import com.example.Command.model.WithdrawCommand;
+import com.example.Observer.model.ConcreteSubject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para deshacer/rehacer por cuenta en TransactionInvoker
+ * Prueba los índices por cuenta de UndoChain y su interacción con la pila global y el journal
+ */
+public class PerAccountUndoUnitTest {
+
+    @TempDir
+    Path journalDir;
+
+    private ConcreteSubject accountA;
+    private ConcreteSubject accountB;
+    private ConcreteSubject accountC;
+
+    @BeforeEach
+    public void setUp() {
+        accountA = new ConcreteSubject("PAU-A", 1000.0, "Ahorros");
+        accountB = new ConcreteSubject("PAU-B", 1000.0, "Corriente");
+        accountC = new ConcreteSubject("PAU-C", 1000.0, "Ahorros");
+    }
+
+    @Test
+    public void testUndoLastForAccountSkipsNewerCommandsOfOtherAccounts() {
+        // Arrange
+        TransactionInvoker invoker = new TransactionInvoker();
+        invoker.executeCommand(new DepositCommand(accountA, 100.0));
+        invoker.executeCommand(new DepositCommand(accountB, 200.0));
+        invoker.executeCommand(new DepositCommand(accountC, 300.0));
+
+        // Act
+        boolean undone = invoker.undoLast("PAU-A");
+
+        // Assert
+        assertTrue(undone, "Debería deshacerse el depósito de la cuenta A");
+        assertEquals(1000.0, accountA.getBalance(), 0.001, "La cuenta A debería volver a su saldo inicial");
+        assertEquals(1200.0, accountB.getBalance(), 0.001, "La cuenta B no debería cambiar");
+        assertEquals(1300.0, accountC.getBalance(), 0.001, "La cuenta C no debería cambiar");
+        assertEquals(2, invoker.getUndoableCommandsCount(), "La pila global debería perder solo ese comando");
+        assertEquals(0, invoker.getUndoableCommandsCount("PAU-A"), "La cuenta A no debería tener más comandos");
+        assertEquals(1, invoker.getRedoableCommandsCount("PAU-A"), "El comando debería poder rehacerse por cuenta");
+    }
+
+    @Test
+    public void testGlobalUndoStillFollowsGlobalOrder() {
+        // Arrange
+        TransactionInvoker invoker = new TransactionInvoker();
+        invoker.executeCommand(new DepositCommand(accountA, 100.0));
+        invoker.executeCommand(new DepositCommand(accountB, 200.0));
+        invoker.executeCommand(new DepositCommand(accountC, 300.0));
+        invoker.undoLast("PAU-B");
+
+        // Act
+        invoker.undoLastCommand();
+        invoker.undoLastCommand();
+
+        // Assert
+        assertEquals(1000.0, accountC.getBalance(), 0.001, "Primero debería deshacerse el depósito en C");
+        assertEquals(1000.0, accountA.getBalance(), 0.001, "Después debería deshacerse el depósito en A");
+        assertEquals(0, invoker.getUndoableCommandsCount(), "No deberían quedar comandos por deshacer");
+    }
+
+    @Test
+    public void testTransferIsIndexedUnderBothAccounts() {
+        // Arrange
+        TransactionInvoker invoker = new TransactionInvoker();
+        invoker.executeCommand(new DepositCommand(accountC, 10.0));
+        invoker.executeCommand(new TransferCommand(accountA, accountB, 250.0));
+
+        // Act - la transferencia es lo último que tocó a B y también a A
+        boolean undone = invoker.undoLast("PAU-B");
+
+        // Assert
+        assertTrue(undone, "La transferencia debería deshacerse desde la cuenta B");
+        assertEquals(1000.0, accountA.getBalance(), 0.001, "La transferencia debería revertirse en A");
+        assertEquals(1000.0, accountB.getBalance(), 0.001, "La transferencia debería revertirse en B");
+        assertEquals(0, invoker.getUndoableCommandsCount("PAU-A"), "A no debería tener comandos por deshacer");
+        assertEquals(0, invoker.getUndoableCommandsCount("PAU-B"), "B no debería tener comandos por deshacer");
+
+        // Act - rehacer por la otra cuenta de la transferencia
+        assertTrue(invoker.redoLast("PAU-A"), "La transferencia debería poder rehacerse desde la cuenta A");
+        assertEquals(750.0, accountA.getBalance(), 0.001, "La transferencia debería volver a aplicarse");
+        assertEquals(1250.0, accountB.getBalance(), 0.001, "El destino debería recibir de nuevo el monto");
+    }
+
+    @Test
+    public void testUndoLastRefusesCommandWithLaterCommandsOnOtherAccount() {
+        // Arrange - el retiro de B gasta el dinero que llegó con la transferencia
+        TransactionInvoker invoker = new TransactionInvoker();
+        invoker.executeCommand(new TransferCommand(accountA, accountB, 250.0));
+        invoker.executeCommand(new WithdrawCommand(accountB, 1250.0));
+
+        // Act
+        boolean undone = invoker.undoLast("PAU-A");
+
+        // Assert
+        assertFalse(undone, "La transferencia no debería deshacerse con comandos posteriores en B");
+        assertEquals(750.0, accountA.getBalance(), 0.001, "El origen no debería recibir dinero");
+        assertEquals(0.0, accountB.getBalance(), 0.001, "El destino no debería cambiar");
+        assertEquals(2, invoker.getUndoableCommandsCount(), "Ambos comandos deberían seguir en la pila de deshacer");
+
+        // Act - deshaciendo antes el retiro la transferencia ya puede deshacerse
+        assertTrue(invoker.undoLast("PAU-B"), "El retiro debería deshacerse");
+        assertTrue(invoker.undoLast("PAU-A"), "La transferencia debería deshacerse después");
+        assertEquals(1000.0, accountA.getBalance(), 0.001, "El origen debería volver a su saldo inicial");
+        assertEquals(1000.0, accountB.getBalance(), 0.001, "El destino debería volver a su saldo inicial");
+    }
+
+    @Test
+    public void testTransferUndoDoesNotCreateMoneyWhenDestinationSpentIt() {
+        // Arrange - el destino gasta el dinero fuera del invocador
+        TransactionInvoker invoker = new TransactionInvoker();
+        TransferCommand transfer = new TransferCommand(accountA, accountB, 250.0);
+        invoker.executeCommand(transfer);
+        accountB.withdraw(1250.0);
+
+        // Act
+        invoker.undoLastCommand();
+
+        // Assert
+        assertEquals(750.0, accountA.getBalance(), 0.001, "El origen no debería recibir un reembolso sin respaldo");
+        assertEquals(0.0, accountB.getBalance(), 0.001, "El destino no debería quedar en sobregiro");
+        assertTrue(transfer.wasSuccessful(), "La transferencia debería seguir aplicada");
+        assertEquals(1, invoker.getUndoableCommandsCount(), "La transferencia debería seguir en la pila de deshacer");
+        assertEquals(0, invoker.getRedoableCommandsCount(), "Nada debería pasar a la pila de rehacer");
+    }
+
+    @Test
+    public void testUndoLastForUnknownAccount() {
+        // Arrange
+        TransactionInvoker invoker = new TransactionInvoker();
+        invoker.executeCommand(new DepositCommand(accountA, 100.0));
+
+        // Act & Assert
+        assertFalse(invoker.undoLast("NO-EXISTE"), "Sin comandos para la cuenta no debería deshacerse nada");
+        assertEquals(1100.0, accountA.getBalance(), 0.001, "Las demás cuentas no deberían cambiar");
+    }
+
+    @Test
+    public void testUndoChainEvictsOldestAndCleansIndexes() {
+        // Arrange
+        UndoChain chain = new UndoChain(2);
+        Command first = new DepositCommand(accountA, 1.0);
+        Command second = new DepositCommand(accountB, 1.0);
+        Command third = new DepositCommand(accountB, 1.0);
+
+        // Act
+        chain.add(first);
+        chain.add(second);
+        chain.add(third);
+
+        // Assert
+        assertEquals(1, chain.getEvictedCount(), "Debería descartarse el comando más antiguo");
+        assertEquals(0, chain.size("PAU-A"), "La cuenta del comando descartado debería salir del índice");
+        assertEquals(List.of(second, third), chain.toList(), "El orden global debería conservarse");
+        assertSame(third, chain.removeLast("PAU-B"), "El último de B debería ser el más reciente");
+        assertSame(second, chain.peekLast(), "La cima global debería actualizarse");
+    }
+
+    @Test
+    public void testPerAccountUndoIsRecoveredFromJournal() throws Exception {
+        // Arrange
+        TransactionInvoker invoker = new TransactionInvoker();
+        try (CommandJournal journal = new CommandJournal(journalDir)) {
+            invoker.setJournal(journal);
+            invoker.executeCommand(new DepositCommand(accountA, 100.0));
+            invoker.executeCommand(new DepositCommand(accountB, 200.0));
+            invoker.undoLast("PAU-A");
+        }
+
+        // Act
+        Map<String, ConcreteSubject> recovered = new HashMap<>();
+        recovered.put("PAU-A", new ConcreteSubject("PAU-A", 1000.0, "Ahorros"));
+        recovered.put("PAU-B", new ConcreteSubject("PAU-B", 1000.0, "Corriente"));
+        TransactionInvoker recoveredInvoker = new TransactionInvoker();
+        try (CommandJournal journal = new CommandJournal(journalDir)) {
+            JournalRecovery.recover(journal, recovered, recoveredInvoker);
+        }
+
+        // Assert
+        assertEquals(1000.0, recovered.get("PAU-A").getBalance(), 0.001, "El deshacer por cuenta debería reproducirse");
+        assertEquals(1200.0, recovered.get("PAU-B").getBalance(), 0.001, "La otra cuenta debería conservar su depósito");
+        assertEquals(1, recoveredInvoker.getRedoableCommandsCount("PAU-A"), "La pila de rehacer debería reconstruirse");
+    }
+}
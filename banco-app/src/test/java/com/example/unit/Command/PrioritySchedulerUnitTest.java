@@ -0,0 +1,261 @@
+package com.example.unit.Command;
+
+import com.example.Command.controller.PriorityScheduler;
+import com.example.Command.controller.TransactionInvoker;
+import com.example.Command.model.Command;
+import com.example.Command.model.CommandPriority;
+import com.example.Command.model.CommandResult;
+import com.example.Command.model.TransferCommand;
+import com.example.Observer.model.ConcreteSubject;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para PriorityScheduler
+ * Prueba el reparto ponderado entre prioridades y que el orden por cuenta se conserve
+ */
+public class PrioritySchedulerUnitTest {
+
+    @Test
+    public void testPerAccountOrderIsPreservedAcrossPriorities() throws Exception {
+        // Arrange - prioridades alternadas sobre pocas cuentas con varios trabajadores
+        List<ConcreteSubject> accounts = new ArrayList<>();
+        List<List<Integer>> observed = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            accounts.add(new ConcreteSubject("PRI" + i, 0.0, "Ahorros"));
+            observed.add(Collections.synchronizedList(new ArrayList<>()));
+        }
+        PriorityScheduler scheduler = new PriorityScheduler(new TransactionInvoker(true), 4);
+        scheduler.start();
+        List<CompletableFuture<CommandResult>> results = new ArrayList<>();
+
+        // Act
+        try {
+            for (int i = 0; i < 2_000; i++) {
+                int account = i % accounts.size();
+                CommandPriority priority = CommandPriority.values()[i % 3];
+                results.add(scheduler.submit(new RecordingCommand(accounts.get(account), observed.get(account), i), priority));
+            }
+            CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+        } finally {
+            scheduler.close();
+        }
+
+        // Assert
+        for (List<Integer> sequence : observed) {
+            assertEquals(500, sequence.size(), "Cada cuenta debería recibir todos sus comandos");
+            for (int i = 1; i < sequence.size(); i++) {
+                assertTrue(sequence.get(i - 1) < sequence.get(i), "Los comandos de una cuenta deberían ejecutarse en orden de envío");
+            }
+        }
+        assertEquals(0, scheduler.getPendingCount(), "No deberían quedar comandos pendientes");
+    }
+
+    @Test
+    public void testHighPriorityGetsMoreTurns() throws Exception {
+        // Arrange - el único trabajador queda ocupado mientras se encolan ambos tipos
+        CountDownLatch release = new CountDownLatch(1);
+        List<CommandPriority> order = Collections.synchronizedList(new ArrayList<>());
+        PriorityScheduler scheduler = new PriorityScheduler(new TransactionInvoker(), 1, 1, 1, 4);
+        scheduler.start();
+        List<CompletableFuture<CommandResult>> results = new ArrayList<>();
+
+        // Act
+        try {
+            BlockingCommand blocker = new BlockingCommand(release);
+            results.add(scheduler.submit(blocker, CommandPriority.LOW));
+            blocker.started.await(30, TimeUnit.SECONDS);
+            for (int i = 0; i < 20; i++) {
+                ConcreteSubject low = new ConcreteSubject("LOTE" + i, 0.0, "Ahorros");
+                ConcreteSubject high = new ConcreteSubject("CLIENTE" + i, 0.0, "Ahorros");
+                results.add(scheduler.submit(new PriorityRecordingCommand(low, order, CommandPriority.LOW), CommandPriority.LOW));
+                results.add(scheduler.submit(new PriorityRecordingCommand(high, order, CommandPriority.HIGH), CommandPriority.HIGH));
+            }
+            release.countDown();
+            CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            scheduler.close();
+        }
+
+        // Assert - con pesos 4 a 1 los primeros diez turnos deberían repartirse 8 y 2
+        long highInFirstTen = order.subList(0, 10).stream().filter(p -> p == CommandPriority.HIGH).count();
+        assertEquals(8, highInFirstTen, "La prioridad alta debería recibir cuatro turnos por cada uno de la baja");
+        assertTrue(order.subList(0, 10).contains(CommandPriority.LOW), "La prioridad baja no debería quedar sin servicio");
+        assertEquals(20, scheduler.getCompletedCount(CommandPriority.HIGH), "Todos los comandos de alta prioridad deberían completarse");
+        assertEquals(21, scheduler.getCompletedCount(CommandPriority.LOW), "Todos los comandos de baja prioridad deberían completarse");
+    }
+
+    @Test
+    public void testConcurrentTransfersConserveMoney() throws Exception {
+        // Arrange
+        List<ConcreteSubject> accounts = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            accounts.add(new ConcreteSubject("PRT" + i, 1000.0, "Ahorros"));
+        }
+        PriorityScheduler scheduler = new PriorityScheduler(new TransactionInvoker(true), 4);
+        scheduler.start();
+        List<CompletableFuture<CommandResult>> results = new ArrayList<>();
+
+        // Act
+        try {
+            for (int i = 0; i < 1_000; i++) {
+                ConcreteSubject source = accounts.get(i % 8);
+                ConcreteSubject destination = accounts.get((i * 3 + 1) % 8);
+                if (source != destination) {
+                    results.add(scheduler.submit(new TransferCommand(source, destination, 5.0),
+                            i % 2 == 0 ? CommandPriority.HIGH : CommandPriority.LOW));
+                }
+            }
+            CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+        } finally {
+            scheduler.close();
+        }
+
+        // Assert
+        long total = accounts.stream().mapToLong(ConcreteSubject::getBalanceMinor).sum();
+        assertEquals(800_000, total, "Las transferencias no deberían crear ni perder dinero");
+        assertTrue(scheduler.getAverageLatencyNanos(CommandPriority.HIGH) > 0, "Debería registrarse la latencia por prioridad");
+    }
+
+    @Test
+    public void testSubmitBeforeStartIsRejected() {
+        // Arrange
+        PriorityScheduler scheduler = new PriorityScheduler(new TransactionInvoker(), 1);
+        ConcreteSubject account = new ConcreteSubject("PRI-X", 0.0, "Ahorros");
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class,
+                () -> scheduler.submit(new RecordingCommand(account, new ArrayList<>(), 0)),
+                "No debería aceptar comandos antes de iniciar");
+    }
+
+    @Test
+    public void testCloseFailsCommandsLeftBehindByDeadWorker() throws Exception {
+        // Arrange - el único trabajador muere con un Error y deja el siguiente comando en la fila
+        PriorityScheduler scheduler = new PriorityScheduler(new TransactionInvoker(), 1);
+        ConcreteSubject account = new ConcreteSubject("PRI-E", 0.0, "Ahorros");
+        scheduler.start();
+        scheduler.submit(new RecordingCommand(account, new ArrayList<>(), 0) {
+            @Override
+            public void execute() {
+                throw new Error("fallo simulado del trabajador");
+            }
+        });
+        CompletableFuture<CommandResult> stranded = scheduler.submit(new RecordingCommand(account, new ArrayList<>(), 1));
+
+        // Act
+        scheduler.close();
+
+        // Assert
+        ExecutionException error = assertThrows(ExecutionException.class, () -> stranded.get(30, TimeUnit.SECONDS),
+                "El comando abandonado debería completarse con error al cerrar");
+        assertTrue(error.getCause() instanceof IllegalStateException, "La causa debería indicar el cierre");
+        assertEquals(0, scheduler.getPendingCount(), "No deberían quedar comandos pendientes");
+        assertThrows(IllegalStateException.class,
+                () -> scheduler.submit(new RecordingCommand(account, new ArrayList<>(), 2)),
+                "No debería aceptar comandos después de cerrar");
+    }
+
+    @Test
+    public void testInvalidWeightsAreRejected() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> new PriorityScheduler(new TransactionInvoker(), 1, 0, 1, 1),
+                "Los pesos deberían ser positivos");
+    }
+
+    private static class RecordingCommand implements Command {
+        private final ConcreteSubject account;
+        private final List<Integer> observed;
+        private final int sequence;
+
+        RecordingCommand(ConcreteSubject account, List<Integer> observed, int sequence) {
+            this.account = account;
+            this.observed = observed;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void execute() {
+            observed.add(sequence);
+        }
+
+        @Override
+        public void undo() {
+        }
+
+        @Override
+        public String getCommandName() {
+            return "Registro";
+        }
+
+        @Override
+        public String getCommandDetails() {
+            return "Registro " + sequence + " en " + account.getAccountNumber();
+        }
+
+        @Override
+        public List<ConcreteSubject> getAffectedAccounts() {
+            return List.of(account);
+        }
+    }
+
+    private static final class PriorityRecordingCommand extends RecordingCommand {
+        private final List<CommandPriority> order;
+        private final CommandPriority priority;
+
+        PriorityRecordingCommand(ConcreteSubject account, List<CommandPriority> order, CommandPriority priority) {
+            super(account, new ArrayList<>(), 0);
+            this.order = order;
+            this.priority = priority;
+        }
+
+        @Override
+        public void execute() {
+            order.add(priority);
+        }
+    }
+
+    private static final class BlockingCommand implements Command {
+        final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release;
+
+        BlockingCommand(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void execute() {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void undo() {
+        }
+
+        @Override
+        public String getCommandName() {
+            return "Bloqueo";
+        }
+
+        @Override
+        public String getCommandDetails() {
+            return "Comando de prueba que ocupa al trabajador";
+        }
+    }
+}
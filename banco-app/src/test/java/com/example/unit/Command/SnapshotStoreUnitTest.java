@@ -0,0 +1,196 @@
+package com.example.unit.Command;
+
+import com.example.Command.controller.JournalRecovery;
+import com.example.Command.controller.TransactionInvoker;
+import com.example.Command.model.CommandJournal;
+import com.example.Command.model.DepositCommand;
+import com.example.Command.model.InvokerSnapshot;
+import com.example.Command.model.SnapshotStore;
+import com.example.Command.model.TransferCommand;
+import com.example.Command.model.WithdrawCommand;
+import com.example.Observer.model.ConcreteSubject;
+import com.example.Observer.model.Observer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para SnapshotStore
+ * Prueba las instantáneas de saldos y pilas, y la compactación del journal
+ */
+public class SnapshotStoreUnitTest {
+
+    @TempDir
+    Path dir;
+
+    private Map<String, ConcreteSubject> newAccounts() {
+        Map<String, ConcreteSubject> accounts = new HashMap<>();
+        accounts.put("SNP001", new ConcreteSubject("SNP001", 1000.0, "Ahorros"));
+        accounts.put("SNP002", new ConcreteSubject("SNP002", 500.0, "Corriente"));
+        return accounts;
+    }
+
+    @Test
+    public void testSnapshotRoundTripRestoresBalancesAndStacks() throws Exception {
+        // Arrange
+        Map<String, ConcreteSubject> accounts = newAccounts();
+        WithdrawCommand failedWithdraw = new WithdrawCommand(accounts.get("SNP002"), 9000.0);
+        failedWithdraw.execute();
+        DepositCommand undone = new DepositCommand(accounts.get("SNP001"), 50.0);
+        Path file = dir.resolve("invoker.snapshot");
+
+        // Act
+        SnapshotStore.write(file, 42, accounts.values(), List.of(failedWithdraw), List.of(undone));
+        Map<String, ConcreteSubject> restored = new HashMap<>();
+        restored.put("SNP001", new ConcreteSubject("SNP001", 0.0, "Ahorros"));
+        InvokerSnapshot snapshot = SnapshotStore.read(file, restored);
+
+        // Assert
+        assertEquals(42, snapshot.getJournalSequence(), "La secuencia del journal debería conservarse");
+        assertEquals(1000.0, restored.get("SNP001").getBalance(), 0.001, "El saldo existente debería restaurarse");
+        assertNotNull(restored.get("SNP002"), "Las cuentas faltantes deberían crearse");
+        assertEquals("Corriente", restored.get("SNP002").getAccountType(), "El tipo de cuenta debería restaurarse");
+        WithdrawCommand restoredWithdraw = (WithdrawCommand) snapshot.getUndoCommands().get(0);
+        assertTrue(restoredWithdraw.isExecuted(), "El estado ejecutado debería restaurarse");
+        assertFalse(restoredWithdraw.wasSuccessful(), "El estado fallido debería restaurarse");
+        assertSame(restored.get("SNP002"), restoredWithdraw.getAccount(), "El comando debería apuntar a la cuenta restaurada");
+        assertFalse(((DepositCommand) snapshot.getRedoCommands().get(0)).isExecuted(),
+            "El comando deshecho debería seguir pendiente");
+    }
+
+    @Test
+    public void testPeriodicSnapshotTruncatesJournalAndBoundsRecovery() throws Exception {
+        // Arrange
+        Map<String, ConcreteSubject> accounts = newAccounts();
+        Path snapshotFile = dir.resolve("invoker.snapshot");
+        Path journalDir = dir.resolve("journal");
+        TransactionInvoker invoker = new TransactionInvoker();
+        int segmentsAfterSnapshots;
+        try (CommandJournal journal = new CommandJournal(journalDir, 4096, 16)) {
+            invoker.setJournal(journal);
+            invoker.setSnapshotPolicy(snapshotFile, accounts.values(), 100);
+
+            // Act
+            for (int i = 0; i < 450; i++) {
+                invoker.executeCommand(new DepositCommand(accounts.get("SNP001"), 2.0));
+                invoker.executeCommand(new TransferCommand(accounts.get("SNP001"), accounts.get("SNP002"), 1.0));
+            }
+            invoker.undoLastCommand();
+            segmentsAfterSnapshots = journal.getSegmentCount();
+        }
+
+        Map<String, ConcreteSubject> recovered = newAccounts();
+        TransactionInvoker recoveredInvoker = new TransactionInvoker();
+        long replayed;
+        try (CommandJournal journal = new CommandJournal(journalDir, 4096, 16)) {
+            replayed = JournalRecovery.recover(journal, snapshotFile, recovered, recoveredInvoker);
+        }
+
+        // Assert
+        assertTrue(segmentsAfterSnapshots <= 2, "Los segmentos anteriores a la instantánea deberían eliminarse");
+        assertTrue(replayed < 100, "Solo debería reproducirse la cola posterior a la última instantánea");
+        assertEquals(accounts.get("SNP001").getBalance(), recovered.get("SNP001").getBalance(), 0.001,
+            "El saldo de la primera cuenta debería recuperarse");
+        assertEquals(accounts.get("SNP002").getBalance(), recovered.get("SNP002").getBalance(), 0.001,
+            "El saldo de la segunda cuenta debería recuperarse");
+        assertEquals(invoker.getUndoableCommandsCount(), recoveredInvoker.getUndoableCommandsCount(),
+            "La pila de deshacer debería recuperarse");
+        assertEquals(1, recoveredInvoker.getRedoableCommandsCount(), "La pila de rehacer debería recuperarse");
+    }
+
+    @Test
+    public void testRecoveryDoesNotOverwriteSnapshot() throws Exception {
+        // Arrange - instantánea a los 10 comandos y una cola de 25 comandos en el journal
+        Map<String, ConcreteSubject> accounts = newAccounts();
+        Path snapshotFile = dir.resolve("invoker.snapshot");
+        Path journalDir = dir.resolve("journal");
+        TransactionInvoker invoker = new TransactionInvoker();
+        try (CommandJournal journal = new CommandJournal(journalDir)) {
+            invoker.setJournal(journal);
+            invoker.setSnapshotPolicy(snapshotFile, accounts.values(), 10);
+            for (int i = 0; i < 35; i++) {
+                invoker.executeCommand(new DepositCommand(accounts.get("SNP001"), 1.0));
+            }
+        }
+        long snapshotSequence = SnapshotStore.read(snapshotFile, newAccounts()).getJournalSequence();
+
+        // Act - la recuperación usa un invocador con la misma política de instantáneas
+        Map<String, ConcreteSubject> recovered = newAccounts();
+        TransactionInvoker recoveredInvoker = new TransactionInvoker();
+        recoveredInvoker.setSnapshotPolicy(snapshotFile, recovered.values(), 2);
+        try (CommandJournal journal = new CommandJournal(journalDir)) {
+            JournalRecovery.recover(journal, snapshotFile, recovered, recoveredInvoker);
+        }
+        Map<String, ConcreteSubject> recoveredAgain = newAccounts();
+        try (CommandJournal journal = new CommandJournal(journalDir)) {
+            JournalRecovery.recover(journal, snapshotFile, recoveredAgain, new TransactionInvoker());
+        }
+
+        // Assert
+        assertEquals(snapshotSequence, SnapshotStore.read(snapshotFile, newAccounts()).getJournalSequence(),
+            "La recuperación no debería reescribir la instantánea");
+        assertEquals(1035.0, recovered.get("SNP001").getBalance(), 0.001, "La primera recuperación debería ser completa");
+        assertEquals(1035.0, recoveredAgain.get("SNP001").getBalance(), 0.001,
+            "Una segunda recuperación debería partir de la misma instantánea");
+    }
+
+    @Test
+    public void testSnapshotWaitsForInFlightExecutionWithoutStripes() throws Exception {
+        // Arrange - invocador no concurrente usado desde dos hilos; un observador detiene el depósito a mitad
+        Map<String, ConcreteSubject> accounts = newAccounts();
+        TransactionInvoker invoker = new TransactionInvoker();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        accounts.get("SNP001").attach(new Observer() {
+            @Override
+            public void update(String message) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public String getObserverType() {
+                return "ObservadorLento";
+            }
+        });
+        Thread executor = new Thread(() -> invoker.executeCommand(new DepositCommand(accounts.get("SNP001"), 100.0)));
+        executor.start();
+        started.await();
+        Path file = dir.resolve("en-curso.snapshot");
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        Thread snapshotter = new Thread(() -> {
+            try {
+                invoker.takeSnapshot(file, accounts.values());
+            } catch (Exception e) {
+                failure.set(e);
+            }
+        });
+
+        // Act
+        snapshotter.start();
+        snapshotter.join(200);
+        boolean waitedForExecution = snapshotter.isAlive();
+        release.countDown();
+        executor.join(30_000);
+        snapshotter.join(30_000);
+        InvokerSnapshot snapshot = SnapshotStore.read(file, newAccounts());
+
+        // Assert
+        assertTrue(waitedForExecution, "La instantánea debería esperar a que termine la ejecución en curso");
+        assertFalse(snapshotter.isAlive(), "La instantánea debería completarse al terminar el comando");
+        assertNull(failure.get(), "La instantánea no debería fallar");
+        assertEquals(1, snapshot.getUndoCommands().size(), "La instantánea debería incluir el comando con su saldo");
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.unit.Command;
+
+import com.example.Command.controller.StandingOrderScheduler;
+import com.example.Command.controller.TimingWheel;
+import com.example.Command.controller.TransactionInvoker;
+import com.example.Command.model.DepositCommand;
+import com.example.Command.model.Recurrence;
+import com.example.Command.model.ScheduleLog;
+import com.example.Command.model.ScheduledOrder;
+import com.example.Command.model.TransferCommand;
+import com.example.Observer.model.ConcreteSubject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para StandingOrderScheduler y TimingWheel
+ * Prueba el disparo de órdenes futuras y recurrentes, la cancelación y la recuperación tras un reinicio
+ */
+public class StandingOrderSchedulerUnitTest {
+
+    @TempDir
+    Path scheduleDir;
+
+    private Map<String, ConcreteSubject> accounts;
+    private TransactionInvoker invoker;
+    private long now;
+
+    @BeforeEach
+    public void setUp() {
+        accounts = new HashMap<>();
+        accounts.put("PRG001", new ConcreteSubject("PRG001", 1000.0, "Ahorros"));
+        accounts.put("PRG002", new ConcreteSubject("PRG002", 0.0, "Corriente"));
+        invoker = new TransactionInvoker();
+        now = 1_000_000;
+    }
+
+    private StandingOrderScheduler newScheduler(ScheduleLog log) {
+        return new StandingOrderScheduler(invoker, accounts, log, 1_000, 64, () -> now);
+    }
+
+    @Test
+    public void testWheelFiresEveryTimerAtItsTick() {
+        // Arrange - rueda pequeña (4 ranuras x 3 niveles) para forzar cascadas y vueltas completas
+        TimingWheel<Long> wheel = new TimingWheel<>(1, 0, 2, 3);
+        Random random = new Random(3);
+        List<TimingWheel.Timer<Long>> toCancel = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            long deadline = random.nextInt(500);
+            TimingWheel.Timer<Long> timer = wheel.schedule(deadline, deadline);
+            if (i % 10 == 0) {
+                toCancel.add(timer);
+            }
+        }
+        toCancel.forEach(wheel::cancel);
+        List<Long> late = new ArrayList<>();
+        int[] fired = new int[1];
+
+        // Act
+        for (long tick = 0; tick <= 500; tick++) {
+            long current = tick;
+            wheel.advance(tick, deadline -> {
+                fired[0]++;
+                if (deadline != current) {
+                    late.add(deadline);
+                }
+            });
+        }
+
+        // Assert
+        assertEquals(1_800, fired[0], "Deberían dispararse todas las entradas no canceladas");
+        assertTrue(late.isEmpty(), "Cada entrada debería dispararse exactamente en su tick: " + late);
+        assertEquals(0, wheel.size(), "La rueda debería quedar vacía");
+        assertFalse(toCancel.get(0).isPending(), "Una entrada cancelada no debería seguir pendiente");
+    }
+
+    @Test
+    public void testMonthlyRecurrenceKeepsAnchorDay() {
+        // Arrange
+        long anchor = Instant.parse("2026-01-31T09:00:00Z").toEpochMilli();
+
+        // Act & Assert
+        assertEquals(Instant.parse("2026-02-28T09:00:00Z").toEpochMilli(), Recurrence.MONTHLY.dueAt(anchor, 1),
+                "Febrero no tiene día 31");
+        assertEquals(Instant.parse("2026-03-31T09:00:00Z").toEpochMilli(), Recurrence.MONTHLY.dueAt(anchor, 2),
+                "Marzo debería volver al día 31");
+    }
+
+    @Test
+    public void testFutureDatedPaymentFiresWhenDue() {
+        // Arrange
+        StandingOrderScheduler scheduler = newScheduler(null);
+        scheduler.schedule(new DepositCommand(accounts.get("PRG001"), 100.0), now + 5_000);
+
+        // Act
+        now += 4_000;
+        int early = scheduler.runDue();
+        now += 1_000;
+        int onTime = scheduler.runDue();
+
+        // Assert
+        assertEquals(0, early, "No debería dispararse antes de la fecha");
+        assertEquals(1, onTime, "Debería dispararse al vencer");
+        assertEquals(1100.0, accounts.get("PRG001").getBalance(), 0.001, "El depósito debería aplicarse");
+        assertEquals(0, scheduler.getPendingCount(), "Una orden única no debería reprogramarse");
+    }
+
+    @Test
+    public void testStandingOrderRepeatsUntilLimit() {
+        // Arrange - transferencia diaria con tres ocurrencias
+        StandingOrderScheduler scheduler = newScheduler(null);
+        scheduler.scheduleRecurring(new TransferCommand(accounts.get("PRG001"), accounts.get("PRG002"), 50.0),
+                now, Recurrence.DAILY, 3);
+
+        // Act
+        int total = 0;
+        for (int day = 0; day < 5; day++) {
+            total += scheduler.runDue();
+            now += 24L * 60 * 60 * 1_000;
+        }
+
+        // Assert
+        assertEquals(3, total, "La orden debería ejecutarse tres veces");
+        assertEquals(150.0, accounts.get("PRG002").getBalance(), 0.001, "El destino debería recibir tres transferencias");
+        assertEquals(3, invoker.getCommandHistory().size(), "Cada ocurrencia debería quedar en el historial");
+    }
+
+    @Test
+    public void testCancelledOrderDoesNotFire() {
+        // Arrange
+        StandingOrderScheduler scheduler = newScheduler(null);
+        long id = scheduler.schedule(new DepositCommand(accounts.get("PRG001"), 100.0), now + 1_000);
+
+        // Act
+        boolean cancelled = scheduler.cancel(id);
+        now += 2_000;
+        int fired = scheduler.runDue();
+
+        // Assert
+        assertTrue(cancelled, "La orden pendiente debería cancelarse");
+        assertFalse(scheduler.cancel(id), "Una orden cancelada no debería cancelarse dos veces");
+        assertEquals(0, fired, "La orden cancelada no debería dispararse");
+        assertEquals(1000.0, accounts.get("PRG001").getBalance(), 0.001, "El saldo no debería cambiar");
+    }
+
+    @Test
+    public void testScheduleSurvivesRestart() throws Exception {
+        // Arrange
+        Path file = scheduleDir.resolve("ordenes.log");
+        StandingOrderScheduler first = newScheduler(new ScheduleLog(file));
+        long monthly = first.scheduleRecurring(new DepositCommand(accounts.get("PRG002"), 10.0), now, Recurrence.MONTHLY, 0);
+        long cancelled = first.schedule(new DepositCommand(accounts.get("PRG002"), 99.0), now + 10_000);
+        first.runDue();
+        first.cancel(cancelled);
+        first.close();
+
+        // Act
+        StandingOrderScheduler second = newScheduler(new ScheduleLog(file));
+        ScheduledOrder recovered = second.getOrder(monthly);
+        long another = second.schedule(new DepositCommand(accounts.get("PRG002"), 1.0), now + 1_000);
+        second.close();
+
+        // Assert
+        assertNotNull(recovered, "La orden mensual debería recuperarse");
+        assertEquals(1, recovered.getNextOccurrence(), "La ocurrencia ya disparada no debería repetirse");
+        assertNull(second.getOrder(cancelled), "La orden cancelada no debería recuperarse");
+        assertTrue(another > cancelled, "Los ids no deberían reutilizarse tras el reinicio");
+        assertEquals(10.0, accounts.get("PRG002").getBalance(), 0.001, "Solo la primera ocurrencia debería haberse aplicado");
+    }
+
+    @Test
+    public void testOccurrenceExecutedBeforeCrashIsNotAppliedTwice() throws Exception {
+        // Arrange - la ocurrencia se ejecutó pero la caída impidió registrarla como disparada
+        Path file = scheduleDir.resolve("caida.log");
+        StandingOrderScheduler first = newScheduler(new ScheduleLog(file));
+        long id = first.schedule(new DepositCommand(accounts.get("PRG001"), 250.0), now);
+        invoker.executeCommand(first.getOrder(id).newCommand(accounts));
+        first.close();
+
+        // Act
+        StandingOrderScheduler second = newScheduler(new ScheduleLog(file));
+        int fired = second.runDue();
+        second.close();
+
+        // Assert
+        assertEquals(1, fired, "La ocurrencia pendiente debería volver a entregarse");
+        assertEquals(1250.0, accounts.get("PRG001").getBalance(), 0.001, "La clave de idempotencia debería evitar el doble cargo");
+        assertEquals(0, second.getPendingCount(), "La orden debería quedar completada");
+    }
+
+    @Test
+    public void testOccurrenceAnnouncedBeforeCrashIsNotRepeated() throws Exception {
+        // Arrange - el lote se anunció y se ejecutó, pero el proceso cayó antes de marcarlo: la caché se pierde
+        Path file = scheduleDir.resolve("anunciada.log");
+        StandingOrderScheduler first = newScheduler(new ScheduleLog(file));
+        long id = first.schedule(new DepositCommand(accounts.get("PRG001"), 250.0), now);
+        first.close();
+        try (ScheduleLog log = new ScheduleLog(file)) {
+            log.load(accounts);
+            log.appendFiring(id, 0);
+        }
+        invoker.executeCommand(new DepositCommand(accounts.get("PRG001"), 250.0));
+        invoker = new TransactionInvoker();
+
+        // Act
+        StandingOrderScheduler second = newScheduler(new ScheduleLog(file));
+        int fired = second.runDue();
+        second.close();
+        StandingOrderScheduler third = newScheduler(new ScheduleLog(file));
+        int pendingAfterRestart = third.getPendingCount();
+        third.close();
+
+        // Assert
+        assertEquals(0, fired, "La ocurrencia en duda no debería repetirse");
+        assertEquals(1250.0, accounts.get("PRG001").getBalance(), 0.001, "El depósito no debería aplicarse dos veces");
+        assertEquals(0, pendingAfterRestart, "La orden debería quedar completada también en los arranques siguientes");
+    }
+
+    @Test
+    public void testUnbuildableOrderDoesNotStopOthers() {
+        // Arrange - la cuenta de la primera orden no está entre las cuentas del programador
+        StandingOrderScheduler scheduler = newScheduler(null);
+        ConcreteSubject unknown = new ConcreteSubject("PRG999", 0.0, "Ahorros");
+        long broken = scheduler.scheduleRecurring(new DepositCommand(unknown, 5.0), now, Recurrence.DAILY, 0);
+        scheduler.schedule(new DepositCommand(accounts.get("PRG001"), 100.0), now);
+
+        // Act
+        int fired = scheduler.runDue();
+
+        // Assert
+        assertEquals(2, fired, "Ambas ocurrencias deberían entregarse");
+        assertEquals(1, scheduler.getFailedCount(), "La orden sin cuenta debería contarse como fallida");
+        assertEquals(1100.0, accounts.get("PRG001").getBalance(), 0.001, "La orden válida debería aplicarse");
+        assertEquals(1, scheduler.getOrder(broken).getNextOccurrence(), "La orden fallida debería pasar a la siguiente ocurrencia");
+    }
+
+    @Test
+    public void testOccurrenceFailingAfterExecutionIsNotRetried() {
+        // Arrange - la instantánea posterior al lote falla porque su directorio no existe
+        invoker.setSnapshotPolicy(scheduleDir.resolve("no-existe").resolve("snapshot.bin"), accounts.values(), 1);
+        StandingOrderScheduler scheduler = newScheduler(null);
+        long order = scheduler.scheduleRecurring(new DepositCommand(accounts.get("PRG001"), 100.0), now,
+                Recurrence.DAILY, 0);
+
+        // Act
+        assertThrows(UncheckedIOException.class, scheduler::runDue, "El fallo del lote debería informarse");
+        int retried = scheduler.runDue();
+
+        // Assert
+        assertEquals(0, retried, "La ocurrencia ya ejecutada no debería volver a dispararse");
+        assertEquals(1, scheduler.getOrder(order).getNextOccurrence(), "La orden debería pasar a la siguiente ocurrencia");
+        assertEquals(1100.0, accounts.get("PRG001").getBalance(), 0.001, "El depósito debería aplicarse una sola vez");
+    }
+}
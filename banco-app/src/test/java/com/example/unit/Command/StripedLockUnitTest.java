@@ -0,0 +1,60 @@
+package com.example.unit.Command;
+
+import com.example.Command.controller.StripedLock;
+import com.example.Observer.model.ConcreteSubject;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para StripedLock
+ * Prueba el cálculo de franjas por número de cuenta
+ */
+public class StripedLockUnitTest {
+
+    @Test
+    public void testStripeCountIsRoundedToPowerOfTwo() {
+        // Arrange & Act
+        StripedLock locks = new StripedLock(10);
+
+        // Assert
+        assertEquals(16, locks.getStripeCount(), "El número de franjas debería redondearse a potencia de dos");
+    }
+
+    @Test
+    public void testSameAccountMapsToSameStripe() {
+        // Arrange
+        StripedLock locks = new StripedLock(32);
+
+        // Act & Assert
+        assertEquals(locks.stripeFor("ACC001"), locks.stripeFor(new String("ACC001")),
+            "El mismo número de cuenta debería usar siempre la misma franja");
+    }
+
+    @Test
+    public void testStripesForAreSortedAndUnique() {
+        // Arrange
+        StripedLock locks = new StripedLock(1);
+        ConcreteSubject a = new ConcreteSubject("A001", 100.0, "Ahorros");
+        ConcreteSubject b = new ConcreteSubject("B002", 100.0, "Ahorros");
+
+        // Act
+        int[] stripes = locks.stripesFor(List.of(a, b));
+
+        // Assert - Con una sola franja ambas cuentas comparten el mismo candado
+        assertEquals(1, stripes.length, "Las franjas repetidas deberían eliminarse");
+        assertDoesNotThrow(() -> {
+            locks.lock(stripes);
+            locks.unlock(stripes);
+        }, "Tomar y liberar las franjas no debería lanzar excepciones");
+    }
+
+    @Test
+    public void testInvalidStripeCount() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new StripedLock(0),
+            "Un número de franjas no positivo debería rechazarse");
+    }
+}
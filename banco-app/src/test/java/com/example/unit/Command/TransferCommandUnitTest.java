@@ -2,6 +2,7 @@ package test.java.com.example.unit.Command;
 
 import com.example.Command.model.TransferCommand;
 import com.example.Observer.model.ConcreteSubject;
+import com.example.Observer.model.Money;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
@@ -163,4 +164,19 @@ public class TransferCommandUnitTest {
             "Transferencia a la misma cuenta no debería cambiar el balance");
         assertTrue(transferCommand.isExecuted(), "El comando debería estar marcado como ejecutado");
     }
-}
\ No newline at end of file
+    
+    @Test
+    public void testTransferBetweenCurrenciesIsRejected() {
+        // Arrange
+        ConcreteSubject dollars = new ConcreteSubject("USD001", Money.of(100.0, "USD"), "Ahorros");
+        double initialBalance = fromAccount.getBalance();
+        
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new TransferCommand(fromAccount, dollars, 50.0),
+            "Una transferencia entre monedas distintas debería rechazarse al crearla");
+        assertThrows(IllegalArgumentException.class, () -> new TransferCommand(fromAccount, dollars, Money.of(50.0, "USD")),
+            "Tampoco debería aceptarse con un importe en la moneda del destino");
+        assertEquals(initialBalance, fromAccount.getBalance(), 0.001, "El origen no debería debitarse");
+        assertEquals(100.0, dollars.getBalance(), 0.001, "El destino no debería cambiar");
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.unit.Observer;
+
+import com.example.Observer.model.AccountEvent;
+import com.example.Observer.model.AccountEventKind;
+import com.example.Observer.model.AsyncObserver;
+import com.example.Observer.model.ConcreteSubject;
+import com.example.Observer.model.Observer;
+import com.example.Observer.model.ObserverOverflowPolicy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para AccountEvent
+ * Prueba los datos tipados de cada evento, el texto diferido y la compatibilidad con observadores de texto
+ */
+public class AccountEventUnitTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ConcreteSubject account;
+
+    private static class EventObserver implements Observer {
+        final List<AccountEvent> events = new CopyOnWriteArrayList<>();
+        final List<String> messages = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void update(String message) {
+            messages.add(message);
+        }
+
+        @Override
+        public void update(AccountEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public String getObserverType() {
+            return "EventObserver";
+        }
+    }
+
+    private static class TextObserver implements Observer {
+        final List<String> messages = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void update(String message) {
+            messages.add(message);
+        }
+
+        @Override
+        public String getObserverType() {
+            return "TextObserver";
+        }
+    }
+
+    @BeforeEach
+    public void setUp() {
+        account = new ConcreteSubject("EVT-001", 100.0, "Ahorros");
+    }
+
+    @Test
+    public void testDepositEventCarriesTypedFields() {
+        // Arrange
+        EventObserver observer = new EventObserver();
+        account.attach(observer);
+        long before = System.currentTimeMillis();
+
+        // Act
+        account.deposit(25.5);
+
+        // Assert
+        assertEquals(1, observer.events.size(), "Debería recibirse un evento");
+        assertTrue(observer.messages.isEmpty(), "Un observador tipado no debería recibir texto");
+        AccountEvent event = observer.events.get(0);
+        assertEquals(AccountEventKind.DEPOSIT, event.getKind(), "El tipo debería ser depósito");
+        assertEquals("EVT-001", event.getAccountNumber(), "La cuenta debería identificarse");
+        assertEquals(2550, event.getAmountMinor(), "El importe debería estar en céntimos");
+        assertEquals(12550, event.getNewBalanceMinor(), "El saldo nuevo debería incluir el depósito");
+        assertEquals(account.getCurrency(), event.getAmount().getCurrency(), "El importe debería llevar la moneda de la cuenta");
+        assertTrue(event.getTimestampMillis() >= before, "La marca de tiempo debería ser la del movimiento");
+        assertEquals(1, event.getSequence(), "La secuencia debería empezar en uno");
+    }
+
+    @Test
+    public void testSequenceAdvancesWithoutObservers() {
+        // Arrange
+        EventObserver observer = new EventObserver();
+
+        // Act
+        account.deposit(1.0);
+        account.withdraw(1.0);
+        account.attach(observer);
+        account.deposit(1.0);
+
+        // Assert
+        assertEquals(1, observer.events.size(), "Sin observadores no deberían haberse entregado eventos");
+        assertEquals(3, observer.events.get(0).getSequence(),
+                "La secuencia debería contar todos los movimientos, también los que nadie escuchaba");
+    }
+
+    @Test
+    public void testSequenceFollowsBalanceOrderAcrossThreads() throws InterruptedException {
+        // Arrange - solo depósitos de un céntimo: el saldo de cada evento fija su posición
+        EventObserver observer = new EventObserver();
+        account.attach(observer);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    account.deposit(0.01);
+                }
+            });
+        }
+
+        // Act
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Assert
+        assertEquals(2_000, observer.events.size(), "Cada depósito debería notificarse");
+        for (AccountEvent event : observer.events) {
+            assertEquals(10_000 + event.getSequence(), event.getNewBalanceMinor(),
+                    "La secuencia debería coincidir con el orden en que se aplicaron los saldos");
+        }
+    }
+
+    @Test
+    public void testTextObserversReceiveRenderedMessage() {
+        // Arrange
+        TextObserver observer = new TextObserver();
+        account.attach(observer);
+
+        // Act
+        account.deposit(50.0);
+        account.withdraw(500.0);
+        account.transfer(30.0, "EVT-002");
+        account.updateAccountType("Corriente");
+
+        // Assert
+        assertEquals(List.of(
+                "Depósito: +$50.00 en cuenta EVT-001. Nuevo saldo: $150.00",
+                "Intento de retiro: -$500.00 de cuenta EVT-001. Fondos insuficientes. Saldo actual: $150.00",
+                "Transferencia: -$30.00 de cuenta EVT-001 a cuenta EVT-002. Nuevo saldo: $120.00",
+                "Cambio de tipo de cuenta: EVT-001 de Ahorros a Corriente"),
+                observer.messages, "El texto debería coincidir con el de los avisos anteriores");
+    }
+
+    @Test
+    public void testEventKindsAndDetails() {
+        // Arrange
+        EventObserver observer = new EventObserver();
+        account.attach(observer);
+
+        // Act
+        account.withdraw(500.0);
+        account.withdraw(10.0);
+        account.transfer(20.0, "EVT-002");
+        account.updateAccountType("Nómina");
+
+        // Assert
+        List<AccountEvent> events = observer.events;
+        assertEquals(AccountEventKind.WITHDRAWAL_REJECTED, events.get(0).getKind(), "El retiro sin fondos debería marcarse rechazado");
+        assertEquals(10000, events.get(0).getNewBalanceMinor(), "Un rechazo debería informar el saldo vigente");
+        assertEquals(AccountEventKind.WITHDRAWAL, events.get(1).getKind(), "El retiro debería registrarse");
+        assertEquals(AccountEventKind.TRANSFER, events.get(2).getKind(), "La transferencia debería registrarse");
+        assertEquals("EVT-002", events.get(2).getDestinationAccount(), "La transferencia debería indicar el destino");
+        assertEquals("Ahorros", events.get(3).getPreviousType(), "El cambio de tipo debería indicar el tipo anterior");
+        assertEquals("Nómina", events.get(3).getNewType(), "El cambio de tipo debería indicar el tipo nuevo");
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(i + 1, events.get(i).getSequence(), "La secuencia debería crecer de uno en uno");
+        }
+    }
+
+    @Test
+    public void testCoalescedEventSummarizesMovements() {
+        // Arrange
+        EventObserver observer = new EventObserver();
+        account.attach(observer);
+
+        // Act - depósito de 50, retiro de 20 y un retiro de 1000 que no alcanza
+        account.applyCoalesced(new long[]{5000, -2000, -100000});
+
+        // Assert
+        AccountEvent event = observer.events.get(0);
+        assertEquals(AccountEventKind.COALESCED, event.getKind(), "Debería emitirse un único evento agrupado");
+        assertEquals(1, event.getDepositCount(), "Debería contarse un depósito");
+        assertEquals(1, event.getWithdrawalCount(), "Debería contarse un retiro aplicado");
+        assertEquals(1, event.getRejectedCount(), "Debería contarse un retiro rechazado");
+        assertEquals(3000, event.getAmountMinor(), "El importe debería ser el cambio neto");
+        assertEquals(13000, event.getNewBalanceMinor(), "El saldo nuevo debería ser el final");
+        assertTrue(event.getMessage().contains("1 rechazados por fondos insuficientes"), "El resumen debería mencionar el rechazo");
+    }
+
+    @Test
+    public void testMessageIsRenderedOnce() {
+        // Arrange
+        EventObserver observer = new EventObserver();
+        account.attach(observer);
+        account.deposit(5.0);
+        AccountEvent event = observer.events.get(0);
+
+        // Act
+        String first = event.getMessage();
+        String second = event.getMessage();
+
+        // Assert
+        assertSame(first, second, "El texto debería generarse una sola vez");
+    }
+
+    @Test
+    public void testAsyncSpillKeepsEventsTyped() {
+        // Arrange
+        EventObserver observer = new EventObserver();
+        AsyncObserver async = new AsyncObserver(observer, 1, ObserverOverflowPolicy.SPILL_TO_DISK, tempDir);
+        account.attach(async);
+
+        // Act
+        account.deposit(1.0);
+        account.transfer(2.0, "EVT-003");
+        account.updateAccountType("Corriente");
+        async.start();
+        assertTrue(async.awaitIdle(30, TimeUnit.SECONDS), "La cola debería vaciarse");
+        account.detach(async);
+
+        // Assert
+        assertEquals(2, async.getSpilledCount(), "Dos eventos deberían pasar por disco");
+        assertEquals(3, observer.events.size(), "Deberían recibirse los tres eventos tipados");
+        AccountEvent transfer = observer.events.get(1);
+        assertEquals(AccountEventKind.TRANSFER, transfer.getKind(), "El evento leído de disco debería conservar su tipo");
+        assertEquals("EVT-003", transfer.getDestinationAccount(), "El evento leído de disco debería conservar el destino");
+        assertEquals(200, transfer.getAmountMinor(), "El evento leído de disco debería conservar el importe");
+        assertEquals("Corriente", observer.events.get(2).getNewType(), "El orden debería conservarse");
+    }
+}
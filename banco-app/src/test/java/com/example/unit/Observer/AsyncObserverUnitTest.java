@@ -0,0 +1,386 @@
+package com.example.unit.Observer;
+
+import com.example.Observer.model.AsyncObserver;
+import com.example.Observer.model.ConcreteSubject;
+import com.example.Observer.model.Observer;
+import com.example.Observer.model.ObserverOverflowPolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para AsyncObserver
+ * Prueba la entrega en orden desde la cola propia, las políticas de desborde y las métricas de retraso
+ */
+public class AsyncObserverUnitTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static class RecordingObserver implements Observer {
+        final List<String> received = new CopyOnWriteArrayList<>();
+        final CountDownLatch gate;
+
+        RecordingObserver() {
+            this(new CountDownLatch(0));
+        }
+
+        RecordingObserver(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        @Override
+        public void update(String message) {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(message);
+        }
+
+        @Override
+        public String getObserverType() {
+            return "RecordingObserver";
+        }
+    }
+
+    @Test
+    public void testSlowObserverDoesNotDelayAccount() {
+        // Arrange
+        ConcreteSubject account = new ConcreteSubject("ASYNC-001", 100.0, "Ahorros");
+        CountDownLatch gate = new CountDownLatch(1);
+        RecordingObserver slow = new RecordingObserver(gate);
+        AsyncObserver async = account.attachAsync(slow, 16, ObserverOverflowPolicy.BLOCK);
+
+        // Act
+        account.deposit(50.0);
+        account.withdraw(20.0);
+        int receivedWhileBlocked = slow.received.size();
+        gate.countDown();
+
+        // Assert
+        assertEquals(0, receivedWhileBlocked, "La cuenta no debería esperar al observador lento");
+        assertEquals(130.0, account.getBalance(), 0.001, "Los movimientos deberían aplicarse de inmediato");
+        assertTrue(async.awaitIdle(30, TimeUnit.SECONDS), "La cola debería vaciarse al liberar al observador");
+        assertEquals(2, slow.received.size(), "El observador debería recibir ambos avisos");
+        assertTrue(slow.received.get(0).startsWith("Depósito"), "Los avisos deberían llegar en orden");
+        assertTrue(slow.received.get(1).startsWith("Retiro"), "Los avisos deberían llegar en orden");
+        account.detach(slow);
+    }
+
+    @Test
+    public void testDropOldestKeepsNewestMessages() {
+        // Arrange
+        RecordingObserver observer = new RecordingObserver();
+        AsyncObserver async = new AsyncObserver(observer, 2, ObserverOverflowPolicy.DROP_OLDEST);
+
+        // Act - sin arrancar el hilo la cola se llena
+        for (int i = 1; i <= 5; i++) {
+            async.update("aviso-" + i);
+        }
+        async.start();
+        assertTrue(async.awaitIdle(30, TimeUnit.SECONDS), "La cola debería vaciarse");
+        async.close();
+
+        // Assert
+        assertEquals(List.of("aviso-4", "aviso-5"), observer.received, "Deberían conservarse los avisos más recientes");
+        assertEquals(3, async.getDroppedCount(), "Deberían descartarse los tres más antiguos");
+        assertEquals(2, async.getDeliveredCount(), "Deberían entregarse dos avisos");
+    }
+
+    @Test
+    public void testBlockMakesProducerWait() throws InterruptedException {
+        // Arrange
+        CountDownLatch gate = new CountDownLatch(1);
+        RecordingObserver observer = new RecordingObserver(gate);
+        AsyncObserver async = new AsyncObserver(observer, 1, ObserverOverflowPolicy.BLOCK);
+        async.start();
+        Thread producer = new Thread(() -> {
+            for (int i = 1; i <= 3; i++) {
+                async.update("aviso-" + i);
+            }
+        });
+
+        // Act
+        producer.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (async.getBlockedCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        boolean blocked = producer.isAlive();
+        gate.countDown();
+        producer.join(30_000);
+        assertTrue(async.awaitIdle(30, TimeUnit.SECONDS), "La cola debería vaciarse");
+        async.close();
+
+        // Assert
+        assertTrue(blocked, "El productor debería esperar con la cola llena");
+        assertFalse(producer.isAlive(), "El productor debería terminar al liberarse espacio");
+        assertEquals(List.of("aviso-1", "aviso-2", "aviso-3"), observer.received, "No debería perderse ningún aviso");
+        assertEquals(0, async.getDroppedCount(), "BLOCK no debería descartar avisos");
+    }
+
+    @Test
+    public void testSpillToDiskPreservesOrder() throws IOException {
+        // Arrange
+        RecordingObserver observer = new RecordingObserver();
+        AsyncObserver async = new AsyncObserver(observer, 2, ObserverOverflowPolicy.SPILL_TO_DISK, tempDir);
+
+        // Act
+        for (int i = 1; i <= 10; i++) {
+            async.update("aviso-" + i);
+        }
+        int pending = async.getPendingCount();
+        long spilled = async.getSpilledCount();
+        async.start();
+        assertTrue(async.awaitIdle(30, TimeUnit.SECONDS), "La cola y el disco deberían vaciarse");
+        async.update("aviso-11");
+        async.close();
+
+        // Assert
+        assertEquals(10, pending, "Los avisos en disco deberían contarse como pendientes");
+        assertEquals(8, spilled, "Los avisos que no caben deberían ir a disco");
+        assertEquals(11, observer.received.size(), "Deberían entregarse todos los avisos");
+        for (int i = 0; i < observer.received.size(); i++) {
+            assertEquals("aviso-" + (i + 1), observer.received.get(i), "Los avisos deberían conservar su orden");
+        }
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(0, files.count(), "El archivo de desborde debería borrarse al cerrar");
+        }
+    }
+
+    @Test
+    public void testFailingObserverKeepsReceiving() {
+        // Arrange
+        List<String> received = new CopyOnWriteArrayList<>();
+        Observer flaky = new Observer() {
+            @Override
+            public void update(String message) {
+                if (message.equals("falla")) {
+                    throw new IllegalStateException("error del observador");
+                }
+                received.add(message);
+            }
+
+            @Override
+            public String getObserverType() {
+                return "FlakyObserver";
+            }
+        };
+        AsyncObserver async = new AsyncObserver(flaky, 8, ObserverOverflowPolicy.BLOCK);
+        async.start();
+
+        // Act
+        async.update("falla");
+        async.update("ok");
+        async.close();
+
+        // Assert
+        assertEquals(List.of("ok"), received, "Un fallo no debería detener las entregas siguientes");
+        assertEquals(1, async.getFailedCount(), "Debería registrarse el fallo");
+        assertEquals(2, async.getDeliveredCount(), "Ambos avisos deberían contarse como entregados");
+    }
+
+    @Test
+    public void testErrorInObserverDoesNotStopDelivery() {
+        // Arrange
+        List<String> received = new CopyOnWriteArrayList<>();
+        Observer failing = new Observer() {
+            @Override
+            public void update(String message) {
+                if (message.equals("falla")) {
+                    throw new AssertionError("fallo simulado");
+                }
+                received.add(message);
+            }
+
+            @Override
+            public String getObserverType() {
+                return "FailingObserver";
+            }
+        };
+        AsyncObserver async = new AsyncObserver(failing, 8, ObserverOverflowPolicy.BLOCK);
+        async.start();
+
+        // Act
+        async.update("falla");
+        async.update("ok");
+        async.close();
+
+        // Assert
+        assertEquals(List.of("ok"), received, "Un Error del observador no debería detener el hilo de entrega");
+        assertEquals(1, async.getFailedCount(), "Debería registrarse el fallo");
+    }
+
+    @Test
+    public void testCloseBeforeStartDeliversPending() {
+        // Arrange
+        RecordingObserver observer = new RecordingObserver();
+        AsyncObserver async = new AsyncObserver(observer, 4, ObserverOverflowPolicy.DROP_OLDEST);
+        async.update("aviso-1");
+        async.update("aviso-2");
+
+        // Act
+        async.close();
+
+        // Assert
+        assertEquals(List.of("aviso-1", "aviso-2"), observer.received, "Cerrar sin arrancar debería entregar los pendientes");
+        assertEquals(0, async.getDroppedCount(), "No debería descartarse ningún aviso");
+    }
+
+    @Test
+    public void testBlockBeforeStartDoesNotWaitForever() throws InterruptedException {
+        // Arrange
+        RecordingObserver observer = new RecordingObserver();
+        AsyncObserver async = new AsyncObserver(observer, 1, ObserverOverflowPolicy.BLOCK);
+        Thread producer = new Thread(() -> {
+            for (int i = 1; i <= 3; i++) {
+                async.update("aviso-" + i);
+            }
+        });
+
+        // Act - sin llamar a start la cola llena debería arrancar el hilo de entrega
+        producer.start();
+        producer.join(30_000);
+        assertFalse(producer.isAlive(), "El productor no debería quedarse esperando espacio para siempre");
+        assertTrue(async.awaitIdle(30, TimeUnit.SECONDS), "La cola debería vaciarse");
+        async.close();
+
+        // Assert
+        assertEquals(List.of("aviso-1", "aviso-2", "aviso-3"), observer.received, "No debería perderse ningún aviso");
+    }
+
+    @Test
+    public void testLagMetrics() throws InterruptedException {
+        // Arrange
+        RecordingObserver observer = new RecordingObserver();
+        AsyncObserver async = new AsyncObserver(observer, 4, ObserverOverflowPolicy.BLOCK);
+
+        // Act
+        async.update("aviso-1");
+        Thread.sleep(5);
+        long lagBeforeStart = async.getCurrentLagNanos();
+        async.start();
+        assertTrue(async.awaitIdle(30, TimeUnit.SECONDS), "La cola debería vaciarse");
+
+        // Assert
+        assertTrue(lagBeforeStart >= TimeUnit.MILLISECONDS.toNanos(5), "El retraso debería medir la antigüedad del aviso");
+        assertEquals(0, async.getCurrentLagNanos(), "Sin pendientes no debería haber retraso");
+        assertTrue(async.getMaxLagNanos() >= lagBeforeStart, "El retraso máximo debería incluir la espera en cola");
+        assertTrue(async.getAverageLagNanos() > 0, "El retraso medio debería calcularse");
+        async.close();
+    }
+
+    @Test
+    public void testDetachByOriginalObserverDrainsQueue() {
+        // Arrange
+        ConcreteSubject account = new ConcreteSubject("ASYNC-002", 100.0, "Ahorros");
+        RecordingObserver observer = new RecordingObserver();
+        AsyncObserver async = account.attachAsync(observer, 8, ObserverOverflowPolicy.DROP_OLDEST);
+
+        // Act
+        account.deposit(10.0);
+        account.detach(observer);
+        account.deposit(10.0);
+
+        // Assert
+        assertEquals(0, account.getObserverCount(), "El observador asíncrono debería quitarse");
+        assertEquals(1, observer.received.size(), "Los avisos pendientes deberían entregarse al cerrar");
+        assertEquals(1, async.getDeliveredCount(), "Tras quitarlo no debería recibir más avisos");
+    }
+
+    @Test
+    public void testObserverCanDetachItselfFromItsOwnThread() {
+        // Arrange - el observador se quita desde update, es decir, desde el hilo que vacía su cola
+        ConcreteSubject account = new ConcreteSubject("ASYNC-003", 100.0, "Ahorros");
+        List<String> received = new CopyOnWriteArrayList<>();
+        Observer selfDetaching = new Observer() {
+            @Override
+            public void update(String message) {
+                received.add(message);
+                account.detach(this);
+            }
+
+            @Override
+            public String getObserverType() {
+                return "SelfDetachingObserver";
+            }
+        };
+        AsyncObserver async = account.attachAsync(selfDetaching, 8, ObserverOverflowPolicy.DROP_OLDEST);
+
+        // Act
+        account.deposit(10.0);
+
+        // Assert
+        assertTrue(async.awaitIdle(30, TimeUnit.SECONDS), "El hilo de entrega no debería quedarse esperándose a sí mismo");
+        assertEquals(1, received.size(), "El aviso debería entregarse");
+        assertEquals(0, account.getObserverCount(), "El observador debería quitarse");
+    }
+
+    @Test
+    public void testSpillWriteFailureDropsInsteadOfThrowing() {
+        // Arrange - el directorio de desborde no existe, así que volcar siempre falla
+        ConcreteSubject account = new ConcreteSubject("ASYNC-004", 100.0, "Ahorros");
+        RecordingObserver observer = new RecordingObserver();
+        AsyncObserver async = new AsyncObserver(observer, 1, ObserverOverflowPolicy.SPILL_TO_DISK,
+                tempDir.resolve("no-existe"));
+        account.attach(async);
+
+        // Act
+        account.deposit(1.0);
+        account.deposit(2.0);
+        account.deposit(3.0);
+        async.start();
+        assertTrue(async.awaitIdle(30, TimeUnit.SECONDS), "La cola debería vaciarse");
+        account.detach(async);
+
+        // Assert
+        assertEquals(106.0, account.getBalance(), 0.001, "Un fallo de disco no debería afectar a la cuenta");
+        assertEquals(2, async.getDroppedCount(), "Los avisos que no se pudieron volcar deberían descartarse");
+        assertEquals(2, async.getSpillErrorCount(), "Cada volcado fallido debería contarse");
+        assertEquals(1, observer.received.size(), "El aviso en memoria debería entregarse");
+    }
+
+    @Test
+    public void testCorruptSpillFileDoesNotStopDelivery() throws IOException {
+        // Arrange - dos avisos en disco con la longitud del primero dañada
+        RecordingObserver observer = new RecordingObserver();
+        AsyncObserver async = new AsyncObserver(observer, 1, ObserverOverflowPolicy.SPILL_TO_DISK, tempDir);
+        async.update("aviso-1");
+        async.update("aviso-2");
+        async.update("aviso-3");
+        Path spillFile;
+        try (Stream<Path> files = Files.list(tempDir)) {
+            spillFile = files.findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(spillFile, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, Integer.MAX_VALUE), Long.BYTES + 1);
+        }
+
+        // Act
+        async.start();
+        assertTrue(async.awaitIdle(30, TimeUnit.SECONDS), "La cola debería vaciarse pese al archivo dañado");
+        async.update("aviso-4");
+        assertTrue(async.awaitIdle(30, TimeUnit.SECONDS), "El hilo de entrega debería seguir vivo");
+        async.close();
+
+        // Assert
+        assertEquals(List.of("aviso-1", "aviso-4"), observer.received, "Solo deberían perderse los avisos ilegibles");
+        assertEquals(2, async.getDroppedCount(), "Los avisos del archivo dañado deberían contarse como descartados");
+        assertEquals(1, async.getSpillErrorCount(), "La lectura fallida debería contarse");
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.unit.Observer;
+
+import com.example.Observer.model.AccountEvent;
+import com.example.Observer.model.AccountEventKind;
+import com.example.Observer.model.AmountRange;
+import com.example.Observer.model.ConcreteSubject;
+import com.example.Observer.model.Money;
+import com.example.Observer.model.Observer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para las suscripciones filtradas de Subject
+ * Prueba que cada observador recibe solo los tipos de evento e importes que pidió
+ */
+public class FilteredSubscriptionUnitTest {
+
+    private ConcreteSubject account;
+
+    private static class RecordingObserver implements Observer {
+        final List<AccountEvent> events = new ArrayList<>();
+        int invocations;
+
+        @Override
+        public void update(String message) {
+            invocations++;
+        }
+
+        @Override
+        public void update(AccountEvent event) {
+            invocations++;
+            events.add(event);
+        }
+
+        @Override
+        public String getObserverType() {
+            return "RecordingObserver";
+        }
+    }
+
+    @BeforeEach
+    public void setUp() {
+        account = new ConcreteSubject("FLT-001", 10_000.0, "Ahorros");
+    }
+
+    @Test
+    public void testLargeWithdrawalSubscription() {
+        // Arrange
+        RecordingObserver fraud = new RecordingObserver();
+        account.attach(fraud, AccountEventKind.WITHDRAWAL.bit(), AmountRange.atLeast(Money.of(1_000.0)));
+
+        // Act
+        account.deposit(5_000.0);
+        account.withdraw(50.0);
+        account.withdraw(2_500.0);
+        account.transfer(3_000.0, "FLT-002");
+
+        // Assert
+        assertEquals(1, fraud.invocations, "Solo el retiro grande debería notificarse");
+        assertEquals(250_000, fraud.events.get(0).getAmountMinor(), "Debería recibirse el retiro de 2500");
+    }
+
+    @Test
+    public void testAccountTypeChangeSubscription() {
+        // Arrange
+        RecordingObserver compliance = new RecordingObserver();
+        account.attach(compliance, AccountEventKind.ACCOUNT_TYPE_CHANGED.bit());
+
+        // Act
+        account.deposit(10.0);
+        account.withdraw(10.0);
+        account.updateAccountType("Corriente");
+
+        // Assert
+        assertEquals(1, compliance.invocations, "Solo el cambio de tipo debería notificarse");
+        assertEquals(AccountEventKind.ACCOUNT_TYPE_CHANGED, compliance.events.get(0).getKind(), "El evento debería ser el cambio de tipo");
+        assertEquals(3, compliance.events.get(0).getSequence(),
+                "La secuencia debería contar también los movimientos sin suscriptores interesados");
+    }
+
+    @Test
+    public void testMaskCombinesKinds() {
+        // Arrange
+        RecordingObserver movements = new RecordingObserver();
+        RecordingObserver everything = new RecordingObserver();
+        account.attach(movements, AccountEventKind.mask(AccountEventKind.DEPOSIT, AccountEventKind.TRANSFER));
+        account.attach(everything);
+
+        // Act
+        account.deposit(10.0);
+        account.withdraw(10.0);
+        account.transfer(10.0, "FLT-002");
+        account.updateAccountType("Corriente");
+
+        // Assert
+        assertEquals(2, movements.invocations, "Solo depósitos y transferencias deberían notificarse");
+        assertEquals(AccountEventKind.TRANSFER, movements.events.get(1).getKind(), "El segundo evento debería ser la transferencia");
+        assertEquals(4, everything.invocations, "Un observador sin filtro debería recibir todo");
+        assertEquals(1, account.getObserverCount(AccountEventKind.WITHDRAWAL), "Solo un observador debería indexarse para retiros");
+        assertEquals(2, account.getObserverCount(AccountEventKind.DEPOSIT), "Dos observadores deberían indexarse para depósitos");
+    }
+
+    @Test
+    public void testAmountRangeBounds() {
+        // Arrange
+        RecordingObserver midRange = new RecordingObserver();
+        account.attach(midRange, AccountEventKind.DEPOSIT.bit(), AmountRange.between(Money.of(100.0), Money.of(200.0)));
+
+        // Act
+        account.deposit(99.99);
+        account.deposit(100.0);
+        account.deposit(200.0);
+        account.deposit(200.01);
+
+        // Assert
+        assertEquals(2, midRange.invocations, "El rango debería incluir ambos extremos y nada más");
+    }
+
+    @Test
+    public void testUninterestedObserversAreNeverInvoked() {
+        // Arrange
+        List<RecordingObserver> uninterested = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            RecordingObserver observer = new RecordingObserver();
+            uninterested.add(observer);
+            account.attach(observer, AccountEventKind.COALESCED.bit());
+        }
+        RecordingObserver interested = new RecordingObserver();
+        account.attach(interested, AccountEventKind.DEPOSIT.bit());
+
+        // Act
+        account.deposit(1.0);
+
+        // Assert
+        assertEquals(1, interested.invocations, "El observador interesado debería notificarse");
+        for (RecordingObserver observer : uninterested) {
+            assertEquals(0, observer.invocations, "Los observadores no interesados no deberían invocarse");
+        }
+    }
+
+    @Test
+    public void testDetachRemovesFromIndex() {
+        // Arrange
+        RecordingObserver observer = new RecordingObserver();
+        account.attach(observer, AccountEventKind.DEPOSIT.bit());
+
+        // Act
+        account.detach(observer);
+        account.deposit(1.0);
+
+        // Assert
+        assertEquals(0, observer.invocations, "Tras quitarlo no debería recibir eventos");
+        assertFalse(account.hasObservers(AccountEventKind.DEPOSIT), "El índice de depósitos debería quedar vacío");
+    }
+
+    @Test
+    public void testCoalescedBatchReachesMovementSubscriptions() {
+        // Arrange - balance inicial 10000: depósitos de 50 y 500, retiro de 20 y un retiro de 50000 sin fondos
+        RecordingObserver largeDeposits = new RecordingObserver();
+        account.attach(largeDeposits, AccountEventKind.DEPOSIT.bit(), AmountRange.atLeast(Money.of(100.0)));
+        RecordingObserver rejections = new RecordingObserver();
+        account.attach(rejections, AccountEventKind.WITHDRAWAL_REJECTED.bit());
+        RecordingObserver everything = new RecordingObserver();
+        account.attach(everything);
+
+        // Act
+        account.applyCoalesced(new long[]{5_000, -2_000, 50_000, -5_000_000});
+
+        // Assert
+        assertEquals(1, largeDeposits.invocations, "Solo el depósito dentro del rango debería notificarse");
+        assertEquals(AccountEventKind.DEPOSIT, largeDeposits.events.get(0).getKind(), "Debería recibirse como depósito");
+        assertEquals(50_000, largeDeposits.events.get(0).getAmountMinor(), "Debería recibirse el depósito de 500");
+        assertEquals(1_053_000, largeDeposits.events.get(0).getNewBalanceMinor(), "El saldo debería ser el de ese movimiento");
+        assertEquals(1, rejections.invocations, "El retiro rechazado del lote debería notificarse");
+        assertEquals(5_000_000, rejections.events.get(0).getAmountMinor(), "Debería recibirse el importe rechazado");
+        assertEquals(1, everything.invocations, "Quien pide también COALESCED debería recibir solo el resumen");
+        assertEquals(AccountEventKind.COALESCED, everything.events.get(0).getKind(), "El resumen debería ser COALESCED");
+        assertEquals(everything.events.get(0).getSequence(), rejections.events.get(0).getSequence(),
+                "Los movimientos sueltos deberían llevar la secuencia del lote");
+    }
+
+    @Test
+    public void testAmountRangeKeepsCurrency() {
+        // Arrange
+        RecordingObserver observer = new RecordingObserver();
+        AmountRange dollars = AmountRange.atLeast(Money.of(100.0, "USD"));
+
+        // Act & Assert
+        assertEquals("USD", dollars.getCurrency(), "El rango debería conservar la moneda de su límite");
+        assertThrows(IllegalArgumentException.class,
+                () -> account.attach(observer, AccountEventKind.DEPOSIT.bit(), dollars),
+                "Un rango en otra moneda debería rechazarse");
+        assertThrows(IllegalArgumentException.class,
+                () -> AmountRange.between(Money.of(1.0), Money.of(10.0, "USD")),
+                "Un rango con límites en monedas distintas debería rechazarse");
+        assertEquals(0, account.getObserverCount(), "No debería registrarse la suscripción rechazada");
+    }
+
+    @Test
+    public void testInvalidSubscriptions() {
+        // Arrange
+        RecordingObserver observer = new RecordingObserver();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> account.attach(observer, 0),
+                "Una máscara vacía debería rechazarse");
+        assertThrows(IllegalArgumentException.class,
+                () -> AmountRange.between(Money.of(10.0), Money.of(1.0)), "Un rango invertido debería rechazarse");
+        assertEquals(0, account.getObserverCount(), "No debería registrarse ninguna suscripción inválida");
+    }
+}
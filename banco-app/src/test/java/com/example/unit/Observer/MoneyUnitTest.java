@@ -0,0 +1,90 @@
+package com.example.unit.Observer;
+
+import com.example.Observer.model.ConcreteSubject;
+import com.example.Observer.model.Money;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para Money
+ * Verifica la aritmética en centavos y su uso en los saldos de ConcreteSubject
+ */
+public class MoneyUnitTest {
+
+    @Test
+    public void testConversionRedondeaACentavos() {
+        // Act
+        Money amount = Money.of(0.1 + 0.2);
+
+        // Assert
+        assertEquals(30, amount.getMinorUnits(), "0.1 + 0.2 debería guardarse como 30 centavos");
+        assertEquals("0.30", amount.toString(), "El formato debería tener dos decimales");
+    }
+
+    @Test
+    public void testFormatoConNegativosYCentavosBajos() {
+        // Assert
+        assertEquals("1234.05", Money.format(123405), "Debería rellenar los centavos con cero");
+        assertEquals("-0.50", Money.format(-50), "Debería conservar el signo");
+        assertEquals("0.00", Money.format(0), "Cero debería formatearse como 0.00");
+    }
+
+    @Test
+    public void testSumaYRestaExactas() {
+        // Arrange
+        Money balance = Money.zero(Money.DEFAULT_CURRENCY);
+
+        // Act
+        for (int i = 0; i < 1000; i++) {
+            balance = balance.plus(Money.of(0.01));
+        }
+
+        // Assert
+        assertEquals(Money.of(10.0), balance, "Mil depósitos de un centavo deberían sumar exactamente 10.00");
+        assertTrue(balance.minus(Money.of(10.0)).isZero(), "La resta debería ser exacta");
+    }
+
+    @Test
+    public void testMonedasDistintasNoSeMezclan() {
+        // Arrange
+        Money pesos = Money.of(10.0, "COP");
+        Money dollars = Money.of(10.0, "USD");
+
+        // Assert
+        assertThrows(IllegalArgumentException.class, () -> pesos.plus(dollars),
+                "No debería sumar montos de monedas distintas");
+        assertNotEquals(pesos, dollars, "Montos de monedas distintas no deberían ser iguales");
+    }
+
+    @Test
+    public void testCodigoDeMonedaInvalido() {
+        assertThrows(IllegalArgumentException.class, () -> Money.ofMinor(100, "PESOS"),
+                "Debería rechazar códigos de moneda que no tengan tres letras");
+    }
+
+    @Test
+    public void testSaldoDeCuentaSinErrorDeRedondeo() {
+        // Arrange
+        ConcreteSubject account = new ConcreteSubject("ACC-1", 0.0, "Ahorros");
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            account.deposit(0.1);
+        }
+
+        // Assert
+        assertEquals(100, account.getBalanceMinor(), "Diez depósitos de 0.10 deberían sumar 100 centavos");
+        assertEquals(Money.of(1.0), account.getBalanceMoney(), "El saldo debería ser exactamente 1.00");
+    }
+
+    @Test
+    public void testCuentaRechazaOtraMoneda() {
+        // Arrange
+        ConcreteSubject account = new ConcreteSubject("ACC-1", Money.of(50.0, "USD"), "Ahorros");
+
+        // Assert
+        assertThrows(IllegalArgumentException.class, () -> account.deposit(Money.of(10.0, "COP")),
+                "La cuenta no debería aceptar depósitos en otra moneda");
+        assertEquals("USD", account.getCurrency(), "La moneda de la cuenta debería conservarse");
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.unit.Observer;
+
+import com.example.Observer.model.ConcreteSubject;
+import com.example.Observer.model.Observer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para el registro de observadores de Subject
+ * Prueba que la notificación es segura mientras otros hilos registran y quitan observadores
+ */
+public class SubjectUnitTest {
+
+    private PrintStream originalOut;
+    private ConcreteSubject account;
+
+    private static class CountingObserver implements Observer {
+        final AtomicLong count = new AtomicLong();
+
+        @Override
+        public void update(String message) {
+            count.incrementAndGet();
+        }
+
+        @Override
+        public String getObserverType() {
+            return "CountingObserver";
+        }
+    }
+
+    @BeforeEach
+    public void setUp() {
+        // attach y detach escriben en consola; se silencia para las pruebas con muchas altas y bajas
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        account = new ConcreteSubject("SUBJ-001", 1_000_000.0, "Ahorros");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Test
+    public void testAttachAndDetach() {
+        // Arrange
+        CountingObserver first = new CountingObserver();
+        CountingObserver second = new CountingObserver();
+        account.attach(first);
+        account.attach(second);
+
+        // Act
+        account.deposit(1.0);
+        account.detach(first);
+        account.detach(first);
+        account.deposit(1.0);
+
+        // Assert
+        assertEquals(1, account.getObserverCount(), "Debería quedar un observador");
+        assertEquals(1, first.count.get(), "El observador quitado no debería recibir más avisos");
+        assertEquals(2, second.count.get(), "El observador restante debería recibir ambos avisos");
+    }
+
+    @Test
+    public void testObserverCanDetachItselfDuringNotification() {
+        // Arrange
+        CountingObserver other = new CountingObserver();
+        Observer selfRemoving = new Observer() {
+            @Override
+            public void update(String message) {
+                account.detach(this);
+            }
+
+            @Override
+            public String getObserverType() {
+                return "SelfRemovingObserver";
+            }
+        };
+        account.attach(selfRemoving);
+        account.attach(other);
+
+        // Act
+        account.deposit(1.0);
+        account.deposit(1.0);
+
+        // Assert
+        assertEquals(1, account.getObserverCount(), "El observador debería haberse quitado a sí mismo");
+        assertEquals(2, other.count.get(), "Los demás observadores deberían seguir notificándose");
+    }
+
+    @Test
+    public void testNotificationIsSafeUnderConcurrentChurn() throws InterruptedException {
+        // Arrange
+        CountingObserver stable = new CountingObserver();
+        account.attach(stable);
+        int rounds = 5_000;
+        int churners = 4;
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < churners; t++) {
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < rounds; i++) {
+                        CountingObserver churned = new CountingObserver();
+                        account.attach(churned);
+                        account.detach(churned);
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }));
+        }
+        Thread notifier = new Thread(() -> {
+            try {
+                start.await();
+                for (int i = 0; i < rounds; i++) {
+                    account.deposit(1.0);
+                }
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            }
+        });
+        threads.add(notifier);
+
+        // Act
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join(30_000);
+            assertFalse(thread.isAlive(), "Los hilos deberían terminar");
+        }
+
+        // Assert
+        assertNull(failure.get(), "No debería producirse ninguna excepción durante las altas y bajas");
+        assertEquals(1, account.getObserverCount(), "Solo debería quedar el observador estable");
+        assertEquals(rounds, stable.count.get(), "El observador estable debería recibir todos los avisos");
+    }
+}